@@ -0,0 +1,60 @@
+package fr.hardcoding.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the Bluesky post payload building on short and long multi-byte texts.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BlueskyPayloadBenchmark {
+    private static final String POST = """
+            🎯 JEP 470 proposed to target JDK 25
+            Title: PEM Encodings of Cryptographic Objects (Preview)
+            Type: feature
+            Component: security / security
+            Release: 25
+            See openjdk.org/jeps/470
+            """;
+
+    @Param({"short", "long"})
+    String length;
+
+    private BlueskyService service;
+    private String text;
+
+    @Setup
+    public void setUp() {
+        this.service = new BlueskyService(null);
+        this.service.handle = "jeptracker.bsky.social";
+        // A long text repeats the post, with one link and several emojis each time
+        this.text = this.length.equals("short") ? POST : POST.repeat(50);
+    }
+
+    @Benchmark
+    public byte[] createPostRequest() {
+        return this.service.createPostRequest(this.text);
+    }
+
+    @Benchmark
+    public List<BlueskyJson.Facet> findFacets() {
+        return this.service.findFacets(this.text);
+    }
+}
@@ -0,0 +1,52 @@
+package fr.hardcoding.service;
+
+import fr.hardcoding.model.Jep;
+import fr.hardcoding.model.JepState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static fr.hardcoding.model.JepType.FEATURE;
+
+/**
+ * Benchmarks the update message formatting for each JEP state.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FormatBenchmark {
+    @Param
+    JepState state;
+
+    private Jep jep;
+
+    @Setup
+    public void setUp() {
+        this.jep = new Jep();
+        this.jep.type = FEATURE;
+        this.jep.state = this.state;
+        this.jep.release = "26";
+        this.jep.component = "security";
+        this.jep.subComponent = "javax.net.ssl";
+        this.jep.number = "527";
+        this.jep.title = "Post-Quantum Hybrid Key Exchange for TLS 1.3";
+    }
+
+    @Benchmark
+    public String formatJepUpdate() {
+        return JepService.formatJepUpdate(this.jep);
+    }
+}
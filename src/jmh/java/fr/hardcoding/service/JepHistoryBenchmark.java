@@ -0,0 +1,65 @@
+package fr.hardcoding.service;
+
+import fr.hardcoding.model.JepTransition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks rebuilding the state of all JEPs near the end of a history of synthetic transitions,
+ * replaying the whole history or only the transitions since the latest snapshot.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@State(Scope.Benchmark)
+public class JepHistoryBenchmark {
+    @Param({"1000000"})
+    int transitions;
+    @Param({"10000"})
+    int snapshotInterval;
+
+    private List<JepTransition> history;
+    private int replayEnd;
+    private int snapshotEnd;
+    private byte[] snapshot;
+
+    @Setup
+    public void setUp() {
+        this.history = JepStateTableTest.generateTransitions(this.transitions, 5000, new Random(42));
+        // Rebuild the state in between two snapshots, the worst case for the snapshot replay
+        this.replayEnd = this.transitions - this.snapshotInterval / 2;
+        this.snapshotEnd = this.replayEnd / this.snapshotInterval * this.snapshotInterval;
+        JepStateTable table = JepStateTable.empty();
+        table.applyAll(this.history.subList(0, this.snapshotEnd));
+        this.snapshot = table.encode();
+    }
+
+    @Benchmark
+    public JepStateTable fullReplay() {
+        JepStateTable table = JepStateTable.empty();
+        table.applyAll(this.history.subList(0, this.replayEnd));
+        return table;
+    }
+
+    @Benchmark
+    public JepStateTable snapshotReplay() {
+        JepStateTable table = JepStateTable.decode(this.snapshot);
+        table.applyAll(this.history.subList(this.snapshotEnd, this.replayEnd));
+        return table;
+    }
+}
@@ -0,0 +1,63 @@
+package fr.hardcoding.service;
+
+import fr.hardcoding.model.Jep;
+import org.jsoup.Jsoup;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+
+/**
+ * Benchmarks the JEP 0 page parsers on the sample page and on generated pages.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JepParserBenchmark {
+    @Param({"sample", "500", "5000", "50000"})
+    String page;
+
+    private String html;
+
+    @Setup
+    public void setUp() throws IOException {
+        if (this.page.equals("sample")) {
+            try (InputStream input = Objects.requireNonNull(getClass().getResourceAsStream("/sample.html"), "Missing sample page")) {
+                this.html = new String(input.readAllBytes(), ISO_8859_1);
+            }
+        } else {
+            int rows = Integer.parseInt(this.page);
+            this.html = StreamingJepParserTest.generatePage(rows, new Random(rows));
+        }
+    }
+
+    @Benchmark
+    public List<Jep> dom() {
+        return JepService.parseJeps(Jsoup.parse(this.html));
+    }
+
+    @Benchmark
+    public List<Jep> streaming() throws IOException {
+        return StreamingJepParser.parseJeps(new StringReader(this.html));
+    }
+}
@@ -0,0 +1,93 @@
+package fr.hardcoding.service;
+
+import fr.hardcoding.model.Jep;
+import fr.hardcoding.model.JepState;
+import fr.hardcoding.service.JepCatalog.JepView;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the search index on generated JEPs, sampling the latency of term and facet queries to read their
+ * percentiles, and the incremental update of a few changed JEPs.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JepSearchBenchmark {
+    private static final JepSearchIndex.Query TERMS = new JepSearchIndex.Query("vector AND incubator", null, null, null, null, null);
+    private static final JepSearchIndex.Query FACETS = new JepSearchIndex.Query(null, null, JepState.TARGETED, "26", "hotspot", "gc");
+    private static final JepSearchIndex.Query MIXED = new JepSearchIndex.Query("api OR process -roadmap", null, JepState.CANDIDATE, null, "core", null);
+
+    @Param({"100000"})
+    int jeps;
+
+    private JepSearchIndex index;
+    private List<JepView> views;
+    private List<JepView> changedViews;
+
+    @Setup
+    public void setUp() throws IOException {
+        String html = StreamingJepParserTest.generatePage(this.jeps, new Random(this.jeps));
+        this.views = new ArrayList<>(this.jeps);
+        for (Jep jep : StreamingJepParser.parseJeps(new StringReader(html))) {
+            this.views.add(JepView.of(jep));
+        }
+        this.views.sort(JepCatalog.BY_NUMBER);
+        this.index = JepSearchIndex.build(this.views);
+        // A typical check, a few JEPs targeted
+        this.changedViews = new ArrayList<>(this.views);
+        for (int i = 0; i < 5; i++) {
+            JepView jep = this.changedViews.get(i * 1000);
+            this.changedViews.set(i * 1000, new JepView(jep.number(), jep.type(), JepState.TARGETED.name(), "26",
+                    jep.component(), jep.subComponent(), jep.title()));
+        }
+    }
+
+    @Benchmark
+    public List<JepView> terms() {
+        return this.index.search(TERMS, 100);
+    }
+
+    @Benchmark
+    public List<JepView> facets() {
+        return this.index.search(FACETS, 100);
+    }
+
+    @Benchmark
+    public List<JepView> mixed() {
+        return this.index.search(MIXED, 100);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public JepSearchIndex update() {
+        return this.index.update(this.changedViews);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public JepSearchIndex rebuild() {
+        return JepSearchIndex.build(this.changedViews);
+    }
+}
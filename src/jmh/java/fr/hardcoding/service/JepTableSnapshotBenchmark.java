@@ -0,0 +1,117 @@
+package fr.hardcoding.service;
+
+import fr.hardcoding.model.Jep;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+
+/**
+ * Benchmarks the time to the first diff after a restart, loading the known rows from a fresh H2 connection or
+ * mapping the JEP table snapshot, then parsing the unchanged sample page against them.
+ * The Hibernate boot the snapshot also spares the first check is not part of the measure.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JepTableSnapshotBenchmark {
+    private Path directory;
+    private String url;
+    private Path snapshot;
+    private Document page;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        String html;
+        try (InputStream input = Objects.requireNonNull(getClass().getResourceAsStream("/sample.html"), "Missing sample page")) {
+            html = new String(input.readAllBytes(), ISO_8859_1);
+        }
+        this.page = Jsoup.parse(html);
+        List<Jep> jeps = JepService.parseJeps(this.page).stream()
+                .filter(jep -> jep.number != null)
+                .collect(Collectors.toMap(jep -> jep.number, jep -> jep, (first, second) -> second))
+                .values().stream().toList();
+        this.directory = Files.createTempDirectory("jep-snapshot-benchmark");
+        this.snapshot = this.directory.resolve("jeps.snapshot");
+        JepTableSnapshot.write(this.snapshot, jeps);
+        this.url = "jdbc:h2:" + this.directory.resolve("jeps").toAbsolutePath();
+        try (Connection connection = DriverManager.getConnection(this.url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("create table jeps (id bigint primary key, number varchar(255), title varchar(255), fingerprint bigint)");
+            try (PreparedStatement insert = connection.prepareStatement("insert into jeps values (?, ?, ?, ?)")) {
+                long id = 0;
+                for (Jep jep : jeps) {
+                    insert.setLong(1, id++);
+                    insert.setString(2, jep.number);
+                    insert.setString(3, jep.title);
+                    insert.setLong(4, jep.fingerprint);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(this.directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<Jep> database() throws SQLException {
+        Set<Long> fingerprints = new HashSet<>();
+        // A new connection opens the database file, as on the first check after a restart
+        try (Connection connection = DriverManager.getConnection(this.url, "sa", "");
+             Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("select fingerprint from jeps where fingerprint is not null")) {
+            while (result.next()) {
+                fingerprints.add(result.getLong(1));
+            }
+        }
+        return JepService.parseJeps(this.page, fingerprint -> !fingerprints.contains(fingerprint), number -> {});
+    }
+
+    @Benchmark
+    public List<Jep> snapshot() throws IOException {
+        JepTableSnapshot table = JepTableSnapshot.open(this.snapshot);
+        return JepService.parseJeps(this.page, fingerprint -> !table.containsFingerprint(fingerprint), number -> {});
+    }
+}
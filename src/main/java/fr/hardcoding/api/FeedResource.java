@@ -0,0 +1,48 @@
+package fr.hardcoding.api;
+
+import fr.hardcoding.service.AtomFeedSink;
+import fr.hardcoding.service.JepCatalog;
+import io.smallrye.common.annotation.NonBlocking;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Atom feed of the JEP updates, served from memory by the {@link AtomFeedSink}.
+ */
+@Path("/feed.atom")
+@Produces(FeedResource.ATOM_XML)
+@NonBlocking
+public class FeedResource {
+    static final String ATOM_XML = "application/atom+xml";
+    private static final CacheControl REVALIDATE = CacheControl.valueOf("no-cache");
+
+    private final AtomFeedSink sink;
+
+    public FeedResource(AtomFeedSink sink) {
+        this.sink = sink;
+    }
+
+    @GET
+    public Response feed(@Context Request request) {
+        if (!this.sink.enabled()) {
+            throw new NotFoundException("Atom feed disabled");
+        }
+        JepCatalog.Representation representation = this.sink.feed();
+        EntityTag etag = new EntityTag(representation.etag());
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(etag);
+        if (notModified != null) {
+            return notModified.cacheControl(REVALIDATE).build();
+        }
+        return Response.ok(representation.body())
+                .tag(etag)
+                .cacheControl(REVALIDATE)
+                .build();
+    }
+}
@@ -0,0 +1,90 @@
+package fr.hardcoding.api;
+
+import fr.hardcoding.model.JepState;
+import fr.hardcoding.model.JepType;
+import fr.hardcoding.service.JepCatalog;
+import fr.hardcoding.service.JepSearchIndex;
+import io.smallrye.common.annotation.NonBlocking;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+
+import static jakarta.ws.rs.core.MediaType.APPLICATION_JSON;
+
+/**
+ * Read-only API over the tracked JEPs.
+ * <p>
+ * Responses are served from the in-memory {@link JepCatalog} on the I/O threads. Each one carries a strong ETag,
+ * and requests with a matching {@code If-None-Match} header are answered with {@code 304 Not Modified}.
+ */
+@Path("/jeps")
+@Produces(APPLICATION_JSON)
+@NonBlocking
+public class JepResource {
+    private static final CacheControl REVALIDATE = CacheControl.valueOf("no-cache");
+
+    private final JepCatalog catalog;
+
+    public JepResource(JepCatalog catalog) {
+        this.catalog = catalog;
+    }
+
+    @GET
+    public Response list(@QueryParam("state") JepState state, @QueryParam("release") String release, @Context Request request) {
+        return respond(this.catalog.snapshot().query(state, release), request);
+    }
+
+    /**
+     * Searches the JEPs by title terms, like {@code vector AND preview} or {@code gc OR zgc -generational}, and facets.
+     * A {@code component/subComponent} value like {@code hotspot/gc} filters on both.
+     */
+    @GET
+    @Path("search")
+    public Response search(@QueryParam("q") String text, @QueryParam("type") JepType type,
+                           @QueryParam("state") JepState state, @QueryParam("release") String release,
+                           @QueryParam("component") String component, @QueryParam("subComponent") String subComponent,
+                           @QueryParam("limit") @DefaultValue("100") int limit, @Context Request request) {
+        if (limit < 1) {
+            throw new BadRequestException("Invalid limit " + limit);
+        }
+        if (component != null && subComponent == null && component.indexOf('/') > 0) {
+            int separator = component.indexOf('/');
+            subComponent = component.substring(separator + 1);
+            component = component.substring(0, separator);
+        }
+        JepSearchIndex.Query query = new JepSearchIndex.Query(text, type, state, release, component, subComponent);
+        return respond(this.catalog.snapshot().search(query, limit), request);
+    }
+
+    @GET
+    @Path("{number}")
+    public Response get(@PathParam("number") String number, @Context Request request) {
+        JepCatalog.Representation representation = this.catalog.snapshot().jep(number);
+        if (representation == null) {
+            throw new NotFoundException("Unknown JEP " + number);
+        }
+        return respond(representation, request);
+    }
+
+    private static Response respond(JepCatalog.Representation representation, Request request) {
+        EntityTag etag = new EntityTag(representation.etag());
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(etag);
+        if (notModified != null) {
+            return notModified.cacheControl(REVALIDATE).build();
+        }
+        return Response.ok(representation.body())
+                .tag(etag)
+                .cacheControl(REVALIDATE)
+                .build();
+    }
+}
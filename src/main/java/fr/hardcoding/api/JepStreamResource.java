@@ -0,0 +1,82 @@
+package fr.hardcoding.api;
+
+import fr.hardcoding.service.JepChangeStream;
+import io.smallrye.common.annotation.NonBlocking;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.ServiceUnavailableException;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Server-Sent Events stream of the JEP transitions, as {@code transition} events identified by the {@code id} of
+ * their transition.
+ * <p>
+ * A client reconnecting with the {@code Last-Event-ID} header of its last event, to any instance, is sent the events
+ * it missed, up to the buffer size of the {@link JepChangeStream}. Idle clients are sent heartbeat comments, to
+ * unsubscribe the disconnected ones.
+ */
+@Path("/jeps/stream")
+@NonBlocking
+public class JepStreamResource {
+    static final String EVENT_NAME = "transition";
+    private static final String HEARTBEAT = "heartbeat";
+
+    private final JepChangeStream stream;
+
+    public JepStreamResource(JepChangeStream stream) {
+        this.stream = stream;
+    }
+
+    @GET
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    public void stream(@HeaderParam("Last-Event-ID") String lastEventId, @Context SseEventSink sink, @Context Sse sse) {
+        JepChangeStream.Subscriber subscriber = this.stream.subscribe(parseEventId(lastEventId), new JepChangeStream.Sink() {
+            @Override
+            public CompletionStage<?> send(JepChangeStream.ChangeEvent event) {
+                OutboundSseEvent sseEvent = sse.newEventBuilder()
+                        .id(Long.toString(event.id()))
+                        .name(EVENT_NAME)
+                        .data(event.json())
+                        .build();
+                return sink.send(sseEvent);
+            }
+
+            @Override
+            public CompletionStage<?> heartbeat() {
+                if (sink.isClosed()) {
+                    return CompletableFuture.failedFuture(new IllegalStateException("Closed"));
+                }
+                return sink.send(sse.newEventBuilder().comment(HEARTBEAT).build());
+            }
+
+            @Override
+            public void close(String reason) {
+                sink.close();
+            }
+        });
+        if (subscriber == null) {
+            throw new ServiceUnavailableException("Too many change stream subscribers");
+        }
+    }
+
+    static Long parseEventId(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid event id " + lastEventId);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package fr.hardcoding.api;
+
+import fr.hardcoding.service.JepChangeStream;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.ServerWebSocket;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * WebSocket stream of the JEP transitions on {@code /jeps/stream/ws}, one JSON text message per transition, with
+ * the id of its transition as {@code id}.
+ * <p>
+ * A client reconnecting with the {@code lastEventId} query parameter, or the {@code Last-Event-ID} header, of its
+ * last event is sent the events it missed, up to the buffer size of the {@link JepChangeStream}.
+ */
+@ApplicationScoped
+public class JepStreamSocket {
+    static final String PATH = "/jeps/stream/ws";
+    // Close codes of RFC 6455
+    private static final short POLICY_VIOLATION = 1008;
+    private static final short TRY_AGAIN_LATER = 1013;
+
+    private final JepChangeStream stream;
+
+    public JepStreamSocket(JepChangeStream stream) {
+        this.stream = stream;
+    }
+
+    void init(@Observes Router router) {
+        router.get(PATH).handler(this::upgrade);
+    }
+
+    private void upgrade(RoutingContext context) {
+        Long lastEventId;
+        try {
+            String value = context.queryParams().get("lastEventId");
+            lastEventId = JepStreamResource.parseEventId(value == null ? context.request().getHeader("Last-Event-ID") : value);
+        } catch (RuntimeException e) {
+            context.response().setStatusCode(400).end(e.getMessage());
+            return;
+        }
+        context.request().toWebSocket()
+                .onSuccess(socket -> subscribe(socket, lastEventId))
+                .onFailure(context::fail);
+    }
+
+    private void subscribe(ServerWebSocket socket, Long lastEventId) {
+        JepChangeStream.Subscriber subscriber = this.stream.subscribe(lastEventId, new JepChangeStream.Sink() {
+            @Override
+            public CompletionStage<?> send(JepChangeStream.ChangeEvent event) {
+                return socket.writeTextMessage(event.json()).toCompletionStage();
+            }
+
+            @Override
+            public CompletionStage<?> heartbeat() {
+                return socket.writePing(Buffer.buffer()).toCompletionStage();
+            }
+
+            @Override
+            public void close(String reason) {
+                socket.close(POLICY_VIOLATION, reason);
+            }
+        });
+        if (subscriber == null) {
+            socket.close(TRY_AGAIN_LATER, "Too many change stream subscribers");
+            return;
+        }
+        socket.closeHandler(ignored -> subscriber.unsubscribe());
+    }
+}
@@ -5,6 +5,13 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Table;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 @Entity
 @Table(name = "jeps")
 public class Jep extends PanacheEntity {
@@ -16,11 +23,47 @@ public class Jep extends PanacheEntity {
     @Column(unique = true)
     public String number;
     public String title;
+    /**
+     * The fingerprint of the JEP 0 table row the JEP was last parsed from.
+     */
+    public Long fingerprint;
 
     public static Jep findByNumber(String number) {
         return find("number", number).firstResult();
     }
 
+    public static Map<String, Jep> indexByNumber() {
+        List<Jep> jeps = listAll();
+        Map<String, Jep> index = HashMap.newHashMap(jeps.size());
+        for (Jep jep : jeps) {
+            index.put(jep.number, jep);
+        }
+        return index;
+    }
+
+    /**
+     * Indexes the known JEPs among some numbers.
+     *
+     * @param numbers The JEP numbers
+     * @return The known JEPs by number
+     */
+    public static Map<String, Jep> indexByNumber(Collection<String> numbers) {
+        Map<String, Jep> index = HashMap.newHashMap(numbers.size());
+        if (numbers.isEmpty()) {
+            return index;
+        }
+        for (Jep jep : Jep.<Jep>list("number in ?1", numbers)) {
+            index.put(jep.number, jep);
+        }
+        return index;
+    }
+
+    public static Set<Long> fingerprints() {
+        return new HashSet<>(getEntityManager()
+                .createQuery("select fingerprint from Jep where fingerprint is not null", Long.class)
+                .getResultList());
+    }
+
     @Override
     public String toString() {
         return "Jep{" +
@@ -0,0 +1,49 @@
+package fr.hardcoding.model;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+
+/**
+ * A compacted snapshot of the state of all JEPs, as of all the transitions that occurred until its time.
+ */
+@Entity
+@Table(name = "jep_snapshots", indexes = @Index(name = "jep_snapshots_time", columnList = "takenAt"))
+public class JepSnapshot extends PanacheEntity {
+    public Instant takenAt;
+    public int jepCount;
+    @Column(length = 1_000_000)
+    public byte[] data;
+
+    public static JepSnapshot create(Instant takenAt, int jepCount, byte[] data) {
+        JepSnapshot snapshot = new JepSnapshot();
+        snapshot.takenAt = takenAt;
+        snapshot.jepCount = jepCount;
+        snapshot.data = data;
+        return snapshot;
+    }
+
+    /**
+     * Finds the latest snapshot taken at or before an instant.
+     *
+     * @param instant The instant
+     * @return The snapshot, {@code null} if none
+     */
+    public static JepSnapshot findLatest(Instant instant) {
+        return find("takenAt <= ?1 order by takenAt desc", instant).firstResult();
+    }
+
+    @Override
+    public String toString() {
+        return "JepSnapshot{" +
+                "id=" + this.id +
+                ", takenAt=" + this.takenAt +
+                ", jepCount=" + this.jepCount +
+                ", size=" + this.data.length +
+                '}';
+    }
+}
@@ -0,0 +1,118 @@
+package fr.hardcoding.model;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A JEP state transition. Transitions are only appended, never updated.
+ */
+@Entity
+@Table(name = "jep_transitions", indexes = {
+        @Index(name = "jep_transitions_jep", columnList = "jepNumber, occurredAt"),
+        @Index(name = "jep_transitions_time", columnList = "occurredAt")
+})
+public class JepTransition extends PanacheEntity {
+    public String jepNumber;
+    /**
+     * The previous state, {@code null} for a new JEP.
+     */
+    public JepState fromState;
+    /**
+     * The new state, {@code null} for a JEP removed from the JEP 0 page.
+     */
+    public JepState toState;
+    public String release;
+    public Instant occurredAt;
+
+    public static JepTransition create(Jep jep, JepState fromState, Instant occurredAt) {
+        JepTransition transition = new JepTransition();
+        transition.jepNumber = jep.number;
+        transition.fromState = fromState;
+        transition.toState = jep.state;
+        transition.release = jep.release;
+        transition.occurredAt = occurredAt;
+        return transition;
+    }
+
+    public static JepTransition removed(Jep jep, Instant occurredAt) {
+        JepTransition transition = new JepTransition();
+        transition.jepNumber = jep.number;
+        transition.fromState = jep.state;
+        transition.release = jep.release;
+        transition.occurredAt = occurredAt;
+        return transition;
+    }
+
+    public static List<JepTransition> findByJep(String jepNumber) {
+        return list("jepNumber = ?1 order by occurredAt, id", jepNumber);
+    }
+
+    /**
+     * Finds the transitions of a time range, in order.
+     *
+     * @param after The range start, exclusive, {@code null} for the first transition
+     * @param until The range end, inclusive
+     * @return The transitions of the range
+     */
+    public static List<JepTransition> findBetween(Instant after, Instant until) {
+        if (after == null) {
+            return list("occurredAt <= ?1 order by occurredAt, id", until);
+        }
+        return list("occurredAt > ?1 and occurredAt <= ?2 order by occurredAt, id", after, until);
+    }
+
+    /**
+     * Finds the transitions committed after a transition, in order.
+     *
+     * @param id The id of the transition, exclusive
+     * @return The later transitions
+     */
+    public static List<JepTransition> findAfter(long id) {
+        return list("id > ?1 order by id", id);
+    }
+
+    /**
+     * Finds the latest transitions between two transitions, in order.
+     *
+     * @param afterId  The id of the first transition, exclusive
+     * @param beforeId The id of the last transition, exclusive
+     * @param limit    The maximum number of transitions
+     * @return The latest transitions of the range, at most {@code limit}
+     */
+    public static List<JepTransition> findLatest(long afterId, long beforeId, int limit) {
+        List<JepTransition> transitions = new ArrayList<>(find("id > ?1 and id < ?2 order by id desc", afterId, beforeId)
+                .page(0, limit)
+                .list());
+        Collections.reverse(transitions);
+        return transitions;
+    }
+
+    /**
+     * Gets the id of the latest transition.
+     *
+     * @return The latest transition id, {@code 0} if none
+     */
+    public static long latestId() {
+        return getEntityManager()
+                .createQuery("select coalesce(max(t.id), 0) from JepTransition t", Long.class)
+                .getSingleResult();
+    }
+
+    @Override
+    public String toString() {
+        return "JepTransition{" +
+                "jepNumber='" + this.jepNumber + '\'' +
+                ", fromState=" + this.fromState +
+                ", toState=" + this.toState +
+                ", release='" + this.release + '\'' +
+                ", occurredAt=" + this.occurredAt +
+                '}';
+    }
+}
@@ -0,0 +1,208 @@
+package fr.hardcoding.model;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A post of a JEP update to a sink. Each update is formatted once and queued once per sink, so each sink keeps its
+ * own delivery state. Posts of a thread reference their root and parent posts of the same sink, and are only
+ * published once their parent is.
+ */
+@Entity
+@Table(name = "outbox", indexes = @Index(name = "outbox_sink_pending", columnList = "sink, postedAt, nextAttemptAt"))
+public class OutboxPost extends PanacheEntity {
+    /**
+     * The name of the sink to post to.
+     */
+    public String sink;
+    public String jepNumber;
+    public JepState state;
+    /**
+     * The release the JEPs were targeted to, {@code null} if not targeted.
+     */
+    public String release;
+    /**
+     * The position of the post in its thread, from {@code 0} for the root, {@code null} if the post is not in a
+     * thread.
+     */
+    public Integer position;
+    @Column(length = 3000)
+    public String text;
+    public Instant createdAt;
+    /**
+     * The id of the thread root post, {@code null} if the post is not a reply.
+     */
+    public Long rootId;
+    /**
+     * The id of the post replied to, {@code null} if the post is not a reply.
+     */
+    public Long parentId;
+    /**
+     * The reference of the published post on its sink, used to reply to it.
+     */
+    @Column(length = 512)
+    public String ref;
+    public int attempts;
+    public Instant nextAttemptAt;
+    public Instant postedAt;
+
+    public static OutboxPost create(Jep jep, String text, String sink, Instant now) {
+        OutboxPost post = new OutboxPost();
+        post.sink = sink;
+        post.jepNumber = jep.number;
+        post.state = jep.state;
+        post.release = jep.release;
+        post.text = text;
+        post.createdAt = now;
+        post.nextAttemptAt = now;
+        return post;
+    }
+
+    /**
+     * Creates the root post of a thread about many JEPs.
+     *
+     * @param state   The state the JEPs changed to
+     * @param release The release the JEPs were targeted to, {@code null} if not targeted
+     * @param text    The post text
+     * @param sink    The sink name
+     * @param now     The current instant
+     * @return The thread root post, with no JEP number
+     */
+    public static OutboxPost createThread(JepState state, String release, String text, String sink, Instant now) {
+        OutboxPost post = new OutboxPost();
+        post.sink = sink;
+        post.state = state;
+        post.release = release;
+        post.position = 0;
+        post.text = text;
+        post.createdAt = now;
+        post.nextAttemptAt = now;
+        return post;
+    }
+
+    /**
+     * Creates a reply to a post, in the same sink.
+     *
+     * @param parent The post replied to, already persisted
+     * @param text   The reply text
+     * @return The reply
+     */
+    public static OutboxPost reply(OutboxPost parent, String text) {
+        OutboxPost post = new OutboxPost();
+        post.sink = parent.sink;
+        post.jepNumber = parent.jepNumber;
+        post.state = parent.state;
+        post.release = parent.release;
+        post.position = parent.position == null ? null : parent.position + 1;
+        post.text = text;
+        post.createdAt = parent.createdAt;
+        post.nextAttemptAt = parent.nextAttemptAt;
+        post.rootId = parent.rootId == null ? parent.id : parent.rootId;
+        post.parentId = parent.id;
+        return post;
+    }
+
+    /**
+     * Finds the posts of a sink to publish, replies being only pending once their parent was published.
+     *
+     * @param sink        The sink name
+     * @param now         The current instant
+     * @param maxAttempts The maximum number of attempts
+     * @param limit       The maximum number of posts
+     * @return The pending posts, in order
+     */
+    public static List<OutboxPost> findPending(String sink, Instant now, int maxAttempts, int limit) {
+        return find("from OutboxPost o where o.sink = ?1 and o.postedAt is null and o.nextAttemptAt <= ?2 and o.attempts < ?3 " +
+                        "and (o.parentId is null or exists (select 1 from OutboxPost p where p.id = o.parentId and p.postedAt is not null)) " +
+                        "order by o.id",
+                sink, now, maxAttempts)
+                .page(0, limit)
+                .list();
+    }
+
+    /**
+     * Finds the reference of a published post.
+     *
+     * @param id The post id
+     * @return The post reference, {@code null} if unknown or not published
+     */
+    public static String findRef(long id) {
+        return getEntityManager()
+                .createQuery("select ref from OutboxPost where id = ?1", String.class)
+                .setParameter(1, id)
+                .getResultStream()
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Finds the latest posts of a sink.
+     *
+     * @param sink  The sink name
+     * @param limit The maximum number of posts
+     * @return The latest posts, most recent first
+     */
+    public static List<OutboxPost> findPosted(String sink, int limit) {
+        return find("sink = ?1 and postedAt is not null order by id desc", sink)
+                .page(0, limit)
+                .list();
+    }
+
+    /**
+     * Assigns the posts queued before the sinks were introduced to a sink.
+     *
+     * @param sink The sink name
+     * @return The number of assigned posts
+     */
+    public static int assignLegacy(String sink) {
+        return update("sink = ?1 where sink is null", sink);
+    }
+
+    /**
+     * Records an attempt to publish a post before publishing it, with the instant of the next attempt in case it
+     * fails. The attempt outlives a failure to record its outcome, or a restart.
+     *
+     * @param id            The post id
+     * @param nextAttemptAt The instant of the next attempt
+     * @return Whether the post is still to publish
+     */
+    public static boolean markAttempted(long id, Instant nextAttemptAt) {
+        return update("attempts = attempts + 1, nextAttemptAt = ?1 where id = ?2 and postedAt is null", nextAttemptAt, id) > 0;
+    }
+
+    public static void markPosted(long id, Instant now, String ref) {
+        update("postedAt = ?1, ref = ?2 where id = ?3", now, ref, id);
+    }
+
+    /**
+     * Gives up the later replies of a thread, as replies are chained after the post given up.
+     *
+     * @param post        The post given up
+     * @param maxAttempts The maximum number of attempts
+     * @return The number of replies given up
+     */
+    public static int abandonReplies(OutboxPost post, int maxAttempts) {
+        long rootId = post.rootId == null ? post.id : post.rootId;
+        return update("attempts = ?1 where rootId = ?2 and id > ?3 and postedAt is null", maxAttempts, rootId, post.id);
+    }
+
+    @Override
+    public String toString() {
+        return "OutboxPost{" +
+                "id=" + this.id +
+                ", sink='" + this.sink + '\'' +
+                ", jepNumber='" + this.jepNumber + '\'' +
+                ", state=" + this.state +
+                ", parentId=" + this.parentId +
+                ", attempts=" + this.attempts +
+                ", nextAttemptAt=" + this.nextAttemptAt +
+                ", postedAt=" + this.postedAt +
+                '}';
+    }
+}
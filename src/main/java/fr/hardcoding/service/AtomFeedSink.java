@@ -0,0 +1,151 @@
+package fr.hardcoding.service;
+
+import fr.hardcoding.model.OutboxPost;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.ByteArrayOutputStream;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Publishes the JEP updates as an Atom feed, served from memory.
+ * <p>
+ * The feed keeps the latest entries only, and is rebuilt from the posted outbox entries on startup. It is
+ * rendered once per change, with a strong ETag.
+ */
+@ApplicationScoped
+public class AtomFeedSink implements PostSink {
+    public static final String NAME = "atom";
+    private static final String ATOM_NS = "http://www.w3.org/2005/Atom";
+    private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newFactory();
+
+    @ConfigProperty(name = "sinks.atom.enabled", defaultValue = "true")
+    boolean enabled;
+    @ConfigProperty(name = "sinks.atom.size", defaultValue = "50")
+    int size;
+    @ConfigProperty(name = "sinks.atom.title", defaultValue = "JEP Tracker")
+    String title;
+    @ConfigProperty(name = "sinks.atom.id", defaultValue = "urn:jep-tracker:feed")
+    String id;
+
+    private final Deque<Entry> entries = new ArrayDeque<>();
+    private volatile JepCatalog.Representation feed;
+
+    void onStart(@Observes StartupEvent event) {
+        if (this.enabled) {
+            List<OutboxPost> posts = QuarkusTransaction.requiringNew().call(() -> OutboxPost.findPosted(NAME, this.size));
+            // Most recent first, add the oldest first
+            for (OutboxPost post : posts.reversed()) {
+                add(post);
+            }
+        }
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public boolean enabled() {
+        return this.enabled;
+    }
+
+    @Override
+    public String publish(OutboxPost post, ReplyTo replyTo) {
+        Entry entry = add(post);
+        return this.id + ":" + entry.id();
+    }
+
+    private Entry add(OutboxPost post) {
+        Entry entry = Entry.of(post);
+        synchronized (this.entries) {
+            this.entries.addFirst(entry);
+            while (this.entries.size() > this.size) {
+                this.entries.removeLast();
+            }
+            this.feed = null;
+        }
+        return entry;
+    }
+
+    /**
+     * Gets the feed.
+     *
+     * @return The Atom feed representation
+     */
+    public JepCatalog.Representation feed() {
+        JepCatalog.Representation current = this.feed;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this.entries) {
+            if (this.feed == null) {
+                this.feed = JepCatalog.Representation.of(write(List.copyOf(this.entries)));
+            }
+            return this.feed;
+        }
+    }
+
+    private byte[] write(List<Entry> entries) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(1024 + entries.size() * 512);
+        try {
+            XMLStreamWriter writer = OUTPUT_FACTORY.createXMLStreamWriter(output, "UTF-8");
+            writer.writeStartDocument("UTF-8", "1.0");
+            writer.writeStartElement("feed");
+            writer.writeDefaultNamespace(ATOM_NS);
+            writeElement(writer, "id", this.id);
+            writeElement(writer, "title", this.title);
+            Instant updated = entries.isEmpty() ? Instant.EPOCH : entries.getFirst().updated();
+            writeElement(writer, "updated", updated.toString());
+            writer.writeStartElement("author");
+            writeElement(writer, "name", this.title);
+            writer.writeEndElement();
+            for (Entry entry : entries) {
+                writer.writeStartElement("entry");
+                writeElement(writer, "id", this.id + ":" + entry.id());
+                writeElement(writer, "title", entry.title());
+                writeElement(writer, "updated", entry.updated().toString());
+                writer.writeEmptyElement("link");
+                writer.writeAttribute("href", entry.link());
+                writer.writeStartElement("content");
+                writer.writeAttribute("type", "text");
+                writer.writeCharacters(entry.text());
+                writer.writeEndElement();
+                writer.writeEndElement();
+            }
+            writer.writeEndElement();
+            writer.writeEndDocument();
+            writer.close();
+        } catch (XMLStreamException e) {
+            throw new IllegalStateException("Failed to write Atom feed", e);
+        }
+        return output.toByteArray();
+    }
+
+    private static void writeElement(XMLStreamWriter writer, String name, String value) throws XMLStreamException {
+        writer.writeStartElement(name);
+        writer.writeCharacters(value);
+        writer.writeEndElement();
+    }
+
+    private record Entry(long id, String title, String text, String link, Instant updated) {
+        static Entry of(OutboxPost post) {
+            String text = post.text;
+            int lineEnd = text.indexOf('\n');
+            String title = lineEnd < 0 ? text : text.substring(0, lineEnd);
+            Instant updated = post.createdAt == null ? Instant.EPOCH : post.createdAt;
+            String link = "https://openjdk.org/jeps/" + (post.jepNumber == null ? "0" : post.jepNumber);
+            return new Entry(post.id == null ? 0 : post.id, title, text, link, updated);
+        }
+    }
+}
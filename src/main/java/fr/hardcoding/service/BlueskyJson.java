@@ -0,0 +1,292 @@
+package fr.hardcoding.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.JsonRecyclerPools;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Bluesky API payloads, written and read with the Jackson streaming API.
+ * <p>
+ * Payloads are written straight to a pre-sized buffer and responses are read field by field, without any
+ * intermediate tree or data binding. The generator and parser buffers are recycled through a shared pool that
+ * also works from virtual threads.
+ */
+final class BlueskyJson {
+    private static final JsonFactory FACTORY = JsonFactory.builder()
+            .recyclerPool(JsonRecyclerPools.sharedConcurrentDequePool())
+            .build();
+    static final String POST_COLLECTION = "app.bsky.feed.post";
+
+    private BlueskyJson() {
+    }
+
+    record Post(String text, Instant createdAt, List<String> langs, List<Facet> facets, Reply reply) {
+        Post(String text, Instant createdAt, List<String> langs, List<Facet> facets) {
+            this(text, createdAt, langs, facets, null);
+        }
+    }
+
+    /**
+     * A strong reference to a record, pinning its content by CID.
+     */
+    record StrongRef(String uri, String cid) {
+    }
+
+    /**
+     * The thread root and parent posts of a reply.
+     */
+    record Reply(StrongRef root, StrongRef parent) {
+    }
+
+    record Facet(int byteStart, int byteEnd, Feature feature) {
+    }
+
+    sealed interface Feature permits Link, Tag, Mention {
+    }
+
+    record Link(String uri) implements Feature {
+    }
+
+    record Tag(String tag) implements Feature {
+    }
+
+    record Mention(String did) implements Feature {
+    }
+
+    record Session(String accessJwt, String refreshJwt, String did) {
+    }
+
+    record XrpcError(String error, String message) {
+    }
+
+    static byte[] writeCreateRecord(String repo, Post post) {
+        return writeCreateRecord(repo, null, post);
+    }
+
+    /**
+     * Writes a {@code com.atproto.repo.createRecord} request for a post.
+     *
+     * @param repo The repository handle or DID
+     * @param rkey The record key, {@code null} to let the server generate one
+     * @param post The post to create
+     * @return The request payload
+     */
+    static byte[] writeCreateRecord(String repo, String rkey, Post post) {
+        // Most texts are ASCII with a few emojis, facets take about 150 bytes each
+        ByteArrayOutputStream output = new ByteArrayOutputStream(256 + post.text().length() * 2 + post.facets().size() * 160);
+        try (JsonGenerator generator = FACTORY.createGenerator(output)) {
+            generator.writeStartObject();
+            generator.writeStringField("repo", repo);
+            generator.writeStringField("collection", POST_COLLECTION);
+            if (rkey != null) {
+                generator.writeStringField("rkey", rkey);
+            }
+            generator.writeFieldName("record");
+            writePost(generator, post);
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write post", e);
+        }
+        return output.toByteArray();
+    }
+
+    private static void writePost(JsonGenerator generator, Post post) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("$type", POST_COLLECTION);
+        generator.writeStringField("text", post.text());
+        generator.writeStringField("createdAt", post.createdAt().toString());
+        generator.writeArrayFieldStart("langs");
+        for (String lang : post.langs()) {
+            generator.writeString(lang);
+        }
+        generator.writeEndArray();
+        if (!post.facets().isEmpty()) {
+            generator.writeArrayFieldStart("facets");
+            for (Facet facet : post.facets()) {
+                writeFacet(generator, facet);
+            }
+            generator.writeEndArray();
+        }
+        if (post.reply() != null) {
+            generator.writeObjectFieldStart("reply");
+            writeStrongRef(generator, "root", post.reply().root());
+            writeStrongRef(generator, "parent", post.reply().parent());
+            generator.writeEndObject();
+        }
+        generator.writeEndObject();
+    }
+
+    private static void writeStrongRef(JsonGenerator generator, String name, StrongRef ref) throws IOException {
+        generator.writeObjectFieldStart(name);
+        generator.writeStringField("uri", ref.uri());
+        generator.writeStringField("cid", ref.cid());
+        generator.writeEndObject();
+    }
+
+    private static void writeFacet(JsonGenerator generator, Facet facet) throws IOException {
+        generator.writeStartObject();
+        generator.writeObjectFieldStart("index");
+        generator.writeNumberField("byteStart", facet.byteStart());
+        generator.writeNumberField("byteEnd", facet.byteEnd());
+        generator.writeEndObject();
+        generator.writeArrayFieldStart("features");
+        generator.writeStartObject();
+        switch (facet.feature()) {
+            case Link link -> {
+                generator.writeStringField("$type", "app.bsky.richtext.facet#link");
+                generator.writeStringField("uri", link.uri());
+            }
+            case Tag tag -> {
+                generator.writeStringField("$type", "app.bsky.richtext.facet#tag");
+                generator.writeStringField("tag", tag.tag());
+            }
+            case Mention mention -> {
+                generator.writeStringField("$type", "app.bsky.richtext.facet#mention");
+                generator.writeStringField("did", mention.did());
+            }
+        }
+        generator.writeEndObject();
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    /**
+     * Writes a {@code com.atproto.server.createSession} request.
+     *
+     * @param identifier The account handle
+     * @param password   The account app password
+     * @return The request payload
+     */
+    static byte[] writeCreateSession(String identifier, String password) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(64 + identifier.length() + password.length());
+        try (JsonGenerator generator = FACTORY.createGenerator(output)) {
+            generator.writeStartObject();
+            generator.writeStringField("identifier", identifier);
+            generator.writeStringField("password", password);
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write session request", e);
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * Reads a {@code com.atproto.server.createSession} or {@code refreshSession} response.
+     *
+     * @param json The response body
+     * @return The session, with {@code null} values for missing fields
+     */
+    static Session readSession(String json) {
+        String[] values = readStringFields(json, "accessJwt", "refreshJwt", "did");
+        return new Session(values[0], values[1], values[2]);
+    }
+
+    /**
+     * Reads the reference of the record created by a {@code com.atproto.repo.createRecord} response.
+     *
+     * @param json The response body
+     * @return The record reference, with {@code null} values for missing fields
+     */
+    static StrongRef readStrongRef(String json) {
+        String[] values = readStringFields(json, "uri", "cid");
+        return new StrongRef(values[0], values[1]);
+    }
+
+    /**
+     * Reads the DID of a {@code com.atproto.identity.resolveHandle} response.
+     *
+     * @param json The response body
+     * @return The DID, {@code null} if missing
+     */
+    static String readDid(String json) {
+        return readStringFields(json, "did")[0];
+    }
+
+    /**
+     * Reads an XRPC error response.
+     *
+     * @param json The response body
+     * @return The error, with {@code null} values for missing fields or if the body is not a JSON object
+     */
+    static XrpcError readError(String json) {
+        try {
+            String[] values = readStringFields(json, "error", "message");
+            return new XrpcError(values[0], values[1]);
+        } catch (UncheckedIOException e) {
+            return new XrpcError(null, null);
+        }
+    }
+
+    /**
+     * Reads the expiry of a JWT from its {@code exp} claim, without verifying the token.
+     *
+     * @param jwt The JWT
+     * @return The expiry as epoch seconds, {@code -1} if it cannot be read
+     */
+    static long readJwtExpiry(String jwt) {
+        int payloadStart = jwt.indexOf('.') + 1;
+        int payloadEnd = jwt.indexOf('.', payloadStart);
+        if (payloadStart == 0 || payloadEnd < 0) {
+            return -1;
+        }
+        try (JsonParser parser = FACTORY.createParser(Base64.getUrlDecoder().decode(jwt.substring(payloadStart, payloadEnd)))) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return -1;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (name.equals("exp") && value.isNumeric()) {
+                    return parser.getLongValue();
+                }
+                parser.skipChildren();
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            return -1;
+        }
+        return -1;
+    }
+
+    /**
+     * Reads top-level string fields of a JSON object, skipping all the other values.
+     */
+    private static String[] readStringFields(String json, String... names) {
+        String[] values = new String[names.length];
+        try (JsonParser parser = FACTORY.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                int index = indexOf(names, name);
+                if (index >= 0 && value == JsonToken.VALUE_STRING) {
+                    values[index] = parser.getText();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read response", e);
+        }
+        return values;
+    }
+
+    private static int indexOf(String[] names, String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -1,32 +1,55 @@
 package fr.hardcoding.service;
 
+import io.opentelemetry.instrumentation.annotations.WithSpan;
 import jakarta.enterprise.context.ApplicationScoped;
-import jakarta.ws.rs.client.Client;
-import jakarta.ws.rs.client.ClientBuilder;
-import jakarta.ws.rs.client.Entity;
-import jakarta.ws.rs.core.Response;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicReference;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
-import static jakarta.ws.rs.core.MediaType.APPLICATION_JSON;
-import static jakarta.ws.rs.core.Response.Status.OK;
 import static java.nio.charset.StandardCharsets.UTF_8;
 
+/**
+ * Posts to Bluesky accounts. The default account is configured by the {@code bluesky.handle} and
+ * {@code bluesky.app-password} properties, and each additional {@link Account} keeps its own session.
+ */
 @ApplicationScoped
 public class BlueskyService {
     private static final Logger LOG = LoggerFactory.getLogger(BlueskyService.class);
-    private static final String BLUESKY_API_URL = "https://bsky.social/xrpc/com.atproto.repo.createRecord";
-    private static final String BLUESKY_AUTH_URL = "https://bsky.social/xrpc/com.atproto.server.createSession";
-    private static final Pattern OPENJDK_LINK_PATTERN = Pattern.compile("openjdk\\.org/jeps/(\\d+)");
+    private static final String ENDPOINT = "bluesky";
+    private static final String APPLICATION_JSON = "application/json";
+    private static final int OK = 200;
+    private static final int SERVER_ERROR = 500;
+    private static final String CREATE_RECORD_PATH = "/xrpc/com.atproto.repo.createRecord";
+    private static final String GET_RECORD_PATH = "/xrpc/com.atproto.repo.getRecord";
+    private static final String CREATE_SESSION_PATH = "/xrpc/com.atproto.server.createSession";
+    private static final String REFRESH_SESSION_PATH = "/xrpc/com.atproto.server.refreshSession";
+    private static final String RESOLVE_HANDLE_PATH = "/xrpc/com.atproto.identity.resolveHandle";
+    // Renew sessions ahead of their expiry to avoid posting with a token about to expire
+    private static final Duration RENEW_AHEAD = Duration.ofMinutes(5);
+    // Fallback token lifetime when the JWT has no readable expiry
+    private static final Duration DEFAULT_TOKEN_LIFETIME = Duration.ofMinutes(30);
+    // Handles failing to resolve are retried after a while, they may have been created or the server may have failed
+    private static final Duration UNRESOLVED_HANDLE_LIFETIME = Duration.ofMinutes(10);
+    private static final int MAX_POST_ATTEMPTS = 2;
+    private static final List<String> LANGS = List.of("en-US");
 
+    @ConfigProperty(name = "bluesky.url", defaultValue = "https://bsky.social")
+    String url;
     @ConfigProperty(name = "bluesky.mock", defaultValue = "false")
     boolean mock;
     @ConfigProperty(name = "bluesky.handle")
@@ -34,186 +57,354 @@ public class BlueskyService {
     @ConfigProperty(name = "bluesky.app-password")
     String appPassword;
 
-    private final Client client;
-    private final AtomicReference<String> authToken = new AtomicReference<>();
-    private final AtomicReference<Instant> tokenExpiry = new AtomicReference<>();
+    private volatile Account defaultAccount;
+    private final AtomicLong mockPosts = new AtomicLong();
+    private final Map<String, ResolvedHandle> resolvedHandles = new ConcurrentHashMap<>();
+    private final HttpClients httpClients;
 
-    public BlueskyService() {
-        this.client = ClientBuilder.newClient();
+    public BlueskyService(HttpClients httpClients) {
+        this.httpClients = httpClients;
     }
 
     public boolean postUpdate(String text) {
+        return postUpdate(text, null) != null;
+    }
+
+    /**
+     * Posts an update to the default account, as a reply if part of a thread.
+     *
+     * @param text  The post text
+     * @param reply The thread root and parent posts, {@code null} if the post is not a reply
+     * @return The reference of the created post, {@code null} if it failed
+     */
+    public BlueskyJson.StrongRef postUpdate(String text, BlueskyJson.Reply reply) {
+        return postUpdate(defaultAccount(), text, reply, null);
+    }
+
+    /**
+     * Posts an update to an account, as a reply if part of a thread.
+     * <p>
+     * With a record key, posting is idempotent: the server rejects a second record with the same key, so an update
+     * posted again after a lost response or a crash is found by its key instead of being duplicated.
+     *
+     * @param account The account to post to
+     * @param text    The post text
+     * @param reply   The thread root and parent posts, {@code null} if the post is not a reply
+     * @param rkey    The record key of the post, {@code null} to let the server generate one
+     * @return The reference of the created or already existing post, {@code null} if it failed
+     */
+    @WithSpan
+    public BlueskyJson.StrongRef postUpdate(Account account, String text, BlueskyJson.Reply reply, String rkey) {
         if (this.mock) {
-            LOG.info("Mock posting to Bluesky: {}", text);
-            return true;
+            LOG.info("Mock posting to Bluesky as {}: {}", account.handle, text);
+            String id = rkey == null ? Long.toString(this.mockPosts.incrementAndGet()) : rkey;
+            return new BlueskyJson.StrongRef("at://did:plc:mock/app.bsky.feed.post/" + id, "mock" + id);
         } else {
             LOG.debug("Posting {}", text);
         }
         try {
-            String token = getAuthToken();
-            String payload = createPostRequest(text);
-            try (Response response = this.client.target(BLUESKY_API_URL)
-                    .request(APPLICATION_JSON)
-                    .header("Authorization", "Bearer " + token)
-                    .post(Entity.json(payload))) {
-                if (response.getStatus() != OK.getStatusCode()) {
-                    String responseString = response.readEntity(String.class);
-                    if (responseString.contains("error") && responseString.contains("ExpiredToken")) {
-                        LOG.debug("Token expired, retrying");
-                        this.authToken.set(null);
-                        this.tokenExpiry.set(null);
-                        return postUpdate(text);
+            byte[] payload = createPostRequest(account, text, reply, rkey);
+            for (int attempt = 1; attempt <= MAX_POST_ATTEMPTS; attempt++) {
+                String token = getAuthToken(account);
+                HttpResponse<byte[]> response = send(post(CREATE_RECORD_PATH, payload)
+                        .header("Authorization", "Bearer " + token));
+                String responseString = new String(response.body(), UTF_8);
+                if (response.statusCode() == OK) {
+                    return BlueskyJson.readStrongRef(responseString);
+                }
+                if ("ExpiredToken".equals(BlueskyJson.readError(responseString).error())) {
+                    LOG.debug("Token expired, renewing session (attempt {})", attempt);
+                    expireSession(account, token);
+                    continue;
+                }
+                if (rkey != null && response.statusCode() < SERVER_ERROR) {
+                    // Likely already created by a previous attempt, whose response was lost
+                    String existing = getRecord(account, rkey);
+                    if (existing != null) {
+                        BlueskyJson.StrongRef ref = BlueskyJson.readStrongRef(existing);
+                        LOG.info("Post {} already exists, not posting it again", ref.uri());
+                        return ref;
                     }
-                    LOG.error("Failed to post to Bluesky: {} from payload {}", responseString, payload);
-                    return false;
                 }
+                LOG.error("Failed to post to Bluesky as {}: {} from payload {}", account.handle, responseString, new String(payload, UTF_8));
+                return null;
             }
-            return true;
+            LOG.error("Failed to post to Bluesky: token still expired after {} attempts", MAX_POST_ATTEMPTS);
+            return null;
         } catch (Exception e) {
             LOG.error("Error posting to Bluesky", e);
-            return false;
+            return null;
         }
     }
 
-    private String getAuthToken() {
-        // Check if we have a valid token
-        Instant now = Instant.now();
-        if (this.authToken.get() != null && this.tokenExpiry.get() != null && now.isBefore(this.tokenExpiry.get())) {
-            return authToken.get();
-        }
-        // Create authentication request
-        String authRequest = String.format("""
-                {
-                    "identifier": "%s",
-                    "password": "%s"
-                }""", this.handle, this.appPassword);
-        try (Response response = this.client.target(BLUESKY_AUTH_URL)
-                .request(APPLICATION_JSON)
-                .post(Entity.json(authRequest))) {
-            if (response.getStatus() == OK.getStatusCode()) {
-                String responseBody = response.readEntity(String.class);
-                // Extract accessJwt from response
-                String accessJwt = extractAccessJwt(responseBody);
-                if (accessJwt != null) {
-                    // Store token and set expiry to 24 hours from now
-                    this.authToken.set(accessJwt);
-                    this.tokenExpiry.set(now.plusSeconds(24 * 60 * 60));
-                    return accessJwt;
+    /**
+     * Gets a post record by its key.
+     *
+     * @param account The account of the post
+     * @param rkey    The record key
+     * @return The {@code com.atproto.repo.getRecord} response, {@code null} if not found
+     */
+    private String getRecord(Account account, String rkey) throws IOException {
+        HttpResponse<byte[]> response = send(HttpRequest.newBuilder(URI.create(this.url + GET_RECORD_PATH
+                        + "?repo=" + URLEncoder.encode(account.handle, UTF_8)
+                        + "&collection=" + BlueskyJson.POST_COLLECTION
+                        + "&rkey=" + URLEncoder.encode(rkey, UTF_8)))
+                .header("Accept", APPLICATION_JSON)
+                .GET());
+        return response.statusCode() == OK ? new String(response.body(), UTF_8) : null;
+    }
+
+    /**
+     * Gets the default account, configured by the {@code bluesky.*} properties.
+     *
+     * @return The default account
+     */
+    Account defaultAccount() {
+        Account account = this.defaultAccount;
+        if (account == null) {
+            synchronized (this) {
+                account = this.defaultAccount;
+                if (account == null) {
+                    account = new Account(this.handle, this.appPassword);
+                    this.defaultAccount = account;
                 }
             }
-            LOG.error("Failed to authenticate with Bluesky: {}", response.readEntity(String.class));
-            throw new RuntimeException("Failed to authenticate with Bluesky");
-        } catch (Exception e) {
-            LOG.error("Error during Bluesky authentication", e);
+        }
+        return account;
+    }
+
+    String getAuthToken() {
+        return getAuthToken(defaultAccount());
+    }
+
+    /**
+     * Gets a valid access token of an account, renewing its session ahead of its expiry.
+     * <p>
+     * Only one caller renews the session at a time, other callers wait for its result.
+     * The session is refreshed with its refresh token when possible, and only recreated from the app password
+     * when the refresh token expired or was rejected.
+     *
+     * @param account The account
+     * @return A valid access token
+     */
+    String getAuthToken(Account account) {
+        Session current = account.session;
+        if (current != null && current.isAccessValid(Instant.now())) {
+            return current.accessJwt;
+        }
+        account.sessionLock.lock();
+        try {
+            // The session might have been renewed while waiting for the lock
+            Instant now = Instant.now();
+            current = account.session;
+            if (current != null && current.isAccessValid(now)) {
+                return current.accessJwt;
+            }
+            Session renewed = null;
+            if (current != null && current.isRefreshValid(now)) {
+                renewed = refreshSession(account, current);
+            }
+            if (renewed == null) {
+                renewed = createSession(account);
+            }
+            account.session = renewed;
+            return renewed.accessJwt;
+        } finally {
+            account.sessionLock.unlock();
+        }
+    }
+
+    private static void expireSession(Account account, String accessJwt) {
+        account.sessionLock.lock();
+        try {
+            Session current = account.session;
+            // Keep the refresh token, unless the session was already renewed by another caller
+            if (current != null && current.accessJwt.equals(accessJwt)) {
+                account.session = new Session(current.accessJwt, Instant.EPOCH, current.refreshJwt, current.refreshExpiry);
+            }
+        } finally {
+            account.sessionLock.unlock();
+        }
+    }
+
+    private Session createSession(Account account) {
+        LOG.debug("Creating Bluesky session for {}", account.handle);
+        account.sessionCreations.incrementAndGet();
+        byte[] authRequest = BlueskyJson.writeCreateSession(account.handle, account.appPassword);
+        HttpResponse<byte[]> response;
+        try {
+            response = send(post(CREATE_SESSION_PATH, authRequest));
+        } catch (IOException e) {
+            LOG.error("Error during Bluesky authentication as {}", account.handle, e);
             throw new RuntimeException("Error during Bluesky authentication", e);
         }
+        String responseBody = new String(response.body(), UTF_8);
+        if (response.statusCode() == OK) {
+            Session session = Session.of(BlueskyJson.readSession(responseBody));
+            if (session != null) {
+                return session;
+            }
+        }
+        LOG.error("Failed to authenticate with Bluesky as {}: {}", account.handle, responseBody);
+        throw new RuntimeException("Failed to authenticate with Bluesky");
     }
 
-    private String extractAccessJwt(String responseBody) {
-        // Simple JSON parsing to extract accessJwt
-        // In a production environment, you should use proper JSON parsing
-        int startIndex = responseBody.indexOf("\"accessJwt\":\"") + 13;
-        if (startIndex > 13) {
-            int endIndex = responseBody.indexOf("\"", startIndex);
-            if (endIndex > startIndex) {
-                return responseBody.substring(startIndex, endIndex);
+    private Session refreshSession(Account account, Session current) {
+        LOG.debug("Refreshing Bluesky session for {}", account.handle);
+        account.sessionRefreshes.incrementAndGet();
+        try {
+            HttpResponse<byte[]> response = send(post(REFRESH_SESSION_PATH, new byte[0])
+                    .header("Authorization", "Bearer " + current.refreshJwt));
+            String responseBody = new String(response.body(), UTF_8);
+            if (response.statusCode() == OK) {
+                Session session = Session.of(BlueskyJson.readSession(responseBody));
+                if (session != null) {
+                    return session;
+                }
             }
+            LOG.warn("Failed to refresh Bluesky session for {}: {}", account.handle, responseBody);
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Error refreshing Bluesky session for {}", account.handle, e);
         }
         return null;
     }
 
-    private String createPostRequest(String text) {
-        String formattedText = text.replaceAll("\n", "\\\\n");
-        String facetsJson = findFacets(text);
-        return String.format("""
-                {
-                    "repo": "%s",
-                    "collection": "app.bsky.feed.post",
-                    "record": {
-                        "$type": "app.bsky.feed.post",
-                        "text": "%s",
-                        "createdAt": "%s",
-                        "langs": ["en-US"]%s
-                    }
-                }""", this.handle, formattedText, Instant.now().toString(), facetsJson);
-    }
-
-    private String findFacets(String text) {
-        // Find OpenJDK links and create facets
-        List<Facet> facets = findOpenJdkLinks(text);
-
-        // Create facets JSON if any links were found
-        String facetsJson = "";
-        if (!facets.isEmpty()) {
-            StringBuilder facetsBuilder = new StringBuilder();
-            facetsBuilder.append(",\n        \"facets\": [");
-
-            for (int i = 0; i < facets.size(); i++) {
-                Facet facet = facets.get(i);
-                facetsBuilder.append(String.format("""
-                        {
-                            "index": {
-                                "byteStart": %d,
-                                "byteEnd": %d
-                            },
-                            "features": [
-                                {
-                                    "$type": "app.bsky.richtext.facet#link",
-                                    "uri": "%s"
-                                }
-                            ]
-                        }""", facet.byteStart, facet.byteEnd, facet.uri));
-
-                if (i < facets.size() - 1) {
-                    facetsBuilder.append(",");
-                }
+    long sessionCreations() {
+        return defaultAccount().sessionCreations.get();
+    }
+
+    long sessionRefreshes() {
+        return defaultAccount().sessionRefreshes.get();
+    }
+
+    byte[] createPostRequest(String text) {
+        return createPostRequest(defaultAccount(), text, null, null);
+    }
+
+    byte[] createPostRequest(Account account, String text, BlueskyJson.Reply reply, String rkey) {
+        BlueskyJson.Post post = new BlueskyJson.Post(text, Instant.now(), LANGS, findFacets(text), reply);
+        return BlueskyJson.writeCreateRecord(account.handle, rkey, post);
+    }
+
+    List<BlueskyJson.Facet> findFacets(String text) {
+        // Find links, tags and mentions, and create facets
+        List<FacetParser.Facet> found = FacetParser.findFacets(text);
+        List<BlueskyJson.Facet> facets = new ArrayList<>(found.size());
+        for (FacetParser.Facet facet : found) {
+            BlueskyJson.Feature feature = createFacetFeature(facet);
+            if (feature != null) {
+                facets.add(new BlueskyJson.Facet(facet.byteStart(), facet.byteEnd(), feature));
+                LOG.debug("Found {} facet: {} at positions {}-{}", facet.type(), facet.value(), facet.byteStart(), facet.byteEnd());
             }
+        }
+        return facets;
+    }
+
+    private BlueskyJson.Feature createFacetFeature(FacetParser.Facet facet) {
+        return switch (facet.type()) {
+            case LINK -> new BlueskyJson.Link(facet.value());
+            case TAG -> new BlueskyJson.Tag(facet.value());
+            case MENTION -> {
+                // Mentions reference the account DID, skip the facet if the handle cannot be resolved
+                String did = resolveHandle(facet.value());
+                yield did == null ? null : new BlueskyJson.Mention(did);
+            }
+        };
+    }
 
-            facetsBuilder.append("]");
-            facetsJson = facetsBuilder.toString();
+    private String resolveHandle(String handle) {
+        if (this.mock) {
+            return null;
         }
-        return facetsJson;
+        Instant now = Instant.now();
+        ResolvedHandle cached = this.resolvedHandles.get(handle);
+        if (cached != null && now.isBefore(cached.expiry())) {
+            return cached.did();
+        }
+        // Resolved outside of the map not to block its other entries, concurrent resolutions of a handle are rare
+        String did = fetchDid(handle);
+        ResolvedHandle resolved = new ResolvedHandle(did, did == null ? now.plus(UNRESOLVED_HANDLE_LIFETIME) : Instant.MAX);
+        if (cached == null) {
+            this.resolvedHandles.putIfAbsent(handle, resolved);
+        } else {
+            this.resolvedHandles.replace(handle, cached, resolved);
+        }
+        return did;
     }
 
-    private List<Facet> findOpenJdkLinks(String text) {
-        List<Facet> facets = new ArrayList<>();
-        // Pattern to match OpenJDK JEP links like "openjdk.org/jeps/123"
-        Matcher matcher = OPENJDK_LINK_PATTERN.matcher(text);
-        while (matcher.find()) {
-            int charStart = matcher.start();
-            int charEnd = matcher.end();
-            String jepNumber = matcher.group(1);
-            // Create a facet for this link
-            Facet facet = new Facet();
-            facet.byteStart = getUtf8BytePosition(text, charStart);
-            facet.byteEnd = getUtf8BytePosition(text, charEnd);
-            facet.uri = "https://openjdk.org/jeps/" + jepNumber;
-            facets.add(facet);
-            LOG.debug("Found OpenJDK link: {} at positions {}-{} (char positions {}-{})", facet.uri, facet.byteStart, facet.byteEnd, charStart, charEnd);
+    private String fetchDid(String handle) {
+        try {
+            HttpResponse<byte[]> response = send(HttpRequest.newBuilder(URI.create(this.url + RESOLVE_HANDLE_PATH + "?handle=" + URLEncoder.encode(handle, UTF_8)))
+                    .header("Accept", APPLICATION_JSON)
+                    .GET());
+            if (response.statusCode() == OK) {
+                return BlueskyJson.readDid(new String(response.body(), UTF_8));
+            }
+            LOG.debug("Failed to resolve handle {}: {}", handle, response.statusCode());
+            return null;
+        } catch (Exception e) {
+            LOG.debug("Error resolving handle {}", handle, e);
+            return null;
         }
-        return facets;
+    }
+
+    private HttpRequest.Builder post(String path, byte[] payload) {
+        return HttpRequest.newBuilder(URI.create(this.url + path))
+                .header("Accept", APPLICATION_JSON)
+                .header("Content-Type", APPLICATION_JSON)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(payload));
+    }
+
+    private HttpResponse<byte[]> send(HttpRequest.Builder request) throws IOException {
+        return this.httpClients.endpoint(ENDPOINT).send(request);
     }
 
     /**
-     * Converts a character position to a UTF-8 byte position.
-     *
-     * @param text         The text to analyze
-     * @param charPosition The character position to convert
-     * @return The corresponding UTF-8 byte position
+     * A Bluesky account, with its own session cache.
      */
-    private int getUtf8BytePosition(String text, int charPosition) {
-        if (charPosition <= 0) {
-            return 0;
+    public static final class Account {
+        private final String handle;
+        private final String appPassword;
+        private final Lock sessionLock = new ReentrantLock();
+        private volatile Session session;
+        private final AtomicLong sessionCreations = new AtomicLong();
+        private final AtomicLong sessionRefreshes = new AtomicLong();
+
+        public Account(String handle, String appPassword) {
+            this.handle = handle;
+            this.appPassword = appPassword;
+        }
+
+        public String handle() {
+            return this.handle;
         }
-        // Get the substring up to the character position and calculate its UTF-8 byte length
-        String substring = text.substring(0, charPosition);
-        return substring.getBytes(UTF_8).length;
     }
 
-    // Inner class to represent a facet
-    private static class Facet {
-        int byteStart;
-        int byteEnd;
-        String uri;
+    /**
+     * The DID a handle resolved to, {@code null} if it failed to resolve, until its expiry.
+     */
+    private record ResolvedHandle(String did, Instant expiry) {
+    }
+
+    private record Session(String accessJwt, Instant accessExpiry, String refreshJwt, Instant refreshExpiry) {
+        static Session of(BlueskyJson.Session session) {
+            if (session.accessJwt() == null || session.refreshJwt() == null) {
+                return null;
+            }
+            return new Session(session.accessJwt(), expiryOf(session.accessJwt()), session.refreshJwt(), expiryOf(session.refreshJwt()));
+        }
+
+        private static Instant expiryOf(String jwt) {
+            long expiry = BlueskyJson.readJwtExpiry(jwt);
+            return expiry < 0 ? Instant.now().plus(DEFAULT_TOKEN_LIFETIME) : Instant.ofEpochSecond(expiry);
+        }
+
+        boolean isAccessValid(Instant now) {
+            return now.isBefore(this.accessExpiry.minus(RENEW_AHEAD));
+        }
+
+        boolean isRefreshValid(Instant now) {
+            return now.isBefore(this.refreshExpiry.minus(RENEW_AHEAD));
+        }
     }
 }
@@ -0,0 +1,159 @@
+package fr.hardcoding.service;
+
+import fr.hardcoding.model.OutboxPost;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Posts the JEP updates to Bluesky. Post references are the URI and CID of the created records, so replies can
+ * reference their thread with strong references. Each post is created with a record key derived from its outbox row,
+ * so a post published again after a lost response or a crash is found instead of being duplicated.
+ * <p>
+ * Updates are posted to the default account, and to each additional account listed by the
+ * {@code sinks.bluesky.accounts} property. Each additional account is a sink of its own, named
+ * {@code bluesky-<account>} and configured by the {@code sinks.bluesky-<account>.handle} and {@code app-password}
+ * properties, so it gets its own session, rate limit and filter.
+ */
+@ApplicationScoped
+public class BlueskySink implements PostSink {
+    public static final String NAME = "bluesky";
+    private static final String TID_ALPHABET = "234567abcdefghijklmnopqrstuvwxyz";
+    // 2023-01-01T00:00:00Z
+    private static final long KEY_EPOCH_MICROS = 1_672_531_200_000_000L;
+    private static final long KEY_MICROS_MASK = (1L << 48) - 1;
+
+    @ConfigProperty(name = "sinks.bluesky.enabled", defaultValue = "true")
+    boolean enabled;
+    @ConfigProperty(name = "sinks.bluesky.accounts")
+    Optional<List<String>> accountNames;
+
+    private final BlueskyService blueskyService;
+    private final Config config;
+    // The default account when null
+    private final BlueskyService.Account account;
+    private final String name;
+    private volatile List<PostSink> accounts;
+
+    @Inject
+    public BlueskySink(BlueskyService blueskyService, Config config) {
+        this(blueskyService, config, NAME, null);
+    }
+
+    private BlueskySink(BlueskyService blueskyService, Config config, String name, BlueskyService.Account account) {
+        this.blueskyService = blueskyService;
+        this.config = config;
+        this.name = name;
+        this.account = account;
+    }
+
+    @Override
+    public String name() {
+        return this.name;
+    }
+
+    @Override
+    public boolean enabled() {
+        return this.enabled;
+    }
+
+    @Override
+    public List<PostSink> accounts() {
+        List<PostSink> accounts = this.accounts;
+        if (accounts == null) {
+            synchronized (this) {
+                accounts = this.accounts;
+                if (accounts == null) {
+                    accounts = createAccounts();
+                    this.accounts = accounts;
+                }
+            }
+        }
+        return accounts;
+    }
+
+    private List<PostSink> createAccounts() {
+        List<PostSink> accounts = new ArrayList<>();
+        accounts.add(this);
+        for (String accountName : this.accountNames.orElse(List.of())) {
+            String sinkName = NAME + "-" + accountName;
+            BlueskyService.Account account = new BlueskyService.Account(
+                    this.config.getValue("sinks." + sinkName + ".handle", String.class),
+                    this.config.getValue("sinks." + sinkName + ".app-password", String.class));
+            BlueskySink sink = new BlueskySink(this.blueskyService, this.config, sinkName, account);
+            sink.enabled = this.config.getOptionalValue("sinks." + sinkName + ".enabled", Boolean.class).orElse(true);
+            sink.accounts = List.of(sink);
+            accounts.add(sink);
+        }
+        return List.copyOf(accounts);
+    }
+
+    @Override
+    public String publish(OutboxPost post, ReplyTo replyTo) {
+        BlueskyJson.Reply reply = null;
+        if (replyTo != null) {
+            reply = new BlueskyJson.Reply(fromRef(replyTo.root()), fromRef(replyTo.parent()));
+        }
+        BlueskyService.Account account = this.account == null ? this.blueskyService.defaultAccount() : this.account;
+        BlueskyJson.StrongRef ref = this.blueskyService.postUpdate(account, post.text, reply, recordKey(post));
+        return ref == null ? null : toRef(ref);
+    }
+
+    /**
+     * Derives the record key of a post from its outbox row, so every attempt to publish it uses the same key, while
+     * the posts of later threads about the same state and release get keys of their own. The key is a TID, like the
+     * keys generated by the server: its timestamp and clock id are taken from a hash of the outbox id and creation
+     * instant of the post, the latter telling apart the posts of a new database reusing the ids.
+     *
+     * @param post The post to publish, already queued
+     * @return The record key
+     */
+    static String recordKey(OutboxPost post) {
+        long hash;
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((post.id + "\n" + post.createdAt).getBytes(UTF_8));
+            hash = ByteBuffer.wrap(digest.digest()).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not supported", e);
+        }
+        // Spread over about nine years from the key epoch, so the key stays a valid TID
+        long micros = KEY_EPOCH_MICROS + (hash & KEY_MICROS_MASK);
+        return tid(micros, (int) (hash >>> 54));
+    }
+
+    /**
+     * Encodes a TID, 53 bits of microseconds and 10 bits of clock id as 13 sortable base32 characters.
+     */
+    static String tid(long micros, int clockId) {
+        long value = (micros << 10) | (clockId & 0x3FF);
+        char[] chars = new char[13];
+        for (int i = chars.length - 1; i >= 0; i--) {
+            chars[i] = TID_ALPHABET.charAt((int) (value & 0x1F));
+            value >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    static String toRef(BlueskyJson.StrongRef ref) {
+        return ref.uri() + " " + ref.cid();
+    }
+
+    static BlueskyJson.StrongRef fromRef(String ref) {
+        int separator = ref.indexOf(' ');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Invalid post reference " + ref);
+        }
+        return new BlueskyJson.StrongRef(ref.substring(0, separator), ref.substring(separator + 1));
+    }
+}
@@ -0,0 +1,101 @@
+package fr.hardcoding.service;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * A consecutive failures circuit breaker.
+ * <p>
+ * The circuit opens after {@code failureThreshold} consecutive failures and rejects calls for the open duration.
+ * It then lets a single trial call through: the circuit closes if it succeeds, and opens again otherwise.
+ */
+final class CircuitBreaker {
+    private final int failureThreshold;
+    private final long openNanos;
+    private final LongSupplier nanoTime;
+    private State state = State.CLOSED;
+    private int failures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    CircuitBreaker(int failureThreshold, Duration openDuration) {
+        this(failureThreshold, openDuration, System::nanoTime);
+    }
+
+    CircuitBreaker(int failureThreshold, Duration openDuration, LongSupplier nanoTime) {
+        if (failureThreshold < 1 || openDuration.isNegative()) {
+            throw new IllegalArgumentException("Invalid circuit breaker: " + failureThreshold + " failures, open for " + openDuration);
+        }
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Asks for a call. Callers allowed to call must report its outcome.
+     *
+     * @return {@code true} if the call is allowed, {@code false} if the circuit is open
+     */
+    synchronized boolean tryAcquire() {
+        return switch (this.state) {
+            case CLOSED -> true;
+            case OPEN -> {
+                if (this.nanoTime.getAsLong() - this.openedAt < this.openNanos) {
+                    yield false;
+                }
+                this.state = State.HALF_OPEN;
+                this.trialInFlight = true;
+                yield true;
+            }
+            case HALF_OPEN -> {
+                if (this.trialInFlight) {
+                    yield false;
+                }
+                this.trialInFlight = true;
+                yield true;
+            }
+        };
+    }
+
+    /**
+     * Reports a successful call, closing the circuit.
+     */
+    synchronized void onSuccess() {
+        this.state = State.CLOSED;
+        this.failures = 0;
+        this.trialInFlight = false;
+    }
+
+    /**
+     * Reports a failed call, opening the circuit after too many consecutive failures or a failed trial.
+     *
+     * @return {@code true} if the circuit was opened by this failure
+     */
+    synchronized boolean onFailure() {
+        this.trialInFlight = false;
+        this.failures++;
+        if (this.state == State.HALF_OPEN || (this.state == State.CLOSED && this.failures >= this.failureThreshold)) {
+            this.state = State.OPEN;
+            this.openedAt = this.nanoTime.getAsLong();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Releases a call ended without outcome, like an interrupted one.
+     */
+    synchronized void release() {
+        this.trialInFlight = false;
+    }
+
+    synchronized State state() {
+        return this.state;
+    }
+
+    enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+}
@@ -0,0 +1,182 @@
+package fr.hardcoding.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds the rich text facets of a post text and their UTF-8 byte offsets in a single pass.
+ * <p>
+ * Bluesky facets are indexed by UTF-8 byte positions while Java strings are indexed by UTF-16 chars.
+ * Byte positions are computed incrementally while scanning the text rather than encoding its prefixes.
+ */
+final class FacetParser {
+    private static final String JEP_LINK = "openjdk.org/jeps/";
+    private static final String JEP_URL = "https://" + JEP_LINK;
+    private static final int MAX_TAG_LENGTH = 64;
+
+    private FacetParser() {
+    }
+
+    enum Type {
+        /**
+         * A link, its value is the URI.
+         */
+        LINK,
+        /**
+         * A hashtag, its value is the tag without the leading {@code #}.
+         */
+        TAG,
+        /**
+         * A mention, its value is the handle without the leading {@code @}.
+         */
+        MENTION
+    }
+
+    record Facet(Type type, int byteStart, int byteEnd, String value) {
+    }
+
+    /**
+     * Finds the facets of a text.
+     *
+     * @param text The text to analyze
+     * @return The facets found, ordered by position
+     */
+    static List<Facet> findFacets(String text) {
+        List<Facet> facets = new ArrayList<>();
+        int length = text.length();
+        int bytePosition = 0;
+        int i = 0;
+        while (i < length) {
+            if (i == 0 || !Character.isLetterOrDigit(text.charAt(i - 1))) {
+                Type type = null;
+                String value = null;
+                int end = -1;
+                char c = text.charAt(i);
+                if (c == 'h' && (text.startsWith("https://", i) || text.startsWith("http://", i))) {
+                    end = urlEnd(text, i);
+                    type = Type.LINK;
+                    value = text.substring(i, end);
+                } else if (c == 'o' && text.startsWith(JEP_LINK, i)) {
+                    int digitsStart = i + JEP_LINK.length();
+                    end = digitsStart;
+                    while (end < length && isAsciiDigit(text.charAt(end))) {
+                        end++;
+                    }
+                    if (end > digitsStart) {
+                        type = Type.LINK;
+                        value = JEP_URL + text.substring(digitsStart, end);
+                    }
+                } else if (c == '#') {
+                    end = tagEnd(text, i + 1);
+                    if (end > i + 1 && !isAllDigits(text, i + 1, end)) {
+                        type = Type.TAG;
+                        value = text.substring(i + 1, end);
+                    }
+                } else if (c == '@') {
+                    end = handleEnd(text, i + 1);
+                    if (end > i + 1 && containsDot(text, i + 1, end)) {
+                        type = Type.MENTION;
+                        value = text.substring(i + 1, end);
+                    }
+                }
+                if (type != null) {
+                    int byteStart = bytePosition;
+                    for (; i < end; i++) {
+                        bytePosition += utf8Length(text, i);
+                    }
+                    facets.add(new Facet(type, byteStart, bytePosition, value));
+                    continue;
+                }
+            }
+            bytePosition += utf8Length(text, i);
+            i++;
+        }
+        return facets;
+    }
+
+    /**
+     * Gets the UTF-8 encoded length of a char.
+     * A surrogate pair is encoded with 4 bytes counted on its high surrogate, while an unpaired surrogate is
+     * encoded as a single byte replacement like {@link String#getBytes(java.nio.charset.Charset)} does.
+     */
+    static int utf8Length(String text, int index) {
+        char c = text.charAt(index);
+        if (c < 0x80) {
+            return 1;
+        } else if (c < 0x800) {
+            return 2;
+        } else if (Character.isHighSurrogate(c)) {
+            return index + 1 < text.length() && Character.isLowSurrogate(text.charAt(index + 1)) ? 4 : 1;
+        } else if (Character.isLowSurrogate(c)) {
+            return index > 0 && Character.isHighSurrogate(text.charAt(index - 1)) ? 0 : 1;
+        } else {
+            return 3;
+        }
+    }
+
+    private static int urlEnd(String text, int start) {
+        int end = start;
+        while (end < text.length() && !Character.isWhitespace(text.charAt(end))) {
+            end++;
+        }
+        // Exclude trailing punctuation
+        while (end > start && ".,;:!?\"')]".indexOf(text.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        return end;
+    }
+
+    private static int tagEnd(String text, int start) {
+        int end = start;
+        while (end < text.length() && end - start < MAX_TAG_LENGTH) {
+            int codePoint = text.codePointAt(end);
+            if (!Character.isLetterOrDigit(codePoint) && codePoint != '_') {
+                break;
+            }
+            end += Character.charCount(codePoint);
+        }
+        return end;
+    }
+
+    private static int handleEnd(String text, int start) {
+        int end = start;
+        while (end < text.length()) {
+            char c = text.charAt(end);
+            if (!isAsciiLetter(c) && !isAsciiDigit(c) && c != '.' && c != '-') {
+                break;
+            }
+            end++;
+        }
+        // Exclude trailing dots
+        while (end > start && text.charAt(end - 1) == '.') {
+            end--;
+        }
+        return end;
+    }
+
+    private static boolean containsDot(String text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == '.') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isAllDigits(String text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!isAsciiDigit(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAsciiDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+}
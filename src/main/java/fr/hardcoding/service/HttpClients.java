@@ -0,0 +1,214 @@
+package fr.hardcoding.service;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * The HTTP clients to the remote hosts: openjdk.org, Bluesky and the other post sinks.
+ * <p>
+ * Each remote host is an endpoint with its own HTTP/2 client, keeping its connections alive between calls, its own
+ * connect timeout and deadline, and a circuit breaker failing calls fast while the host is down. The deadline bounds
+ * whole exchanges, body included, so a hung connection never holds a caller longer. Endpoints are configured with
+ * {@code http.<endpoint>.*} properties, falling back to the {@code http.*} ones.
+ */
+@ApplicationScoped
+public class HttpClients {
+    private static final Logger LOG = LoggerFactory.getLogger(HttpClients.class);
+    private static final String ACCEPT_ENCODING = "gzip, deflate";
+    private static final int SERVER_ERROR = 500;
+
+    private final Config config;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    @Inject
+    public HttpClients(Config config) {
+        this.config = config;
+    }
+
+    /**
+     * Gets the endpoint of a remote host, created on first use.
+     *
+     * @param name The endpoint name, like {@code openjdk} or {@code bluesky}
+     * @return The endpoint
+     */
+    public Endpoint endpoint(String name) {
+        return this.endpoints.computeIfAbsent(name, this::createEndpoint);
+    }
+
+    private Endpoint createEndpoint(String name) {
+        Duration connectTimeout = endpointConfig(name, "connect-timeout", Duration.class, Duration.ofSeconds(5));
+        Duration deadline = endpointConfig(name, "deadline", Duration.class, Duration.ofSeconds(30));
+        int failureThreshold = endpointConfig(name, "circuit-breaker.failure-threshold", Integer.class, 5);
+        Duration openDuration = endpointConfig(name, "circuit-breaker.open-duration", Duration.class, Duration.ofMinutes(1));
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(this.executor)
+                .build();
+        LOG.debug("Created HTTP endpoint {} with connect timeout {} and deadline {}", name, connectTimeout, deadline);
+        return new Endpoint(name, client, deadline, new CircuitBreaker(failureThreshold, openDuration));
+    }
+
+    private <T> T endpointConfig(String name, String property, Class<T> type, T defaultValue) {
+        return this.config.getOptionalValue("http." + name + "." + property, type)
+                .or(() -> this.config.getOptionalValue("http." + property, type))
+                .orElse(defaultValue);
+    }
+
+    @PreDestroy
+    void close() {
+        for (Endpoint endpoint : this.endpoints.values()) {
+            endpoint.client.shutdownNow();
+        }
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * Decodes a response body according to its content encoding.
+     *
+     * @param encoding The {@code Content-Encoding} header value, {@code null} if not encoded
+     * @param body     The response body
+     * @return The decoded body
+     * @throws IOException If the body could not be decoded
+     */
+    static byte[] decode(String encoding, byte[] body) throws IOException {
+        if (encoding == null || body.length == 0) {
+            return body;
+        }
+        return switch (encoding.trim().toLowerCase(Locale.ROOT)) {
+            case "", "identity" -> body;
+            case "gzip", "x-gzip" -> readAll(new GZIPInputStream(new ByteArrayInputStream(body)));
+            case "deflate" -> readAll(new InflaterInputStream(new ByteArrayInputStream(body)));
+            default -> throw new IOException("Unsupported content encoding " + encoding);
+        };
+    }
+
+    private static byte[] readAll(InputStream input) throws IOException {
+        try (input) {
+            return input.readAllBytes();
+        }
+    }
+
+    private static HttpResponse.BodySubscriber<byte[]> decoding(HttpResponse.ResponseInfo info) {
+        String encoding = info.headers().firstValue("Content-Encoding").orElse(null);
+        return HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofByteArray(), body -> {
+            try {
+                return decode(encoding, body);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * A remote host, with its client, deadline and circuit breaker.
+     */
+    public static final class Endpoint {
+        private final String name;
+        private final HttpClient client;
+        private final Duration deadline;
+        private final CircuitBreaker circuitBreaker;
+
+        private Endpoint(String name, HttpClient client, Duration deadline, CircuitBreaker circuitBreaker) {
+            this.name = name;
+            this.client = client;
+            this.deadline = deadline;
+            this.circuitBreaker = circuitBreaker;
+        }
+
+        /**
+         * Sends a request, waiting for the whole response up to the endpoint deadline.
+         * Connection failures, timeouts and server errors count as failures for the circuit breaker.
+         *
+         * @param request The request to send
+         * @return The response, with its body decoded
+         * @throws CircuitOpenException If the circuit is open after too many failures
+         * @throws HttpTimeoutException If the response was not received within the deadline
+         * @throws IOException          If the request failed
+         */
+        public HttpResponse<byte[]> send(HttpRequest.Builder request) throws IOException {
+            if (!this.circuitBreaker.tryAcquire()) {
+                throw new CircuitOpenException("Circuit open for " + this.name + " after repeated failures");
+            }
+            HttpRequest built = request
+                    .timeout(this.deadline)
+                    .setHeader("Accept-Encoding", ACCEPT_ENCODING)
+                    .build();
+            CompletableFuture<HttpResponse<byte[]>> future = this.client.sendAsync(built, HttpClients::decoding);
+            try {
+                HttpResponse<byte[]> response = future.get(this.deadline.toNanos(), TimeUnit.NANOSECONDS);
+                if (response.statusCode() >= SERVER_ERROR) {
+                    failed();
+                } else {
+                    this.circuitBreaker.onSuccess();
+                }
+                return response;
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                failed();
+                throw new HttpTimeoutException("No response from " + built.uri() + " within " + this.deadline);
+            } catch (ExecutionException e) {
+                failed();
+                Throwable cause = e.getCause();
+                if (cause instanceof UncheckedIOException unchecked) {
+                    cause = unchecked.getCause();
+                }
+                if (cause instanceof IOException io) {
+                    throw io;
+                }
+                throw new IOException("Failed to call " + built.uri(), cause);
+            } catch (InterruptedException e) {
+                future.cancel(true);
+                this.circuitBreaker.release();
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while calling " + built.uri(), e);
+            }
+        }
+
+        private void failed() {
+            if (this.circuitBreaker.onFailure()) {
+                LOG.warn("Circuit opened for {} after repeated failures", this.name);
+            }
+        }
+
+        CircuitBreaker.State circuitState() {
+            return this.circuitBreaker.state();
+        }
+    }
+
+    /**
+     * Signals a call rejected without being sent, as the circuit of its endpoint is open.
+     */
+    public static class CircuitOpenException extends IOException {
+        public CircuitOpenException(String message) {
+            super(message);
+        }
+    }
+}
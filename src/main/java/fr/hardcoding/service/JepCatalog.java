@@ -0,0 +1,246 @@
+package fr.hardcoding.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.JsonRecyclerPools;
+import fr.hardcoding.model.Jep;
+import fr.hardcoding.model.JepState;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An immutable in-memory view of the tracked JEPs, serving the read API without touching the database.
+ * <p>
+ * The view is rebuilt from the database after each update and swapped atomically, so readers always see a
+ * consistent set of JEPs and never contend with the update transaction. Representations are serialized once per
+ * view, with a strong ETag computed from their content. On startup, the view is built from the last seen JEP table
+ * snapshot when available, and each refresh writes a new snapshot. Each view also holds a {@link JepSearchIndex},
+ * updated with the changed JEPs only on refresh.
+ */
+@ApplicationScoped
+public class JepCatalog {
+    private static final Logger LOG = LoggerFactory.getLogger(JepCatalog.class);
+    private static final JsonFactory FACTORY = JsonFactory.builder()
+            .recyclerPool(JsonRecyclerPools.sharedConcurrentDequePool())
+            .build();
+    static final Comparator<JepView> BY_NUMBER = Comparator
+            .comparingInt((JepView jep) -> jep.number().length())
+            .thenComparing(JepView::number);
+
+    private final JepTableStore tableStore;
+    private volatile Snapshot snapshot = new Snapshot(List.of(), JepSearchIndex.build(List.of()));
+
+    public JepCatalog(JepTableStore tableStore) {
+        this.tableStore = tableStore;
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        JepTableSnapshot table = this.tableStore.current();
+        if (table == null) {
+            refresh();
+            return;
+        }
+        List<JepView> views = new ArrayList<>(table.size());
+        for (int i = 0; i < table.size(); i++) {
+            views.add(JepView.of(table.jep(i)));
+        }
+        views.sort(BY_NUMBER);
+        this.snapshot = new Snapshot(views, this.snapshot.index().update(views));
+        LOG.debug("JEP catalog loaded with {} JEPs from the JEP table snapshot", views.size());
+    }
+
+    /**
+     * Rebuilds the view from the database, and writes the JEP table snapshot.
+     */
+    @Transactional
+    public void refresh() {
+        List<Jep> jeps = Jep.listAll();
+        this.tableStore.save(jeps);
+        List<JepView> views = new ArrayList<>(jeps.size());
+        for (Jep jep : jeps) {
+            views.add(JepView.of(jep));
+        }
+        views.sort(BY_NUMBER);
+        this.snapshot = new Snapshot(views, this.snapshot.index().update(views));
+        LOG.debug("JEP catalog refreshed with {} JEPs", views.size());
+    }
+
+    /**
+     * Gets the current view. Callers should get it once per request to work on a consistent view.
+     *
+     * @return The current view
+     */
+    public Snapshot snapshot() {
+        return this.snapshot;
+    }
+
+    /**
+     * A JEP as exposed by the read API.
+     */
+    public record JepView(String number, String type, String state, String release, String component,
+                          String subComponent, String title) {
+        static JepView of(Jep jep) {
+            return new JepView(jep.number, jep.type.name(), jep.state.name(), jep.release, jep.component,
+                    jep.subComponent, jep.title);
+        }
+    }
+
+    /**
+     * A serialized JSON representation with its strong ETag.
+     */
+    public record Representation(byte[] body, String etag) {
+        static Representation of(byte[] body) {
+            try {
+                byte[] hash = MessageDigest.getInstance("SHA-256").digest(body);
+                return new Representation(body, Base64.getUrlEncoder().withoutPadding().encodeToString(hash));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not supported", e);
+            }
+        }
+    }
+
+    /**
+     * An immutable view of the JEPs at a point in time.
+     */
+    public static final class Snapshot {
+        private final List<JepView> jeps;
+        private final JepSearchIndex index;
+        private final Map<String, Representation> byNumber;
+        private final Representation all;
+        // Query results are serialized on first use, only non-empty results are kept to bound the cache
+        private final Map<String, Representation> queries = new ConcurrentHashMap<>();
+        private final Representation empty = Representation.of(write(List.of()));
+
+        Snapshot(List<JepView> jeps, JepSearchIndex index) {
+            this.jeps = List.copyOf(jeps);
+            this.index = index;
+            this.byNumber = HashMap.newHashMap(jeps.size());
+            for (JepView jep : jeps) {
+                this.byNumber.put(jep.number(), Representation.of(write(jep)));
+            }
+            this.all = Representation.of(write(this.jeps));
+        }
+
+        public int size() {
+            return this.jeps.size();
+        }
+
+        /**
+         * Gets all the JEPs.
+         *
+         * @return The representation of all JEPs, ordered by number
+         */
+        public Representation all() {
+            return this.all;
+        }
+
+        /**
+         * Gets a JEP.
+         *
+         * @param number The JEP number
+         * @return The JEP representation, {@code null} if unknown
+         */
+        public Representation jep(String number) {
+            return this.byNumber.get(number);
+        }
+
+        /**
+         * Gets the JEPs matching a state and a release.
+         *
+         * @param state   The JEP state, {@code null} to match any state
+         * @param release The JEP release, {@code null} to match any release
+         * @return The representation of the matching JEPs, ordered by number
+         */
+        public Representation query(JepState state, String release) {
+            if (state == null && release == null) {
+                return this.all;
+            }
+            String key = state + "/" + release;
+            Representation cached = this.queries.get(key);
+            if (cached != null) {
+                return cached;
+            }
+            String stateName = state == null ? null : state.name();
+            List<JepView> matches = new ArrayList<>();
+            for (JepView jep : this.jeps) {
+                if ((stateName == null || stateName.equals(jep.state())) && (release == null || Objects.equals(release, jep.release()))) {
+                    matches.add(jep);
+                }
+            }
+            if (matches.isEmpty()) {
+                return this.empty;
+            }
+            return this.queries.computeIfAbsent(key, k -> Representation.of(write(matches)));
+        }
+
+        /**
+         * Searches the JEPs by title terms and facets.
+         *
+         * @param query The query
+         * @param limit The maximum number of results
+         * @return The representation of the matching JEPs, ordered by number
+         */
+        public Representation search(JepSearchIndex.Query query, int limit) {
+            List<JepView> matches = this.index.search(query, limit);
+            return matches.isEmpty() ? this.empty : Representation.of(write(matches));
+        }
+
+        JepSearchIndex index() {
+            return this.index;
+        }
+    }
+
+    private static byte[] write(List<JepView> jeps) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(64 + jeps.size() * 192);
+        try (JsonGenerator generator = FACTORY.createGenerator(output)) {
+            generator.writeStartArray();
+            for (JepView jep : jeps) {
+                writeJep(generator, jep);
+            }
+            generator.writeEndArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write JEPs", e);
+        }
+        return output.toByteArray();
+    }
+
+    private static byte[] write(JepView jep) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(256);
+        try (JsonGenerator generator = FACTORY.createGenerator(output)) {
+            writeJep(generator, jep);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write JEP", e);
+        }
+        return output.toByteArray();
+    }
+
+    private static void writeJep(JsonGenerator generator, JepView jep) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("number", jep.number());
+        generator.writeStringField("type", jep.type());
+        generator.writeStringField("state", jep.state());
+        generator.writeStringField("release", jep.release());
+        generator.writeStringField("component", jep.component());
+        generator.writeStringField("subComponent", jep.subComponent());
+        generator.writeStringField("title", jep.title());
+        generator.writeEndObject();
+    }
+}
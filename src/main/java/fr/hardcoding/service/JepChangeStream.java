@@ -0,0 +1,407 @@
+package fr.hardcoding.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.JsonRecyclerPools;
+import fr.hardcoding.model.JepTransition;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static io.quarkus.scheduler.Scheduled.ConcurrentExecution.SKIP;
+
+/**
+ * Broadcasts the committed JEP transitions to the change stream subscribers, over SSE and WebSocket.
+ * <p>
+ * Events are identified by the id of their transition, which increases with the commits and is the same on every
+ * instance and after a restart. The latest events are kept in a ring buffer shared by all subscribers: publishing
+ * only stores the events and wakes the subscribers up, it never waits for them. Each subscriber reads the ring from
+ * its own cursor, one send at a time, so a slow transport holds back its subscriber only. A subscriber falling behind
+ * the whole ring is disconnected, and can resume from the {@code Last-Event-ID} of its last event: the events it
+ * missed before the ring are read from the database, at most as many as the ring holds, then it follows the ring.
+ * Idle subscribers are sent heartbeats, so the connections closed while no event flows are detected and
+ * unsubscribed.
+ */
+@ApplicationScoped
+public class JepChangeStream {
+    private static final Logger LOG = LoggerFactory.getLogger(JepChangeStream.class);
+    private static final JsonFactory FACTORY = JsonFactory.builder()
+            .recyclerPool(JsonRecyclerPools.sharedConcurrentDequePool())
+            .build();
+
+    private final int capacity;
+    private final int maxSubscribers;
+    private final History history;
+    private final Executor backfillExecutor;
+    // Events by sequence number, ids of the transitions may have gaps
+    private final AtomicReferenceArray<Entry> ring;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private volatile long head;
+
+    @Inject
+    public JepChangeStream(@ConfigProperty(name = "jep.stream.buffer-size", defaultValue = "1024") int capacity,
+                           @ConfigProperty(name = "jep.stream.max-subscribers", defaultValue = "10000") int maxSubscribers) {
+        // Subscribers connect from the event loop, the database is read from virtual threads
+        this(capacity, maxSubscribers,
+                (afterId, beforeId, limit) -> QuarkusTransaction.requiringNew()
+                        .call(() -> JepTransition.findLatest(afterId, beforeId, limit)),
+                command -> Thread.ofVirtual().start(command));
+    }
+
+    JepChangeStream(int capacity, int maxSubscribers, History history, Executor backfillExecutor) {
+        if (capacity < 1 || maxSubscribers < 1) {
+            throw new IllegalArgumentException("Invalid change stream: " + capacity + " events, " + maxSubscribers + " subscribers");
+        }
+        this.capacity = capacity;
+        this.maxSubscribers = maxSubscribers;
+        this.history = history;
+        this.backfillExecutor = backfillExecutor;
+        this.ring = new AtomicReferenceArray<>(capacity);
+    }
+
+    void onCommitted(@Observes(during = TransactionPhase.AFTER_SUCCESS) Transitions transitions) {
+        publish(transitions.transitions());
+    }
+
+    /**
+     * Publishes transitions to the subscribers, without waiting for them.
+     *
+     * @param transitions The committed transitions, in order
+     */
+    public void publish(List<JepTransition> transitions) {
+        if (transitions.isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            long sequence = this.head;
+            for (JepTransition transition : transitions) {
+                sequence++;
+                this.ring.set(index(sequence), new Entry(sequence, ChangeEvent.of(transition)));
+            }
+            this.head = sequence;
+        }
+        for (Subscriber subscriber : this.subscribers) {
+            subscriber.drain();
+        }
+    }
+
+    /**
+     * Subscribes to the stream.
+     *
+     * @param lastEventId The id of the last event received before reconnecting, {@code null} to only get new events
+     * @param sink        The transport to send the events to
+     * @return The subscriber, {@code null} if there are too many subscribers
+     */
+    public Subscriber subscribe(Long lastEventId, Sink sink) {
+        if (this.subscribers.size() >= this.maxSubscribers) {
+            LOG.warn("Rejecting change stream subscriber, {} already connected", this.subscribers.size());
+            return null;
+        }
+        long current = this.head;
+        if (lastEventId == null) {
+            Subscriber subscriber = new Subscriber(sink, current, Long.MIN_VALUE);
+            this.subscribers.add(subscriber);
+            subscriber.drain();
+            return subscriber;
+        }
+        // Find the last event received in the ring, from the latest one as subscribers resume recent events mostly
+        long oldest = Math.max(1, current - this.capacity + 1);
+        long cursor = current;
+        while (cursor >= oldest) {
+            ChangeEvent event = event(cursor);
+            if (event == null || event.id() <= lastEventId) {
+                break;
+            }
+            cursor--;
+        }
+        Subscriber subscriber = new Subscriber(sink, cursor, lastEventId);
+        if (cursor < oldest || event(cursor) == null) {
+            // Events may have been missed before the ring, held back before the publications can drain the subscriber
+            subscriber.backfill(lastEventId);
+            this.subscribers.add(subscriber);
+        } else {
+            this.subscribers.add(subscriber);
+            subscriber.drain();
+        }
+        return subscriber;
+    }
+
+    /**
+     * Sends a heartbeat to the subscribers not sending an event, and unsubscribes the ones whose connection is closed.
+     */
+    @Scheduled(every = "${jep.stream.heartbeat-interval:30s}", concurrentExecution = SKIP)
+    public void heartbeat() {
+        for (Subscriber subscriber : this.subscribers) {
+            subscriber.heartbeat();
+        }
+    }
+
+    public int subscribers() {
+        return this.subscribers.size();
+    }
+
+    long head() {
+        return this.head;
+    }
+
+    private ChangeEvent event(long sequence) {
+        Entry entry = this.ring.get(index(sequence));
+        // Overwritten by a later event
+        return entry != null && entry.sequence() == sequence ? entry.event() : null;
+    }
+
+    private int index(long sequence) {
+        return (int) (sequence % this.capacity);
+    }
+
+    /**
+     * The transport of a subscriber, like an SSE or a WebSocket connection.
+     */
+    public interface Sink {
+        /**
+         * Sends an event.
+         *
+         * @param event The event to send
+         * @return Completed once the event is written, exceptionally if the connection failed
+         */
+        CompletionStage<?> send(ChangeEvent event);
+
+        /**
+         * Sends a heartbeat, to detect a closed connection while no event flows.
+         *
+         * @return Completed once the heartbeat is written, exceptionally if the connection is closed
+         */
+        CompletionStage<?> heartbeat();
+
+        /**
+         * Closes the connection of a subscriber disconnected by the stream.
+         *
+         * @param reason The reason of the disconnection
+         */
+        void close(String reason);
+    }
+
+    /**
+     * Reads the transitions missed by a subscriber before the ring.
+     */
+    @FunctionalInterface
+    interface History {
+        /**
+         * Finds the latest transitions between two transitions, in order.
+         *
+         * @param afterId  The id of the last event received, exclusive
+         * @param beforeId The id of the oldest event of the ring, exclusive
+         * @param limit    The maximum number of transitions
+         * @return The latest transitions of the range
+         */
+        List<JepTransition> findLatest(long afterId, long beforeId, int limit);
+    }
+
+    /**
+     * A subscriber of the stream, sending the events it missed first, then reading the ring from its cursor.
+     */
+    public final class Subscriber {
+        private final Sink sink;
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private final Queue<ChangeEvent> missed = new ConcurrentLinkedQueue<>();
+        private volatile long cursor;
+        // The id of the last event sent, events of the ring already read from the database are skipped
+        private volatile long lastId;
+
+        private Subscriber(Sink sink, long cursor, long lastId) {
+            this.sink = sink;
+            this.cursor = cursor;
+            this.lastId = lastId;
+        }
+
+        /**
+         * Reads the events missed before the ring from the database, then sends them. The ring events are held back
+         * meanwhile.
+         */
+        void backfill(long afterId) {
+            this.sending.set(true);
+            JepChangeStream.this.backfillExecutor.execute(() -> {
+                try {
+                    // Up to the next event of the ring, which may have been published since subscribing
+                    ChangeEvent next = event(this.cursor + 1);
+                    long beforeId = next == null ? Long.MAX_VALUE : next.id();
+                    for (JepTransition transition : JepChangeStream.this.history.findLatest(afterId, beforeId, JepChangeStream.this.capacity)) {
+                        this.missed.add(ChangeEvent.of(transition));
+                    }
+                } catch (RuntimeException e) {
+                    LOG.warn("Failed to read the change events after {}, resuming from the oldest buffered one", afterId, e);
+                }
+                this.sending.set(false);
+                drain();
+            });
+        }
+
+        /**
+         * Sends the next events, unless a send is in progress. Sends completing right away are chained in a loop,
+         * the others resume the drain once completed.
+         */
+        void drain() {
+            if (head() - this.cursor > JepChangeStream.this.capacity) {
+                // Its next event was overwritten, even if still waiting for a send to complete
+                close("Too slow, more than " + JepChangeStream.this.capacity + " events behind");
+                return;
+            }
+            while (!this.closed.get() && this.sending.compareAndSet(false, true)) {
+                ChangeEvent event = this.missed.poll();
+                long next = event == null ? this.cursor + 1 : this.cursor;
+                if (event == null) {
+                    if (next > head()) {
+                        this.sending.set(false);
+                        // An event published before the flag was reset would have been missed
+                        if (next > head()) {
+                            return;
+                        }
+                        continue;
+                    }
+                    event = event(next);
+                    if (event == null) {
+                        close("Too slow, more than " + JepChangeStream.this.capacity + " events behind");
+                        return;
+                    }
+                    if (event.id() <= this.lastId) {
+                        // Already sent from the database
+                        this.cursor = next;
+                        this.sending.set(false);
+                        continue;
+                    }
+                }
+                long id = event.id();
+                CompletableFuture<?> sent;
+                try {
+                    sent = this.sink.send(event).toCompletableFuture();
+                } catch (RuntimeException e) {
+                    unsubscribe();
+                    return;
+                }
+                if (sent.isDone() && !sent.isCompletedExceptionally()) {
+                    this.cursor = next;
+                    this.lastId = id;
+                    this.sending.set(false);
+                    continue;
+                }
+                sent.whenComplete((result, failure) -> {
+                    if (failure != null) {
+                        // Connection closed by the subscriber
+                        unsubscribe();
+                        return;
+                    }
+                    this.cursor = next;
+                    this.lastId = id;
+                    this.sending.set(false);
+                    drain();
+                });
+                return;
+            }
+        }
+
+        /**
+         * Sends a heartbeat, unless a send is in progress as it detects a closed connection already.
+         */
+        void heartbeat() {
+            if (this.closed.get() || !this.sending.compareAndSet(false, true)) {
+                return;
+            }
+            CompletableFuture<?> sent;
+            try {
+                sent = this.sink.heartbeat().toCompletableFuture();
+            } catch (RuntimeException e) {
+                unsubscribe();
+                return;
+            }
+            sent.whenComplete((result, failure) -> {
+                if (failure != null) {
+                    // Connection closed by the subscriber
+                    unsubscribe();
+                    return;
+                }
+                this.sending.set(false);
+                // Events published while sending the heartbeat
+                drain();
+            });
+        }
+
+        private void close(String reason) {
+            LOG.info("Disconnecting change stream subscriber: {}", reason);
+            unsubscribe();
+            this.sink.close(reason);
+        }
+
+        /**
+         * Stops sending events to the subscriber.
+         */
+        public void unsubscribe() {
+            this.closed.set(true);
+            JepChangeStream.this.subscribers.remove(this);
+        }
+
+        long cursor() {
+            return this.cursor;
+        }
+    }
+
+    /**
+     * An event of the ring, with its sequence number.
+     */
+    private record Entry(long sequence, ChangeEvent event) {
+    }
+
+    /**
+     * A change stream event, serialized once for all the subscribers.
+     *
+     * @param id   The id of the transition
+     * @param json The transition, as JSON
+     */
+    public record ChangeEvent(long id, String json) {
+        static ChangeEvent of(JepTransition transition) {
+            long id = transition.id;
+            StringWriter writer = new StringWriter(160);
+            try (JsonGenerator generator = FACTORY.createGenerator(writer)) {
+                generator.writeStartObject();
+                generator.writeNumberField("id", id);
+                generator.writeStringField("jep", transition.jepNumber);
+                generator.writeStringField("from", transition.fromState == null ? null : transition.fromState.name());
+                generator.writeStringField("to", transition.toState == null ? null : transition.toState.name());
+                generator.writeStringField("release", transition.release);
+                generator.writeStringField("at", transition.occurredAt.toString());
+                generator.writeEndObject();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to write change event", e);
+            }
+            return new ChangeEvent(id, writer.toString());
+        }
+    }
+
+    /**
+     * The transitions of an update, published once committed.
+     *
+     * @param transitions The transitions, in order
+     */
+    public record Transitions(List<JepTransition> transitions) {
+    }
+}
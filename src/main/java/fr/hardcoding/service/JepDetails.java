@@ -0,0 +1,13 @@
+package fr.hardcoding.service;
+
+/**
+ * The details of a JEP from its own page, not shown in the JEP 0 table.
+ *
+ * @param number  The JEP number
+ * @param owner   The JEP owner, {@code null} if unknown
+ * @param summary The JEP summary, {@code null} if unknown
+ * @param issue   The JEP issue URL, {@code null} if unknown
+ * @param updated The JEP last update date as displayed, {@code null} if unknown
+ */
+public record JepDetails(String number, String owner, String summary, String issue, String updated) {
+}
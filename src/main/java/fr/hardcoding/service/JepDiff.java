@@ -0,0 +1,148 @@
+package fr.hardcoding.service;
+
+import fr.hardcoding.model.Jep;
+import fr.hardcoding.model.JepTransition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import static fr.hardcoding.model.JepState.SUBMITTED;
+
+/**
+ * The changes between the known JEPs and the rows parsed from a JEP 0 page.
+ * <p>
+ * The diff is computed in memory, without the database, so it is shared by the update checks, which persist it,
+ * and the replay of archived pages, which does not.
+ *
+ * @param newJeps     The JEPs new to the page
+ * @param updatedJeps The new, moved and retargeted JEPs, to post
+ * @param removedJeps The JEPs removed from the page
+ * @param transitions The state transitions, in order
+ * @param changes     The number of new, changed and removed JEPs
+ */
+record JepDiff(List<Jep> newJeps, List<Jep> updatedJeps, List<Jep> removedJeps, List<JepTransition> transitions,
+               int changes) {
+    private static final Logger LOG = LoggerFactory.getLogger(JepDiff.class);
+
+    /**
+     * Applies the parsed JEPs to the known ones.
+     * <p>
+     * New JEPs, state changes and release retargets are recorded as transitions. Title, type and component changes
+     * are only applied. Known JEPs missing from both the parsed and the unchanged rows were removed from the page,
+     * unless more than {@code maxRemovals} are missing, like from a truncated page. Known JEPs whose row changed but
+     * failed to be parsed are still on the page, they are left unchanged.
+     *
+     * @param knownJeps     The known JEPs by number, updated with the new, changed and removed JEPs
+     * @param currentJeps   The JEPs parsed from the changed rows
+     * @param unchangedRows The fingerprints of the rows that did not change since the last run
+     * @param failedNumbers The JEP numbers of the rows that failed to be parsed
+     * @param maxRemovals   The maximum number of JEPs removed at once
+     * @param now           The instant of the transitions
+     * @return The diff
+     */
+    static JepDiff compute(Map<String, Jep> knownJeps, List<Jep> currentJeps, Set<Long> unchangedRows,
+                           Set<String> failedNumbers, int maxRemovals, Instant now) {
+        // Rows failing to be parsed are still on the page
+        Set<String> seenNumbers = new HashSet<>(failedNumbers);
+        List<Jep> newJeps = new ArrayList<>();
+        List<Jep> updatedJeps = new ArrayList<>();
+        List<JepTransition> transitions = new ArrayList<>();
+        int changes = 0;
+
+        for (Jep currentJep : currentJeps) {
+            if (currentJep.number != null) {
+                seenNumbers.add(currentJep.number);
+            }
+            // Skip submitted only JEPs, no JEP number
+            if (currentJep.state == SUBMITTED || currentJep.number == null) {
+                continue;
+            }
+            Jep existingJep = knownJeps.get(currentJep.number);
+            if (existingJep == null) {
+                // New JEP
+                newJeps.add(currentJep);
+                knownJeps.put(currentJep.number, currentJep);
+                transitions.add(JepTransition.create(currentJep, null, now));
+                updatedJeps.add(currentJep);
+                changes++;
+                continue;
+            }
+            if (isUpdate(existingJep, currentJep)) {
+                // Status changed or retargeted
+                transitions.add(JepTransition.create(currentJep, existingJep.state, now));
+                updatedJeps.add(currentJep);
+                changes++;
+            } else if (existingJep.type != currentJep.type
+                    || !Objects.equals(existingJep.title, currentJep.title)
+                    || !Objects.equals(existingJep.component, currentJep.component)
+                    || !Objects.equals(existingJep.subComponent, currentJep.subComponent)) {
+                LOG.info("Updating JEP {} details to {}", currentJep.number, currentJep);
+                changes++;
+            }
+            // Managed entities will be flushed on commit, only if a field changed
+            existingJep.type = currentJep.type;
+            existingJep.state = currentJep.state;
+            existingJep.release = currentJep.release;
+            existingJep.component = currentJep.component;
+            existingJep.subComponent = currentJep.subComponent;
+            existingJep.title = currentJep.title;
+            existingJep.fingerprint = currentJep.fingerprint;
+        }
+        List<Jep> removedJeps = removedJeps(knownJeps, seenNumbers, unchangedRows, maxRemovals);
+        for (Jep removedJep : removedJeps) {
+            LOG.info("Removing JEP {}", removedJep.number);
+            knownJeps.remove(removedJep.number);
+            transitions.add(JepTransition.removed(removedJep, now));
+        }
+        changes += removedJeps.size();
+        return new JepDiff(newJeps, updatedJeps, removedJeps, transitions, changes);
+    }
+
+    /**
+     * Finds the JEPs a diff would post, without applying the parsed JEPs to the known ones.
+     *
+     * @param knownJeps   The known JEPs by number, at least those of the parsed JEPs
+     * @param currentJeps The JEPs parsed from the changed rows
+     * @return The new, moved and retargeted JEPs, in order
+     */
+    static List<Jep> updatedJeps(Map<String, Jep> knownJeps, List<Jep> currentJeps) {
+        Set<String> seenNumbers = new HashSet<>();
+        List<Jep> updatedJeps = new ArrayList<>();
+        for (Jep currentJep : currentJeps) {
+            if (currentJep.state == SUBMITTED || currentJep.number == null || !seenNumbers.add(currentJep.number)) {
+                continue;
+            }
+            Jep existingJep = knownJeps.get(currentJep.number);
+            if (existingJep == null || isUpdate(existingJep, currentJep)) {
+                updatedJeps.add(currentJep);
+            }
+        }
+        return updatedJeps;
+    }
+
+    private static boolean isUpdate(Jep existingJep, Jep currentJep) {
+        return existingJep.state != currentJep.state || !Objects.equals(existingJep.release, currentJep.release);
+    }
+
+    private static List<Jep> removedJeps(Map<String, Jep> knownJeps, Set<String> seenNumbers, Set<Long> unchangedRows, int maxRemovals) {
+        List<Jep> removedJeps = new ArrayList<>();
+        for (Jep knownJep : knownJeps.values()) {
+            if (!seenNumbers.contains(knownJep.number)
+                    && (knownJep.fingerprint == null || !unchangedRows.contains(knownJep.fingerprint))) {
+                removedJeps.add(knownJep);
+            }
+        }
+        if (removedJeps.size() > maxRemovals) {
+            LOG.warn("Ignoring the removal of {} JEPs, more than the {} allowed", removedJeps.size(), maxRemovals);
+            return List.of();
+        }
+        return removedJeps;
+    }
+}
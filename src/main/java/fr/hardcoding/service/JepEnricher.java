@@ -0,0 +1,215 @@
+package fr.hardcoding.service;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Fetches the individual JEP pages to enrich the posts with details missing from the JEP 0 table.
+ * <p>
+ * Pages are fetched in parallel on virtual threads, with a cap on the concurrent requests to each host, so a burst
+ * of changes takes about as long as the slowest fetch. Details are kept in an LRU cache with the page ETag, and
+ * cached pages are only revalidated with conditional requests.
+ */
+@ApplicationScoped
+public class JepEnricher {
+    private static final Logger LOG = LoggerFactory.getLogger(JepEnricher.class);
+    private static final String ENDPOINT = "openjdk";
+    private static final int NOT_MODIFIED = 304;
+
+    @ConfigProperty(name = "jep.enrichment.enabled", defaultValue = "true")
+    boolean enabled;
+    @ConfigProperty(name = "jep.enrichment.url", defaultValue = "https://openjdk.org/jeps/")
+    String url;
+    @ConfigProperty(name = "jep.enrichment.max-concurrency-per-host", defaultValue = "8")
+    int maxConcurrencyPerHost;
+    @ConfigProperty(name = "jep.enrichment.max-fetches", defaultValue = "100")
+    int maxFetches;
+
+    private final Map<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+    private final Map<String, CacheEntry> cache;
+    private final AtomicLong fetches = new AtomicLong();
+    private final AtomicLong revalidations = new AtomicLong();
+    private final HttpClients httpClients;
+
+    public JepEnricher(HttpClients httpClients,
+                       @ConfigProperty(name = "jep.enrichment.cache-size", defaultValue = "2000") int cacheSize) {
+        this.httpClients = httpClients;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Fetches the details of JEPs, in parallel.
+     *
+     * @param numbers The JEP numbers
+     * @return The details of the JEPs that could be fetched, by number
+     */
+    public Map<String, JepDetails> enrich(Collection<String> numbers) {
+        if (!this.enabled || numbers.isEmpty()) {
+            return Map.of();
+        }
+        List<String> fetched = new ArrayList<>(numbers);
+        if (fetched.size() > this.maxFetches) {
+            LOG.warn("Only enriching {} of the {} changed JEPs", this.maxFetches, fetched.size());
+            fetched = fetched.subList(0, this.maxFetches);
+        }
+        Map<String, Future<JepDetails>> futures = new LinkedHashMap<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (String number : fetched) {
+                futures.put(number, executor.submit(() -> fetch(number)));
+            }
+        }
+        Map<String, JepDetails> details = HashMap.newHashMap(futures.size());
+        for (Map.Entry<String, Future<JepDetails>> entry : futures.entrySet()) {
+            try {
+                details.put(entry.getKey(), entry.getValue().get());
+            } catch (ExecutionException e) {
+                LOG.warn("Failed to enrich JEP {}", entry.getKey(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return details;
+    }
+
+    /**
+     * Gets the cached details of a JEP, without fetching its page.
+     *
+     * @param number The JEP number
+     * @return The JEP details, {@code null} if not cached
+     */
+    public JepDetails cached(String number) {
+        if (!this.enabled) {
+            return null;
+        }
+        CacheEntry entry = getCacheEntry(number);
+        return entry == null ? null : entry.details();
+    }
+
+    private JepDetails fetch(String number) throws IOException, InterruptedException {
+        URI uri = URI.create(this.url + number);
+        CacheEntry cached = getCacheEntry(number);
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .GET();
+        if (cached != null && cached.etag() != null) {
+            request.header("If-None-Match", cached.etag());
+        }
+        HttpResponse<byte[]> response;
+        Semaphore permits = this.hostPermits.computeIfAbsent(uri.getHost(), host -> new Semaphore(this.maxConcurrencyPerHost));
+        permits.acquire();
+        try {
+            response = this.httpClients.endpoint(ENDPOINT).send(request);
+        } finally {
+            permits.release();
+        }
+        if (response.statusCode() == NOT_MODIFIED && cached != null) {
+            this.revalidations.incrementAndGet();
+            return cached.details();
+        }
+        if (response.statusCode() != 200) {
+            throw new IOException("Unexpected status " + response.statusCode() + " fetching " + uri);
+        }
+        this.fetches.incrementAndGet();
+        JepDetails details = parseDetails(number, Jsoup.parse(new String(response.body(), UTF_8), uri.toString()));
+        // Pages without validator are fetched again next time
+        putCacheEntry(number, new CacheEntry(details, response.headers().firstValue("ETag").orElse(null)));
+        return details;
+    }
+
+    private CacheEntry getCacheEntry(String number) {
+        synchronized (this.cache) {
+            return this.cache.get(number);
+        }
+    }
+
+    private void putCacheEntry(String number, CacheEntry entry) {
+        synchronized (this.cache) {
+            this.cache.put(number, entry);
+        }
+    }
+
+    long fetches() {
+        return this.fetches.get();
+    }
+
+    long revalidations() {
+        return this.revalidations.get();
+    }
+
+    /**
+     * Parses the details of a JEP from its page.
+     *
+     * @param number   The JEP number
+     * @param document The JEP page
+     * @return The JEP details
+     */
+    static JepDetails parseDetails(String number, Document document) {
+        String owner = null;
+        String issue = null;
+        String updated = null;
+        for (Element row : document.select("table.head tr")) {
+            Element name = row.selectFirst("td");
+            Element value = row.selectFirst("td + td");
+            if (name == null || value == null) {
+                continue;
+            }
+            switch (name.text()) {
+                case "Owner" -> owner = valueOrNull(value.text());
+                case "Updated" -> updated = valueOrNull(value.text());
+                case "Issue" -> {
+                    Element link = value.selectFirst("a[href]");
+                    issue = link == null ? valueOrNull(value.text()) : link.absUrl("href");
+                }
+                default -> {
+                    // Already in the JEP 0 table
+                }
+            }
+        }
+        String summary = null;
+        Element summaryTitle = document.selectFirst("h2#Summary");
+        if (summaryTitle != null) {
+            Element paragraph = summaryTitle.nextElementSibling();
+            if (paragraph != null && paragraph.nameIs("p")) {
+                summary = valueOrNull(paragraph.text());
+            }
+        }
+        return new JepDetails(number, owner, summary, issue, updated);
+    }
+
+    private static String valueOrNull(String s) {
+        return s.isBlank() ? null : s;
+    }
+
+    private record CacheEntry(JepDetails details, String etag) {
+    }
+}
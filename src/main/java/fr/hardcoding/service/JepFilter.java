@@ -0,0 +1,55 @@
+package fr.hardcoding.service;
+
+import fr.hardcoding.model.Jep;
+import fr.hardcoding.model.JepState;
+import fr.hardcoding.model.JepType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Filters the JEP updates posted to a sink, configured by the {@code sinks.<name>.types}, {@code states},
+ * {@code components} and {@code releases} properties. Each filter left empty matches any JEP, and a JEP must match
+ * all the others. Components match a JEP component, like {@code hotspot}, or a component and sub-component, like
+ * {@code hotspot/gc}.
+ *
+ * @param types      The JEP types to post
+ * @param states     The JEP states to post
+ * @param components The JEP components or component/sub-components to post
+ * @param releases   The JEP releases to post
+ */
+public record JepFilter(Set<JepType> types, Set<JepState> states, Set<String> components, Set<String> releases) {
+    public static final JepFilter ANY = new JepFilter(Set.of(), Set.of(), Set.of(), Set.of());
+
+    public boolean matches(Jep jep) {
+        return matches(this.types, jep.type)
+                && matches(this.states, jep.state)
+                && (matches(this.components, jep.component) || matches(this.components, jep.component + "/" + jep.subComponent))
+                && matches(this.releases, jep.release);
+    }
+
+    private static <T> boolean matches(Set<T> values, T value) {
+        // Immutable sets reject null lookups
+        return values.isEmpty() || value != null && values.contains(value);
+    }
+
+    /**
+     * Filters JEPs.
+     *
+     * @param jeps The JEPs to filter
+     * @return The matching JEPs, the given list if all of them match
+     */
+    public List<Jep> filter(List<Jep> jeps) {
+        if (this.equals(ANY)) {
+            return jeps;
+        }
+        List<Jep> matching = new ArrayList<>(jeps.size());
+        for (Jep jep : jeps) {
+            if (matches(jep)) {
+                matching.add(jep);
+            }
+        }
+        return matching.size() == jeps.size() ? jeps : matching;
+    }
+}
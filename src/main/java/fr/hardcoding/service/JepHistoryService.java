@@ -0,0 +1,92 @@
+package fr.hardcoding.service;
+
+import fr.hardcoding.model.JepSnapshot;
+import fr.hardcoding.model.JepTransition;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.transaction.Transactional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static io.quarkus.scheduler.Scheduled.ConcurrentExecution.SKIP;
+
+/**
+ * Rebuilds the state of the JEPs at any instant from their transition history.
+ * <p>
+ * Snapshots of the state of all JEPs are taken periodically, so rebuilding a past state only replays the
+ * transitions that occurred since the latest snapshot before it rather than the whole history.
+ */
+@ApplicationScoped
+public class JepHistoryService {
+    private static final Logger LOG = LoggerFactory.getLogger(JepHistoryService.class);
+
+    // Leave time for the transactions in flight to commit their transitions before snapshotting them
+    @ConfigProperty(name = "history.snapshot.lag", defaultValue = "5m")
+    Duration snapshotLag;
+    private final LeaderLease leaderLease;
+
+    public JepHistoryService(LeaderLease leaderLease) {
+        this.leaderLease = leaderLease;
+    }
+
+    @Scheduled(every = "${history.snapshot.interval:1d}", concurrentExecution = SKIP)
+    @Transactional
+    public void takeSnapshot() {
+        // Snapshots are shared by all instances
+        if (this.leaderLease.isLeader()) {
+            takeSnapshot(Instant.now().minus(this.snapshotLag));
+        }
+    }
+
+    /**
+     * Takes a snapshot of the state of all JEPs, unless nothing changed since the latest one.
+     *
+     * @param instant The snapshot instant
+     * @return The snapshot, or the latest one if nothing changed
+     */
+    @Transactional
+    public JepSnapshot takeSnapshot(Instant instant) {
+        JepSnapshot latest = JepSnapshot.findLatest(instant);
+        List<JepTransition> transitions = JepTransition.findBetween(latest == null ? null : latest.takenAt, instant);
+        if (latest != null && transitions.isEmpty()) {
+            LOG.debug("No JEP transition since snapshot {}", latest);
+            return latest;
+        }
+        JepStateTable table = latest == null ? JepStateTable.empty() : JepStateTable.decode(latest.data);
+        table.applyAll(transitions);
+        JepSnapshot snapshot = JepSnapshot.create(instant, table.size(), table.encode());
+        snapshot.persist();
+        LOG.info("Took snapshot {} from {} transitions", snapshot, transitions.size());
+        return snapshot;
+    }
+
+    /**
+     * Rebuilds the state of all JEPs at an instant.
+     *
+     * @param instant The instant
+     * @return The state of all JEPs at this instant
+     */
+    @Transactional
+    public JepStateTable stateAt(Instant instant) {
+        JepSnapshot snapshot = JepSnapshot.findLatest(instant);
+        JepStateTable table = snapshot == null ? JepStateTable.empty() : JepStateTable.decode(snapshot.data);
+        table.applyAll(JepTransition.findBetween(snapshot == null ? null : snapshot.takenAt, instant));
+        return table;
+    }
+
+    /**
+     * Gets the transitions of a JEP.
+     *
+     * @param jepNumber The JEP number
+     * @return The JEP transitions, in order
+     */
+    @Transactional
+    public List<JepTransition> transitionsOf(String jepNumber) {
+        return JepTransition.findByJep(jepNumber);
+    }
+}
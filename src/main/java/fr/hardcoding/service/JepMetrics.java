@@ -0,0 +1,159 @@
+package fr.hardcoding.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.runtime.Startup;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The meters of the fetch, parse, enrich, diff and post pipeline.
+ * <p>
+ * Each stage is timed by the {@value #STAGE_TIMER} timer, tagged by stage, and the rows, changes and posts are
+ * counted along the way. The interval before the next check is gauged, and each scheduled check is counted by
+ * reason. Meters are exposed on the Prometheus endpoint {@code /q/metrics}.
+ */
+@Startup
+@ApplicationScoped
+public class JepMetrics {
+    static final String STAGE_TIMER = "jep.pipeline.stage";
+
+    private final Timer fetchTimer;
+    private final Timer parseTimer;
+    private final Timer enrichTimer;
+    private final Timer diffTimer;
+    private final Timer formatTimer;
+    private final Timer postTimer;
+    private final Counter parsedRows;
+    private final Counter unchangedRows;
+    private final Counter failedRows;
+    private final Counter changedJeps;
+    private final MeterRegistry registry;
+    private final Map<JepPollScheduler.Reason, Counter> scheduledChecks = new EnumMap<>(JepPollScheduler.Reason.class);
+    private final AtomicLong checkIntervalMillis = new AtomicLong();
+    // Function counters only keep weak references to their sources
+    private final JepPageFetcher pageFetcher;
+    private final BlueskyService blueskyService;
+
+    public JepMetrics(MeterRegistry registry, JepPageFetcher pageFetcher, BlueskyService blueskyService) {
+        this.registry = registry;
+        this.pageFetcher = pageFetcher;
+        this.blueskyService = blueskyService;
+        this.fetchTimer = stageTimer(registry, "fetch");
+        this.parseTimer = stageTimer(registry, "parse");
+        this.enrichTimer = stageTimer(registry, "enrich");
+        this.diffTimer = stageTimer(registry, "diff");
+        this.formatTimer = stageTimer(registry, "format");
+        this.postTimer = stageTimer(registry, "post");
+        this.parsedRows = Counter.builder("jep.rows.parsed")
+                .description("JEP 0 table rows parsed")
+                .register(registry);
+        this.unchangedRows = Counter.builder("jep.rows.unchanged")
+                .description("JEP 0 table rows skipped as unchanged since the last run")
+                .register(registry);
+        this.failedRows = Counter.builder("jep.rows.failed")
+                .description("JEP 0 table rows that could not be parsed")
+                .register(registry);
+        this.changedJeps = Counter.builder("jep.changes")
+                .description("New, changed and removed JEPs")
+                .register(registry);
+        for (JepPollScheduler.Reason reason : JepPollScheduler.Reason.values()) {
+            this.scheduledChecks.put(reason, Counter.builder("jep.checks.scheduled")
+                    .description("Scheduled JEP update checks, by reason of their interval")
+                    .tag("reason", reason.tag())
+                    .register(registry));
+        }
+        TimeGauge.builder("jep.checks.interval", this.checkIntervalMillis, TimeUnit.MILLISECONDS, AtomicLong::doubleValue)
+                .description("Interval before the next JEP update check")
+                .register(registry);
+        FunctionCounter.builder("jep.fetch.runs", this.pageFetcher, JepPageFetcher::fullRuns)
+                .description("JEP 0 page fetches")
+                .tag("result", "full")
+                .register(registry);
+        FunctionCounter.builder("jep.fetch.runs", this.pageFetcher, JepPageFetcher::skippedRuns)
+                .description("JEP 0 page fetches")
+                .tag("result", "skipped")
+                .register(registry);
+        FunctionCounter.builder("bluesky.session.renewals", this.blueskyService, BlueskyService::sessionCreations)
+                .description("Bluesky session renewals")
+                .tag("type", "create")
+                .register(registry);
+        FunctionCounter.builder("bluesky.session.renewals", this.blueskyService, BlueskyService::sessionRefreshes)
+                .description("Bluesky session renewals")
+                .tag("type", "refresh")
+                .register(registry);
+    }
+
+    private static Timer stageTimer(MeterRegistry registry, String stage) {
+        return Timer.builder(STAGE_TIMER)
+                .description("Duration of the JEP update pipeline stages")
+                .tag("stage", stage)
+                .register(registry);
+    }
+
+    private static Counter postCounter(MeterRegistry registry, String sink, String outcome) {
+        return Counter.builder("jep.posts")
+                .description("Posted JEP updates")
+                .tag("sink", sink)
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    public Timer fetchTimer() {
+        return this.fetchTimer;
+    }
+
+    public Timer parseTimer() {
+        return this.parseTimer;
+    }
+
+    public Timer enrichTimer() {
+        return this.enrichTimer;
+    }
+
+    public Timer diffTimer() {
+        return this.diffTimer;
+    }
+
+    public Timer formatTimer() {
+        return this.formatTimer;
+    }
+
+    public Timer postTimer() {
+        return this.postTimer;
+    }
+
+    public void parsedRows(int count) {
+        this.parsedRows.increment(count);
+    }
+
+    public void unchangedRows(int count) {
+        this.unchangedRows.increment(count);
+    }
+
+    public void failedRow() {
+        this.failedRows.increment();
+    }
+
+    public void changedJeps(int count) {
+        this.changedJeps.increment(count);
+    }
+
+    public void posted(String sink, boolean succeeded) {
+        // Registering returns the existing counter
+        postCounter(this.registry, sink, succeeded ? "success" : "failure").increment();
+    }
+
+    public void scheduledCheck(Duration interval, JepPollScheduler.Reason reason) {
+        this.checkIntervalMillis.set(interval.toMillis());
+        this.scheduledChecks.get(reason).increment();
+    }
+}
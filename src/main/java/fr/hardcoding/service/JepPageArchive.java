@@ -0,0 +1,144 @@
+package fr.hardcoding.service;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Archives the fetched JEP 0 pages, so past checks can be replayed by the {@link JepReplayService}.
+ * <p>
+ * Each page is written as fetched and gzipped, named after its fetch instant like
+ * {@code jep-0-20250918T093000Z.html.gz}, so the archive lists in fetch order. Archiving is disabled by default.
+ */
+@ApplicationScoped
+public class JepPageArchive {
+    private static final Logger LOG = LoggerFactory.getLogger(JepPageArchive.class);
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("uuuuMMdd'T'HHmmssX")
+            .withZone(ZoneOffset.UTC);
+    private static final Pattern FILE_NAME = Pattern.compile("jep-0-(\\d{8}T\\d{6}Z)\\.html(\\.gz)?");
+
+    @ConfigProperty(name = "jep.archive.enabled", defaultValue = "false")
+    boolean enabled;
+    @ConfigProperty(name = "jep.archive.directory", defaultValue = "./db/archive")
+    String directory;
+
+    /**
+     * Archives a fetched page, if enabled. Failures are only logged, they never fail the check.
+     *
+     * @param page      The fetched page
+     * @param fetchedAt The fetch instant
+     */
+    public void archive(JepPageFetcher.Page page, Instant fetchedAt) {
+        if (!this.enabled) {
+            return;
+        }
+        Path file = Path.of(this.directory, fileName(fetchedAt));
+        try {
+            write(file, page.body());
+            LOG.debug("Archived JEP page to {}", file);
+        } catch (IOException e) {
+            LOG.warn("Failed to archive the JEP page to {}", file, e);
+        }
+    }
+
+    static String fileName(Instant fetchedAt) {
+        return "jep-0-" + TIMESTAMP.format(fetchedAt) + ".html.gz";
+    }
+
+    /**
+     * Writes an archived page, replacing any page of the same instant atomically.
+     *
+     * @param file The archive file
+     * @param body The page content
+     * @throws IOException If the file could not be written
+     */
+    static void write(Path file, byte[] body) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream output = new GZIPOutputStream(Files.newOutputStream(temporary))) {
+            output.write(body);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Lists the archived pages of a directory, gzipped or not, in fetch order.
+     *
+     * @param directory The archive directory
+     * @return The archived pages
+     * @throws IOException If the directory could not be listed
+     */
+    public static List<ArchivedPage> list(Path directory) throws IOException {
+        List<ArchivedPage> pages = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Matcher matcher = FILE_NAME.matcher(file.getFileName().toString());
+                if (!matcher.matches()) {
+                    continue;
+                }
+                try {
+                    pages.add(new ArchivedPage(file, Instant.from(TIMESTAMP.parse(matcher.group(1)))));
+                } catch (DateTimeParseException e) {
+                    LOG.warn("Skipping archived page {} with an invalid timestamp", file);
+                }
+            }
+        }
+        pages.sort(Comparator.comparing(ArchivedPage::fetchedAt));
+        return pages;
+    }
+
+    /**
+     * A page of the archive.
+     *
+     * @param file      The archive file
+     * @param fetchedAt The fetch instant
+     */
+    public record ArchivedPage(Path file, Instant fetchedAt) {
+        /**
+         * Parses the archived page, with the charset declared by the page, UTF-8 if none.
+         *
+         * @return The page document
+         * @throws IOException If the page could not be read
+         */
+        public Document document() throws IOException {
+            try (InputStream input = open()) {
+                return Jsoup.parse(input, null, "https://openjdk.org/jeps/0");
+            }
+        }
+
+        private InputStream open() throws IOException {
+            InputStream input = Files.newInputStream(this.file);
+            if (!this.file.getFileName().toString().endsWith(".gz")) {
+                return input;
+            }
+            try {
+                return new GZIPInputStream(input);
+            } catch (IOException e) {
+                input.close();
+                throw e;
+            }
+        }
+    }
+}
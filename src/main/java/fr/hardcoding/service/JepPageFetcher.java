@@ -0,0 +1,269 @@
+package fr.hardcoding.service;
+
+import io.opentelemetry.instrumentation.annotations.WithSpan;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Fetches the JEP 0 index page using conditional requests.
+ * <p>
+ * The {@code ETag} and {@code Last-Modified} validators of the last processed page are sent back to the server
+ * so an unchanged page is answered with {@code 304 Not Modified}. When the server gives no validator, a hash of
+ * the page content is compared instead.
+ */
+@ApplicationScoped
+public class JepPageFetcher {
+    private static final Logger LOG = LoggerFactory.getLogger(JepPageFetcher.class);
+    private static final String ENDPOINT = "openjdk";
+    private static final int NOT_MODIFIED = 304;
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final int SERVICE_UNAVAILABLE = 503;
+
+    @ConfigProperty(name = "jep.url", defaultValue = "https://openjdk.org/jeps/0")
+    String url;
+
+    private final AtomicLong skippedRuns = new AtomicLong();
+    private final AtomicLong fullRuns = new AtomicLong();
+    private volatile Page lastPage;
+    private final HttpClients httpClients;
+    private final JepPageArchive archive;
+
+    public JepPageFetcher(HttpClients httpClients, JepPageArchive archive) {
+        this.httpClients = httpClients;
+        this.archive = archive;
+    }
+
+    /**
+     * Fetches the JEP 0 page.
+     *
+     * @return The fetched page, or nothing if the page did not change since the last acknowledged one
+     * @throws RateLimitedException If the server asked to slow down
+     * @throws IOException          If the page could not be fetched within the {@code openjdk} endpoint deadline
+     */
+    @WithSpan
+    public Optional<Page> fetch() throws IOException {
+        Page previous = this.lastPage;
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(this.url))
+                .GET();
+        if (previous != null) {
+            if (previous.etag() != null) {
+                request.header("If-None-Match", previous.etag());
+            }
+            if (previous.lastModified() != null) {
+                request.header("If-Modified-Since", previous.lastModified());
+            }
+        }
+        HttpResponse<byte[]> response = this.httpClients.endpoint(ENDPOINT).send(request);
+
+        if (response.statusCode() == NOT_MODIFIED) {
+            LOG.debug("JEP page not modified");
+            this.skippedRuns.incrementAndGet();
+            return Optional.empty();
+        }
+        if (response.statusCode() == TOO_MANY_REQUESTS || response.statusCode() == SERVICE_UNAVAILABLE) {
+            Duration retryAfter = response.headers().firstValue("Retry-After")
+                    .map(value -> retryAfter(value, Instant.now()))
+                    .orElse(null);
+            throw new RateLimitedException("Status " + response.statusCode() + " fetching " + this.url, retryAfter);
+        }
+        if (response.statusCode() != 200) {
+            throw new IOException("Unexpected status " + response.statusCode() + " fetching " + this.url);
+        }
+        String etag = response.headers().firstValue("ETag").orElse(null);
+        String lastModified = response.headers().firstValue("Last-Modified").orElse(null);
+        byte[] body = response.body();
+        byte[] contentHash = hash(body);
+        // Fall back to the content hash when the server gives no validator
+        if (etag == null && lastModified == null && previous != null && Arrays.equals(contentHash, previous.contentHash())) {
+            LOG.debug("JEP page content unchanged");
+            this.skippedRuns.incrementAndGet();
+            return Optional.empty();
+        }
+        this.fullRuns.incrementAndGet();
+        Charset charset = response.headers().firstValue("Content-Type")
+                .map(JepPageFetcher::charsetOf)
+                .orElse(UTF_8);
+        Page page = new Page(this.url, body, charset, etag, lastModified, contentHash);
+        this.archive.archive(page, Instant.now());
+        return Optional.of(page);
+    }
+
+    /**
+     * Acknowledges a page as fully processed so its validators are used for the next fetches.
+     * Pages that were not acknowledged will be fetched and processed again.
+     *
+     * @param page The processed page
+     */
+    public void acknowledge(Page page) {
+        // Only the validators are needed, do not keep the parsed page until the next change
+        this.lastPage = new Page(page.url(), page.body(), page.charset(), page.etag(), page.lastModified(), page.contentHash());
+    }
+
+    public long skippedRuns() {
+        return this.skippedRuns.get();
+    }
+
+    public long fullRuns() {
+        return this.fullRuns.get();
+    }
+
+    /**
+     * Parses a {@code Retry-After} header value, either a number of seconds or an HTTP date.
+     *
+     * @param value The header value
+     * @param now   The current instant, to compute the delay until an HTTP date
+     * @return The delay to wait, {@code null} if the value is invalid
+     */
+    static Duration retryAfter(String value, Instant now) {
+        String trimmed = value.trim();
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(trimmed)));
+        } catch (NumberFormatException e) {
+            // Not a number of seconds, try an HTTP date
+        }
+        try {
+            Instant date = ZonedDateTime.parse(trimmed, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+            return date.isAfter(now) ? Duration.between(now, date) : Duration.ZERO;
+        } catch (DateTimeParseException e) {
+            LOG.debug("Invalid Retry-After header {}", value);
+            return null;
+        }
+    }
+
+    private static Charset charsetOf(String contentType) {
+        for (String parameter : contentType.split(";")) {
+            String trimmed = parameter.trim();
+            if (trimmed.regionMatches(true, 0, "charset=", 0, 8)) {
+                try {
+                    return Charset.forName(trimmed.substring(8).replace("\"", ""));
+                } catch (IllegalArgumentException e) {
+                    LOG.debug("Unsupported charset {}", trimmed);
+                }
+            }
+        }
+        return UTF_8;
+    }
+
+    private static byte[] hash(byte[] content) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(content);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not supported", e);
+        }
+    }
+
+    /**
+     * Signals the server answered with {@code 429 Too Many Requests} or {@code 503 Service Unavailable}.
+     */
+    public static class RateLimitedException extends IOException {
+        private final Duration retryAfter;
+
+        public RateLimitedException(String message, Duration retryAfter) {
+            super(message);
+            this.retryAfter = retryAfter;
+        }
+
+        /**
+         * Gets the delay the server asked to wait before the next request.
+         *
+         * @return The delay to wait, {@code null} if not given
+         */
+        public Duration retryAfter() {
+            return this.retryAfter;
+        }
+    }
+
+    /**
+     * A fetched JEP page, with its validators. The page is parsed once, on the first access to its document.
+     */
+    public static final class Page {
+        private final String url;
+        private final byte[] body;
+        private final Charset charset;
+        private final String etag;
+        private final String lastModified;
+        private final byte[] contentHash;
+        private volatile Document document;
+
+        public Page(String url, byte[] body, Charset charset, String etag, String lastModified, byte[] contentHash) {
+            this.url = url;
+            this.body = body;
+            this.charset = charset;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.contentHash = contentHash;
+        }
+
+        public String url() {
+            return this.url;
+        }
+
+        public byte[] body() {
+            return this.body;
+        }
+
+        public Charset charset() {
+            return this.charset;
+        }
+
+        public String etag() {
+            return this.etag;
+        }
+
+        public String lastModified() {
+            return this.lastModified;
+        }
+
+        public byte[] contentHash() {
+            return this.contentHash;
+        }
+
+        /**
+         * Gets the parsed page, parsing it on the first call.
+         *
+         * @return The parsed page
+         */
+        public Document document() {
+            Document parsed = this.document;
+            if (parsed == null) {
+                synchronized (this) {
+                    parsed = this.document;
+                    if (parsed == null) {
+                        parsed = Jsoup.parse(new String(this.body, this.charset), this.url);
+                        this.document = parsed;
+                    }
+                }
+            }
+            return parsed;
+        }
+
+        public Reader reader() {
+            return new InputStreamReader(new ByteArrayInputStream(this.body), this.charset);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package fr.hardcoding.service;
+
+import fr.hardcoding.service.JepService.CheckResult;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.random.RandomGenerator;
+
+import static io.quarkus.scheduler.Scheduled.ConcurrentExecution.SKIP;
+
+/**
+ * Schedules the JEP update checks with an adaptive interval.
+ * <p>
+ * Checks are run at the minimum interval after changes, as JEPs tend to move together around rampdown dates, and
+ * back off exponentially up to the maximum interval while nothing changes. Intervals are jittered, and the delay
+ * asked by the server when rate limited is always honored. Checks never overlap, and only the leader runs them
+ * when several instances share the database, see {@link LeaderLease}. Standby instances follow the updates of the
+ * leader instead, and catch up with them before their first check once they take the lease over.
+ */
+@ApplicationScoped
+public class JepPollScheduler {
+    private static final Logger LOG = LoggerFactory.getLogger(JepPollScheduler.class);
+
+    @ConfigProperty(name = "jep.poll.min-interval", defaultValue = "10m")
+    Duration minInterval;
+    @ConfigProperty(name = "jep.poll.max-interval", defaultValue = "2h")
+    Duration maxInterval;
+    @ConfigProperty(name = "jep.poll.backoff-factor", defaultValue = "2")
+    double backoffFactor;
+    @ConfigProperty(name = "jep.poll.jitter", defaultValue = "0.1")
+    double jitter;
+    // Standbys follow the transitions on each tick, and the other JEP changes at this interval
+    @ConfigProperty(name = "leader.standby-refresh-interval", defaultValue = "10m")
+    Duration standbyRefreshInterval;
+
+    private final JepUpdates jepUpdates;
+    private final JepMetrics metrics;
+    private final LeaderLease leaderLease;
+    private final Clock clock;
+    private final RandomGenerator random;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile Duration interval;
+    private volatile Instant nextCheckAt = Instant.MIN;
+    private volatile Instant nextRefreshAt = Instant.MIN;
+    private volatile long leaderTerm;
+
+    @Inject
+    public JepPollScheduler(JepUpdates jepUpdates, JepMetrics metrics, LeaderLease leaderLease) {
+        this(jepUpdates, metrics, leaderLease, Clock.systemUTC(), new Random());
+    }
+
+    JepPollScheduler(JepUpdates jepUpdates, JepMetrics metrics, LeaderLease leaderLease, Clock clock, RandomGenerator random) {
+        this.jepUpdates = jepUpdates;
+        this.metrics = metrics;
+        this.leaderLease = leaderLease;
+        this.clock = clock;
+        this.random = random;
+    }
+
+    /**
+     * Runs the JEP update check when due, on the leader only. The scheduler tick only sets the resolution of the
+     * adaptive interval.
+     */
+    @Scheduled(every = "${jep.poll.tick:30s}", concurrentExecution = SKIP)
+    public void checkIfDue() {
+        if (!this.leaderLease.isLeader()) {
+            follow(false);
+            return;
+        }
+        long term = this.leaderLease.term();
+        if (term != this.leaderTerm) {
+            // Taking the lease over, catch up with the former leader before checking against the JEP table snapshot
+            this.leaderTerm = term;
+            follow(true);
+        }
+        if (!this.clock.instant().isBefore(this.nextCheckAt)) {
+            check();
+        }
+    }
+
+    private void follow(boolean refresh) {
+        Instant now = this.clock.instant();
+        if (refresh || !now.isBefore(this.nextRefreshAt)) {
+            refresh = true;
+            this.nextRefreshAt = now.plus(this.standbyRefreshInterval);
+        }
+        try {
+            this.jepUpdates.followUpdates(refresh);
+        } catch (RuntimeException e) {
+            LOG.error("Error following JEP updates", e);
+        }
+    }
+
+    /**
+     * Runs the JEP update check now and schedules the next one.
+     *
+     * @return {@code true} if the check ran, {@code false} if another check was still running
+     */
+    public boolean check() {
+        if (!this.running.compareAndSet(false, true)) {
+            LOG.warn("JEP update check still running, skipping");
+            return false;
+        }
+        try {
+            CheckResult result;
+            try {
+                result = this.jepUpdates.checkJepUpdates();
+            } catch (RuntimeException e) {
+                LOG.error("Error checking JEP updates", e);
+                result = CheckResult.FAILED;
+            }
+            schedule(result);
+            return true;
+        } finally {
+            this.running.set(false);
+        }
+    }
+
+    private void schedule(CheckResult result) {
+        Reason reason;
+        Duration base = switch (result.status()) {
+            case CHANGED -> {
+                reason = Reason.CHANGES;
+                yield this.minInterval;
+            }
+            case UNCHANGED -> {
+                reason = Reason.NO_CHANGES;
+                yield backOff();
+            }
+            case FAILED -> {
+                reason = Reason.FAILURE;
+                yield backOff();
+            }
+            case RATE_LIMITED -> {
+                reason = Reason.RATE_LIMITED;
+                Duration backOff = backOff();
+                Duration retryAfter = result.retryAfter();
+                yield retryAfter != null && retryAfter.compareTo(backOff) > 0 ? retryAfter : backOff;
+            }
+        };
+        this.interval = base;
+        Duration delay = jittered(base, reason == Reason.RATE_LIMITED);
+        this.nextCheckAt = this.clock.instant().plus(delay);
+        this.metrics.scheduledCheck(delay, reason);
+        LOG.info("Next JEP update check in {} ({})", delay, reason.tag());
+    }
+
+    private Duration backOff() {
+        Duration current = this.interval;
+        if (current == null) {
+            return this.minInterval;
+        }
+        long millis = (long) (current.toMillis() * this.backoffFactor);
+        return Duration.ofMillis(Math.clamp(millis, this.minInterval.toMillis(), this.maxInterval.toMillis()));
+    }
+
+    private Duration jittered(Duration base, boolean notBefore) {
+        long millis = base.toMillis();
+        long spread = (long) (millis * this.jitter);
+        if (spread <= 0) {
+            return base;
+        }
+        if (notBefore) {
+            // Never check again before the delay asked by the server
+            return Duration.ofMillis(millis + this.random.nextLong(spread + 1));
+        }
+        long delay = millis + this.random.nextLong(-spread, spread + 1);
+        return Duration.ofMillis(Math.clamp(delay, this.minInterval.toMillis(), this.maxInterval.toMillis()));
+    }
+
+    Duration interval() {
+        return this.interval;
+    }
+
+    Instant nextCheckAt() {
+        return this.nextCheckAt;
+    }
+
+    /**
+     * The reason of the interval before the next check.
+     */
+    public enum Reason {
+        CHANGES,
+        NO_CHANGES,
+        FAILURE,
+        RATE_LIMITED;
+
+        public String tag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package fr.hardcoding.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.JsonRecyclerPools;
+import fr.hardcoding.model.Jep;
+import fr.hardcoding.model.JepTransition;
+import io.quarkus.runtime.Quarkus;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Replays archived JEP 0 pages through the parser and the diff, without the database, to reproduce past posts or
+ * seed a new account with the JEP history.
+ * <p>
+ * Pages are read from a {@link JepPageArchive} directory and parsed in parallel, a few pages ahead of the diff,
+ * which applies them in fetch order to an in-memory table of the known JEPs starting empty. Each transition and
+ * update post is written to a JSON Lines file, stamped with the fetch instant of its page, so replaying the same
+ * archive always gives the same output. Posts are formatted without the JEP page details, which are not archived.
+ * <p>
+ * The replay runs on startup when {@code jep.replay.directory} is set, then the application exits. The
+ * {@code replay} profile runs it against an in-memory database with the scheduler disabled and Bluesky mocked.
+ */
+@ApplicationScoped
+public class JepReplayService {
+    private static final Logger LOG = LoggerFactory.getLogger(JepReplayService.class);
+    private static final JsonFactory FACTORY = JsonFactory.builder()
+            .recyclerPool(JsonRecyclerPools.sharedConcurrentDequePool())
+            .build();
+
+    @ConfigProperty(name = "jep.replay.directory")
+    Optional<String> directory;
+    @ConfigProperty(name = "jep.replay.output", defaultValue = "./replay.jsonl")
+    String output;
+    // Also send the posts to Bluesky, only logged with bluesky.mock
+    @ConfigProperty(name = "jep.replay.post", defaultValue = "false")
+    boolean post;
+    @ConfigProperty(name = "jep.max-removals", defaultValue = "10")
+    int maxRemovals;
+
+    private final JepService jepService;
+    private final BlueskyService blueskyService;
+
+    public JepReplayService(JepService jepService, BlueskyService blueskyService) {
+        this.jepService = jepService;
+        this.blueskyService = blueskyService;
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        if (this.directory.isEmpty()) {
+            return;
+        }
+        try {
+            replay(Path.of(this.directory.get()), Path.of(this.output));
+            Quarkus.asyncExit();
+        } catch (IOException e) {
+            LOG.error("Failed to replay the JEP pages of {}", this.directory.get(), e);
+            Quarkus.asyncExit(1);
+        }
+    }
+
+    /**
+     * Replays the archived pages of a directory.
+     *
+     * @param directory The archive directory
+     * @param output    The JSON Lines file to write the transitions and posts to
+     * @return The replay result
+     * @throws IOException If the archive could not be listed or the output written
+     */
+    public Result replay(Path directory, Path output) throws IOException {
+        List<JepPageArchive.ArchivedPage> pages = JepPageArchive.list(directory);
+        LOG.info("Replaying {} JEP pages from {}", pages.size(), directory);
+        long start = System.nanoTime();
+        Map<String, Jep> knownJeps = new HashMap<>();
+        int skippedPages = 0;
+        int transitions = 0;
+        int posts = 0;
+        // Parsing is CPU bound, keep a couple of pages per core ahead of the diff
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        try (ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+             Writer writer = Files.newBufferedWriter(output, UTF_8);
+             JsonGenerator generator = FACTORY.createGenerator(writer)) {
+            generator.setRootValueSeparator(null);
+            Deque<Future<ParsedPage>> parsedPages = new ArrayDeque<>();
+            int submitted = 0;
+            for (JepPageArchive.ArchivedPage page : pages) {
+                while (submitted < pages.size() && parsedPages.size() < 2 * parallelism) {
+                    JepPageArchive.ArchivedPage next = pages.get(submitted++);
+                    parsedPages.add(executor.submit(() -> parse(next)));
+                }
+                ParsedPage parsed;
+                try {
+                    parsed = parsedPages.removeFirst().get();
+                } catch (ExecutionException e) {
+                    LOG.warn("Skipping unreadable JEP page {}", page.file(), e.getCause());
+                    skippedPages++;
+                    continue;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while replaying " + page.file(), e);
+                }
+                JepDiff diff = JepDiff.compute(knownJeps, parsed.jeps(), Set.of(), parsed.failedNumbers(), this.maxRemovals,
+                        page.fetchedAt());
+                for (JepTransition transition : diff.transitions()) {
+                    writeTransition(generator, transition);
+                }
+                transitions += diff.transitions().size();
+                for (JepService.UpdatePost update : this.jepService.formatUpdates(diff.updatedJeps(), number -> null)) {
+                    writePost(generator, update, page.fetchedAt());
+                    if (this.post) {
+                        send(update);
+                    }
+                    posts++;
+                }
+            }
+        }
+        Result result = new Result(pages.size(), skippedPages, transitions, posts);
+        LOG.info("Replayed {} in {} ms to {}", result, (System.nanoTime() - start) / 1_000_000, output);
+        return result;
+    }
+
+    private static void writeTransition(JsonGenerator generator, JepTransition transition) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("type", "transition");
+        generator.writeStringField("at", transition.occurredAt.toString());
+        generator.writeStringField("jep", transition.jepNumber);
+        generator.writeStringField("from", transition.fromState == null ? null : transition.fromState.name());
+        generator.writeStringField("to", transition.toState == null ? null : transition.toState.name());
+        generator.writeStringField("release", transition.release);
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    private static void writePost(JsonGenerator generator, JepService.UpdatePost update, Instant at) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("type", "post");
+        generator.writeStringField("at", at.toString());
+        generator.writeStringField("jep", update.jep() == null ? null : update.jep().number);
+        generator.writeStringField("state", update.state().name());
+        generator.writeArrayFieldStart("texts");
+        for (String text : update.texts()) {
+            generator.writeString(text);
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    private void send(JepService.UpdatePost update) {
+        BlueskyJson.StrongRef root = null;
+        BlueskyJson.StrongRef parent = null;
+        for (String text : update.texts()) {
+            BlueskyJson.StrongRef ref = this.blueskyService.postUpdate(text, root == null ? null : new BlueskyJson.Reply(root, parent));
+            if (ref == null) {
+                LOG.warn("Failed to post the replayed update, skipping the rest of its thread");
+                return;
+            }
+            if (root == null) {
+                root = ref;
+            }
+            parent = ref;
+        }
+    }
+
+    private static ParsedPage parse(JepPageArchive.ArchivedPage page) throws IOException {
+        Set<String> failedNumbers = new HashSet<>();
+        List<Jep> jeps = JepService.parseJeps(page.document(), fingerprint -> true, failedNumbers::add);
+        return new ParsedPage(jeps, failedNumbers);
+    }
+
+    /**
+     * The JEPs parsed from an archived page.
+     *
+     * @param jeps          The parsed JEPs
+     * @param failedNumbers The JEP numbers of the rows that failed to be parsed
+     */
+    private record ParsedPage(List<Jep> jeps, Set<String> failedNumbers) {
+    }
+
+    /**
+     * The result of a replay.
+     *
+     * @param pages        The number of archived pages
+     * @param skippedPages The number of pages that could not be read
+     * @param transitions  The number of transitions
+     * @param posts        The number of update posts, threads counted once
+     */
+    public record Result(int pages, int skippedPages, int transitions, int posts) {
+    }
+}
@@ -0,0 +1,309 @@
+package fr.hardcoding.service;
+
+import fr.hardcoding.model.JepState;
+import fr.hardcoding.model.JepType;
+import fr.hardcoding.service.JepCatalog.JepView;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * An immutable inverted index over the JEP titles, with facets on their type, state, release and components.
+ * <p>
+ * Each JEP has a slot, and each title token and facet value has the bit set of the slots it appears in, so a query
+ * is a few bit set operations instead of a scan of the JEPs. A query allocates its parsed terms, a copy of the live
+ * slots narrowed by the facets, a copy of it per alternative of the text, and its result, each bit set holding a bit
+ * per slot, a few hundred bytes for the whole JEP table. Updates are copy-on-write: only the bit sets of the changed
+ * JEPs are copied, the others are shared with the previous index, which keeps serving readers.
+ * Slots are kept in JEP number order, so results are read in order and a limited search stops at its last result.
+ * Slots of removed JEPs are left free until the index is compacted by a full rebuild, also used when a new JEP
+ * numbered below the last one would break the order.
+ */
+public final class JepSearchIndex {
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final BitSet NONE = new BitSet();
+
+    private final JepView[] docs;
+    private final Map<String, Integer> slots;
+    // Title tokens as is, facets as field:value keys
+    private final Map<String, BitSet> postings;
+    private final BitSet live;
+
+    private JepSearchIndex(JepView[] docs, Map<String, Integer> slots, Map<String, BitSet> postings, BitSet live) {
+        this.docs = docs;
+        this.slots = slots;
+        this.postings = postings;
+        this.live = live;
+    }
+
+    /**
+     * Builds an index from scratch.
+     *
+     * @param jeps The JEPs to index
+     * @return The index
+     */
+    static JepSearchIndex build(List<JepView> jeps) {
+        JepView[] docs = jeps.toArray(JepView[]::new);
+        Arrays.sort(docs, JepCatalog.BY_NUMBER);
+        Map<String, Integer> slots = HashMap.newHashMap(docs.length);
+        Map<String, BitSet> postings = new HashMap<>();
+        BitSet live = new BitSet(docs.length);
+        for (int slot = 0; slot < docs.length; slot++) {
+            slots.put(docs[slot].number(), slot);
+            for (String key : keysOf(docs[slot])) {
+                postings.computeIfAbsent(key, k -> new BitSet()).set(slot);
+            }
+        }
+        live.set(0, docs.length);
+        return new JepSearchIndex(docs, slots, postings, live);
+    }
+
+    /**
+     * Updates the index with the current JEPs, only indexing the new, changed and removed ones.
+     *
+     * @param jeps All the current JEPs
+     * @return The updated index, this one if nothing changed
+     */
+    JepSearchIndex update(List<JepView> jeps) {
+        List<JepView> changed = new ArrayList<>();
+        Set<String> numbers = HashSet.newHashSet(jeps.size());
+        JepView last = last();
+        boolean ordered = true;
+        int added = 0;
+        for (JepView jep : jeps) {
+            numbers.add(jep.number());
+            Integer slot = this.slots.get(jep.number());
+            if (slot == null) {
+                changed.add(jep);
+                added++;
+                ordered &= last == null || JepCatalog.BY_NUMBER.compare(last, jep) < 0;
+                last = jep;
+            } else if (!this.docs[slot].equals(jep)) {
+                changed.add(jep);
+            }
+        }
+        List<String> removed = new ArrayList<>();
+        for (String number : this.slots.keySet()) {
+            if (!numbers.contains(number)) {
+                removed.add(number);
+            }
+        }
+        if (changed.isEmpty() && removed.isEmpty()) {
+            return this;
+        }
+        // Compact once free slots outnumber the JEPs
+        if (!ordered || this.docs.length + added - jeps.size() > jeps.size()) {
+            return build(jeps);
+        }
+        JepView[] docs = Arrays.copyOf(this.docs, this.docs.length + added);
+        Map<String, Integer> slots = new HashMap<>(this.slots);
+        Map<String, BitSet> postings = new HashMap<>(this.postings);
+        BitSet live = (BitSet) this.live.clone();
+        Set<String> copied = new HashSet<>();
+        for (String number : removed) {
+            int slot = slots.remove(number);
+            unindex(postings, copied, docs[slot], slot);
+            docs[slot] = null;
+            live.clear(slot);
+        }
+        int next = this.docs.length;
+        for (JepView jep : changed) {
+            Integer slot = slots.get(jep.number());
+            if (slot == null) {
+                slot = next++;
+                slots.put(jep.number(), slot);
+                live.set(slot);
+            } else {
+                unindex(postings, copied, docs[slot], slot);
+            }
+            docs[slot] = jep;
+            for (String key : keysOf(jep)) {
+                mutable(postings, copied, key).set(slot);
+            }
+        }
+        return new JepSearchIndex(docs, slots, postings, live);
+    }
+
+    private JepView last() {
+        for (int slot = this.docs.length - 1; slot >= 0; slot--) {
+            if (this.docs[slot] != null) {
+                return this.docs[slot];
+            }
+        }
+        return null;
+    }
+
+    private static void unindex(Map<String, BitSet> postings, Set<String> copied, JepView jep, int slot) {
+        for (String key : keysOf(jep)) {
+            BitSet posting = mutable(postings, copied, key);
+            posting.clear(slot);
+            if (posting.isEmpty()) {
+                postings.remove(key);
+            }
+        }
+    }
+
+    private static BitSet mutable(Map<String, BitSet> postings, Set<String> copied, String key) {
+        if (copied.add(key)) {
+            // First change of the posting in this update, copy it to leave the previous index untouched
+            BitSet posting = postings.get(key);
+            BitSet copy = posting == null ? new BitSet() : (BitSet) posting.clone();
+            postings.put(key, copy);
+            return copy;
+        }
+        return postings.computeIfAbsent(key, k -> new BitSet());
+    }
+
+    private static Set<String> keysOf(JepView jep) {
+        Set<String> keys = new LinkedHashSet<>(tokens(jep.title()));
+        keys.add(facet("type", jep.type()));
+        keys.add(facet("state", jep.state()));
+        if (jep.release() != null) {
+            keys.add(facet("release", jep.release()));
+        }
+        if (jep.component() != null) {
+            keys.add(facet("component", jep.component()));
+        }
+        if (jep.subComponent() != null) {
+            keys.add(facet("subComponent", jep.subComponent()));
+        }
+        return keys;
+    }
+
+    private static String facet(String field, String value) {
+        // Tokens never contain a colon
+        return field + ':' + value;
+    }
+
+    static List<String> tokens(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    public int size() {
+        return this.slots.size();
+    }
+
+    /**
+     * Searches the JEPs.
+     *
+     * @param query The query
+     * @param limit The maximum number of results
+     * @return The first matching JEPs, ordered by number
+     */
+    List<JepView> search(Query query, int limit) {
+        BitSet matches = matches(query);
+        List<JepView> results = new ArrayList<>(Math.min(limit, 256));
+        for (int slot = matches.nextSetBit(0); slot >= 0 && results.size() < limit; slot = matches.nextSetBit(slot + 1)) {
+            results.add(this.docs[slot]);
+        }
+        return results;
+    }
+
+    BitSet matches(Query query) {
+        BitSet filter = (BitSet) this.live.clone();
+        filter(filter, "type", query.type() == null ? null : query.type().name());
+        filter(filter, "state", query.state() == null ? null : query.state().name());
+        filter(filter, "release", query.release());
+        filter(filter, "component", query.component());
+        filter(filter, "subComponent", query.subComponent());
+        List<List<Term>> clauses = parse(query.text());
+        if (clauses.isEmpty()) {
+            return filter;
+        }
+        BitSet matches = new BitSet();
+        for (List<Term> clause : clauses) {
+            BitSet clauseMatches = (BitSet) filter.clone();
+            for (Term term : clause) {
+                BitSet posting = this.postings.getOrDefault(term.token(), NONE);
+                if (term.negated()) {
+                    clauseMatches.andNot(posting);
+                } else {
+                    clauseMatches.and(posting);
+                }
+            }
+            matches.or(clauseMatches);
+        }
+        return matches;
+    }
+
+    private void filter(BitSet filter, String field, String value) {
+        if (value != null) {
+            filter.and(this.postings.getOrDefault(facet(field, value), NONE));
+        }
+    }
+
+    /**
+     * Parses a query text into clauses of terms. Terms are matched all together, unless separated by {@code OR},
+     * and are excluded when prefixed by {@code NOT} or {@code -}. {@code AND} is implied.
+     *
+     * @param text The query text, {@code null} to match every JEP
+     * @return The clauses, any of them matching, each one made of terms all matching
+     */
+    static List<List<Term>> parse(String text) {
+        List<List<Term>> clauses = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return clauses;
+        }
+        List<Term> clause = new ArrayList<>();
+        boolean negated = false;
+        for (String word : text.trim().split("\\s+")) {
+            switch (word) {
+                case "AND" -> {
+                }
+                case "OR" -> {
+                    if (!clause.isEmpty()) {
+                        clauses.add(clause);
+                        clause = new ArrayList<>();
+                    }
+                }
+                case "NOT" -> negated = true;
+                default -> {
+                    boolean excluded = negated || word.startsWith("-");
+                    for (String token : tokens(word)) {
+                        clause.add(new Term(token, excluded));
+                    }
+                    negated = false;
+                }
+            }
+        }
+        if (!clause.isEmpty()) {
+            clauses.add(clause);
+        }
+        return clauses;
+    }
+
+    /**
+     * A search query. All the given facets must match.
+     *
+     * @param text         The title terms, {@code null} to match any title
+     * @param type         The JEP type, {@code null} to match any type
+     * @param state        The JEP state, {@code null} to match any state
+     * @param release      The JEP release, {@code null} to match any release
+     * @param component    The JEP component, {@code null} to match any component
+     * @param subComponent The JEP sub-component, {@code null} to match any sub-component
+     */
+    public record Query(String text, JepType type, JepState state, String release, String component,
+                        String subComponent) {
+    }
+
+    record Term(String token, boolean negated) {
+    }
+}
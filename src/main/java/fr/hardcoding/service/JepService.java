@@ -2,11 +2,16 @@ package fr.hardcoding.service;
 
 import fr.hardcoding.model.Jep;
 import fr.hardcoding.model.JepState;
+import fr.hardcoding.model.JepTransition;
 import fr.hardcoding.model.JepType;
-import io.quarkus.scheduler.Scheduled;
+import fr.hardcoding.model.OutboxPost;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.opentelemetry.instrumentation.annotations.WithSpan;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
 import jakarta.transaction.Transactional;
-import org.jsoup.Jsoup;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
@@ -14,22 +19,66 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.Reader;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
 
-import static fr.hardcoding.model.Jep.findByNumber;
 import static fr.hardcoding.model.JepState.SUBMITTED;
 import static java.util.Objects.requireNonNull;
 
 @ApplicationScoped
-public class JepService {
+public class JepService implements JepUpdates {
     private static final Logger LOG = LoggerFactory.getLogger(JepService.class);
-    private static final String JEP_URL = "https://openjdk.org/jeps/0";
+    // Bluesky post length limit, in graphemes, counted as code points to keep a margin for emojis
+    private static final int MAX_POST_LENGTH = 300;
+    private static final long FNV_OFFSET_BASIS = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+
+    @ConfigProperty(name = "jep.parser", defaultValue = "dom")
+    ParserMode parserMode;
+    // Guards against a truncated or malformed page removing many JEPs at once
+    @ConfigProperty(name = "jep.max-removals", defaultValue = "10")
+    int maxRemovals;
+    // Changes of a run to the same state and release are posted as a thread from this number of JEPs
+    @ConfigProperty(name = "jep.thread.min-changes", defaultValue = "3")
+    int threadMinChanges;
 
     private final BlueskyService blueskyService;
+    private final JepPageFetcher pageFetcher;
+    private final JepMetrics metrics;
+    private final JepCatalog catalog;
+    private final JepEnricher enricher;
+    private final OutboxPublisher publisher;
+    private final JepTableStore tableStore;
+    private final Event<JepChangeStream.Transitions> changeEvents;
+    private final LeaderLease leaderLease;
+    // The latest transition published to the change stream, -1 until known
+    private volatile long lastTransitionId = -1;
 
-    public JepService(BlueskyService blueskyService) {
+    public JepService(BlueskyService blueskyService, JepPageFetcher pageFetcher, JepMetrics metrics, JepCatalog catalog,
+                      JepEnricher enricher, OutboxPublisher publisher, JepTableStore tableStore,
+                      Event<JepChangeStream.Transitions> changeEvents, LeaderLease leaderLease) {
         this.blueskyService = blueskyService;
+        this.pageFetcher = pageFetcher;
+        this.metrics = metrics;
+        this.catalog = catalog;
+        this.enricher = enricher;
+        this.publisher = publisher;
+        this.tableStore = tableStore;
+        this.changeEvents = changeEvents;
+        this.leaderLease = leaderLease;
     }
 
     public void test() {
@@ -45,93 +94,407 @@ public class JepService {
         this.blueskyService.postUpdate(message);
     }
 
-    @Scheduled(every = "1h")
-    @Transactional
-    public void checkJepUpdates() {
-        List<Jep> currentJeps;
+    /**
+     * Checks the JEP 0 page for updates and applies them. Checks are scheduled by {@link JepPollScheduler}.
+     *
+     * @return The check result
+     */
+    @Override
+    @WithSpan
+    public CheckResult checkJepUpdates() {
+        Optional<JepPageFetcher.Page> page;
+        Timer.Sample fetchSample = Timer.start();
         try {
-            currentJeps = fetchJeps();
+            page = this.pageFetcher.fetch();
+        } catch (JepPageFetcher.RateLimitedException e) {
+            LOG.warn("Rate limited fetching JEPs, retry after {}", e.retryAfter());
+            return CheckResult.rateLimited(e.retryAfter());
         } catch (IOException e) {
             LOG.error("Error fetching JEPs", e);
-            return;
+            return CheckResult.FAILED;
+        } finally {
+            fetchSample.stop(this.metrics.fetchTimer());
+        }
+        if (page.isEmpty()) {
+            LOG.info("JEP page unchanged, skipping");
+            return CheckResult.UNCHANGED;
+        }
+
+        // Only parse the rows that changed since the last run, known from the mapped snapshot or the database
+        JepTableSnapshot table = this.tableStore.current();
+        LongPredicate knownRows = table == null ? knownFingerprints()::contains : table::containsFingerprint;
+        Set<Long> unchangedRows = new HashSet<>();
+        Set<String> failedNumbers = new HashSet<>();
+        List<Jep> currentJeps;
+        Timer.Sample parseSample = Timer.start();
+        try {
+            currentJeps = parseJeps(page.get(), fingerprint -> {
+                if (knownRows.test(fingerprint)) {
+                    unchangedRows.add(fingerprint);
+                    return false;
+                }
+                return true;
+            }, failedNumbers::add);
+        } catch (IOException e) {
+            LOG.error("Error parsing JEPs", e);
+            return CheckResult.FAILED;
+        } finally {
+            parseSample.stop(this.metrics.parseTimer());
+        }
+        LOG.info("Parsed {} changed rows, {} unchanged", currentJeps.size(), unchangedRows.size());
+        this.metrics.parsedRows(currentJeps.size());
+        this.metrics.unchangedRows(unchangedRows.size());
+        if (currentJeps.isEmpty() && table != null && table.containsOnly(unchangedRows)) {
+            // No changed nor removed row, nothing to update
+            LOG.info("JEP rows unchanged, skipping");
+            this.pageFetcher.acknowledge(page.get());
+            return CheckResult.UNCHANGED;
+        }
+        // Fetch the details of the JEPs to post before the update transaction, posts will pick them from the cache
+        this.metrics.enrichTimer().record(() -> this.enricher.enrich(numbersToEnrich(currentJeps)));
+        int changes = this.metrics.diffTimer().record(() -> updateJeps(currentJeps, unchangedRows, failedNumbers));
+        // Publish the committed changes to the read API
+        this.catalog.refresh();
+        // Changes are committed with their posts in the outbox, skip this page content next time
+        this.pageFetcher.acknowledge(page.get());
+        return changes > 0 ? CheckResult.changed(changes) : CheckResult.UNCHANGED;
+    }
+
+    /**
+     * Follows the updates committed by the leader, on a standby instance: publishes their transitions to the change
+     * stream and refreshes the catalog, with its JEP table snapshot.
+     *
+     * @param refresh Whether to refresh the catalog even without new transitions, as JEPs also change without any
+     * @return The number of new transitions
+     */
+    @Override
+    public int followUpdates(boolean refresh) {
+        List<JepTransition> transitions = QuarkusTransaction.requiringNew().call(this::findNewTransitions);
+        if (!transitions.isEmpty()) {
+            LOG.info("Following {} JEP transitions of the leader", transitions.size());
+            this.changeEvents.fire(new JepChangeStream.Transitions(transitions));
+        }
+        if (refresh || !transitions.isEmpty()) {
+            this.catalog.refresh();
+        }
+        return transitions.size();
+    }
+
+    private List<JepTransition> findNewTransitions() {
+        long last = this.lastTransitionId;
+        if (last < 0) {
+            // Only follow the transitions from now on, like the change stream subscribers
+            this.lastTransitionId = JepTransition.latestId();
+            return List.of();
+        }
+        List<JepTransition> transitions = JepTransition.findAfter(last);
+        if (!transitions.isEmpty()) {
+            this.lastTransitionId = transitions.getLast().id;
+        }
+        return transitions;
+    }
+
+    /**
+     * Finds the JEPs whose details are used by the posts of a check, the JEPs posted one by one. The diff is computed
+     * ahead of the update transaction from the known JEPs of the changed rows only, so title only changes and JEPs
+     * posted in a thread, like on the first run, are not enriched.
+     *
+     * @param currentJeps The JEPs parsed from the changed rows
+     * @return The numbers of the JEPs to enrich
+     */
+    List<String> numbersToEnrich(List<Jep> currentJeps) {
+        List<String> numbers = new ArrayList<>(currentJeps.size());
+        for (Jep jep : currentJeps) {
+            if (jep.state != SUBMITTED && jep.number != null) {
+                numbers.add(jep.number);
+            }
+        }
+        if (numbers.isEmpty()) {
+            return List.of();
+        }
+        Map<String, Jep> knownJeps = QuarkusTransaction.requiringNew().call(() -> Jep.indexByNumber(numbers));
+        List<Jep> updatedJeps = JepDiff.updatedJeps(knownJeps, currentJeps);
+        // Posted one by one to at least one sink
+        Set<String> enriched = new LinkedHashSet<>();
+        for (JepFilter filter : this.publisher.sinkFilters().values()) {
+            for (List<Jep> group : groupUpdates(filter.filter(updatedJeps)).values()) {
+                if (group.size() < this.threadMinChanges) {
+                    for (Jep jep : group) {
+                        enriched.add(jep.number);
+                    }
+                }
+            }
+        }
+        return List.copyOf(enriched);
+    }
+
+    @Transactional
+    Set<Long> knownFingerprints() {
+        return Jep.fingerprints();
+    }
+
+    /**
+     * Applies the JEPs of a whole page to the known ones.
+     *
+     * @param currentJeps The JEPs of all the page rows
+     * @return The number of new, changed and removed JEPs
+     * @see #updateJeps(List, Set, Set)
+     */
+    int updateJeps(List<Jep> currentJeps) {
+        return updateJeps(currentJeps, Set.of(), Set.of());
+    }
+
+    /**
+     * Applies the parsed JEPs to the known ones.
+     * <p>
+     * New JEPs, state changes and release retargets are recorded as transitions and posted through the outbox.
+     * Title, type and component changes are only applied. Known JEPs missing from both the parsed and the unchanged
+     * rows were removed from the page and are deleted, unless their row failed to be parsed. Transitions are streamed by the {@link JepChangeStream} once
+     * committed.
+     *
+     * @param currentJeps   The JEPs parsed from the changed rows
+     * @param unchangedRows The fingerprints of the rows that did not change since the last run
+     * @param failedNumbers The JEP numbers of the rows that failed to be parsed
+     * @return The number of new, changed and removed JEPs
+     * @see JepDiff#compute(Map, List, Set, Set, int, Instant)
+     */
+    @Transactional
+    @WithSpan
+    int updateJeps(List<Jep> currentJeps, Set<Long> unchangedRows, Set<String> failedNumbers) {
+        // Fails the update of a leader which lost its lease during the check
+        this.leaderLease.fence();
+        Map<String, Jep> knownJeps = loadKnownJeps(currentJeps, unchangedRows);
+        Instant now = Instant.now();
+        JepDiff diff = JepDiff.compute(knownJeps, currentJeps, unchangedRows, failedNumbers, this.maxRemovals, now);
+        for (Jep removedJep : diff.removedJeps()) {
+            removedJep.delete();
         }
+        // Inserts and updates are written as JDBC batches when the transaction is flushed
+        Jep.persist(diff.newJeps());
+        JepTransition.persist(diff.transitions());
+        if (!diff.transitions().isEmpty()) {
+            // Ids are assigned on persist, not followed as the update publishes them itself
+            this.lastTransitionId = diff.transitions().getLast().id;
+        }
+        createUpdatePosts(diff.updatedJeps(), now);
+        if (!diff.transitions().isEmpty()) {
+            this.changeEvents.fire(new JepChangeStream.Transitions(diff.transitions()));
+        }
+        this.metrics.changedJeps(diff.changes());
+        return diff.changes();
+    }
 
+    /**
+     * Loads the known JEPs the diff needs at once, instead of querying them one by one. With a JEP table snapshot,
+     * only the JEPs of the parsed rows and of the snapshot rows missing from the page, which may have been removed,
+     * are loaded. Without one, like on the first run, or with a snapshot missing JEPs of the database, like after a
+     * crash before it was written, all the known JEPs are.
+     */
+    private Map<String, Jep> loadKnownJeps(List<Jep> currentJeps, Set<Long> unchangedRows) {
+        JepTableSnapshot table = this.tableStore.current();
+        if (table == null || table.size() != Jep.count()) {
+            return Jep.indexByNumber();
+        }
+        Set<String> numbers = new HashSet<>();
         for (Jep currentJep : currentJeps) {
-            // Skip submitted only JEPs, no JEP number
-            if (currentJep.state == SUBMITTED || currentJep.number == null) {
+            if (currentJep.number != null) {
+                numbers.add(currentJep.number);
+            }
+        }
+        for (int i = 0; i < table.size(); i++) {
+            if (!unchangedRows.contains(table.fingerprint(i))) {
+                numbers.add(table.number(i));
+            }
+        }
+        return Jep.indexByNumber(numbers);
+    }
+
+    /**
+     * Queues the update posts of a run to each sink, only with the JEPs matching its filter.
+     */
+    private void createUpdatePosts(List<Jep> updatedJeps, Instant now) {
+        // Format once per distinct set of matching JEPs, queue once per sink
+        Map<List<Jep>, List<UpdatePost>> formatted = new HashMap<>();
+        List<OutboxPost> posts = new ArrayList<>();
+        for (Map.Entry<String, JepFilter> sinkFilter : this.publisher.sinkFilters().entrySet()) {
+            String sink = sinkFilter.getKey();
+            List<Jep> matchingJeps = sinkFilter.getValue().filter(updatedJeps);
+            if (matchingJeps.isEmpty()) {
                 continue;
             }
-            Jep existingJep = findJep(currentJep.number);
-            if (existingJep == null) {
-                // New JEP
-                if (postBlueskyUpdate(currentJep)) {
-                    currentJep.persist();
+            for (UpdatePost update : formatted.computeIfAbsent(matchingJeps, jeps -> formatUpdates(jeps, this.enricher::cached))) {
+                if (update.jep() != null) {
+                    posts.add(OutboxPost.create(update.jep(), update.texts().getFirst(), sink, now));
+                    continue;
                 }
-            } else if (!existingJep.state.equals(currentJep.state)) {
-                // Status changed
-                if (postBlueskyUpdate(currentJep)) {
-                    existingJep.type = currentJep.type;
-                    existingJep.state = currentJep.state;
-                    existingJep.release = currentJep.release;
-                    existingJep.component = currentJep.component;
-                    existingJep.subComponent = currentJep.subComponent;
-                    existingJep.number = currentJep.number;
-                    existingJep.title = currentJep.title;
-                    existingJep.persist();
+                // Replies reference the id of their parent, persist the posts in order
+                OutboxPost parent = OutboxPost.createThread(update.state(), update.release(), update.texts().getFirst(), sink, now);
+                parent.persist();
+                for (String text : update.texts().subList(1, update.texts().size())) {
+                    OutboxPost reply = OutboxPost.reply(parent, text);
+                    reply.persist();
+                    parent = reply;
                 }
             }
         }
+        OutboxPost.persist(posts);
     }
 
-    private static Jep findJep(String number) {
-        return findByNumber(number);
-//        Jep jep = findByNumber(number);
-//        // Return different state to manually trigger post update
-//        if (jep != null && Arrays.asList("508", "515", "514", "507").contains(jep.number)) {
-//          jep.state = jep.state == DRAFTED ? SUBMITTED : DRAFTED;
-//        }
-//        return jep;
+    /**
+     * Formats the update posts of a run. Updates to the same state and release are grouped, and large groups, like
+     * the JEPs delivered on a release day, are posted as a single thread.
+     *
+     * @param updatedJeps The new, moved and retargeted JEPs
+     * @param details     Gets the details of a JEP from its number, {@code null} if unknown
+     * @return The update posts, in order
+     */
+    List<UpdatePost> formatUpdates(List<Jep> updatedJeps, Function<String, JepDetails> details) {
+        List<UpdatePost> updates = new ArrayList<>();
+        for (Map.Entry<UpdateGroup, List<Jep>> group : groupUpdates(updatedJeps).entrySet()) {
+            if (group.getValue().size() >= this.threadMinChanges) {
+                UpdateGroup key = group.getKey();
+                LOG.info("Updating {} JEPs with status {} and release {}", group.getValue().size(), key.state(), key.release());
+                List<String> texts = this.metrics.formatTimer()
+                        .record(() -> ThreadFormatter.formatThread(key.state(), key.release(), group.getValue(), MAX_POST_LENGTH));
+                updates.add(new UpdatePost(null, key.state(), key.release(), texts));
+            } else {
+                for (Jep updatedJep : group.getValue()) {
+                    LOG.info("Updating Jep {} with status {}", updatedJep.number, updatedJep.state);
+                    JepDetails jepDetails = details.apply(updatedJep.number);
+                    String text = this.metrics.formatTimer().record(() -> formatJepUpdate(updatedJep, jepDetails));
+                    updates.add(new UpdatePost(updatedJep, updatedJep.state, updatedJep.release, List.of(text)));
+                }
+            }
+        }
+        return updates;
     }
 
-    private boolean postBlueskyUpdate(Jep updatedJep) {
-        LOG.info("Updating Jep {} with status {}", updatedJep.number, updatedJep.state);
-        String message = formatJepUpdate(updatedJep);
-        return this.blueskyService.postUpdate(message);
+    private static Map<UpdateGroup, List<Jep>> groupUpdates(List<Jep> updatedJeps) {
+        Map<UpdateGroup, List<Jep>> groups = new LinkedHashMap<>();
+        for (Jep updatedJep : updatedJeps) {
+            groups.computeIfAbsent(new UpdateGroup(updatedJep.state, updatedJep.release), group -> new ArrayList<>())
+                    .add(updatedJep);
+        }
+        return groups;
     }
 
-    private static List<Jep> fetchJeps() throws IOException {
-        Document doc = Jsoup.connect(JEP_URL).get();
-        return parseJeps(doc);
+    /**
+     * An update post, about a single JEP or a thread about a group of JEPs.
+     *
+     * @param jep     The updated JEP, {@code null} for a thread
+     * @param state   The new state of the JEPs
+     * @param release The release the JEPs were targeted to, {@code null} if not targeted
+     * @param texts   The post text, followed by the replies for a thread
+     */
+    record UpdatePost(Jep jep, JepState state, String release, List<String> texts) {
+    }
+
+    private record UpdateGroup(JepState state, String release) {
+    }
+
+    @WithSpan
+    List<Jep> parseJeps(JepPageFetcher.Page page, LongPredicate rowFilter, Consumer<String> onFailedRow) throws IOException {
+        Consumer<String> failedRow = number -> {
+            this.metrics.failedRow();
+            onFailedRow.accept(number);
+        };
+        return switch (this.parserMode) {
+            case DOM -> parseJeps(page.document(), rowFilter, failedRow);
+            case STREAMING -> {
+                try (Reader reader = page.reader()) {
+                    yield StreamingJepParser.parseJeps(reader, rowFilter, failedRow);
+                }
+            }
+        };
     }
 
     static List<Jep> parseJeps(Document document) {
+        return parseJeps(document, fingerprint -> true, number -> {
+        });
+    }
+
+    /**
+     * Parses the JEPs from the JEP 0 page document.
+     *
+     * @param document    The page document
+     * @param rowFilter   Tests the fingerprint of each table row, only the accepted rows are parsed
+     * @param onFailedRow Called with the JEP number of each table row that could not be parsed, empty if it has none
+     * @return The parsed JEPs
+     */
+    static List<Jep> parseJeps(Document document, LongPredicate rowFilter, Consumer<String> onFailedRow) {
         LOG.info("Parsing JEPs");
         Elements rows = document.select("table.jeps tr");
         List<Jep> jeps = new ArrayList<>();
 
         for (Element row : rows) {
-            try {
-                Elements cells = row.select("td");
-                if (cells.size() >= 5) {
-                    Jep jep = new Jep();
-                    jep.type = JepType.fromShortName(cells.get(0).text());
-                    jep.state = JepState.fromShortName(cells.get(1).text());
-                    jep.release = valueOrNull(cells.get(2).text());
-                    jep.component = componentOrNull(cells.select(".cl").text());
-                    jep.subComponent = componentOrNull(cells.select(".cr").text());
-                    jep.number = valueOrNull(cells.select(".jep").text());
-                    jep.title = valueOrNull(requireNonNull(cells.last()).text());
-                    jeps.add(jep);
-                    LOG.debug("Found {}", jep);
+            Elements cells = row.select("td");
+            if (cells.size() >= 5) {
+                String type = cells.get(0).text();
+                String state = cells.get(1).text();
+                String release = cells.get(2).text();
+                String component = cells.select(".cl").text();
+                String subComponent = cells.select(".cr").text();
+                String number = cells.select(".jep").text();
+                String title = requireNonNull(cells.last()).text();
+                long fingerprint = fingerprint(type, state, release, component, subComponent, number, title);
+                try {
+                    if (rowFilter.test(fingerprint)) {
+                        Jep jep = createJep(type, state, release, component, subComponent, number, title);
+                        jep.fingerprint = fingerprint;
+                        jeps.add(jep);
+                        LOG.debug("Found {}", jep);
+                    }
+                } catch (IllegalArgumentException e) {
+                    LOG.warn("Failed to parse JEP {}", row.text(), e);
+                    onFailedRow.accept(number);
                 }
-            } catch (IllegalArgumentException e) {
-                LOG.warn("Failed to parse JEP {}", row.text(), e);
             }
         }
 
         return jeps;
     }
 
+    /**
+     * Computes the fingerprint of a JEP 0 table row from the text of its cells, using the 64-bit FNV-1a hash.
+     */
+    static long fingerprint(String type, String state, String release, String component, String subComponent, String number, String title) {
+        long hash = FNV_OFFSET_BASIS;
+        hash = fingerprint(hash, type);
+        hash = fingerprint(hash, state);
+        hash = fingerprint(hash, release);
+        hash = fingerprint(hash, component);
+        hash = fingerprint(hash, subComponent);
+        hash = fingerprint(hash, number);
+        return fingerprint(hash, title);
+    }
+
+    private static long fingerprint(long hash, String cell) {
+        for (int i = 0; i < cell.length(); i++) {
+            char c = cell.charAt(i);
+            hash = (hash ^ (c & 0xFF)) * FNV_PRIME;
+            hash = (hash ^ (c >>> 8)) * FNV_PRIME;
+        }
+        // Separate cells so moving text from one cell to the next changes the fingerprint
+        return (hash ^ 0x1F) * FNV_PRIME;
+    }
+
+    /**
+     * Creates a JEP from the text of its JEP 0 table row cells.
+     *
+     * @throws IllegalArgumentException If the JEP type or state is unknown
+     */
+    static Jep createJep(String type, String state, String release, String component, String subComponent, String number, String title) {
+        Jep jep = new Jep();
+        jep.type = JepType.fromShortName(type);
+        jep.state = JepState.fromShortName(state);
+        jep.release = valueOrNull(release);
+        jep.component = componentOrNull(component);
+        jep.subComponent = componentOrNull(subComponent);
+        jep.number = valueOrNull(number);
+        jep.title = valueOrNull(title);
+        return jep;
+    }
+
     private static String valueOrNull(String s) {
         return s.isBlank() ? null : s;
     }
@@ -145,7 +508,19 @@ public class JepService {
         };
     }
 
-    private static String formatJepUpdate(Jep jep) {
+    static String formatJepUpdate(Jep jep) {
+        return formatJepUpdate(jep, null);
+    }
+
+    /**
+     * Formats the update post of a JEP, with the details from its page if available.
+     * The summary is only added, and truncated, as long as the post fits in the Bluesky post length limit.
+     *
+     * @param jep     The updated JEP
+     * @param details The JEP details, {@code null} if not available
+     * @return The update post text
+     */
+    static String formatJepUpdate(Jep jep, JepDetails details) {
         String status = switch (jep.state) {
             case DRAFTED -> "✏️ JEP " + jep.number + " was drafted";
             case SUBMITTED -> "🗳️ JEP " + jep.number + " was submitted";
@@ -176,12 +551,87 @@ public class JepService {
         if (jep.release != null) {
             release = "\nRelease: " + jep.release;
         }
-        return String.format("""
+        String owner = "";
+        if (details != null && details.owner() != null) {
+            owner = "\nOwner: " + details.owner();
+        }
+        String text = String.format("""
                         %s
                         Title: %s
-                        Type: %s%s%s
+                        Type: %s%s%s%s
                         See openjdk.org/jeps/%s
                         """,
-                status, jep.title, jep.type, component, release, jep.number);
+                status, jep.title, jep.type, component, release, owner, jep.number);
+        if (details != null && details.summary() != null) {
+            // Keep room for the summary line break and ellipsis
+            int room = MAX_POST_LENGTH - text.codePointCount(0, text.length()) - 2;
+            String summary = truncate(details.summary(), room);
+            if (summary != null) {
+                int seeIndex = text.lastIndexOf("See openjdk.org/jeps/");
+                text = text.substring(0, seeIndex) + summary + "\n" + text.substring(seeIndex);
+            }
+        }
+        return text;
+    }
+
+    /**
+     * Truncates a text at a word boundary.
+     *
+     * @return The text, truncated with an ellipsis if longer than the maximum length, {@code null} if no word fits
+     */
+    private static String truncate(String text, int maxLength) {
+        if (text.codePointCount(0, text.length()) <= maxLength) {
+            return text;
+        }
+        if (maxLength < 1) {
+            return null;
+        }
+        int end = text.offsetByCodePoints(0, maxLength);
+        int space = text.lastIndexOf(' ', end);
+        if (space <= 0) {
+            return null;
+        }
+        return text.substring(0, space) + "…";
+    }
+
+    /**
+     * The result of a JEP update check.
+     *
+     * @param status     The check status
+     * @param changes    The number of new, changed and removed JEPs
+     * @param retryAfter The delay the server asked to wait before the next check, {@code null} if none
+     */
+    public record CheckResult(Status status, int changes, Duration retryAfter) {
+        public static final CheckResult UNCHANGED = new CheckResult(Status.UNCHANGED, 0, null);
+        public static final CheckResult FAILED = new CheckResult(Status.FAILED, 0, null);
+
+        public static CheckResult changed(int changes) {
+            return new CheckResult(Status.CHANGED, changes, null);
+        }
+
+        public static CheckResult rateLimited(Duration retryAfter) {
+            return new CheckResult(Status.RATE_LIMITED, 0, retryAfter);
+        }
+
+        public enum Status {
+            CHANGED,
+            UNCHANGED,
+            FAILED,
+            RATE_LIMITED
+        }
+    }
+
+    /**
+     * The JEP 0 page parsers.
+     */
+    public enum ParserMode {
+        /**
+         * Parses the page into a jsoup DOM and selects the rows.
+         */
+        DOM,
+        /**
+         * Scans the table rows in a single pass without building a DOM.
+         */
+        STREAMING
     }
-} 
+}
@@ -0,0 +1,221 @@
+package fr.hardcoding.service;
+
+import fr.hardcoding.model.JepState;
+import fr.hardcoding.model.JepTransition;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * The state of all JEPs at an instant, rebuilt by replaying their transitions.
+ * <p>
+ * The table is stored column by column: the JEP numbers, their states as ordinals and their releases as indexes
+ * in a dictionary of the few distinct releases. Its encoded form is deflated, so a snapshot of every JEP takes a
+ * few kilobytes. Removed JEPs keep their row, marked with no state.
+ */
+public final class JepStateTable {
+    private static final int VERSION = 1;
+    private static final JepState[] STATES = JepState.values();
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final byte REMOVED = -1;
+
+    private final Map<String, Integer> rows;
+    private String[] numbers;
+    private byte[] states;
+    private String[] releases;
+    private int size;
+    private int removed;
+
+    private JepStateTable(int capacity) {
+        this.rows = HashMap.newHashMap(capacity);
+        this.numbers = new String[capacity];
+        this.states = new byte[capacity];
+        this.releases = new String[capacity];
+    }
+
+    /**
+     * Creates a table with no JEP, the state before the first transition.
+     *
+     * @return An empty table
+     */
+    public static JepStateTable empty() {
+        return new JepStateTable(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Applies a transition to the table.
+     *
+     * @param transition The transition to apply
+     */
+    public void apply(JepTransition transition) {
+        Integer row = this.rows.get(transition.jepNumber);
+        int index;
+        if (row == null) {
+            index = addRow(transition.jepNumber);
+        } else {
+            index = row;
+            if (this.states[index] == REMOVED) {
+                this.removed--;
+            }
+        }
+        if (transition.toState == null) {
+            this.states[index] = REMOVED;
+            this.releases[index] = null;
+            this.removed++;
+        } else {
+            this.states[index] = (byte) transition.toState.ordinal();
+            this.releases[index] = transition.release;
+        }
+    }
+
+    /**
+     * Applies transitions to the table, in order.
+     *
+     * @param transitions The transitions to apply
+     */
+    public void applyAll(List<JepTransition> transitions) {
+        for (JepTransition transition : transitions) {
+            apply(transition);
+        }
+    }
+
+    private int addRow(String number) {
+        if (this.size == this.numbers.length) {
+            int capacity = this.size * 2;
+            this.numbers = Arrays.copyOf(this.numbers, capacity);
+            this.states = Arrays.copyOf(this.states, capacity);
+            this.releases = Arrays.copyOf(this.releases, capacity);
+        }
+        int index = this.size++;
+        this.numbers[index] = number;
+        this.rows.put(number, index);
+        return index;
+    }
+
+    /**
+     * Gets the state of a JEP.
+     *
+     * @param number The JEP number
+     * @return The JEP state, {@code null} if the JEP is unknown or removed
+     */
+    public JepState stateOf(String number) {
+        Integer row = this.rows.get(number);
+        return row == null || this.states[row] == REMOVED ? null : STATES[this.states[row]];
+    }
+
+    /**
+     * Gets the release of a JEP.
+     *
+     * @param number The JEP number
+     * @return The JEP release, {@code null} if the JEP is unknown or has no release
+     */
+    public String releaseOf(String number) {
+        Integer row = this.rows.get(number);
+        return row == null ? null : this.releases[row];
+    }
+
+    /**
+     * Gets the states of all JEPs.
+     *
+     * @return The JEP states by number, in order of first transition
+     */
+    public Map<String, JepState> states() {
+        Map<String, JepState> states = LinkedHashMap.newLinkedHashMap(size());
+        for (int i = 0; i < this.size; i++) {
+            if (this.states[i] != REMOVED) {
+                states.put(this.numbers[i], STATES[this.states[i]]);
+            }
+        }
+        return states;
+    }
+
+    /**
+     * Gets the number of JEPs, not counting the removed ones.
+     *
+     * @return The number of JEPs
+     */
+    public int size() {
+        return this.size - this.removed;
+    }
+
+    /**
+     * Encodes the table into its compacted columnar form.
+     *
+     * @return The encoded table
+     */
+    public byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + this.size * 4);
+        try (DataOutputStream output = new DataOutputStream(new DeflaterOutputStream(bytes))) {
+            output.writeByte(VERSION);
+            output.writeInt(this.size);
+            for (int i = 0; i < this.size; i++) {
+                output.writeUTF(this.numbers[i]);
+            }
+            output.write(this.states, 0, this.size);
+            // Releases are few, write them once and reference them by index, 0 being no release
+            Map<String, Integer> dictionary = new LinkedHashMap<>();
+            int[] releaseIndexes = new int[this.size];
+            for (int i = 0; i < this.size; i++) {
+                String release = this.releases[i];
+                releaseIndexes[i] = release == null ? 0 : dictionary.computeIfAbsent(release, r -> dictionary.size() + 1);
+            }
+            output.writeInt(dictionary.size());
+            for (String release : dictionary.keySet()) {
+                output.writeUTF(release);
+            }
+            for (int i = 0; i < this.size; i++) {
+                output.writeShort(releaseIndexes[i]);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to encode JEP states", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes a table from its compacted columnar form.
+     *
+     * @param data The encoded table
+     * @return The decoded table
+     */
+    public static JepStateTable decode(byte[] data) {
+        try (DataInputStream input = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(data)))) {
+            int version = input.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported JEP states version " + version);
+            }
+            int size = input.readInt();
+            JepStateTable table = new JepStateTable(Math.max(size, INITIAL_CAPACITY));
+            for (int i = 0; i < size; i++) {
+                table.addRow(input.readUTF());
+            }
+            input.readFully(table.states, 0, size);
+            for (int i = 0; i < size; i++) {
+                if (table.states[i] == REMOVED) {
+                    table.removed++;
+                }
+            }
+            String[] dictionary = new String[input.readInt() + 1];
+            for (int i = 1; i < dictionary.length; i++) {
+                dictionary[i] = input.readUTF();
+            }
+            for (int i = 0; i < size; i++) {
+                table.releases[i] = dictionary[input.readUnsignedShort()];
+            }
+            return table;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to decode JEP states", e);
+        }
+    }
+}
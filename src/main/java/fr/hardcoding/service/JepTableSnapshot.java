@@ -0,0 +1,307 @@
+package fr.hardcoding.service;
+
+import fr.hardcoding.model.Jep;
+import fr.hardcoding.model.JepState;
+import fr.hardcoding.model.JepType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A compact binary snapshot of the last seen JEP table, memory-mapped to run the diff without the database.
+ * <p>
+ * The file holds a header, the fixed-width JEP records sorted by row fingerprint, an offset table of the interned
+ * strings, releases and components, an offset table of the titles, and the UTF-8 text they point to. Known rows
+ * are looked up with a binary search in the mapped records, and fields are only decoded when read.
+ */
+public final class JepTableSnapshot {
+    private static final int MAGIC = 0x4A455053;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    // Fingerprint, number, type, state, then release, component and sub-component string indexes
+    private static final int RECORD_SIZE = 20;
+    private static final short NO_STRING = -1;
+    private static final JepType[] TYPES = JepType.values();
+    private static final JepState[] STATES = JepState.values();
+
+    private final ByteBuffer buffer;
+    private final int size;
+    private final String[] strings;
+    private final int titleOffsets;
+    private final int text;
+
+    private JepTableSnapshot(ByteBuffer buffer, int size, String[] strings, int titleOffsets, int text) {
+        this.buffer = buffer;
+        this.size = size;
+        this.strings = strings;
+        this.titleOffsets = titleOffsets;
+        this.text = text;
+    }
+
+    /**
+     * Maps a snapshot file. The file can be replaced once mapped, the mapping keeps its content.
+     *
+     * @param path The snapshot file
+     * @return The mapped snapshot
+     * @throws IOException If the file could not be mapped or is not a valid snapshot
+     */
+    public static JepTableSnapshot open(Path path) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        return of(buffer);
+    }
+
+    /**
+     * Reads a snapshot from its encoded form.
+     *
+     * @param buffer The encoded snapshot, read with absolute gets only
+     * @return The snapshot
+     * @throws IOException If the buffer is not a valid snapshot
+     */
+    static JepTableSnapshot of(ByteBuffer buffer) throws IOException {
+        int limit = buffer.limit();
+        if (limit < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a JEP table snapshot");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported JEP table snapshot version " + buffer.getInt(4));
+        }
+        int size = buffer.getInt(8);
+        int stringCount = buffer.getInt(12);
+        long stringOffsets = HEADER_SIZE + (long) size * RECORD_SIZE;
+        long titleOffsets = stringOffsets + (stringCount + 1L) * Integer.BYTES;
+        long text = titleOffsets + (size + 1L) * Integer.BYTES;
+        if (size < 0 || stringCount < 0 || text > limit || text + buffer.getInt((int) text - Integer.BYTES) > limit) {
+            throw new IOException("Truncated JEP table snapshot");
+        }
+        String[] strings = new String[stringCount];
+        for (int i = 0; i < stringCount; i++) {
+            strings[i] = decode(buffer, (int) text, (int) stringOffsets + i * Integer.BYTES);
+        }
+        return new JepTableSnapshot(buffer, size, strings, (int) titleOffsets, (int) text);
+    }
+
+    /**
+     * Writes a snapshot file, replacing the previous one atomically.
+     *
+     * @param path The snapshot file
+     * @param jeps The JEPs, with numeric numbers
+     * @throws IOException If the file could not be written
+     */
+    public static void write(Path path, Collection<Jep> jeps) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        Files.write(temporary, encode(jeps));
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Encodes a snapshot.
+     *
+     * @param jeps The JEPs, with numeric numbers
+     * @return The encoded snapshot
+     * @throws IllegalArgumentException If a JEP number is not numeric
+     */
+    static byte[] encode(Collection<Jep> jeps) {
+        List<Jep> records = new ArrayList<>(jeps);
+        records.sort(Comparator.comparingLong(JepTableSnapshot::fingerprintOf));
+        // Releases and components are few, store them once
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        for (Jep jep : records) {
+            intern(strings, jep.release);
+            intern(strings, jep.component);
+            intern(strings, jep.subComponent);
+        }
+        List<byte[]> stringTexts = new ArrayList<>(strings.size());
+        int textSize = 0;
+        for (String string : strings.keySet()) {
+            byte[] bytes = string.getBytes(UTF_8);
+            stringTexts.add(bytes);
+            textSize += bytes.length;
+        }
+        List<byte[]> titleTexts = new ArrayList<>(records.size());
+        for (Jep jep : records) {
+            byte[] bytes = jep.title == null ? new byte[0] : jep.title.getBytes(UTF_8);
+            titleTexts.add(bytes);
+            textSize += bytes.length;
+        }
+        int size = records.size();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + size * RECORD_SIZE + (strings.size() + 1 + size + 1) * Integer.BYTES + textSize);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(size).putInt(strings.size());
+        for (Jep jep : records) {
+            buffer.putLong(fingerprintOf(jep));
+            buffer.putInt(Integer.parseInt(jep.number));
+            buffer.put((byte) jep.type.ordinal());
+            buffer.put((byte) jep.state.ordinal());
+            buffer.putShort(indexOf(strings, jep.release));
+            buffer.putShort(indexOf(strings, jep.component));
+            buffer.putShort(indexOf(strings, jep.subComponent));
+        }
+        // Titles follow the strings in the text, each offset table ends with the end offset of its last entry
+        int offset = putOffsets(buffer, stringTexts, 0);
+        putOffsets(buffer, titleTexts, offset);
+        for (byte[] bytes : stringTexts) {
+            buffer.put(bytes);
+        }
+        for (byte[] bytes : titleTexts) {
+            buffer.put(bytes);
+        }
+        return buffer.array();
+    }
+
+    private static int putOffsets(ByteBuffer buffer, List<byte[]> texts, int offset) {
+        for (byte[] bytes : texts) {
+            buffer.putInt(offset);
+            offset += bytes.length;
+        }
+        buffer.putInt(offset);
+        return offset;
+    }
+
+    private static long fingerprintOf(Jep jep) {
+        // JEPs parsed before row fingerprints never match a row
+        return jep.fingerprint == null ? 0 : jep.fingerprint;
+    }
+
+    private static void intern(Map<String, Integer> strings, String string) {
+        if (string != null) {
+            strings.computeIfAbsent(string, s -> strings.size());
+        }
+    }
+
+    private static short indexOf(Map<String, Integer> strings, String string) {
+        return string == null ? NO_STRING : strings.get(string).shortValue();
+    }
+
+    /**
+     * Gets the number of JEPs.
+     *
+     * @return The number of JEPs
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Checks whether a JEP 0 table row is known.
+     *
+     * @param fingerprint The row fingerprint
+     * @return {@code true} if a JEP was last parsed from this row
+     */
+    public boolean containsFingerprint(long fingerprint) {
+        int low = 0;
+        int high = this.size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long value = fingerprint(middle);
+            if (value < fingerprint) {
+                low = middle + 1;
+            } else if (value > fingerprint) {
+                high = middle - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether all the known rows are in a set, meaning no JEP was removed from the page.
+     *
+     * @param fingerprints The row fingerprints
+     * @return {@code true} if every JEP row is in the set
+     */
+    public boolean containsOnly(Set<Long> fingerprints) {
+        for (int i = 0; i < this.size; i++) {
+            if (!fingerprints.contains(fingerprint(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long fingerprint(int index) {
+        return this.buffer.getLong(record(index));
+    }
+
+    public String number(int index) {
+        return Integer.toString(this.buffer.getInt(record(index) + 8));
+    }
+
+    public JepType type(int index) {
+        return TYPES[this.buffer.get(record(index) + 12)];
+    }
+
+    public JepState state(int index) {
+        return STATES[this.buffer.get(record(index) + 13)];
+    }
+
+    public String release(int index) {
+        return string(record(index) + 14);
+    }
+
+    public String component(int index) {
+        return string(record(index) + 16);
+    }
+
+    public String subComponent(int index) {
+        return string(record(index) + 18);
+    }
+
+    public String title(int index) {
+        String title = decode(this.buffer, this.text, this.titleOffsets + index * Integer.BYTES);
+        return title.isEmpty() ? null : title;
+    }
+
+    /**
+     * Creates the JEP of a record, detached from the database.
+     *
+     * @param index The record index
+     * @return The JEP
+     */
+    public Jep jep(int index) {
+        Jep jep = new Jep();
+        jep.type = type(index);
+        jep.state = state(index);
+        jep.release = release(index);
+        jep.component = component(index);
+        jep.subComponent = subComponent(index);
+        jep.number = number(index);
+        jep.title = title(index);
+        jep.fingerprint = fingerprint(index);
+        return jep;
+    }
+
+    private int record(int index) {
+        return HEADER_SIZE + index * RECORD_SIZE;
+    }
+
+    private String string(int position) {
+        short index = this.buffer.getShort(position);
+        return index == NO_STRING ? null : this.strings[index];
+    }
+
+    private static String decode(ByteBuffer buffer, int text, int offsetPosition) {
+        int start = buffer.getInt(offsetPosition);
+        int end = buffer.getInt(offsetPosition + Integer.BYTES);
+        byte[] bytes = new byte[end - start];
+        buffer.get(text + start, bytes);
+        return new String(bytes, UTF_8);
+    }
+}
@@ -0,0 +1,96 @@
+package fr.hardcoding.service;
+
+import fr.hardcoding.model.Jep;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Collection;
+
+/**
+ * Stores the snapshot of the last seen JEP table next to the database.
+ * <p>
+ * The snapshot is written after each update is committed and mapped on first use after a restart, so the first
+ * check and the read API do not wait for the database. A missing or invalid snapshot falls back to the database.
+ * <p>
+ * The updates also use it to only load the known JEPs of the changed and removed rows, the snapshot telling which
+ * known rows are missing from the page.
+ */
+@ApplicationScoped
+public class JepTableStore {
+    private static final Logger LOG = LoggerFactory.getLogger(JepTableStore.class);
+
+    @ConfigProperty(name = "jep.snapshot.enabled", defaultValue = "true")
+    boolean enabled;
+    @ConfigProperty(name = "jep.snapshot.path", defaultValue = "./db/jeps.snapshot")
+    String path;
+
+    private volatile JepTableSnapshot current;
+    private volatile boolean loaded;
+
+    /**
+     * Gets the snapshot of the last seen JEP table, mapping it on first use.
+     *
+     * @return The snapshot, {@code null} if disabled, missing or invalid
+     */
+    public JepTableSnapshot current() {
+        if (!this.enabled) {
+            return null;
+        }
+        if (!this.loaded) {
+            synchronized (this) {
+                if (!this.loaded) {
+                    this.current = load(Path.of(this.path));
+                    this.loaded = true;
+                }
+            }
+        }
+        return this.current;
+    }
+
+    private static JepTableSnapshot load(Path path) {
+        try {
+            JepTableSnapshot snapshot = JepTableSnapshot.open(path);
+            LOG.info("Mapped the snapshot of {} JEPs from {}", snapshot.size(), path);
+            return snapshot;
+        } catch (NoSuchFileException e) {
+            LOG.info("No JEP table snapshot at {}, using the database", path);
+        } catch (IOException e) {
+            LOG.warn("Invalid JEP table snapshot {}, using the database", path, e);
+        }
+        return null;
+    }
+
+    /**
+     * Replaces the snapshot with the JEPs of a committed update.
+     *
+     * @param jeps All the known JEPs
+     */
+    public void save(Collection<Jep> jeps) {
+        if (!this.enabled) {
+            return;
+        }
+        Path file = Path.of(this.path);
+        synchronized (this) {
+            try {
+                JepTableSnapshot.write(file, jeps);
+                this.current = JepTableSnapshot.open(file);
+            } catch (IOException | IllegalArgumentException e) {
+                // A stale snapshot would hide changes, fall back to the database
+                LOG.warn("Failed to write the JEP table snapshot {}", file, e);
+                this.current = null;
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException deleteException) {
+                    LOG.warn("Failed to delete the JEP table snapshot {}", file, deleteException);
+                }
+            }
+            this.loaded = true;
+        }
+    }
+}
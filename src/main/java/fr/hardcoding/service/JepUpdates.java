@@ -0,0 +1,24 @@
+package fr.hardcoding.service;
+
+import fr.hardcoding.service.JepService.CheckResult;
+
+/**
+ * The JEP updates run by the {@link JepPollScheduler}: checks of the JEP 0 page on the leader, and the updates of
+ * the leader followed by standby instances.
+ */
+public interface JepUpdates {
+    /**
+     * Checks the JEP 0 page for updates and applies them.
+     *
+     * @return The check result
+     */
+    CheckResult checkJepUpdates();
+
+    /**
+     * Follows the updates committed by the leader, on a standby instance.
+     *
+     * @param refresh Whether to refresh the JEPs even without new transitions
+     * @return The number of new transitions
+     */
+    int followUpdates(boolean refresh);
+}
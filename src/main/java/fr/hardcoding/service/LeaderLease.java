@@ -0,0 +1,264 @@
+package fr.hardcoding.service;
+
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import static io.quarkus.scheduler.Scheduled.ConcurrentExecution.SKIP;
+
+/**
+ * Elects the instance checking the JEPs and publishing the posts, when several instances share a database.
+ * <p>
+ * The leader holds a lease, a row of the {@code leader_leases} table with its instance id and expiry, and renews it
+ * with a single update per interval. Standby instances take the lease over once it expires, bumping its term, so a
+ * standby becomes the leader within the lease duration and a renew interval of the leader stopping. An instance only
+ * considers itself the leader until the expiry it wrote, computed from before writing it, so its lease always ends
+ * before a standby can take it over, provided the instance clocks are closer than the renew interval. JEP updates
+ * and outbox posts are also fenced by locking the lease row of their term in their transaction.
+ * <p>
+ * The lease is disabled by default, a single instance is always the leader.
+ */
+@ApplicationScoped
+public class LeaderLease {
+    private static final Logger LOG = LoggerFactory.getLogger(LeaderLease.class);
+    static final String NAME = "jep-updates";
+
+    private final DataSource dataSource;
+    private final boolean enabled;
+    private final String instanceId;
+    private final Duration duration;
+    private final Clock clock;
+    private volatile boolean initialized;
+    private volatile long term;
+    private volatile Instant validUntil = Instant.MIN;
+
+    @Inject
+    public LeaderLease(DataSource dataSource,
+                       @ConfigProperty(name = "leader.enabled", defaultValue = "false") boolean enabled,
+                       @ConfigProperty(name = "leader.instance-id") Optional<String> instanceId,
+                       @ConfigProperty(name = "leader.lease-duration", defaultValue = "15s") Duration duration) {
+        this(dataSource, enabled, instanceId.orElseGet(() -> ManagementFactory.getRuntimeMXBean().getName()), duration, Clock.systemUTC());
+    }
+
+    LeaderLease(DataSource dataSource, boolean enabled, String instanceId, Duration duration, Clock clock) {
+        this.dataSource = dataSource;
+        this.enabled = enabled;
+        this.instanceId = instanceId;
+        this.duration = duration;
+        this.clock = clock;
+    }
+
+    /**
+     * Checks whether this instance is the leader.
+     *
+     * @return {@code true} if the lease is disabled or held by this instance and not expired
+     */
+    public boolean isLeader() {
+        return !this.enabled || this.clock.instant().isBefore(this.validUntil);
+    }
+
+    /**
+     * Gets the term of the lease held by this instance, changing each time the lease is taken over.
+     *
+     * @return The lease term, {@code 0} if disabled or not the leader
+     */
+    public long term() {
+        return isLeader() ? this.term : 0;
+    }
+
+    public String instanceId() {
+        return this.instanceId;
+    }
+
+    @Scheduled(every = "${leader.renew-interval:5s}", concurrentExecution = SKIP)
+    void scheduledRenew() {
+        if (this.enabled) {
+            renew();
+        }
+    }
+
+    /**
+     * Renews the lease of the leader, or tries to take it over from an expired leader.
+     *
+     * @return {@code true} if this instance is the leader
+     */
+    public boolean renew() {
+        Instant now = this.clock.instant();
+        long expiresAt = now.plus(this.duration).toEpochMilli();
+        try (Connection connection = this.dataSource.getConnection()) {
+            createTable(connection);
+            long current = this.term;
+            if (current > 0 && extend(connection, current, expiresAt)) {
+                this.validUntil = Instant.ofEpochMilli(expiresAt);
+                return true;
+            }
+            if (current > 0) {
+                LOG.warn("Lost leader lease of term {}", current);
+                stepDown();
+            }
+            long acquired = acquire(connection, now.toEpochMilli(), expiresAt);
+            if (acquired > 0) {
+                this.term = acquired;
+                this.validUntil = Instant.ofEpochMilli(expiresAt);
+                LOG.info("Acquired leader lease as {}, term {}", this.instanceId, acquired);
+                return true;
+            }
+            return false;
+        } catch (SQLException e) {
+            // Still the leader until the lease expires, a standby cannot take it over before
+            LOG.warn("Failed to renew leader lease", e);
+            return isLeader();
+        }
+    }
+
+    /**
+     * Fences the current transaction, by locking the lease row of the current term in it. A standby taking the lease
+     * over waits for the transaction to complete, and a transaction of a former leader fails.
+     *
+     * @throws IllegalStateException If this instance is not the leader
+     */
+    public void fence() {
+        if (!this.enabled) {
+            return;
+        }
+        // Enlisted in the current transaction
+        try (Connection connection = this.dataSource.getConnection()) {
+            fence(connection);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to check leader lease", e);
+        }
+    }
+
+    /**
+     * Fences the transaction of a connection, by locking the lease row of the current term in it.
+     *
+     * @param connection The connection of the transaction
+     * @throws IllegalStateException If this instance is not the leader
+     */
+    void fence(Connection connection) {
+        long current = this.term;
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT expires_at FROM leader_leases WHERE name = ? AND holder = ? AND term = ? FOR UPDATE")) {
+            statement.setString(1, NAME);
+            statement.setString(2, this.instanceId);
+            statement.setLong(3, current);
+            try (ResultSet result = statement.executeQuery()) {
+                if (!result.next() || result.getLong(1) <= this.clock.millis()) {
+                    throw new IllegalStateException("Not the leader anymore, lease term " + current + " lost");
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to check leader lease", e);
+        }
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        if (this.enabled) {
+            release();
+        }
+    }
+
+    /**
+     * Releases the lease, so a standby takes it over on its next renewal rather than once it expires.
+     */
+    public void release() {
+        long current = this.term;
+        if (current == 0) {
+            return;
+        }
+        stepDown();
+        try (Connection connection = this.dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "UPDATE leader_leases SET expires_at = 0 WHERE name = ? AND holder = ? AND term = ?")) {
+            statement.setString(1, NAME);
+            statement.setString(2, this.instanceId);
+            statement.setLong(3, current);
+            statement.executeUpdate();
+            LOG.info("Released leader lease of term {}", current);
+        } catch (SQLException e) {
+            LOG.warn("Failed to release leader lease", e);
+        }
+    }
+
+    private void stepDown() {
+        this.term = 0;
+        this.validUntil = Instant.MIN;
+    }
+
+    private boolean extend(Connection connection, long current, long expiresAt) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "UPDATE leader_leases SET expires_at = ? WHERE name = ? AND holder = ? AND term = ?")) {
+            statement.setLong(1, expiresAt);
+            statement.setString(2, NAME);
+            statement.setString(3, this.instanceId);
+            statement.setLong(4, current);
+            return statement.executeUpdate() == 1;
+        }
+    }
+
+    private long acquire(Connection connection, long now, long expiresAt) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "UPDATE leader_leases SET holder = ?, expires_at = ?, term = term + 1 WHERE name = ? AND expires_at <= ?")) {
+            statement.setString(1, this.instanceId);
+            statement.setLong(2, expiresAt);
+            statement.setString(3, NAME);
+            statement.setLong(4, now);
+            if (statement.executeUpdate() == 1) {
+                return readTerm(connection);
+            }
+        }
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO leader_leases (name, holder, expires_at, term) VALUES (?, ?, ?, 1)")) {
+            statement.setString(1, NAME);
+            statement.setString(2, this.instanceId);
+            statement.setLong(3, expiresAt);
+            statement.executeUpdate();
+            return 1;
+        } catch (SQLException e) {
+            // Held by another instance, unless it was a real failure
+            if (e.getSQLState() == null || !e.getSQLState().startsWith("23")) {
+                throw e;
+            }
+            return 0;
+        }
+    }
+
+    private long readTerm(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT term FROM leader_leases WHERE name = ? AND holder = ?")) {
+            statement.setString(1, NAME);
+            statement.setString(2, this.instanceId);
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() ? result.getLong(1) : 0;
+            }
+        }
+    }
+
+    private void createTable(Connection connection) throws SQLException {
+        if (this.initialized) {
+            return;
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS leader_leases ("
+                    + "name VARCHAR(64) PRIMARY KEY, holder VARCHAR(255) NOT NULL, expires_at BIGINT NOT NULL, term BIGINT NOT NULL)");
+        }
+        this.initialized = true;
+    }
+}
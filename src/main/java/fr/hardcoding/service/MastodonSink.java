@@ -0,0 +1,117 @@
+package fr.hardcoding.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.JsonRecyclerPools;
+import fr.hardcoding.model.OutboxPost;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Posts the JEP updates as statuses through the Mastodon API, also implemented by other ActivityPub servers.
+ * <p>
+ * Each post is sent with an {@code Idempotency-Key} derived from its outbox id, so a retried post whose response
+ * was lost is not published twice. Post references are the status ids, replies are posted in reply to their
+ * parent status.
+ */
+@ApplicationScoped
+public class MastodonSink implements PostSink {
+    public static final String NAME = "mastodon";
+    private static final Logger LOG = LoggerFactory.getLogger(MastodonSink.class);
+    private static final String STATUSES_PATH = "/api/v1/statuses";
+    private static final JsonFactory FACTORY = JsonFactory.builder()
+            .recyclerPool(JsonRecyclerPools.sharedConcurrentDequePool())
+            .build();
+
+    @ConfigProperty(name = "sinks.mastodon.enabled", defaultValue = "false")
+    boolean enabled;
+    @ConfigProperty(name = "sinks.mastodon.url", defaultValue = "https://mastodon.social")
+    String url;
+    @ConfigProperty(name = "sinks.mastodon.access-token", defaultValue = "")
+    String accessToken;
+    @ConfigProperty(name = "sinks.mastodon.visibility", defaultValue = "public")
+    String visibility;
+
+    private final HttpClients httpClients;
+
+    public MastodonSink(HttpClients httpClients) {
+        this.httpClients = httpClients;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public boolean enabled() {
+        return this.enabled;
+    }
+
+    @Override
+    public String publish(OutboxPost post, ReplyTo replyTo) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(this.url + STATUSES_PATH))
+                .header("Authorization", "Bearer " + this.accessToken)
+                .header("Content-Type", "application/json")
+                .header("Idempotency-Key", "jep-outbox-" + post.id)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(writeStatus(post.text, this.visibility, replyTo == null ? null : replyTo.parent())));
+        try {
+            HttpResponse<byte[]> response = this.httpClients.endpoint(NAME).send(request);
+            String body = new String(response.body(), UTF_8);
+            if (response.statusCode() == 200) {
+                return readId(body);
+            }
+            LOG.error("Failed to post to Mastodon: {} {}", response.statusCode(), body);
+        } catch (IOException e) {
+            LOG.error("Error posting to Mastodon", e);
+        }
+        return null;
+    }
+
+    static byte[] writeStatus(String text, String visibility, String inReplyToId) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(512);
+        try (JsonGenerator generator = FACTORY.createGenerator(output)) {
+            generator.writeStartObject();
+            generator.writeStringField("status", text);
+            generator.writeStringField("visibility", visibility);
+            generator.writeStringField("language", "en");
+            if (inReplyToId != null) {
+                generator.writeStringField("in_reply_to_id", inReplyToId);
+            }
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write status", e);
+        }
+        return output.toByteArray();
+    }
+
+    static String readId(String json) throws IOException {
+        try (JsonParser parser = FACTORY.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                parser.nextToken();
+                if (name.equals("id")) {
+                    return parser.getValueAsString();
+                }
+                parser.skipChildren();
+            }
+        }
+        throw new IOException("Missing status id");
+    }
+}
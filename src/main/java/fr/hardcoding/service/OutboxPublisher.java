@@ -0,0 +1,306 @@
+package fr.hardcoding.service;
+
+import fr.hardcoding.model.JepState;
+import fr.hardcoding.model.JepType;
+import fr.hardcoding.model.OutboxPost;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.inject.Instance;
+import jakarta.transaction.Transactional;
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static io.quarkus.scheduler.Scheduled.ConcurrentExecution.SKIP;
+
+/**
+ * Publishes the posts of the outbox to their sinks.
+ * <p>
+ * Posts are written to the outbox in the same transaction as the JEP changes, one per enabled {@link PostSink}.
+ * Each sink is drained asynchronously and independently of the others, on virtual threads and limited by its own
+ * token bucket, so neither slow posts nor a slow sink ever hold the JEP update transaction or the other sinks.
+ * Each attempt is recorded with its exponential backoff before the post is published, so a post whose outcome fails
+ * to be recorded is retried after its backoff, even after a restart. Each post is marked as posted right after it
+ * succeeds.
+ * Replies are published once their parent is, with the references of their thread root and parent posts, and given
+ * up with it.
+ * Sinks with several accounts are drained as one sink per account. Only the leader drains the outbox when several
+ * instances share the database: each post is claimed and marked as posted in transactions fenced by the lease term.
+ * A leader stalling longer than its lease between claiming a post and marking it as posted may still send it, and the
+ * new leader send it again after its backoff: Bluesky finds it by its record key and Mastodon by its idempotency key,
+ * while webhook receivers must deduplicate it by its outbox id.
+ */
+@ApplicationScoped
+public class OutboxPublisher {
+    private static final Logger LOG = LoggerFactory.getLogger(OutboxPublisher.class);
+
+    @ConfigProperty(name = "outbox.batch-size", defaultValue = "100")
+    int batchSize;
+
+    private final Instance<PostSink> sinks;
+    private final JepMetrics metrics;
+    private final Config config;
+    private final LeaderLease leaderLease;
+    private final Map<String, Channel> channels = new ConcurrentHashMap<>();
+    private final Map<String, JepFilter> filters = new ConcurrentHashMap<>();
+    private final ExecutorService drainExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public OutboxPublisher(Instance<PostSink> sinks, JepMetrics metrics, Config config, LeaderLease leaderLease) {
+        this.sinks = sinks;
+        this.metrics = metrics;
+        this.config = config;
+        this.leaderLease = leaderLease;
+    }
+
+    @Transactional
+    void onStart(@Observes StartupEvent event) {
+        int assigned = OutboxPost.assignLegacy(BlueskySink.NAME);
+        if (assigned > 0) {
+            LOG.info("Assigned {} queued posts to the {} sink", assigned, BlueskySink.NAME);
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        this.drainExecutor.shutdownNow();
+    }
+
+    /**
+     * Gets the names of the enabled sinks.
+     *
+     * @return The enabled sink names
+     */
+    public List<String> sinkNames() {
+        return List.copyOf(sinkFilters().keySet());
+    }
+
+    /**
+     * Gets the filters of the enabled sinks.
+     *
+     * @return The filters of the enabled sinks, by sink name
+     */
+    public Map<String, JepFilter> sinkFilters() {
+        Map<String, JepFilter> filters = new LinkedHashMap<>();
+        for (PostSink sink : sinks()) {
+            if (sink.enabled()) {
+                filters.put(sink.name(), this.filters.computeIfAbsent(sink.name(), this::createFilter));
+            }
+        }
+        return filters;
+    }
+
+    private List<PostSink> sinks() {
+        List<PostSink> sinks = new ArrayList<>();
+        for (PostSink sink : this.sinks) {
+            sinks.addAll(sink.accounts());
+        }
+        return sinks;
+    }
+
+    @Scheduled(every = "${outbox.interval:10s}", concurrentExecution = SKIP)
+    void drainPending() {
+        if (this.leaderLease.isLeader()) {
+            publishPendingAsync();
+        }
+    }
+
+    /**
+     * Publishes the pending posts of all sinks, and waits for them to be published.
+     */
+    public void publishPending() {
+        publishPendingAsync().join();
+    }
+
+    /**
+     * Starts publishing the pending posts of all sinks. Sinks still publishing their previous posts are skipped.
+     *
+     * @return The completion of the started sinks
+     */
+    public CompletableFuture<Void> publishPendingAsync() {
+        List<CompletableFuture<Void>> drains = new ArrayList<>();
+        for (PostSink sink : sinks()) {
+            if (!sink.enabled()) {
+                continue;
+            }
+            Channel channel = this.channels.computeIfAbsent(sink.name(), this::createChannel);
+            if (!channel.draining().compareAndSet(false, true)) {
+                LOG.debug("Sink {} still publishing, skipping", sink.name());
+                continue;
+            }
+            drains.add(CompletableFuture.runAsync(() -> drain(sink, channel), this.drainExecutor)
+                    .whenComplete((result, error) -> {
+                        channel.draining().set(false);
+                        if (error != null) {
+                            LOG.error("Error publishing posts to {}", sink.name(), error);
+                        }
+                    }));
+        }
+        return CompletableFuture.allOf(drains.toArray(CompletableFuture[]::new));
+    }
+
+    private Channel createChannel(String sink) {
+        double rate = sinkConfig(sink, "rate", Double.class, "outbox.rate", 0.5);
+        int burst = sinkConfig(sink, "burst", Integer.class, "outbox.burst", 5);
+        int maxAttempts = sinkConfig(sink, "max-attempts", Integer.class, "outbox.max-attempts", 8);
+        Duration initialBackoff = sinkConfig(sink, "backoff.initial", Duration.class, "outbox.backoff.initial", Duration.ofSeconds(30));
+        Duration maxBackoff = sinkConfig(sink, "backoff.max", Duration.class, "outbox.backoff.max", Duration.ofHours(1));
+        return new Channel(new TokenBucket(rate, burst), maxAttempts, initialBackoff, maxBackoff, new AtomicBoolean());
+    }
+
+    private JepFilter createFilter(String sink) {
+        JepFilter filter = new JepFilter(
+                sinkFilterConfig(sink, "types", JepType.class),
+                sinkFilterConfig(sink, "states", JepState.class),
+                sinkFilterConfig(sink, "components", String.class),
+                sinkFilterConfig(sink, "releases", String.class));
+        if (!filter.equals(JepFilter.ANY)) {
+            LOG.info("Filtering the updates posted to {} with {}", sink, filter);
+        }
+        return filter;
+    }
+
+    private <T> Set<T> sinkFilterConfig(String sink, String property, Class<T> type) {
+        return Set.copyOf(this.config.getOptionalValues("sinks." + sink + "." + property, type).orElse(List.of()));
+    }
+
+    private <T> T sinkConfig(String sink, String property, Class<T> type, String defaultProperty, T defaultValue) {
+        return this.config.getOptionalValue("sinks." + sink + "." + property, type)
+                .or(() -> this.config.getOptionalValue(defaultProperty, type))
+                .orElse(defaultValue);
+    }
+
+    private void drain(PostSink sink, Channel channel) {
+        // Replies become pending once their parent is published, keep draining to publish whole threads
+        while (!Thread.currentThread().isInterrupted()) {
+            List<OutboxPost> posts = QuarkusTransaction.requiringNew()
+                    .call(() -> OutboxPost.findPending(sink.name(), Instant.now(), channel.maxAttempts(), this.batchSize));
+            if (posts.isEmpty()) {
+                return;
+            }
+            if (!this.leaderLease.isLeader()) {
+                LOG.info("Not the leader anymore, leaving {} pending posts to {}", posts.size(), sink.name());
+                return;
+            }
+            LOG.info("Publishing {} pending posts to {}", posts.size(), sink.name());
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (OutboxPost post : posts) {
+                    channel.rateLimiter().acquire();
+                    executor.submit(() -> publish(sink, channel, post));
+                }
+            } catch (InterruptedException e) {
+                LOG.warn("Interrupted while publishing posts to {}", sink.name());
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void publish(PostSink sink, Channel channel, OutboxPost post) {
+        int attempts = post.attempts + 1;
+        Instant nextAttemptAt = Instant.now().plus(backoff(attempts, channel.initialBackoff(), channel.maxBackoff()));
+        try {
+            boolean claimed = QuarkusTransaction.requiringNew().call(() -> {
+                this.leaderLease.fence();
+                return OutboxPost.markAttempted(post.id, nextAttemptAt);
+            });
+            if (!claimed) {
+                LOG.debug("JEP {} update already posted to {}", post.jepNumber, sink.name());
+                return;
+            }
+        } catch (RuntimeException e) {
+            LOG.error("Error recording the attempt to post JEP {} update to {}", post.jepNumber, sink.name(), e);
+            return;
+        }
+        String ref;
+        try {
+            PostSink.ReplyTo replyTo = replyTo(post);
+            ref = this.metrics.postTimer().record(() -> sink.publish(post, replyTo));
+        } catch (RuntimeException e) {
+            LOG.error("Error publishing JEP {} update to {}", post.jepNumber, sink.name(), e);
+            ref = null;
+        }
+        this.metrics.posted(sink.name(), ref != null);
+        record(sink, channel, post, ref, attempts, nextAttemptAt);
+    }
+
+    /**
+     * Records the outcome of a post. The attempt is already recorded with its backoff, so a post whose outcome fails
+     * to be recorded is retried after it, and deduplicated by its sink if it was published.
+     */
+    private void record(PostSink sink, Channel channel, OutboxPost post, String ref, int attempts, Instant nextAttemptAt) {
+        try {
+            if (ref != null) {
+                QuarkusTransaction.requiringNew().run(() -> {
+                    this.leaderLease.fence();
+                    OutboxPost.markPosted(post.id, Instant.now(), ref);
+                });
+                return;
+            }
+            if (attempts >= channel.maxAttempts()) {
+                LOG.error("Giving up posting JEP {} update to {} after {} attempts", post.jepNumber, sink.name(), attempts);
+                // Their parent will never be published
+                int abandoned = QuarkusTransaction.requiringNew().call(() -> OutboxPost.abandonReplies(post, channel.maxAttempts()));
+                if (abandoned > 0) {
+                    LOG.error("Giving up posting {} later replies of the thread to {}", abandoned, sink.name());
+                }
+            } else {
+                LOG.warn("Failed to post JEP {} update to {}, retrying at {}", post.jepNumber, sink.name(), nextAttemptAt);
+            }
+        } catch (RuntimeException e) {
+            LOG.error("Error recording JEP {} update to {}, retrying at {}", post.jepNumber, sink.name(), nextAttemptAt, e);
+        }
+    }
+
+    private static PostSink.ReplyTo replyTo(OutboxPost post) {
+        if (post.parentId == null) {
+            return null;
+        }
+        return QuarkusTransaction.requiringNew().call(() -> {
+            String parent = OutboxPost.findRef(post.parentId);
+            String root = post.rootId.equals(post.parentId) ? parent : OutboxPost.findRef(post.rootId);
+            return new PostSink.ReplyTo(root, parent);
+        });
+    }
+
+    /**
+     * Computes the exponential backoff before the next attempt, with up to 10% of jitter.
+     *
+     * @param attempts The number of failed attempts
+     * @param initial  The backoff after the first failed attempt
+     * @param max      The maximum backoff
+     * @return The backoff before the next attempt
+     */
+    static Duration backoff(int attempts, Duration initial, Duration max) {
+        long backoffMillis = initial.toMillis() << Math.min(attempts - 1, 30);
+        if (backoffMillis <= 0 || backoffMillis > max.toMillis()) {
+            backoffMillis = max.toMillis();
+        }
+        long jitter = ThreadLocalRandom.current().nextLong(backoffMillis / 10 + 1);
+        return Duration.ofMillis(backoffMillis + jitter);
+    }
+
+    /**
+     * The publishing state of a sink, with its rate limit and retry policy.
+     */
+    private record Channel(TokenBucket rateLimiter, int maxAttempts, Duration initialBackoff, Duration maxBackoff,
+                           AtomicBoolean draining) {
+    }
+}
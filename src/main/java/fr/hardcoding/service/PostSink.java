@@ -0,0 +1,58 @@
+package fr.hardcoding.service;
+
+import fr.hardcoding.model.OutboxPost;
+
+import java.util.List;
+
+/**
+ * A destination of the JEP update posts.
+ * <p>
+ * Sinks are discovered as beans by the {@link OutboxPublisher}. Each enabled sink gets its own copy of every post
+ * in the outbox, and is drained independently with its own rate limit and retry policy, configured by the
+ * {@code sinks.<name>.rate}, {@code burst}, {@code max-attempts}, {@code backoff.initial} and {@code backoff.max}
+ * properties, defaulting to the {@code outbox.*} ones. The updates queued for each sink can be filtered, see
+ * {@link JepFilter}.
+ */
+public interface PostSink {
+    /**
+     * Gets the sink name, used to queue the posts and to configure the sink.
+     *
+     * @return The sink name
+     */
+    String name();
+
+    /**
+     * Checks whether the sink is enabled. Posts are only queued for enabled sinks.
+     *
+     * @return {@code true} if the sink is enabled, {@code false} otherwise
+     */
+    boolean enabled();
+
+    /**
+     * Gets the sinks of each account of this sink, like the additional accounts of a social network. Each one is
+     * queued and published as a sink of its own.
+     *
+     * @return The sinks of each account, this sink only by default
+     */
+    default List<PostSink> accounts() {
+        return List.of(this);
+    }
+
+    /**
+     * Publishes a post.
+     *
+     * @param post    The post to publish
+     * @param replyTo The references of the thread root and parent posts, {@code null} if the post is not a reply
+     * @return The reference of the published post on the sink, {@code null} if it failed and should be retried later
+     */
+    String publish(OutboxPost post, ReplyTo replyTo);
+
+    /**
+     * The references of the posts a reply belongs to, as returned by the sink when they were published.
+     *
+     * @param root   The reference of the thread root post
+     * @param parent The reference of the post replied to
+     */
+    record ReplyTo(String root, String parent) {
+    }
+}
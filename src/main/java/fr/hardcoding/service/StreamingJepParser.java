@@ -0,0 +1,459 @@
+package fr.hardcoding.service;
+
+import fr.hardcoding.model.Jep;
+import org.jsoup.parser.Parser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.LongPredicate;
+
+import static fr.hardcoding.service.JepService.createJep;
+import static fr.hardcoding.service.JepService.fingerprint;
+
+/**
+ * Parses the JEP 0 tables in a single pass over the page, without building a DOM.
+ * <p>
+ * It scans the rows of the {@code table.jeps} tables, collecting the raw text of their {@code td} cells and of
+ * the elements with the {@code cl}, {@code cr} and {@code jep} classes. Cell texts are then decoded and
+ * whitespace-normalized the same way {@link org.jsoup.nodes.Element#text()} does, so the parsed JEPs match the
+ * ones from {@link JepService#parseJeps(org.jsoup.nodes.Document)}.
+ */
+final class StreamingJepParser {
+    private static final Logger LOG = LoggerFactory.getLogger(StreamingJepParser.class);
+    private static final Set<String> VOID_ELEMENTS = Set.of("area", "base", "br", "col", "embed", "hr", "img", "input", "link", "meta", "source", "track", "wbr");
+    private static final int BUFFER_SIZE = 8192;
+
+    private enum State {TEXT, TAG_OPEN, TAG, COMMENT, RAW_TEXT}
+
+    private final LongPredicate rowFilter;
+    private final Consumer<String> onFailedRow;
+    private final List<Jep> jeps = new ArrayList<>();
+    private final StringBuilder tag = new StringBuilder(64);
+    private State state = State.TEXT;
+    private char quote;
+    private int commentDashes;
+    private String rawTextEnd;
+    private int rawTextMatched;
+    // Depth of nested tables inside a JEP table, 0 when outside
+    private int jepsTableDepth;
+    // Current row
+    private boolean inRow;
+    private final List<StringBuilder> cells = new ArrayList<>();
+    private int cellCount;
+    private StringBuilder cell;
+    private int cellDepth;
+    private final Capture component = new Capture("cl");
+    private final Capture subComponent = new Capture("cr");
+    private final Capture number = new Capture("jep");
+    private final Capture[] captures = {this.component, this.subComponent, this.number};
+
+    private StreamingJepParser(LongPredicate rowFilter, Consumer<String> onFailedRow) {
+        this.rowFilter = rowFilter;
+        this.onFailedRow = onFailedRow;
+    }
+
+    /**
+     * Parses the JEPs from a JEP 0 page.
+     *
+     * @param reader The page reader
+     * @return The parsed JEPs
+     * @throws IOException If the page could not be read
+     */
+    static List<Jep> parseJeps(Reader reader) throws IOException {
+        return parseJeps(reader, fingerprint -> true, number -> {
+        });
+    }
+
+    /**
+     * Parses the JEPs from a JEP 0 page.
+     *
+     * @param reader      The page reader
+     * @param rowFilter   Tests the fingerprint of each table row, only the accepted rows are parsed
+     * @param onFailedRow Called with the JEP number of each table row that could not be parsed, empty if it has none
+     * @return The parsed JEPs
+     * @throws IOException If the page could not be read
+     */
+    static List<Jep> parseJeps(Reader reader, LongPredicate rowFilter, Consumer<String> onFailedRow) throws IOException {
+        LOG.info("Parsing JEPs (streaming)");
+        StreamingJepParser parser = new StreamingJepParser(rowFilter, onFailedRow);
+        char[] buffer = new char[BUFFER_SIZE];
+        int read;
+        while ((read = reader.read(buffer)) != -1) {
+            for (int i = 0; i < read; i++) {
+                parser.accept(buffer[i]);
+            }
+        }
+        parser.endRow();
+        return parser.jeps;
+    }
+
+    private void accept(char c) {
+        switch (this.state) {
+            case TEXT -> {
+                if (c == '<') {
+                    this.state = State.TAG_OPEN;
+                } else {
+                    appendText(c);
+                }
+            }
+            case TAG_OPEN -> {
+                if (isAsciiLetter(c) || c == '/' || c == '!' || c == '?') {
+                    this.tag.setLength(0);
+                    this.tag.append(c);
+                    this.quote = 0;
+                    this.state = State.TAG;
+                } else {
+                    // Not a tag, a lone '<' in text
+                    appendText('<');
+                    this.state = State.TEXT;
+                    accept(c);
+                }
+            }
+            case TAG -> {
+                if (this.quote != 0) {
+                    if (c == this.quote) {
+                        this.quote = 0;
+                    }
+                    this.tag.append(c);
+                } else if (c == '>') {
+                    this.state = State.TEXT;
+                    handleTag();
+                } else {
+                    if ((c == '"' || c == '\'') && this.tag.charAt(0) != '!') {
+                        this.quote = c;
+                    }
+                    this.tag.append(c);
+                    if (this.tag.length() == 3 && "!--".contentEquals(this.tag)) {
+                        this.commentDashes = 0;
+                        this.state = State.COMMENT;
+                    }
+                }
+            }
+            case COMMENT -> {
+                if (c == '>' && this.commentDashes >= 2) {
+                    this.state = State.TEXT;
+                } else if (c == '-') {
+                    this.commentDashes++;
+                } else {
+                    this.commentDashes = 0;
+                }
+            }
+            case RAW_TEXT -> {
+                if (Character.toLowerCase(c) == this.rawTextEnd.charAt(this.rawTextMatched)) {
+                    this.rawTextMatched++;
+                    if (this.rawTextMatched == this.rawTextEnd.length()) {
+                        // Consume the end tag as a regular tag
+                        this.tag.setLength(0);
+                        this.tag.append(this.rawTextEnd, 1, this.rawTextEnd.length());
+                        this.quote = 0;
+                        this.state = State.TAG;
+                    }
+                } else {
+                    this.rawTextMatched = c == '<' ? 1 : 0;
+                }
+            }
+        }
+    }
+
+    private void appendText(char c) {
+        if (this.cell != null) {
+            this.cell.append(c);
+            for (Capture capture : this.captures) {
+                if (capture.depth >= 0) {
+                    capture.text.append(c);
+                }
+            }
+        }
+    }
+
+    private void handleTag() {
+        char first = this.tag.charAt(0);
+        if (first == '!' || first == '?') {
+            return;
+        }
+        boolean closing = first == '/';
+        int nameStart = closing ? 1 : 0;
+        int nameEnd = nameStart;
+        while (nameEnd < this.tag.length() && !isTagNameEnd(this.tag.charAt(nameEnd))) {
+            nameEnd++;
+        }
+        String name = this.tag.substring(nameStart, nameEnd).toLowerCase(Locale.ROOT);
+        if (closing) {
+            closeElement(name);
+        } else {
+            boolean selfClosing = this.tag.charAt(this.tag.length() - 1) == '/';
+            openElement(name, nameEnd, selfClosing);
+        }
+    }
+
+    private void openElement(String name, int attributesStart, boolean selfClosing) {
+        switch (name) {
+            case "script", "style" -> {
+                if (!selfClosing) {
+                    this.rawTextEnd = "</" + name;
+                    this.rawTextMatched = 0;
+                    this.state = State.RAW_TEXT;
+                }
+                return;
+            }
+            case "table" -> {
+                if (this.jepsTableDepth > 0) {
+                    this.jepsTableDepth++;
+                } else if (hasClass(classAttribute(attributesStart), "jeps")) {
+                    this.jepsTableDepth = 1;
+                }
+                return;
+            }
+            default -> {
+            }
+        }
+        if (this.jepsTableDepth == 0) {
+            return;
+        }
+        switch (name) {
+            case "tr" -> {
+                endRow();
+                this.inRow = true;
+            }
+            case "tbody", "thead", "tfoot" -> endRow();
+            case "td", "th" -> {
+                endCell();
+                this.inRow = true;
+                if (name.equals("td")) {
+                    startCell(classAttribute(attributesStart));
+                }
+            }
+            default -> {
+                if (this.cell == null) {
+                    return;
+                }
+                if (name.equals("br")) {
+                    appendText(' ');
+                }
+                if (selfClosing || VOID_ELEMENTS.contains(name)) {
+                    return;
+                }
+                this.cellDepth++;
+                startCaptures(classAttribute(attributesStart));
+            }
+        }
+    }
+
+    private void closeElement(String name) {
+        if (name.equals("table")) {
+            if (this.jepsTableDepth == 1) {
+                endRow();
+            }
+            if (this.jepsTableDepth > 0) {
+                this.jepsTableDepth--;
+            }
+            return;
+        }
+        if (this.jepsTableDepth == 0) {
+            return;
+        }
+        switch (name) {
+            case "tr", "tbody", "thead", "tfoot" -> endRow();
+            case "td", "th" -> endCell();
+            default -> {
+                if (this.cell == null || this.cellDepth == 0) {
+                    return;
+                }
+                this.cellDepth--;
+                for (Capture capture : this.captures) {
+                    if (capture.depth > this.cellDepth) {
+                        capture.depth = -1;
+                    }
+                }
+            }
+        }
+    }
+
+    private void startCell(String classes) {
+        if (this.cellCount == this.cells.size()) {
+            this.cells.add(new StringBuilder(64));
+        }
+        this.cell = this.cells.get(this.cellCount++);
+        this.cell.setLength(0);
+        this.cellDepth = 0;
+        startCaptures(classes);
+    }
+
+    private void startCaptures(String classes) {
+        if (classes == null) {
+            return;
+        }
+        for (Capture capture : this.captures) {
+            if (capture.depth < 0 && hasClass(classes, capture.className)) {
+                if (!capture.text.isEmpty()) {
+                    // Separate texts of multiple matching elements
+                    capture.text.append(' ');
+                }
+                capture.depth = this.cellDepth;
+            }
+        }
+    }
+
+    private void endCell() {
+        this.cell = null;
+        for (Capture capture : this.captures) {
+            capture.depth = -1;
+        }
+    }
+
+    private void endRow() {
+        endCell();
+        if (this.inRow && this.cellCount >= 5) {
+            String type = text(this.cells.get(0));
+            String state = text(this.cells.get(1));
+            String release = text(this.cells.get(2));
+            String component = text(this.component.text);
+            String subComponent = text(this.subComponent.text);
+            String number = text(this.number.text);
+            String title = text(this.cells.get(this.cellCount - 1));
+            long fingerprint = fingerprint(type, state, release, component, subComponent, number, title);
+            try {
+                if (this.rowFilter.test(fingerprint)) {
+                    Jep jep = createJep(type, state, release, component, subComponent, number, title);
+                    jep.fingerprint = fingerprint;
+                    this.jeps.add(jep);
+                    LOG.debug("Found {}", jep);
+                }
+            } catch (IllegalArgumentException e) {
+                LOG.warn("Failed to parse JEP {} {} {}", type, state, title, e);
+                this.onFailedRow.accept(number);
+            }
+        }
+        this.inRow = false;
+        this.cellCount = 0;
+        for (Capture capture : this.captures) {
+            capture.text.setLength(0);
+        }
+    }
+
+    private String classAttribute(int start) {
+        // Attributes are scanned from the tag buffer, only the class attribute value is extracted
+        int length = this.tag.length();
+        int i = start;
+        while (i < length) {
+            char c = this.tag.charAt(i);
+            if (isWhitespace(c) || c == '/') {
+                i++;
+                continue;
+            }
+            int nameStart = i;
+            while (i < length && !isWhitespace(this.tag.charAt(i)) && this.tag.charAt(i) != '=' && this.tag.charAt(i) != '/') {
+                i++;
+            }
+            boolean isClass = i - nameStart == 5 && "class".equalsIgnoreCase(this.tag.substring(nameStart, i));
+            while (i < length && isWhitespace(this.tag.charAt(i))) {
+                i++;
+            }
+            if (i >= length || this.tag.charAt(i) != '=') {
+                continue;
+            }
+            i++;
+            while (i < length && isWhitespace(this.tag.charAt(i))) {
+                i++;
+            }
+            int valueStart;
+            int valueEnd;
+            if (i < length && (this.tag.charAt(i) == '"' || this.tag.charAt(i) == '\'')) {
+                char valueQuote = this.tag.charAt(i);
+                valueStart = ++i;
+                while (i < length && this.tag.charAt(i) != valueQuote) {
+                    i++;
+                }
+                valueEnd = i++;
+            } else {
+                valueStart = i;
+                while (i < length && !isWhitespace(this.tag.charAt(i))) {
+                    i++;
+                }
+                valueEnd = i;
+            }
+            if (isClass) {
+                return this.tag.substring(valueStart, valueEnd);
+            }
+        }
+        return null;
+    }
+
+    private static boolean hasClass(String classes, String className) {
+        if (classes == null) {
+            return false;
+        }
+        int length = classes.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && isWhitespace(classes.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < length && !isWhitespace(classes.charAt(i))) {
+                i++;
+            }
+            if (i - start == className.length() && classes.regionMatches(true, start, className, 0, className.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Decodes the entities of a raw text and normalizes its whitespaces like {@link org.jsoup.nodes.Element#text()}.
+     */
+    private static String text(StringBuilder raw) {
+        String decoded = raw.indexOf("&") >= 0 ? Parser.unescapeEntities(raw.toString(), false) : raw.toString();
+        StringBuilder builder = new StringBuilder(decoded.length());
+        boolean lastWasWhitespace = true;
+        for (int i = 0; i < decoded.length(); i++) {
+            char c = decoded.charAt(i);
+            // Non-breaking spaces are normalized too
+            if (isWhitespace(c) || c == '\u00A0') {
+                if (!lastWasWhitespace) {
+                    builder.append(' ');
+                    lastWasWhitespace = true;
+                }
+            } else {
+                builder.append(c);
+                lastWasWhitespace = false;
+            }
+        }
+        int end = builder.length();
+        if (end > 0 && builder.charAt(end - 1) == ' ') {
+            builder.setLength(end - 1);
+        }
+        return builder.toString();
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f';
+    }
+
+    private static boolean isTagNameEnd(char c) {
+        return isWhitespace(c) || c == '/';
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static final class Capture {
+        private final String className;
+        private final StringBuilder text = new StringBuilder(32);
+        // Cell depth of the element being captured, -1 if none
+        private int depth = -1;
+
+        private Capture(String className) {
+            this.className = className;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package fr.hardcoding.service;
+
+import fr.hardcoding.model.Jep;
+import fr.hardcoding.model.JepState;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Formats the changes of many JEPs to the same state and release as a single thread.
+ * <p>
+ * The root post summarizes the changes and the changed JEPs are listed one per line, packed in as few posts as
+ * the post length limit allows. Lengths are counted in code points, which never undercounts graphemes.
+ */
+final class ThreadFormatter {
+    private ThreadFormatter() {
+    }
+
+    /**
+     * Formats a thread.
+     *
+     * @param state     The state the JEPs changed to
+     * @param release   The release of the JEPs, {@code null} if none
+     * @param jeps      The changed JEPs
+     * @param maxLength The maximum length of each post, in code points
+     * @return The texts of the thread posts, starting with the root one
+     */
+    static List<String> formatThread(JepState state, String release, List<Jep> jeps, int maxLength) {
+        List<String> texts = new ArrayList<>();
+        StringBuilder text = new StringBuilder(formatHeadline(state, release, jeps.size()));
+        int length = text.codePointCount(0, text.length());
+        for (Jep jep : jeps) {
+            String line = formatLine(jep, maxLength);
+            int lineLength = line.codePointCount(0, line.length());
+            // Lines are separated by a line break
+            if (length > 0 && length + 1 + lineLength > maxLength) {
+                texts.add(text.toString());
+                text.setLength(0);
+                length = 0;
+            }
+            if (length > 0) {
+                text.append('\n');
+                length++;
+            }
+            text.append(line);
+            length += lineLength;
+        }
+        texts.add(text.toString());
+        return texts;
+    }
+
+    static String formatHeadline(JepState state, String release, int count) {
+        String jdk = release == null ? "next JDK" : "JDK " + release;
+        return switch (state) {
+            case DRAFTED -> "✏️ " + count + " JEPs were drafted";
+            case SUBMITTED -> "🗳️ " + count + " JEPs were submitted";
+            case CANDIDATE -> "🎓 " + count + " JEPs moved to candidate";
+            case PROPOSED_TO_TARGET -> "🎯 " + count + " JEPs proposed to target " + jdk;
+            case TARGETED -> "🎯 " + count + " JEPs updated to target " + jdk;
+            case INTEGRATED -> "🏗️ " + count + " JEPs integrated to " + jdk;
+            case CLOSED_DELIVERED -> release == null
+                    ? "🪦 " + count + " JEPs were withdrawn"
+                    : "📦 " + count + " JEPs delivered to JDK " + release;
+            case COMPLETED -> "✅ " + count + " JEPs are now complete";
+            case ACTIVE -> "✅ " + count + " JEPs are now active";
+        };
+    }
+
+    private static String formatLine(Jep jep, int maxLength) {
+        String prefix = "• JEP " + jep.number + ": ";
+        String title = jep.title == null ? "" : jep.title;
+        int room = maxLength - prefix.codePointCount(0, prefix.length());
+        if (title.codePointCount(0, title.length()) > room) {
+            // Keep room for the ellipsis
+            title = title.substring(0, title.offsetByCodePoints(0, Math.max(room - 1, 0))) + "…";
+        }
+        return prefix + title;
+    }
+}
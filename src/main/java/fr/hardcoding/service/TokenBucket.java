@@ -0,0 +1,59 @@
+package fr.hardcoding.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * A token bucket rate limiter.
+ * <p>
+ * The bucket holds up to {@code capacity} tokens and is refilled at a constant rate. Each permit takes one token,
+ * allowing bursts up to the capacity while keeping the long term rate.
+ */
+final class TokenBucket {
+    private final double tokensPerNano;
+    private final double capacity;
+    private final LongSupplier nanoTime;
+    private double tokens;
+    private long lastRefill;
+
+    TokenBucket(double permitsPerSecond, int capacity) {
+        this(permitsPerSecond, capacity, System::nanoTime);
+    }
+
+    TokenBucket(double permitsPerSecond, int capacity, LongSupplier nanoTime) {
+        if (permitsPerSecond <= 0 || capacity < 1) {
+            throw new IllegalArgumentException("Invalid rate limit: " + permitsPerSecond + "/s with capacity " + capacity);
+        }
+        this.tokensPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.capacity = capacity;
+        this.nanoTime = nanoTime;
+        this.tokens = capacity;
+        this.lastRefill = nanoTime.getAsLong();
+    }
+
+    /**
+     * Takes a permit, waiting for a token to be available.
+     *
+     * @throws InterruptedException If interrupted while waiting
+     */
+    void acquire() throws InterruptedException {
+        long wait = reserve();
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+
+    /**
+     * Reserves a permit.
+     *
+     * @return The time to wait in nanoseconds before using the permit, {@code 0} if it can be used right away
+     */
+    synchronized long reserve() {
+        long now = this.nanoTime.getAsLong();
+        this.tokens = Math.min(this.capacity, this.tokens + (now - this.lastRefill) * this.tokensPerNano);
+        this.lastRefill = now;
+        this.tokens -= 1;
+        // Tokens go negative when permits are reserved ahead
+        return this.tokens >= 0 ? 0 : (long) Math.ceil(-this.tokens / this.tokensPerNano);
+    }
+}
@@ -0,0 +1,96 @@
+package fr.hardcoding.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.JsonRecyclerPools;
+import fr.hardcoding.model.OutboxPost;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+/**
+ * Sends the JEP updates as JSON documents to a webhook. Any {@code 2xx} response is considered a success.
+ * <p>
+ * The document holds the outbox post {@code id}, stable across retries so receivers can deduplicate them, the JEP
+ * {@code number}, {@code state} and {@code url}, the post {@code text} and its {@code createdAt} instant. Thread
+ * posts about many JEPs have no {@code number} and link to the JEP index, their replies also hold the
+ * {@code parentId} of the post they reply to. Post references are the outbox post ids.
+ */
+@ApplicationScoped
+public class WebhookSink implements PostSink {
+    public static final String NAME = "webhook";
+    private static final Logger LOG = LoggerFactory.getLogger(WebhookSink.class);
+    private static final JsonFactory FACTORY = JsonFactory.builder()
+            .recyclerPool(JsonRecyclerPools.sharedConcurrentDequePool())
+            .build();
+
+    @ConfigProperty(name = "sinks.webhook.enabled", defaultValue = "false")
+    boolean enabled;
+    @ConfigProperty(name = "sinks.webhook.url", defaultValue = "http://localhost/")
+    String url;
+
+    private final HttpClients httpClients;
+
+    public WebhookSink(HttpClients httpClients) {
+        this.httpClients = httpClients;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public boolean enabled() {
+        return this.enabled;
+    }
+
+    @Override
+    public String publish(OutboxPost post, ReplyTo replyTo) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(this.url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(writeEvent(post)));
+        try {
+            HttpResponse<byte[]> response = this.httpClients.endpoint(NAME).send(request);
+            if (response.statusCode() / 100 == 2) {
+                return String.valueOf(post.id);
+            }
+            LOG.error("Failed to call webhook: {}", response.statusCode());
+        } catch (IOException e) {
+            LOG.error("Error calling webhook", e);
+        }
+        return null;
+    }
+
+    static byte[] writeEvent(OutboxPost post) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(512);
+        try (JsonGenerator generator = FACTORY.createGenerator(output)) {
+            generator.writeStartObject();
+            if (post.id == null) {
+                generator.writeNullField("id");
+            } else {
+                generator.writeNumberField("id", post.id);
+            }
+            generator.writeStringField("number", post.jepNumber);
+            generator.writeStringField("state", post.state == null ? null : post.state.name());
+            generator.writeStringField("url", "https://openjdk.org/jeps/" + (post.jepNumber == null ? "0" : post.jepNumber));
+            generator.writeStringField("text", post.text);
+            generator.writeStringField("createdAt", post.createdAt == null ? null : post.createdAt.toString());
+            if (post.parentId != null) {
+                generator.writeNumberField("parentId", post.parentId);
+            }
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write webhook event", e);
+        }
+        return output.toByteArray();
+    }
+}
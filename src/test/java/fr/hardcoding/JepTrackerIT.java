@@ -0,0 +1,236 @@
+package fr.hardcoding;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.quarkus.test.common.QuarkusTestResourceLifecycleManager;
+import io.quarkus.test.common.WithTestResource;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusIntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Runs a full fetch, parse and diff cycle against the packaged application, as a JVM jar or a native executable,
+ * with the JEP pages served by a local stub and Bluesky mocked. Reports the startup time and RSS of the mode under
+ * test, and serves as the training run of the {@code aot} profile.
+ */
+@QuarkusIntegrationTest
+@WithTestResource(JepTrackerIT.Stubs.class)
+class JepTrackerIT {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Duration TIMEOUT = Duration.ofSeconds(60);
+    private static final Pattern STARTED = Pattern.compile("started in ([0-9.]+)s");
+
+    @TestHTTPResource("/")
+    URI root;
+
+    private HttpClient client;
+
+    @BeforeEach
+    void setUp() {
+        this.client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.client.close();
+    }
+
+    @Test
+    void testUpdateCycle() throws Exception {
+        report("at startup");
+
+        // Initial check, every JEP of the page is new
+        JsonNode jeps = await("/jeps", json -> json.size() == 485);
+        assertEquals("JEP Template", find(jeps, "2").get("title").asText());
+        await("/jeps?state=TARGETED", json -> json.size() == 4);
+        String feed = awaitBody("/feed.atom", body -> body.contains("<entry>"));
+        assertTrue(feed.contains("openjdk.org/jeps/"), "Feed entries should link to the JEPs");
+
+        // Change detected on a later check
+        Stubs.PAGE.updateAndGet(page -> page.replace(">JEP Template<", ">JEP Template, Revised<"));
+        await("/jeps/2", json -> "JEP Template, Revised".equals(json.get("title").asText()));
+
+        String metrics = awaitBody("/q/metrics", body -> body.contains("jep_checks"));
+        assertTrue(metrics.contains("jep_posts"), "Posts should be measured");
+        report("after the update cycle");
+    }
+
+    private JsonNode await(String path, Predicate<JsonNode> condition) throws Exception {
+        String body = awaitBody(path, b -> {
+            try {
+                return condition.test(MAPPER.readTree(b));
+            } catch (IOException e) {
+                return false;
+            }
+        });
+        return MAPPER.readTree(body);
+    }
+
+    private String awaitBody(String path, Predicate<String> condition) throws Exception {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        String body = null;
+        while (System.nanoTime() < deadline) {
+            HttpResponse<String> response = this.client.send(HttpRequest.newBuilder(this.root.resolve(path)).GET().build(),
+                    HttpResponse.BodyHandlers.ofString(UTF_8));
+            body = response.body();
+            if (response.statusCode() == 200 && condition.test(body)) {
+                return body;
+            }
+            Thread.sleep(200);
+        }
+        fail("Timed out waiting for " + path + ", last response: " + body);
+        return null;
+    }
+
+    private static JsonNode find(JsonNode jeps, String number) {
+        for (JsonNode jep : jeps) {
+            if (number.equals(jep.get("number").asText())) {
+                return jep;
+            }
+        }
+        fail("JEP " + number + " not found");
+        return null;
+    }
+
+    /**
+     * Prints the mode, startup time and RSS of the application under test.
+     *
+     * @param phase The phase of the test the RSS is measured at
+     */
+    private static void report(String phase) throws IOException {
+        Optional<ProcessHandle> application = ProcessHandle.current().descendants()
+                .filter(process -> process.info().commandLine()
+                        .map(command -> command.contains("quarkus-run.jar") || command.contains("-runner"))
+                        .orElse(false))
+                .findFirst();
+        String command = application.flatMap(process -> process.info().commandLine()).orElse("");
+        String mode;
+        if (command.contains("-runner") && !command.contains("quarkus-run.jar")) {
+            mode = "native";
+        } else if (command.contains("-XX:AOTCacheOutput") || command.contains("-XX:AOTMode=record")) {
+            mode = "jvm, AOT cache training";
+        } else if (command.contains("-XX:AOTCache")) {
+            mode = "jvm, AOT cache";
+        } else {
+            mode = "jvm";
+        }
+        String startup = "n/a";
+        Path log = Path.of("target", "quarkus.log");
+        if (Files.exists(log)) {
+            Matcher matcher = STARTED.matcher(Files.readString(log, UTF_8));
+            if (matcher.find()) {
+                startup = matcher.group(1) + "s";
+            }
+        }
+        String rss = application.map(process -> Path.of("/proc", String.valueOf(process.pid()), "status"))
+                .filter(Files::exists)
+                .map(JepTrackerIT::readRss)
+                .orElse("n/a");
+        System.out.printf("JEP tracker [%s] started in %s, RSS %s %s%n", mode, startup, phase, rss);
+    }
+
+    private static String readRss(Path status) {
+        try {
+            for (String line : Files.readAllLines(status, UTF_8)) {
+                if (line.startsWith("VmRSS:")) {
+                    return line.substring("VmRSS:".length()).trim();
+                }
+            }
+        } catch (IOException e) {
+            // Process exited
+        }
+        return "n/a";
+    }
+
+    /**
+     * Serves the JEP 0 page and the JEP pages from the test resources.
+     */
+    public static class Stubs implements QuarkusTestResourceLifecycleManager {
+        static final AtomicReference<String> PAGE = new AtomicReference<>();
+
+        private HttpServer server;
+
+        @Override
+        public Map<String, String> start() {
+            Path snapshot;
+            try {
+                // Start from an empty database and no JEP table snapshot
+                snapshot = Files.createTempDirectory("jep-tracker").resolve("jeps.snapshot");
+                PAGE.set(readTestResource("/sample.html"));
+                String jepPage = readTestResource("/jep-470.html");
+                this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+                this.server.createContext("/jeps/0", exchange -> respond(exchange, PAGE.get()));
+                this.server.createContext("/jeps/", exchange -> respond(exchange, jepPage));
+                this.server.start();
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to start the JEP page stubs", e);
+            }
+            String url = "http://localhost:" + this.server.getAddress().getPort() + "/jeps/";
+            return Map.ofEntries(
+                    Map.entry("jep.url", url + "0"),
+                    Map.entry("jep.enrichment.url", url),
+                    Map.entry("jep.poll.tick", "1s"),
+                    Map.entry("jep.poll.min-interval", "1s"),
+                    Map.entry("jep.poll.max-interval", "2s"),
+                    Map.entry("bluesky.mock", "true"),
+                    Map.entry("outbox.interval", "1s"),
+                    Map.entry("outbox.rate", "1000"),
+                    Map.entry("outbox.burst", "100"),
+                    Map.entry("jep.snapshot.path", snapshot.toString()),
+                    Map.entry("quarkus.datasource.jdbc.url", "jdbc:h2:mem:jeps"),
+                    Map.entry("quarkus.hibernate-orm.database.generation", "drop-and-create")
+            );
+        }
+
+        @Override
+        public void stop() {
+            if (this.server != null) {
+                this.server.stop(0);
+            }
+        }
+
+        private static void respond(HttpExchange exchange, String body) throws IOException {
+            byte[] bytes = body.getBytes(ISO_8859_1);
+            exchange.getResponseHeaders().add("Content-Type", "text/html; charset=ISO-8859-1");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(bytes);
+            }
+        }
+
+        private static String readTestResource(String resource) throws IOException {
+            try (InputStream input = Objects.requireNonNull(JepTrackerIT.class.getResourceAsStream(resource), "Invalid resource")) {
+                return new String(input.readAllBytes(), ISO_8859_1);
+            }
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package fr.hardcoding.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.hardcoding.model.Jep;
+import fr.hardcoding.model.JepState;
+import fr.hardcoding.model.JepTransition;
+import fr.hardcoding.model.OutboxPost;
+import fr.hardcoding.service.JepCatalog;
+import fr.hardcoding.service.JepService;
+import fr.hardcoding.service.JepUpdatesSupport;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static fr.hardcoding.model.JepState.CANDIDATE;
+import static fr.hardcoding.model.JepState.TARGETED;
+import static fr.hardcoding.model.JepType.FEATURE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+class JepResourceTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Inject
+    JepService jepService;
+    @Inject
+    JepCatalog catalog;
+    @Inject
+    EntityManagerFactory entityManagerFactory;
+    @TestHTTPResource("/jeps")
+    URI jepsUri;
+
+    private HttpClient client;
+
+    @BeforeEach
+    void setUp() {
+        QuarkusTransaction.requiringNew().run(() -> {
+            Jep.deleteAll();
+            JepTransition.deleteAll();
+            OutboxPost.deleteAll();
+        });
+        this.client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.client.close();
+    }
+
+    @Test
+    void testQueries() throws Exception {
+        update(List.of(jep(470, TARGETED, "25"), jep(471, TARGETED, "26"), jep(8, CANDIDATE, null)));
+
+        HttpResponse<String> all = get("", null);
+        assertEquals(200, all.statusCode());
+        JsonNode jeps = MAPPER.readTree(all.body());
+        assertEquals(3, jeps.size());
+        assertEquals("8", jeps.get(0).get("number").asText(), "JEPs should be ordered by number");
+        assertEquals("470", jeps.get(1).get("number").asText());
+
+        JsonNode targeted = MAPPER.readTree(get("?state=TARGETED&release=26", null).body());
+        assertEquals(1, targeted.size());
+        assertEquals("471", targeted.get(0).get("number").asText());
+        assertEquals("26", targeted.get(0).get("release").asText());
+        assertEquals(2, MAPPER.readTree(get("?state=TARGETED", null).body()).size());
+        assertEquals(0, MAPPER.readTree(get("?release=99", null).body()).size());
+
+        JsonNode jep = MAPPER.readTree(get("/470", null).body());
+        assertEquals("FEATURE", jep.get("type").asText());
+        assertEquals("TARGETED", jep.get("state").asText());
+        assertEquals(404, get("/999", null).statusCode());
+    }
+
+    @Test
+    void testSearch() throws Exception {
+        update(List.of(jep(470, TARGETED, "25"), jep(471, TARGETED, "26"), jep(8, CANDIDATE, null)));
+
+        JsonNode found = MAPPER.readTree(get("/search?q=471", null).body());
+        assertEquals(1, found.size());
+        assertEquals("471", found.get(0).get("number").asText());
+        assertEquals(2, MAPPER.readTree(get("/search?q=JEP+-8", null).body()).size());
+        assertEquals(1, MAPPER.readTree(get("/search?q=8+OR+470&state=TARGETED", null).body()).size());
+        assertEquals(2, MAPPER.readTree(get("/search?type=FEATURE&limit=2", null).body()).size());
+        assertEquals(0, MAPPER.readTree(get("/search?q=jep&release=99", null).body()).size());
+        assertEquals(400, get("/search?limit=0", null).statusCode());
+
+        // The index follows the updates
+        update(List.of(jep(470, TARGETED, "25"), jep(471, TARGETED, "26")));
+        assertEquals(0, MAPPER.readTree(get("/search?q=8", null).body()).size());
+    }
+
+    @Test
+    void testEtag() throws Exception {
+        update(List.of(jep(470, CANDIDATE, null)));
+        HttpResponse<String> first = get("/470", null);
+        String etag = first.headers().firstValue("ETag").orElse(null);
+        assertNotNull(etag, "Response should have an ETag");
+        assertTrue(etag.startsWith("\""), "ETag should be strong");
+
+        HttpResponse<String> notModified = get("/470", etag);
+        assertEquals(304, notModified.statusCode());
+        assertEquals("", notModified.body());
+        // Unrelated change keeps the ETag
+        update(List.of(jep(470, CANDIDATE, null), jep(471, CANDIDATE, null)));
+        assertEquals(304, get("/470", etag).statusCode());
+        // Changed JEP gets a new ETag
+        update(List.of(jep(470, TARGETED, "26"), jep(471, CANDIDATE, null)));
+        HttpResponse<String> changed = get("/470", etag);
+        assertEquals(200, changed.statusCode());
+        assertTrue(!etag.equals(changed.headers().firstValue("ETag").orElseThrow()), "ETag should change with the JEP");
+    }
+
+    @Test
+    void testReadsDoNotQueryDatabase() throws Exception {
+        update(List.of(jep(470, TARGETED, "25")));
+        Statistics statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        for (int i = 0; i < 200; i++) {
+            assertEquals(200, get(i % 3 == 0 ? "" : i % 3 == 1 ? "/470" : "/search?q=470&state=TARGETED", null).statusCode());
+        }
+        assertEquals(0, statistics.getPrepareStatementCount(), "Reads should be served from memory");
+    }
+
+    @Test
+    void testConcurrentReadsDuringUpdates() throws Exception {
+        int updates = 20;
+        int jepsPerUpdate = 25;
+        AtomicBoolean updating = new AtomicBoolean(true);
+        AtomicLong reads = new AtomicLong();
+        AtomicLong notModified = new AtomicLong();
+        ConcurrentLinkedQueue<String> errors = new ConcurrentLinkedQueue<>();
+        try (ExecutorService readers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int reader = 0; reader < 16; reader++) {
+                readers.submit(() -> {
+                    String etag = null;
+                    int lastSize = 0;
+                    while (updating.get()) {
+                        try {
+                            HttpResponse<String> response = get("", etag);
+                            reads.incrementAndGet();
+                            if (response.statusCode() == 304) {
+                                notModified.incrementAndGet();
+                                continue;
+                            }
+                            int size = MAPPER.readTree(response.body()).size();
+                            if (response.statusCode() != 200 || size < lastSize || size % jepsPerUpdate != 0) {
+                                errors.add("Unexpected response " + response.statusCode() + " with " + size + " JEPs after " + lastSize);
+                            }
+                            lastSize = size;
+                            etag = response.headers().firstValue("ETag").orElse(null);
+                        } catch (IOException | InterruptedException e) {
+                            errors.add(e.toString());
+                        }
+                    }
+                });
+            }
+            // Simulate updates adding JEPs while readers poll
+            List<Jep> jeps = new ArrayList<>();
+            for (int update = 0; update < updates; update++) {
+                for (int i = 0; i < jepsPerUpdate; i++) {
+                    jeps.add(jep(1000 + update * jepsPerUpdate + i, CANDIDATE, null));
+                }
+                update(jeps);
+            }
+            updating.set(false);
+        }
+        assertTrue(errors.isEmpty(), "Readers failed: " + errors);
+        assertTrue(reads.get() > updates, "Readers should run during the updates, got " + reads.get() + " reads");
+        assertTrue(notModified.get() > 0, "Unchanged JEPs should not be sent again");
+        assertEquals(updates * jepsPerUpdate, MAPPER.readTree(get("", null).body()).size());
+    }
+
+    private void update(List<Jep> jeps) {
+        // Fresh entities for each update, as if parsed from a new page
+        List<Jep> parsed = new ArrayList<>();
+        for (Jep jep : jeps) {
+            parsed.add(jep(Integer.parseInt(jep.number), jep.state, jep.release));
+        }
+        JepUpdatesSupport.updateJeps(this.jepService, parsed);
+        this.catalog.refresh();
+    }
+
+    private HttpResponse<String> get(String path, String etag) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(this.jepsUri + path));
+        if (etag != null) {
+            request.header("If-None-Match", etag);
+        }
+        return this.client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static Jep jep(int number, JepState state, String release) {
+        Jep jep = new Jep();
+        jep.type = FEATURE;
+        jep.state = state;
+        jep.release = release;
+        jep.number = String.valueOf(number);
+        jep.title = "JEP " + number;
+        return jep;
+    }
+}
@@ -0,0 +1,188 @@
+package fr.hardcoding.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.hardcoding.model.Jep;
+import fr.hardcoding.model.JepTransition;
+import fr.hardcoding.model.OutboxPost;
+import fr.hardcoding.service.JepChangeStream;
+import fr.hardcoding.service.JepService;
+import fr.hardcoding.service.JepUpdatesSupport;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.WebSocket;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static fr.hardcoding.model.JepState.CANDIDATE;
+import static fr.hardcoding.model.JepType.FEATURE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+@QuarkusTest
+@Timeout(30)
+class JepStreamResourceTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Inject
+    JepService jepService;
+    @Inject
+    JepChangeStream stream;
+    @TestHTTPResource("/jeps/stream")
+    URI streamUri;
+
+    private HttpClient client;
+
+    @BeforeEach
+    void setUp() {
+        QuarkusTransaction.requiringNew().run(() -> {
+            Jep.deleteAll();
+            JepTransition.deleteAll();
+            OutboxPost.deleteAll();
+        });
+        this.client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.client.close();
+    }
+
+    @Test
+    void testServerSentEvents() throws Exception {
+        long firstId;
+        long secondId;
+        try (Stream<String> lines = connect(null)) {
+            Iterator<String> events = lines.iterator();
+            JepUpdatesSupport.updateJeps(this.jepService, List.of(jep(470), jep(471)));
+
+            JsonNode first = nextEvent(events);
+            JsonNode second = nextEvent(events);
+            assertEquals("470", first.get("jep").asText());
+            assertEquals("CANDIDATE", first.get("to").asText());
+            assertEquals("471", second.get("jep").asText());
+            // Identified by their transitions
+            firstId = first.get("id").asLong();
+            secondId = second.get("id").asLong();
+            assertTrue(secondId > firstId, "Event ids should increase");
+        }
+
+        // Reconnecting after the first event gets the missed one
+        try (Stream<String> lines = connect(firstId)) {
+            JsonNode missed = nextEvent(lines.iterator());
+            assertEquals("471", missed.get("jep").asText());
+            assertEquals(secondId, missed.get("id").asLong());
+        }
+    }
+
+    @Test
+    void testDisconnectWhileIdle() throws Exception {
+        int subscribers = this.stream.subscribers();
+        HttpRequest request = HttpRequest.newBuilder(this.streamUri).header("Accept", "text/event-stream").build();
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            HttpResponse<Stream<String>> response = client.send(request, HttpResponse.BodyHandlers.ofLines());
+            assertEquals(200, response.statusCode());
+            assertEquals(subscribers + 1, this.stream.subscribers());
+            response.body().close();
+        }
+        // No event flows, the heartbeats detect the closed connection
+        for (int i = 0; i < 100 && this.stream.subscribers() > subscribers; i++) {
+            this.stream.heartbeat();
+            Thread.sleep(100);
+        }
+        assertEquals(subscribers, this.stream.subscribers(), "A disconnected client should be unsubscribed");
+    }
+
+    @Test
+    void testWebSocket() throws Exception {
+        BlockingQueue<String> messages = new LinkedBlockingQueue<>();
+        WebSocket socket = openWebSocket("", messages);
+        JsonNode first;
+        try {
+            JepUpdatesSupport.updateJeps(this.jepService, List.of(jep(470), jep(471)));
+            first = MAPPER.readTree(messages.poll(10, TimeUnit.SECONDS));
+            JsonNode second = MAPPER.readTree(messages.poll(10, TimeUnit.SECONDS));
+            assertEquals("470", first.get("jep").asText());
+            assertEquals("471", second.get("jep").asText());
+        } finally {
+            socket.abort();
+        }
+
+        BlockingQueue<String> missed = new LinkedBlockingQueue<>();
+        socket = openWebSocket("?lastEventId=" + first.get("id").asLong(), missed);
+        try {
+            assertEquals("471", MAPPER.readTree(missed.poll(10, TimeUnit.SECONDS)).get("jep").asText());
+        } finally {
+            socket.abort();
+        }
+    }
+
+    private WebSocket openWebSocket(String query, BlockingQueue<String> messages) throws Exception {
+        URI uri = URI.create(this.streamUri.toString().replaceFirst("^http", "ws") + "/ws" + query);
+        return this.client.newWebSocketBuilder()
+                .buildAsync(uri, new WebSocket.Listener() {
+                    @Override
+                    public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+                        messages.add(data.toString());
+                        webSocket.request(1);
+                        return null;
+                    }
+                })
+                .get(10, TimeUnit.SECONDS);
+    }
+
+    private Stream<String> connect(Long lastEventId) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(this.streamUri).header("Accept", "text/event-stream");
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId.toString());
+        }
+        HttpResponse<Stream<String>> response = this.client.send(request.build(), HttpResponse.BodyHandlers.ofLines());
+        assertEquals(200, response.statusCode());
+        return response.body();
+    }
+
+    private static JsonNode nextEvent(Iterator<String> lines) throws Exception {
+        String id = null;
+        String name = null;
+        while (lines.hasNext()) {
+            String line = lines.next();
+            if (line.startsWith("id:")) {
+                id = line.substring(3).trim();
+            } else if (line.startsWith("event:")) {
+                name = line.substring(6).trim();
+            } else if (line.startsWith("data:")) {
+                assertEquals(JepStreamResource.EVENT_NAME, name);
+                JsonNode event = MAPPER.readTree(line.substring(5).trim());
+                assertEquals(id, event.get("id").asText(), "The SSE id should be the event number");
+                return event;
+            }
+        }
+        return fail("The stream should not end");
+    }
+
+    private static Jep jep(int number) {
+        Jep jep = new Jep();
+        jep.type = FEATURE;
+        jep.state = CANDIDATE;
+        jep.number = String.valueOf(number);
+        jep.title = "JEP " + number;
+        return jep;
+    }
+}
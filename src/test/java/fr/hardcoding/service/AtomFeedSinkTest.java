@@ -0,0 +1,77 @@
+package fr.hardcoding.service;
+
+import fr.hardcoding.model.OutboxPost;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+
+import static fr.hardcoding.service.MastodonSinkTest.post;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class AtomFeedSinkTest {
+    private AtomFeedSink sink;
+
+    @BeforeEach
+    void setUp() {
+        this.sink = new AtomFeedSink();
+        this.sink.size = 3;
+        this.sink.title = "JEP Tracker";
+        this.sink.id = "urn:jep-tracker:feed";
+    }
+
+    @Test
+    void testFeed() throws Exception {
+        OutboxPost post = post(42);
+        post.text = "🎯 JEP 470 proposed to target JDK 25\nTitle: PEM <Encodings> & Objects";
+        this.sink.publish(post, null);
+
+        Element feed = parse(this.sink.feed().body());
+        assertEquals("http://www.w3.org/2005/Atom", feed.getNamespaceURI());
+        assertEquals("2025-06-05T10:15:30Z", child(feed, "updated").getTextContent());
+        NodeList entries = feed.getElementsByTagNameNS("*", "entry");
+        assertEquals(1, entries.getLength());
+        Element entry = (Element) entries.item(0);
+        assertEquals("urn:jep-tracker:feed:42", child(entry, "id").getTextContent());
+        assertEquals("🎯 JEP 470 proposed to target JDK 25", child(entry, "title").getTextContent());
+        assertEquals(post.text, child(entry, "content").getTextContent(), "Content should be escaped");
+        assertEquals("https://openjdk.org/jeps/470", child(entry, "link").getAttribute("href"));
+    }
+
+    @Test
+    void testKeepLatestEntries() throws Exception {
+        for (int i = 1; i <= 5; i++) {
+            this.sink.publish(post(i), null);
+        }
+        NodeList entries = parse(this.sink.feed().body()).getElementsByTagNameNS("*", "entry");
+        assertEquals(3, entries.getLength());
+        assertEquals("urn:jep-tracker:feed:5", child((Element) entries.item(0), "id").getTextContent(), "Latest entry should be first");
+        assertEquals("urn:jep-tracker:feed:3", child((Element) entries.item(2), "id").getTextContent());
+    }
+
+    @Test
+    void testRenderOncePerChange() {
+        this.sink.publish(post(1), null);
+        JepCatalog.Representation feed = this.sink.feed();
+        assertSame(feed, this.sink.feed(), "Feed should be rendered once");
+        this.sink.publish(post(2), null);
+        assertNotEquals(feed.etag(), this.sink.feed().etag(), "Feed ETag should change with its entries");
+    }
+
+    private static Element parse(byte[] body) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        Document document = factory.newDocumentBuilder().parse(new ByteArrayInputStream(body));
+        return document.getDocumentElement();
+    }
+
+    private static Element child(Element element, String name) {
+        return (Element) element.getElementsByTagNameNS("*", name).item(0);
+    }
+}
@@ -0,0 +1,123 @@
+package fr.hardcoding.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class BlueskyJsonTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "Simple title",
+            "Title with \"quotes\" and \\backslashes\\",
+            "Multi\nline\r\ntitle\twith tabs",
+            "Control \u0000\u0001\u001F chars",
+            "Unicode 🎯 ‘title’   separators"
+    })
+    void testWriteCreateRecord(String title) throws IOException {
+        String text = "🎯 JEP 470 updated\nTitle: " + title + "\nSee openjdk.org/jeps/470";
+        Instant createdAt = Instant.parse("2025-10-17T10:15:30Z");
+        BlueskyJson.Post post = new BlueskyJson.Post(text, createdAt, List.of("en-US"), List.of(
+                new BlueskyJson.Facet(10, 20, new BlueskyJson.Link("https://openjdk.org/jeps/470")),
+                new BlueskyJson.Facet(21, 25, new BlueskyJson.Tag("java")),
+                new BlueskyJson.Facet(26, 30, new BlueskyJson.Mention("did:plc:abc"))
+        ));
+        JsonNode json = MAPPER.readTree(BlueskyJson.writeCreateRecord("jeptracker.bsky.social", post));
+
+        assertEquals("jeptracker.bsky.social", json.get("repo").asText());
+        assertEquals("app.bsky.feed.post", json.get("collection").asText());
+        JsonNode record = json.get("record");
+        assertEquals("app.bsky.feed.post", record.get("$type").asText());
+        assertEquals(text, record.get("text").asText(), "Failed to round-trip post text");
+        assertEquals(createdAt.toString(), record.get("createdAt").asText());
+        assertEquals("en-US", record.get("langs").get(0).asText());
+        JsonNode facets = record.get("facets");
+        assertEquals(3, facets.size());
+        assertEquals(10, facets.get(0).get("index").get("byteStart").asInt());
+        assertEquals(20, facets.get(0).get("index").get("byteEnd").asInt());
+        assertEquals("app.bsky.richtext.facet#link", facets.get(0).get("features").get(0).get("$type").asText());
+        assertEquals("https://openjdk.org/jeps/470", facets.get(0).get("features").get(0).get("uri").asText());
+        assertEquals("java", facets.get(1).get("features").get(0).get("tag").asText());
+        assertEquals("did:plc:abc", facets.get(2).get("features").get(0).get("did").asText());
+    }
+
+    @Test
+    void testWriteWithoutFacets() throws IOException {
+        BlueskyJson.Post post = new BlueskyJson.Post("Text", Instant.now(), List.of("en-US"), List.of());
+        JsonNode json = MAPPER.readTree(BlueskyJson.writeCreateRecord("handle", post));
+        assertNull(json.get("record").get("facets"), "No facets expected");
+    }
+
+    @Test
+    void testWriteReply() throws IOException {
+        BlueskyJson.Reply reply = new BlueskyJson.Reply(
+                new BlueskyJson.StrongRef("at://did:plc:abc/app.bsky.feed.post/1", "cid1"),
+                new BlueskyJson.StrongRef("at://did:plc:abc/app.bsky.feed.post/2", "cid2"));
+        BlueskyJson.Post post = new BlueskyJson.Post("Reply", Instant.now(), List.of("en-US"), List.of(), reply);
+        JsonNode json = MAPPER.readTree(BlueskyJson.writeCreateRecord("handle", post)).get("record").get("reply");
+        assertEquals("at://did:plc:abc/app.bsky.feed.post/1", json.get("root").get("uri").asText());
+        assertEquals("cid1", json.get("root").get("cid").asText());
+        assertEquals("at://did:plc:abc/app.bsky.feed.post/2", json.get("parent").get("uri").asText());
+        assertEquals("cid2", json.get("parent").get("cid").asText());
+        // Not a reply
+        post = new BlueskyJson.Post("Post", Instant.now(), List.of("en-US"), List.of());
+        assertNull(MAPPER.readTree(BlueskyJson.writeCreateRecord("handle", post)).get("record").get("reply"));
+    }
+
+    @Test
+    void testReadStrongRef() {
+        BlueskyJson.StrongRef ref = BlueskyJson.readStrongRef("""
+                {"uri":"at://did:plc:abc/app.bsky.feed.post/3l","cid":"bafyrei","commit":{"cid":"other","rev":"1"}}""");
+        assertEquals("at://did:plc:abc/app.bsky.feed.post/3l", ref.uri());
+        assertEquals("bafyrei", ref.cid());
+    }
+
+    @Test
+    void testWriteCreateSession() throws IOException {
+        JsonNode json = MAPPER.readTree(BlueskyJson.writeCreateSession("handle\"", "pass\\word"));
+        assertEquals("handle\"", json.get("identifier").asText());
+        assertEquals("pass\\word", json.get("password").asText());
+    }
+
+    @Test
+    void testReadSession() {
+        BlueskyJson.Session session = BlueskyJson.readSession("""
+                {"did":"did:plc:abc","didDoc":{"service":[{"id":"#atproto_pds"}]},"handle":"jeptracker.bsky.social",
+                 "accessJwt":"access.jwt.token","refreshJwt":"refresh.jwt.token","active":true}""");
+        assertEquals("access.jwt.token", session.accessJwt());
+        assertEquals("refresh.jwt.token", session.refreshJwt());
+        assertEquals("did:plc:abc", session.did());
+    }
+
+    @Test
+    void testReadError() {
+        BlueskyJson.XrpcError error = BlueskyJson.readError("""
+                {"error":"ExpiredToken","message":"Token has expired"}""");
+        assertEquals("ExpiredToken", error.error());
+        assertEquals("Token has expired", error.message());
+        assertNull(BlueskyJson.readError("<html>Bad gateway</html>").error(), "Non JSON body should not fail");
+    }
+
+    @Test
+    void testReadJwtExpiry() {
+        // {"typ":"at+jwt"}.{"scope":"com.atproto.access","aud":["did:web:bsky.social"],"exp":1760000000}
+        assertEquals(1760000000L, BlueskyJson.readJwtExpiry(
+                "eyJ0eXAiOiJhdCtqd3QifQ.eyJzY29wZSI6ImNvbS5hdHByb3RvLmFjY2VzcyIsImF1ZCI6WyJkaWQ6d2ViOmJza3kuc29jaWFsIl0sImV4cCI6MTc2MDAwMDAwMH0.sig"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "not-a-jwt", "a.b", "a.!!!.c", "a.e30.c", "a.WzFd.c"})
+    void testReadInvalidJwtExpiry(String jwt) {
+        assertEquals(-1, BlueskyJson.readJwtExpiry(jwt), "Invalid JWT should have no expiry");
+    }
+}
@@ -0,0 +1,182 @@
+package fr.hardcoding.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static fr.hardcoding.service.StubServer.respond;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BlueskyServiceTest {
+    private StubServer server;
+    private final AtomicInteger createSessions = new AtomicInteger();
+    private final AtomicInteger refreshSessions = new AtomicInteger();
+    private final AtomicInteger createRecords = new AtomicInteger();
+    private final AtomicReference<Duration> accessLifetime = new AtomicReference<>(Duration.ofHours(2));
+    private final AtomicInteger expiredPosts = new AtomicInteger();
+    private final AtomicInteger resolveHandles = new AtomicInteger();
+    private BlueskyService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        this.server = new StubServer();
+        this.server.handle("/xrpc/com.atproto.server.createSession", exchange -> {
+            int session = this.createSessions.incrementAndGet();
+            if (new String(exchange.getRequestBody().readAllBytes(), UTF_8).contains("rejected.bsky.social")) {
+                respond(exchange, 401, "{\"error\":\"AuthenticationRequired\",\"message\":\"Invalid identifier or password\"}");
+                return;
+            }
+            sleep();
+            respond(exchange, 200, sessionResponse("created" + session));
+        });
+        this.server.handle("/xrpc/com.atproto.server.refreshSession", exchange -> {
+            int session = this.refreshSessions.incrementAndGet();
+            if (!exchange.getRequestHeaders().getFirst("Authorization").contains(".refresh-")) {
+                respond(exchange, 400, "{\"error\":\"InvalidToken\"}");
+                return;
+            }
+            respond(exchange, 200, sessionResponse("refreshed" + session));
+        });
+        this.server.handle("/xrpc/com.atproto.repo.createRecord", exchange -> {
+            this.createRecords.incrementAndGet();
+            exchange.getRequestBody().readAllBytes();
+            if (this.expiredPosts.getAndDecrement() > 0) {
+                respond(exchange, 400, "{\"error\":\"ExpiredToken\",\"message\":\"Token has expired\"}");
+            } else {
+                respond(exchange, 200, "{\"uri\":\"at://did:plc:abc/app.bsky.feed.post/1\",\"cid\":\"cid\"}");
+            }
+        });
+        this.server.handle("/xrpc/com.atproto.identity.resolveHandle", exchange -> {
+            this.resolveHandles.incrementAndGet();
+            if (exchange.getRequestURI().getQuery().contains("handle=openjdk.org")) {
+                respond(exchange, 200, "{\"did\":\"did:plc:openjdk\"}");
+            } else {
+                respond(exchange, 400, "{\"error\":\"InvalidRequest\",\"message\":\"Unable to resolve handle\"}");
+            }
+        });
+        this.server.start();
+        this.service = new BlueskyService(this.server.httpClients());
+        this.service.url = this.server.url();
+        this.service.handle = "jeptracker.bsky.social";
+        this.service.appPassword = "password";
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.server.close();
+    }
+
+    @Test
+    void testSingleFlightSessionCreation() throws Exception {
+        List<Future<String>> tokens = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 20; i++) {
+                tokens.add(executor.submit(() -> this.service.getAuthToken()));
+            }
+        }
+        for (Future<String> token : tokens) {
+            assertEquals(tokens.getFirst().get(), token.get(), "All callers should get the same token");
+        }
+        assertEquals(1, this.createSessions.get(), "Only one session should be created");
+    }
+
+    @Test
+    void testRefreshSessionBeforeExpiry() {
+        // Token expiring within the renewal margin
+        this.accessLifetime.set(Duration.ofMinutes(1));
+        String first = this.service.getAuthToken();
+        String second = this.service.getAuthToken();
+
+        assertTrue(second.endsWith("access-refreshed1"), "Session should be refreshed");
+        assertNotEquals(first, second);
+        assertEquals(1, this.createSessions.get(), "Session should not be recreated");
+        assertEquals(1, this.refreshSessions.get());
+    }
+
+    @Test
+    void testRetryExpiredTokenOnce() {
+        this.expiredPosts.set(1);
+        assertTrue(this.service.postUpdate("JEP 470 updated"), "Post should succeed after renewing the session");
+        assertEquals(2, this.createRecords.get());
+        assertEquals(1, this.refreshSessions.get(), "Expired session should be refreshed");
+        assertEquals(1, this.createSessions.get());
+    }
+
+    @Test
+    void testLimitExpiredTokenRetries() {
+        this.expiredPosts.set(Integer.MAX_VALUE);
+        assertFalse(this.service.postUpdate("JEP 470 updated"), "Post should fail");
+        assertEquals(2, this.createRecords.get(), "Retries should be limited");
+    }
+
+    @Test
+    void testSessionPerAccount() {
+        BlueskyService.Account security = new BlueskyService.Account("security.bsky.social", "password");
+        BlueskyService.Account gc = new BlueskyService.Account("gc.bsky.social", "password");
+        assertTrue(this.service.postUpdate(security, "JEP 470 updated", null, null) != null);
+        assertTrue(this.service.postUpdate(gc, "JEP 471 updated", null, null) != null);
+        assertTrue(this.service.postUpdate(security, "JEP 472 updated", null, null) != null);
+
+        assertEquals(2, this.createSessions.get(), "Each account should have its own session");
+        assertNotEquals(this.service.getAuthToken(security), this.service.getAuthToken(gc));
+        assertEquals(0, this.service.sessionCreations(), "The default account session should not be created");
+    }
+
+    @Test
+    void testRejectedAuthentication() {
+        BlueskyService.Account rejected = new BlueskyService.Account("rejected.bsky.social", "password");
+        RuntimeException error = assertThrows(RuntimeException.class, () -> this.service.getAuthToken(rejected));
+        assertEquals("Failed to authenticate with Bluesky", error.getMessage());
+        assertNull(error.getCause(), "A rejected authentication should not be wrapped again");
+    }
+
+    @Test
+    void testCacheResolvedHandles() {
+        String text = "JEP 470 updated by @openjdk.org and @unknown.bsky.social";
+        String request = new String(this.service.createPostRequest(this.service.defaultAccount(), text, null, null), UTF_8);
+        assertTrue(request.contains("did:plc:openjdk"), "Mention should reference the resolved DID");
+        this.service.createPostRequest(this.service.defaultAccount(), text, null, null);
+        assertEquals(2, this.resolveHandles.get(), "Resolved and unresolved handles should be cached");
+    }
+
+    private String sessionResponse(String id) {
+        Instant now = Instant.now();
+        return """
+                {"did":"did:plc:abc","handle":"jeptracker.bsky.social","accessJwt":"%s","refreshJwt":"%s","active":true}"""
+                .formatted(jwt("access-" + id, now.plus(this.accessLifetime.get())), jwt("refresh-" + id, now.plus(Duration.ofDays(60))));
+    }
+
+    private static String jwt(String id, Instant expiry) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String header = encoder.encodeToString("{\"typ\":\"at+jwt\",\"alg\":\"ES256K\"}".getBytes(UTF_8));
+        String payload = encoder.encodeToString("{\"scope\":\"com.atproto.access\",\"sub\":\"did:plc:abc\",\"iat\":%d,\"exp\":%d}"
+                .formatted(expiry.getEpochSecond() - 3600, expiry.getEpochSecond()).getBytes(UTF_8));
+        return header + "." + payload + "." + id;
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(100);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
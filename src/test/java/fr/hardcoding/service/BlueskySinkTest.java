@@ -0,0 +1,247 @@
+package fr.hardcoding.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.hardcoding.model.Jep;
+import fr.hardcoding.model.JepState;
+import fr.hardcoding.model.OutboxPost;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusMock;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static fr.hardcoding.model.JepState.CLOSED_DELIVERED;
+import static fr.hardcoding.model.JepState.TARGETED;
+import static fr.hardcoding.model.JepType.FEATURE;
+import static fr.hardcoding.service.StubServer.respond;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+class BlueskySinkTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Instant NOW = Instant.parse("2025-09-16T10:00:00Z");
+
+    @Inject
+    OutboxPublisher publisher;
+
+    private StubServer server;
+    // Records of the stub PDS by key
+    private final Map<String, JsonNode> records = new ConcurrentHashMap<>();
+    private final AtomicReference<Fault> fault = new AtomicReference<>(Fault.NONE);
+    // The text of the post to inject the fault in
+    private volatile String faultedText;
+
+    /**
+     * The steps publishing a post can fail at.
+     */
+    private enum Fault {
+        NONE,
+        // The server fails before storing the post
+        BEFORE_COMMIT,
+        // The server stores the post, but its response is lost
+        AFTER_COMMIT,
+        // The server stores the post, but marking it as posted fails
+        UNRECORDED
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        QuarkusTransaction.requiringNew().run(() -> OutboxPost.deleteAll());
+        this.server = new StubServer();
+        this.server.handle("/xrpc/com.atproto.server.createSession", exchange ->
+                respond(exchange, 200, """
+                        {"did":"did:plc:abc","handle":"jeptracker.bsky.social","accessJwt":"%s","refreshJwt":"%s","active":true}"""
+                        .formatted(jwt("access", Duration.ofHours(2)), jwt("refresh", Duration.ofDays(60)))));
+        this.server.handle("/xrpc/com.atproto.repo.createRecord", exchange -> {
+            JsonNode request = MAPPER.readTree(exchange.getRequestBody());
+            String rkey = request.path("rkey").asText(null);
+            boolean faulted = request.path("record").path("text").asText().equals(this.faultedText);
+            if (faulted && this.fault.compareAndSet(Fault.BEFORE_COMMIT, Fault.NONE)) {
+                respond(exchange, 502, "Bad gateway");
+                return;
+            }
+            if (rkey == null || this.records.putIfAbsent(rkey, request.get("record")) != null) {
+                respond(exchange, 400, "{\"error\":\"InvalidRequest\",\"message\":\"Record already exists\"}");
+                return;
+            }
+            if (faulted && this.fault.compareAndSet(Fault.AFTER_COMMIT, Fault.NONE)) {
+                // Drop the connection without a response
+                exchange.close();
+                return;
+            }
+            if (faulted && this.fault.compareAndSet(Fault.UNRECORDED, Fault.NONE)) {
+                // Too long for the outbox, so the post fails to be marked as posted
+                respond(exchange, 200, ref(rkey).replace("cid-", "cid-" + "x".repeat(600)));
+                return;
+            }
+            respond(exchange, 200, ref(rkey));
+        });
+        this.server.handle("/xrpc/com.atproto.repo.getRecord", exchange -> {
+            String rkey = null;
+            for (String parameter : exchange.getRequestURI().getRawQuery().split("&")) {
+                if (parameter.startsWith("rkey=")) {
+                    rkey = URLDecoder.decode(parameter.substring(5), UTF_8);
+                }
+            }
+            JsonNode record = rkey == null ? null : this.records.get(rkey);
+            if (record == null) {
+                respond(exchange, 400, "{\"error\":\"RecordNotFound\"}");
+                return;
+            }
+            respond(exchange, 200, ref(rkey).replace("}", ",\"value\":" + record + "}"));
+        });
+        this.server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.server.close();
+    }
+
+    @Test
+    void testRecordKey() {
+        OutboxPost post = OutboxPost.create(jep("470", TARGETED, "26"), "🎯 JEP 470 proposed to target JDK 26", BlueskySink.NAME, NOW);
+        post.id = 1L;
+        String rkey = BlueskySink.recordKey(post);
+        assertEquals(rkey, BlueskySink.recordKey(post), "Record keys should be deterministic");
+        assertTrue(rkey.matches("[234567abcdefghij][234567abcdefghijklmnopqrstuvwxyz]{12}"), "Record keys should be TIDs, got " + rkey);
+
+        // Keyed by their outbox row, not by their JEP transition
+        OutboxPost later = OutboxPost.create(jep("470", TARGETED, "26"), post.text, BlueskySink.NAME, NOW);
+        later.id = 2L;
+        assertNotEquals(rkey, BlueskySink.recordKey(later));
+        OutboxPost recreated = OutboxPost.create(jep("470", TARGETED, "26"), post.text, BlueskySink.NAME, NOW.plusSeconds(600));
+        recreated.id = 1L;
+        assertNotEquals(rkey, BlueskySink.recordKey(recreated), "Posts of a new database should get keys of their own");
+        assertEquals("2222222222222", BlueskySink.tid(0, 0));
+        assertEquals("3k7mzsidw2222", BlueskySink.tid(1_695_000_000_000_000L, 0));
+    }
+
+    @Test
+    void testExactlyOnceWithFaults() {
+        int runs = 0;
+        for (Fault fault : Fault.values()) {
+            for (int faulted = 0; faulted < 7; faulted++) {
+                List<Long> ids = enqueue(runs++);
+                publish(ids, ids.get(faulted), fault);
+                if (fault == Fault.NONE) {
+                    break;
+                }
+            }
+        }
+        // Each post of each run was published once
+        Set<String> texts = new HashSet<>();
+        for (JsonNode record : this.records.values()) {
+            assertTrue(texts.add(record.get("text").asText()), "Duplicate post " + record.get("text"));
+        }
+        assertEquals(runs * 7, this.records.size());
+    }
+
+    /**
+     * Publishes the outbox posts with the {@link OutboxPublisher}, injecting a fault in one of the posts, then
+     * restarting it after the backoff of the failed posts until all the posts are published.
+     */
+    private void publish(List<Long> ids, long faultedId, Fault fault) {
+        this.faultedText = findPost(faultedId).text;
+        this.fault.set(fault);
+        for (int restarts = 0; countPending() > 0; restarts++) {
+            assertTrue(restarts < 5, "Posts should be published after a restart");
+            // A new process, with a new session
+            QuarkusMock.installMockForType(service(), BlueskyService.class);
+            this.publisher.publishPending();
+            QuarkusTransaction.requiringNew().run(() -> OutboxPost.update("nextAttemptAt = ?1 where postedAt is null", Instant.now()));
+        }
+        assertEquals(Fault.NONE, this.fault.get(), "The fault should have been injected");
+        for (long id : ids) {
+            OutboxPost post = findPost(id);
+            assertEquals(0, post.attempts - (id == faultedId && fault != Fault.NONE ? 2 : 1), "Unexpected attempts of " + post);
+            String rkey = BlueskySink.recordKey(post);
+            assertEquals(BlueskyJson.readStrongRef(ref(rkey)), BlueskySink.fromRef(post.ref), "Posts should keep their record key");
+            if (post.parentId != null) {
+                assertEquals(BlueskySink.fromRef(findPost(post.parentId).ref).uri(), this.records.get(rkey).get("reply").get("parent").get("uri").asText());
+            }
+        }
+    }
+
+    private BlueskyService service() {
+        BlueskyService service = new BlueskyService(this.server.httpClients());
+        service.url = this.server.url();
+        service.handle = "jeptracker.bsky.social";
+        service.appPassword = "password";
+        return service;
+    }
+
+    /**
+     * Queues a single post and two threads of three posts about the same state and release.
+     */
+    private static List<Long> enqueue(int run) {
+        return QuarkusTransaction.requiringNew().call(() -> {
+            Instant now = Instant.now();
+            List<Long> ids = new ArrayList<>();
+            OutboxPost single = OutboxPost.create(jep("470", TARGETED, "26"), "🎯 JEP 470 targeted to JDK 26 #" + run, BlueskySink.NAME, now);
+            single.persist();
+            ids.add(single.id);
+            for (String thread : List.of("a", "b")) {
+                OutboxPost parent = OutboxPost.createThread(CLOSED_DELIVERED, "26", "📦 30 JEPs delivered to JDK 26 #" + run + thread, BlueskySink.NAME, now);
+                parent.persist();
+                ids.add(parent.id);
+                for (int i = 1; i <= 2; i++) {
+                    OutboxPost reply = OutboxPost.reply(parent, "• JEP 50" + i + " #" + run + thread);
+                    reply.persist();
+                    ids.add(reply.id);
+                    parent = reply;
+                }
+            }
+            return ids;
+        });
+    }
+
+    private static OutboxPost findPost(long id) {
+        return QuarkusTransaction.requiringNew().call(() -> OutboxPost.findById(id));
+    }
+
+    private static long countPending() {
+        return QuarkusTransaction.requiringNew().call(() -> OutboxPost.count("postedAt is null"));
+    }
+
+    private static Jep jep(String number, JepState state, String release) {
+        Jep jep = new Jep();
+        jep.type = FEATURE;
+        jep.state = state;
+        jep.number = number;
+        jep.release = release;
+        return jep;
+    }
+
+    private static String jwt(String id, Duration lifetime) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        Instant expiry = Instant.now().plus(lifetime);
+        String header = encoder.encodeToString("{\"typ\":\"at+jwt\",\"alg\":\"ES256K\"}".getBytes(UTF_8));
+        String payload = encoder.encodeToString("{\"sub\":\"did:plc:abc\",\"exp\":%d}".formatted(expiry.getEpochSecond()).getBytes(UTF_8));
+        return header + "." + payload + "." + id;
+    }
+
+    private static String ref(String rkey) {
+        return "{\"uri\":\"at://did:plc:abc/app.bsky.feed.post/" + rkey + "\",\"cid\":\"cid-" + rkey + "\"}";
+    }
+}
@@ -0,0 +1,75 @@
+package fr.hardcoding.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static fr.hardcoding.service.CircuitBreaker.State.CLOSED;
+import static fr.hardcoding.service.CircuitBreaker.State.HALF_OPEN;
+import static fr.hardcoding.service.CircuitBreaker.State.OPEN;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void testOpenAfterConsecutiveFailures() {
+        AtomicLong clock = new AtomicLong();
+        CircuitBreaker breaker = new CircuitBreaker(3, Duration.ofSeconds(10), clock::get);
+        // Successes reset the failure count
+        fail(breaker);
+        fail(breaker);
+        assertTrue(breaker.tryAcquire());
+        breaker.onSuccess();
+        fail(breaker);
+        fail(breaker);
+        assertEquals(CLOSED, breaker.state());
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.onFailure(), "Third consecutive failure should open the circuit");
+        assertEquals(OPEN, breaker.state());
+        // Calls are rejected while open
+        clock.addAndGet(9 * SECOND);
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    void testTrialCall() {
+        AtomicLong clock = new AtomicLong();
+        CircuitBreaker breaker = new CircuitBreaker(1, Duration.ofSeconds(10), clock::get);
+        fail(breaker);
+        // A single trial call once the open duration elapsed
+        clock.addAndGet(10 * SECOND);
+        assertTrue(breaker.tryAcquire());
+        assertEquals(HALF_OPEN, breaker.state());
+        assertFalse(breaker.tryAcquire(), "Only one trial call at a time");
+        // Failed trial opens the circuit again
+        assertTrue(breaker.onFailure());
+        assertFalse(breaker.tryAcquire());
+        clock.addAndGet(10 * SECOND);
+        // Released trial lets another one through
+        assertTrue(breaker.tryAcquire());
+        breaker.release();
+        assertTrue(breaker.tryAcquire());
+        // Successful trial closes the circuit
+        breaker.onSuccess();
+        assertEquals(CLOSED, breaker.state());
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    void testInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new CircuitBreaker(0, Duration.ofSeconds(1)));
+        assertThrows(IllegalArgumentException.class, () -> new CircuitBreaker(1, Duration.ofSeconds(-1)));
+    }
+
+    private static void fail(CircuitBreaker breaker) {
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+    }
+}
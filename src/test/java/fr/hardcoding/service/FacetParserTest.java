@@ -0,0 +1,86 @@
+package fr.hardcoding.service;
+
+import fr.hardcoding.service.FacetParser.Facet;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.RepetitionInfo;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static fr.hardcoding.service.FacetParser.Type.LINK;
+import static fr.hardcoding.service.FacetParser.Type.MENTION;
+import static fr.hardcoding.service.FacetParser.Type.TAG;
+import static fr.hardcoding.service.FacetParser.findFacets;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FacetParserTest {
+    private static final String[] TOKENS = {
+            "openjdk.org/jeps/470", "https://openjdk.org/jeps/8", "http://example.com/path?q=1", "#java", "#Jep_470", "#éàü",
+            "@jeptracker.bsky.social", "@nobody", "#123", "🎯", "📦", "✏️", "é", "中文", "\uD83D", "\uDE00", " ", "\n", ".", ",", "(", ")",
+            "JEP", "Title:", "C#", "mail@host"
+    };
+
+    @Test
+    void testFindFacets() {
+        String text = """
+                🎯 JEP 470 proposed to target JDK 25 #java
+                See openjdk.org/jeps/470 or https://openjdk.org/jeps/0, thanks @jeptracker.bsky.social.""";
+        List<Facet> facets = findFacets(text);
+
+        assertEquals(List.of(TAG, LINK, LINK, MENTION), facets.stream().map(Facet::type).toList());
+        assertEquals(List.of("java", "https://openjdk.org/jeps/470", "https://openjdk.org/jeps/0", "jeptracker.bsky.social"),
+                facets.stream().map(Facet::value).toList());
+        assertOffsets(text, facets);
+    }
+
+    @Test
+    void testSkipInvalidFacets() {
+        assertTrue(findFacets("C# #123 @nobody mail@host.com openjdk.org/jeps/ xhttps://host").isEmpty(), "No facet expected");
+    }
+
+    @RepeatedTest(100)
+    void testRandomUnicodeOffsets(RepetitionInfo repetition) {
+        // Seeded by the repetition so a failure can be replayed
+        long seed = repetition.getCurrentRepetition();
+        Random random = new Random(seed);
+        StringBuilder builder = new StringBuilder();
+        int tokens = random.nextInt(200);
+        for (int i = 0; i < tokens; i++) {
+            if (random.nextInt(4) == 0) {
+                // Any UTF-16 char, including unpaired surrogates
+                builder.append((char) random.nextInt(Character.MAX_VALUE + 1));
+            } else {
+                builder.append(TOKENS[random.nextInt(TOKENS.length)]);
+            }
+        }
+        String text = builder.toString();
+
+        int bytes = 0;
+        for (int i = 0; i < text.length(); i++) {
+            bytes += FacetParser.utf8Length(text, i);
+        }
+        assertEquals(text.getBytes(UTF_8).length, bytes, "Failed to compute UTF-8 length with seed " + seed + " of " + text);
+        assertOffsets(text, findFacets(text));
+    }
+
+    private static void assertOffsets(String text, List<Facet> facets) {
+        // Compare against the reference encoder
+        byte[] encoded = text.getBytes(UTF_8);
+        for (Facet facet : facets) {
+            String facetText = new String(encoded, facet.byteStart(), facet.byteEnd() - facet.byteStart(), UTF_8);
+            String expected = switch (facet.type()) {
+                case LINK -> facet.value().startsWith("https://openjdk.org/jeps/") && !facetText.startsWith("https://")
+                        ? "https://" + facetText
+                        : facetText;
+                case TAG -> facetText.substring(1);
+                case MENTION -> facetText.substring(1);
+            };
+            // Unpaired surrogates are encoded as replacement chars
+            String value = new String(facet.value().getBytes(UTF_8), UTF_8);
+            assertEquals(expected, value, "Invalid facet offsets in " + text);
+        }
+    }
+}
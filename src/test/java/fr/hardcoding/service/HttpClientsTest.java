@@ -0,0 +1,138 @@
+package fr.hardcoding.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.smallrye.config.SmallRyeConfigBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HttpClientsTest {
+    private static final String BODY = "JEP 0: JEP Index";
+
+    private HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger status = new AtomicInteger(200);
+    private final AtomicReference<String> acceptEncoding = new AtomicReference<>();
+    private final CountDownLatch hung = new CountDownLatch(1);
+    private HttpClients httpClients;
+    private URI uri;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        this.server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        this.server.createContext("/plain", exchange -> {
+            this.requests.incrementAndGet();
+            respond(exchange, this.status.get(), BODY.getBytes(UTF_8), null);
+        });
+        this.server.createContext("/gzip", exchange -> {
+            this.acceptEncoding.set(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (GZIPOutputStream output = new GZIPOutputStream(compressed)) {
+                output.write(BODY.getBytes(UTF_8));
+            }
+            respond(exchange, 200, compressed.toByteArray(), "gzip");
+        });
+        this.server.createContext("/hung", exchange -> {
+            // Send the headers then never complete the body
+            exchange.sendResponseHeaders(200, 1024);
+            exchange.getResponseBody().flush();
+            try {
+                this.hung.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.close();
+        });
+        this.server.start();
+        this.uri = URI.create("http://localhost:" + this.server.getAddress().getPort());
+        this.httpClients = new HttpClients(new SmallRyeConfigBuilder()
+                .withDefaultValues(Map.of(
+                        "http.deadline", "PT0.5S",
+                        "http.test.circuit-breaker.failure-threshold", "3",
+                        "http.test.circuit-breaker.open-duration", "PT1H"))
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.hung.countDown();
+        this.server.stop(0);
+        this.httpClients.close();
+    }
+
+    @Test
+    void testDecodeGzip() throws IOException {
+        HttpResponse<byte[]> response = send("/gzip");
+        assertEquals(200, response.statusCode());
+        assertArrayEquals(BODY.getBytes(UTF_8), response.body());
+        assertTrue(this.acceptEncoding.get().contains("gzip"), "Compressed responses should be accepted");
+    }
+
+    @Test
+    void testDeadline() {
+        long start = System.nanoTime();
+        assertThrows(HttpTimeoutException.class, () -> send("/hung"));
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(elapsed < 5000, "Hung response should be abandoned at the deadline, took " + elapsed + "ms");
+    }
+
+    @Test
+    void testCircuitBreaker() throws IOException {
+        this.status.set(503);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(503, send("/plain").statusCode());
+        }
+        assertEquals(HttpClients.CircuitOpenException.class, assertThrows(IOException.class, () -> send("/plain")).getClass());
+        assertEquals(3, this.requests.get(), "Calls should not be sent while the circuit is open");
+        assertEquals(CircuitBreaker.State.OPEN, this.httpClients.endpoint("test").circuitState());
+        // Other endpoints are not affected
+        this.status.set(200);
+        assertEquals(200, this.httpClients.endpoint("other").send(HttpRequest.newBuilder(this.uri.resolve("/plain"))).statusCode());
+    }
+
+    @Test
+    void testDecode() throws IOException {
+        byte[] body = BODY.getBytes(UTF_8);
+        assertArrayEquals(body, HttpClients.decode(null, body));
+        assertArrayEquals(body, HttpClients.decode("identity", body));
+        assertThrows(IOException.class, () -> HttpClients.decode("br", body));
+    }
+
+    private HttpResponse<byte[]> send(String path) throws IOException {
+        return this.httpClients.endpoint("test").send(HttpRequest.newBuilder(this.uri.resolve(path)));
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body, String encoding) throws IOException {
+        if (encoding != null) {
+            exchange.getResponseHeaders().add("Content-Encoding", encoding);
+        }
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+}
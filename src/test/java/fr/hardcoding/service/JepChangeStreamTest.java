@@ -0,0 +1,252 @@
+package fr.hardcoding.service;
+
+import fr.hardcoding.model.Jep;
+import fr.hardcoding.model.JepTransition;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static fr.hardcoding.model.JepState.CANDIDATE;
+import static fr.hardcoding.model.JepState.TARGETED;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JepChangeStreamTest {
+    private static final Instant NOW = Instant.parse("2025-09-18T09:30:00Z");
+
+    @Test
+    void testResume() {
+        List<JepTransition> history = new CopyOnWriteArrayList<>();
+        JepChangeStream stream = stream(4, history, Runnable::run);
+        for (int number = 1; number <= 6; number++) {
+            publish(stream, history, number);
+        }
+
+        assertEquals(List.of(4L, 5L, 6L), ids(stream, 3L));
+        // Events out of the ring are read from the database
+        assertEquals(List.of(2L, 3L, 4L, 5L, 6L), ids(stream, 1L));
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L), ids(stream, 0L));
+        // New subscribers and subscribers up to date only get the next events
+        assertEquals(List.of(), ids(stream, null));
+        assertEquals(List.of(), ids(stream, 6L));
+
+        RecordingSink sink = new RecordingSink();
+        stream.subscribe(6L, sink);
+        stream.publish(List.of(transition(7), transition(8)));
+        assertEquals(List.of(7L, 8L), sink.ids());
+        assertEquals("{\"id\":7,\"jep\":\"7\",\"from\":\"CANDIDATE\",\"to\":\"TARGETED\",\"release\":\"26\",\"at\":\"2025-09-18T09:30:00Z\"}",
+                sink.events.getFirst().json());
+    }
+
+    @Test
+    void testResumeOnOtherInstance() {
+        List<JepTransition> history = new CopyOnWriteArrayList<>();
+        for (int number = 1; number <= 6; number++) {
+            history.add(transition(number));
+        }
+        // Restarted, or another instance behind the load balancer
+        List<Runnable> backfills = new ArrayList<>();
+        JepChangeStream stream = stream(4, history, backfills::add);
+
+        RecordingSink sink = new RecordingSink();
+        stream.subscribe(2L, sink);
+        // Published while reading the database
+        publish(stream, history, 7);
+        assertEquals(List.of(), sink.ids(), "Events should be held back until the missed ones are read");
+        backfills.getFirst().run();
+        assertEquals(List.of(3L, 4L, 5L, 6L, 7L), sink.ids());
+        publish(stream, history, 8);
+        assertEquals(List.of(3L, 4L, 5L, 6L, 7L, 8L), sink.ids());
+
+        // At most as many events read from the database as the ring holds, before the ring events
+        RecordingSink late = new RecordingSink();
+        stream.subscribe(0L, late);
+        backfills.getLast().run();
+        assertEquals(List.of(3L, 4L, 5L, 6L, 7L, 8L), late.ids());
+    }
+
+    @Test
+    void testSlowSubscribers() {
+        JepChangeStream stream = new JepChangeStream(4, 2);
+        // Never completes its sends, like a stalled connection
+        RecordingSink stalled = new RecordingSink() {
+            @Override
+            public CompletionStage<?> send(JepChangeStream.ChangeEvent event) {
+                super.send(event);
+                return new CompletableFuture<>();
+            }
+        };
+        RecordingSink fast = new RecordingSink();
+        assertNotNull(stream.subscribe(null, stalled));
+        assertNotNull(stream.subscribe(null, fast));
+        assertNull(stream.subscribe(null, new RecordingSink()), "Subscribers should be limited");
+
+        for (int number = 1; number <= 5; number++) {
+            stream.publish(List.of(transition(number)));
+        }
+        assertEquals(List.of(1L), stalled.ids(), "A subscriber should wait for its previous send");
+        assertTrue(stalled.closed, "A subscriber behind the whole ring should be disconnected");
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), fast.ids(), "A slow subscriber should not hold back the others");
+        assertEquals(1, stream.subscribers());
+
+        // A failed send unsubscribes, like a closed connection
+        CompletableFuture<?> failed = CompletableFuture.failedFuture(new IllegalStateException("Closed"));
+        stream.subscribe(null, new RecordingSink() {
+            @Override
+            public CompletionStage<?> send(JepChangeStream.ChangeEvent event) {
+                return failed;
+            }
+        });
+        stream.publish(List.of(transition(6)));
+        assertEquals(1, stream.subscribers());
+    }
+
+    @Test
+    void testHeartbeat() {
+        JepChangeStream stream = new JepChangeStream(4, 10);
+        RecordingSink connected = new RecordingSink();
+        RecordingSink disconnected = new RecordingSink();
+        stream.subscribe(null, connected);
+        stream.subscribe(null, disconnected);
+        stream.heartbeat();
+        assertEquals(2, stream.subscribers());
+
+        // Disconnected while no event flows
+        disconnected.disconnected = true;
+        stream.heartbeat();
+        assertEquals(1, stream.subscribers(), "A disconnected subscriber should be unsubscribed by the heartbeat");
+        assertEquals(2, connected.heartbeats);
+        stream.publish(List.of(transition(1)));
+        assertEquals(List.of(1L), connected.ids(), "Events should still be sent after heartbeats");
+        assertEquals(List.of(), disconnected.ids());
+    }
+
+    @Test
+    void testFanOutLatency() throws InterruptedException {
+        int subscribers = 10_000;
+        int events = 20;
+        JepChangeStream stream = new JepChangeStream(1024, subscribers);
+        // Sends complete asynchronously, like network writes
+        ExecutorService transport = Executors.newFixedThreadPool(4);
+        long[] published = new long[events + 1];
+        long[][] received = new long[subscribers][events + 1];
+        CountDownLatch delivered = new CountDownLatch(subscribers * events);
+        try {
+            for (int subscriber = 0; subscriber < subscribers; subscriber++) {
+                long[] times = received[subscriber];
+                stream.subscribe(null, new RecordingSink() {
+                    @Override
+                    public CompletionStage<?> send(JepChangeStream.ChangeEvent event) {
+                        return CompletableFuture.runAsync(() -> {
+                            times[(int) event.id()] = System.nanoTime();
+                            delivered.countDown();
+                        }, transport);
+                    }
+                });
+            }
+            long publishing = 0;
+            for (int event = 1; event <= events; event++) {
+                published[event] = System.nanoTime();
+                stream.publish(List.of(transition(event)));
+                publishing = Math.max(publishing, System.nanoTime() - published[event]);
+                Thread.sleep(5);
+            }
+            assertTrue(delivered.await(30, TimeUnit.SECONDS), "All events should be delivered");
+
+            long[] latencies = new long[subscribers * events];
+            int index = 0;
+            for (long[] times : received) {
+                for (int event = 1; event <= events; event++) {
+                    latencies[index++] = times[event] - published[event];
+                }
+            }
+            Arrays.sort(latencies);
+            long p50 = latencies[latencies.length / 2] / 1_000;
+            long p99 = latencies[latencies.length * 99 / 100] / 1_000;
+            long max = latencies[latencies.length - 1] / 1_000;
+            System.out.printf("Fan-out to %d subscribers: p50 %d µs, p99 %d µs, max %d µs, slowest publish %d µs%n",
+                    subscribers, p50, p99, max, publishing / 1_000);
+            assertEquals(subscribers, stream.subscribers(), "Subscribers keeping up should stay connected");
+            assertTrue(p99 < 1_000_000, "Fan-out p99 should stay under a second, got " + p99 + " µs");
+        } finally {
+            transport.shutdownNow();
+        }
+    }
+
+    private static JepChangeStream stream(int capacity, List<JepTransition> history, Executor backfillExecutor) {
+        return new JepChangeStream(capacity, 10, (afterId, beforeId, limit) -> {
+            List<JepTransition> transitions = history.stream()
+                    .filter(transition -> transition.id > afterId && transition.id < beforeId)
+                    .toList();
+            return transitions.subList(Math.max(0, transitions.size() - limit), transitions.size());
+        }, backfillExecutor);
+    }
+
+    private static void publish(JepChangeStream stream, List<JepTransition> history, int number) {
+        JepTransition transition = transition(number);
+        history.add(transition);
+        stream.publish(List.of(transition));
+    }
+
+    private static List<Long> ids(JepChangeStream stream, Long lastEventId) {
+        RecordingSink sink = new RecordingSink();
+        stream.subscribe(lastEventId, sink).unsubscribe();
+        return sink.ids();
+    }
+
+    private static JepTransition transition(int number) {
+        Jep jep = new Jep();
+        jep.number = String.valueOf(number);
+        jep.state = TARGETED;
+        jep.release = "26";
+        JepTransition transition = JepTransition.create(jep, CANDIDATE, NOW);
+        transition.id = (long) number;
+        return transition;
+    }
+
+    private static class RecordingSink implements JepChangeStream.Sink {
+        final List<JepChangeStream.ChangeEvent> events = new CopyOnWriteArrayList<>();
+        volatile boolean closed;
+        // Closed by the subscriber
+        volatile boolean disconnected;
+        volatile int heartbeats;
+
+        @Override
+        public CompletionStage<?> send(JepChangeStream.ChangeEvent event) {
+            this.events.add(event);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public CompletionStage<?> heartbeat() {
+            this.heartbeats++;
+            return this.disconnected ? CompletableFuture.failedFuture(new IllegalStateException("Closed")) : CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public void close(String reason) {
+            this.closed = true;
+        }
+
+        List<Long> ids() {
+            List<Long> ids = new ArrayList<>();
+            for (JepChangeStream.ChangeEvent event : this.events) {
+                ids.add(event.id());
+            }
+            return ids;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package fr.hardcoding.service;
+
+import org.jsoup.Jsoup;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static fr.hardcoding.service.JepServiceTest.readTestResource;
+import static fr.hardcoding.service.StubServer.respond;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JepEnricherTest {
+    private static final Duration LATENCY = Duration.ofMillis(200);
+
+    private StubServer server;
+    private final AtomicInteger concurrentRequests = new AtomicInteger();
+    private final AtomicInteger maxConcurrentRequests = new AtomicInteger();
+    private final AtomicInteger notModifiedResponses = new AtomicInteger();
+    private String page;
+
+    @BeforeEach
+    void setUp() throws IOException, URISyntaxException {
+        this.page = readTestResource("/jep-470.html");
+        this.server = new StubServer().handle("/jeps/", exchange -> {
+            int concurrent = this.concurrentRequests.incrementAndGet();
+            this.maxConcurrentRequests.accumulateAndGet(concurrent, Math::max);
+            try {
+                String number = exchange.getRequestURI().getPath().substring("/jeps/".length());
+                String etag = "\"" + number + "\"";
+                if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                    this.notModifiedResponses.incrementAndGet();
+                    respond(exchange, 304);
+                    return;
+                }
+                Thread.sleep(LATENCY);
+                exchange.getResponseHeaders().add("ETag", etag);
+                respond(exchange, 200, "text/html", this.page.replace("JEP 470", "JEP " + number));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                this.concurrentRequests.decrementAndGet();
+            }
+        }).start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.server.close();
+    }
+
+    @Test
+    void testParseDetails() throws IOException, URISyntaxException {
+        JepDetails details = JepEnricher.parseDetails("470", Jsoup.parse(readTestResource("/jep-470.html"), "https://openjdk.org/jeps/470"));
+        assertEquals("470", details.number());
+        assertEquals("Anthony Scarpino", details.owner());
+        assertEquals("https://bugs.openjdk.org/browse/JDK-8300911", details.issue());
+        assertEquals("2025/07/15 19:44", details.updated());
+        assertTrue(details.summary().startsWith("Introduce an API for encoding objects"), "Failed to parse summary");
+        assertTrue(details.summary().endsWith("This is a preview API."), "Failed to parse summary");
+    }
+
+    @Test
+    void testParseMissingDetails() {
+        JepDetails details = JepEnricher.parseDetails("1", Jsoup.parse("<html><body><h1>JEP 1</h1></body></html>"));
+        assertNull(details.owner());
+        assertNull(details.summary());
+        assertNull(details.issue());
+    }
+
+    @Test
+    void testParallelFetches() {
+        JepEnricher enricher = createEnricher(50, 100);
+        List<String> numbers = numbers(50);
+
+        long start = System.nanoTime();
+        Map<String, JepDetails> details = enricher.enrich(numbers);
+        Duration duration = Duration.ofNanos(System.nanoTime() - start);
+
+        assertEquals(50, details.size(), "Failed to enrich all JEPs");
+        assertEquals("Anthony Scarpino", details.get("500").owner());
+        assertTrue(duration.compareTo(LATENCY.multipliedBy(5)) < 0, "Fetches should run in parallel, took " + duration);
+        assertEquals(details.get("510"), enricher.cached("510"), "Details should be cached");
+    }
+
+    @Test
+    void testConcurrencyCapPerHost() {
+        JepEnricher enricher = createEnricher(4, 100);
+        Map<String, JepDetails> details = enricher.enrich(numbers(20));
+        assertEquals(20, details.size(), "Failed to enrich all JEPs");
+        assertTrue(this.maxConcurrentRequests.get() <= 4, "Concurrent requests should be capped, got " + this.maxConcurrentRequests.get());
+    }
+
+    @Test
+    void testRevalidateCachedDetails() {
+        JepEnricher enricher = createEnricher(8, 100);
+        enricher.enrich(numbers(10));
+        Map<String, JepDetails> details = enricher.enrich(numbers(10));
+        assertEquals(10, details.size());
+        assertEquals(10, enricher.fetches(), "Unchanged pages should not be fetched again");
+        assertEquals(10, enricher.revalidations());
+        assertEquals(10, this.notModifiedResponses.get());
+    }
+
+    @Test
+    void testEvictLeastRecentlyUsed() {
+        JepEnricher enricher = createEnricher(8, 5);
+        // Fill the cache one JEP at a time to know the access order
+        for (String number : numbers(5)) {
+            enricher.enrich(List.of(number));
+        }
+        enricher.cached("500");
+        enricher.enrich(List.of("600"));
+        assertNotNull(enricher.cached("500"), "Recently used details should be kept");
+        assertNull(enricher.cached("501"), "Least recently used details should be evicted");
+    }
+
+    private JepEnricher createEnricher(int maxConcurrencyPerHost, int cacheSize) {
+        JepEnricher enricher = new JepEnricher(this.server.httpClients(), cacheSize);
+        enricher.enabled = true;
+        enricher.url = this.server.url() + "/jeps/";
+        enricher.maxConcurrencyPerHost = maxConcurrencyPerHost;
+        enricher.maxFetches = 100;
+        return enricher;
+    }
+
+    private static List<String> numbers(int count) {
+        List<String> numbers = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            numbers.add(String.valueOf(500 + i));
+        }
+        return numbers;
+    }
+}
@@ -0,0 +1,57 @@
+package fr.hardcoding.service;
+
+import fr.hardcoding.model.Jep;
+import fr.hardcoding.model.JepState;
+import fr.hardcoding.model.JepType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static fr.hardcoding.model.JepState.CANDIDATE;
+import static fr.hardcoding.model.JepState.TARGETED;
+import static fr.hardcoding.model.JepType.FEATURE;
+import static fr.hardcoding.model.JepType.INFORMATIONAL;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JepFilterTest {
+    private static final Jep ZGC = jep(FEATURE, TARGETED, "26", "hotspot", "gc");
+    private static final Jep JIT = jep(FEATURE, CANDIDATE, null, "hotspot", "compiler");
+    private static final Jep TLS = jep(INFORMATIONAL, TARGETED, "26", "security-libs", "javax.net.ssl");
+
+    @Test
+    void testMatches() {
+        assertTrue(JepFilter.ANY.matches(ZGC));
+        assertTrue(filter(Set.of(), Set.of(), Set.of("hotspot"), Set.of()).matches(JIT), "Components should match any sub-component");
+        assertTrue(filter(Set.of(), Set.of(), Set.of("hotspot/gc"), Set.of()).matches(ZGC));
+        assertFalse(filter(Set.of(), Set.of(), Set.of("hotspot/gc"), Set.of()).matches(JIT));
+        assertTrue(filter(Set.of(FEATURE), Set.of(TARGETED), Set.of(), Set.of("26")).matches(ZGC));
+        assertFalse(filter(Set.of(FEATURE), Set.of(TARGETED), Set.of(), Set.of("26")).matches(TLS), "All filters should match");
+        assertFalse(filter(Set.of(), Set.of(), Set.of(), Set.of("26")).matches(JIT), "JEPs with no release should not match a release");
+    }
+
+    @Test
+    void testFilter() {
+        List<Jep> jeps = List.of(ZGC, JIT, TLS);
+        assertSame(jeps, JepFilter.ANY.filter(jeps));
+        assertSame(jeps, filter(Set.of(), Set.of(), Set.of("hotspot", "security-libs"), Set.of()).filter(jeps));
+        assertEquals(List.of(ZGC, TLS), filter(Set.of(), Set.of(TARGETED), Set.of(), Set.of()).filter(jeps));
+    }
+
+    private static JepFilter filter(Set<JepType> types, Set<JepState> states, Set<String> components, Set<String> releases) {
+        return new JepFilter(types, states, components, releases);
+    }
+
+    private static Jep jep(JepType type, JepState state, String release, String component, String subComponent) {
+        Jep jep = new Jep();
+        jep.type = type;
+        jep.state = state;
+        jep.release = release;
+        jep.component = component;
+        jep.subComponent = subComponent;
+        return jep;
+    }
+}
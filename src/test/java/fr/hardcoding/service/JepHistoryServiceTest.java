@@ -0,0 +1,107 @@
+package fr.hardcoding.service;
+
+import fr.hardcoding.model.Jep;
+import fr.hardcoding.model.JepSnapshot;
+import fr.hardcoding.model.JepState;
+import fr.hardcoding.model.JepTransition;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Random;
+
+import static fr.hardcoding.model.JepState.CANDIDATE;
+import static fr.hardcoding.model.JepState.DRAFTED;
+import static fr.hardcoding.model.JepState.TARGETED;
+import static fr.hardcoding.model.JepType.FEATURE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@QuarkusTest
+class JepHistoryServiceTest {
+    private static final Instant T0 = Instant.parse("2025-01-01T00:00:00Z");
+
+    @Inject
+    JepService jepService;
+    @Inject
+    JepHistoryService historyService;
+
+    @BeforeEach
+    void setUp() {
+        QuarkusTransaction.requiringNew().run(() -> {
+            Jep.deleteAll();
+            JepTransition.deleteAll();
+            JepSnapshot.deleteAll();
+        });
+    }
+
+    @Test
+    void testRecordTransitions() {
+        Jep jep = jep("470", DRAFTED);
+        QuarkusTransaction.requiringNew().run(() -> this.jepService.updateJeps(List.of(jep)));
+        QuarkusTransaction.requiringNew().run(() -> this.jepService.updateJeps(List.of(jep("470", DRAFTED))));
+        QuarkusTransaction.requiringNew().run(() -> this.jepService.updateJeps(List.of(jep("470", CANDIDATE))));
+
+        List<JepTransition> transitions = this.historyService.transitionsOf("470");
+        assertEquals(2, transitions.size(), "Only changes should be recorded");
+        assertNull(transitions.get(0).fromState);
+        assertEquals(DRAFTED, transitions.get(0).toState);
+        assertEquals(DRAFTED, transitions.get(1).fromState);
+        assertEquals(CANDIDATE, transitions.get(1).toState);
+    }
+
+    @Test
+    void testStateAt() {
+        append("470", DRAFTED, T0);
+        append("471", DRAFTED, T0.plusSeconds(10));
+        append("470", CANDIDATE, T0.plusSeconds(20));
+        this.historyService.takeSnapshot(T0.plusSeconds(25));
+        append("470", TARGETED, T0.plusSeconds(30));
+        append("472", DRAFTED, T0.plusSeconds(40));
+
+        assertEquals(0, this.historyService.stateAt(T0.minusSeconds(1)).size(), "No JEP before the first transition");
+        assertEquals(DRAFTED, this.historyService.stateAt(T0.plusSeconds(15)).stateOf("470"));
+        // From the snapshot only
+        JepStateTable snapshotState = this.historyService.stateAt(T0.plusSeconds(25));
+        assertEquals(CANDIDATE, snapshotState.stateOf("470"));
+        assertEquals(2, snapshotState.size());
+        // From the snapshot and the later transitions
+        JepStateTable latestState = this.historyService.stateAt(T0.plusSeconds(40));
+        assertEquals(TARGETED, latestState.stateOf("470"));
+        assertEquals(DRAFTED, latestState.stateOf("472"));
+        assertEquals(3, latestState.size());
+    }
+
+    @Test
+    void testSnapshotMatchesReplay() {
+        List<JepTransition> transitions = JepStateTableTest.generateTransitions(2000, 300, new Random(42));
+        QuarkusTransaction.requiringNew().run(() -> JepTransition.persist(transitions));
+        Instant middle = transitions.get(1000).occurredAt;
+        Instant end = transitions.getLast().occurredAt;
+
+        JepSnapshot snapshot = this.historyService.takeSnapshot(middle);
+        assertEquals(snapshot.id, this.historyService.takeSnapshot(middle).id, "Unchanged snapshot should not be taken again");
+        JepStateTable expected = JepStateTable.empty();
+        expected.applyAll(transitions);
+        assertEquals(expected.states(), this.historyService.stateAt(end).states());
+        this.historyService.takeSnapshot(end);
+        assertEquals(expected.states(), this.historyService.stateAt(end).states());
+    }
+
+    private static Jep jep(String number, JepState state) {
+        Jep jep = new Jep();
+        jep.type = FEATURE;
+        jep.state = state;
+        jep.number = number;
+        jep.title = "JEP " + number;
+        return jep;
+    }
+
+    private static void append(String number, JepState state, Instant occurredAt) {
+        QuarkusTransaction.requiringNew().run(() -> JepTransition.create(jep(number, state), null, occurredAt).persist());
+    }
+}
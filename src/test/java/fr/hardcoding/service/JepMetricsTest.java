@@ -0,0 +1,112 @@
+package fr.hardcoding.service;
+
+import fr.hardcoding.model.Jep;
+import fr.hardcoding.model.OutboxPost;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusMock;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Optional;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+class JepMetricsTest {
+    private static final String PAGE = """
+            <html><body><table class="jeps">
+            <tr><td>F</td><td>Tar</td><td>25</td><td class="cl">core</td><td class="cr">lang</td><td class="jep">470</td><td>PEM Encodings</td></tr>
+            <tr><td>F</td><td>Can</td><td></td><td class="cl">hotspot</td><td class="cr">gc</td><td class="jep">471</td><td>Generational GC</td></tr>
+            <tr><td>?</td><td>Can</td><td></td><td class="cl">hotspot</td><td class="cr">gc</td><td class="jep">472</td><td>Unknown type</td></tr>
+            </table></body></html>
+            """;
+
+    @Inject
+    JepService jepService;
+    @Inject
+    OutboxPublisher publisher;
+    @Inject
+    MeterRegistry registry;
+    @TestHTTPResource("/q/metrics")
+    URI metricsUri;
+
+    @BeforeEach
+    void setUp() {
+        QuarkusTransaction.requiringNew().run(() -> {
+            Jep.deleteAll();
+            OutboxPost.deleteAll();
+        });
+        QuarkusMock.installMockForType(new JepPageFetcher(null, null) {
+            @Override
+            public Optional<Page> fetch() {
+                return Optional.of(new Page("https://openjdk.org/jeps/0", PAGE.getBytes(UTF_8), UTF_8, null, null, new byte[0]));
+            }
+        }, JepPageFetcher.class);
+    }
+
+    @Test
+    void testPipelineMeters() {
+        long fetches = stageCount("fetch");
+        long parses = stageCount("parse");
+        long diffs = stageCount("diff");
+        long formats = stageCount("format");
+        long posts = stageCount("post");
+        double parsedRows = counter("jep.rows.parsed");
+        double failedRows = counter("jep.rows.failed");
+        double changes = counter("jep.changes");
+        double succeededPosts = succeededPosts();
+
+        this.jepService.checkJepUpdates();
+        assertEquals(fetches + 1, stageCount("fetch"), "Fetch should be timed");
+        assertEquals(parses + 1, stageCount("parse"), "Parse should be timed");
+        assertEquals(diffs + 1, stageCount("diff"), "Diff should be timed");
+        assertEquals(formats + 2, stageCount("format"), "Each post should be formatted");
+        assertEquals(parsedRows + 2, counter("jep.rows.parsed"));
+        assertEquals(failedRows + 1, counter("jep.rows.failed"), "Unknown JEP type should be counted");
+        assertEquals(changes + 2, counter("jep.changes"));
+
+        this.publisher.publishPending();
+        assertEquals(posts + 2, stageCount("post"), "Each post should be timed");
+        assertEquals(succeededPosts + 2, succeededPosts());
+    }
+
+    @Test
+    void testPrometheusEndpoint() throws IOException, InterruptedException {
+        this.jepService.checkJepUpdates();
+        String metrics;
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(this.metricsUri).build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, response.statusCode());
+            metrics = response.body();
+        }
+        assertTrue(metrics.contains("jep_pipeline_stage_seconds_count{stage=\"parse\"}"), "Stage timers should be exposed");
+        assertTrue(metrics.contains("jep_rows_parsed_total"), "Row counters should be exposed");
+        assertTrue(metrics.contains("bluesky_session_renewals_total{type=\"refresh\"}"), "Session renewals should be exposed");
+    }
+
+    private double succeededPosts() {
+        // Post counters are registered on the first post of each sink
+        Counter counter = this.registry.find("jep.posts").tag("sink", BlueskySink.NAME).tag("outcome", "success").counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private long stageCount(String stage) {
+        return this.registry.get(JepMetrics.STAGE_TIMER).tag("stage", stage).timer().count();
+    }
+
+    private double counter(String name) {
+        return this.registry.get(name).counter().count();
+    }
+}
@@ -0,0 +1,49 @@
+package fr.hardcoding.service;
+
+import org.jsoup.Jsoup;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class JepPageArchiveTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void testListInFetchOrder() throws IOException {
+        Instant first = Instant.parse("2025-09-16T08:00:00Z");
+        Instant second = Instant.parse("2025-09-16T10:30:15Z");
+        JepPageArchive.write(this.directory.resolve(JepPageArchive.fileName(second)), new byte[0]);
+        Files.writeString(this.directory.resolve("jep-0-20250916T080000Z.html"), "<html></html>");
+        Files.writeString(this.directory.resolve("notes.txt"), "Not a page");
+        Files.writeString(this.directory.resolve("jep-0-20251399T000000Z.html"), "Invalid date");
+
+        List<JepPageArchive.ArchivedPage> pages = JepPageArchive.list(this.directory);
+        assertEquals(List.of(first, second), pages.stream().map(JepPageArchive.ArchivedPage::fetchedAt).toList());
+        assertEquals("jep-0-20250916T103015Z.html.gz", pages.getLast().file().getFileName().toString());
+    }
+
+    @Test
+    void testReadWithDeclaredCharset() throws IOException {
+        // The sample page is encoded and declared as windows-1252
+        byte[] sample;
+        try (InputStream input = Objects.requireNonNull(getClass().getResourceAsStream("/sample.html"), "Missing sample page")) {
+            sample = input.readAllBytes();
+        }
+        Path file = this.directory.resolve(JepPageArchive.fileName(Instant.parse("2025-09-16T08:00:00Z")));
+        JepPageArchive.write(file, sample);
+        List<JepPageArchive.ArchivedPage> pages = JepPageArchive.list(this.directory);
+        assertEquals(
+                JepService.parseJeps(Jsoup.parse(new String(sample, "windows-1252"))).toString(),
+                JepService.parseJeps(pages.getFirst().document()).toString());
+    }
+}
@@ -0,0 +1,165 @@
+package fr.hardcoding.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static fr.hardcoding.service.StubServer.respond;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JepPageFetcherTest {
+    private static final String PAGE = """
+            <html><body><table class="jeps"><tr><td>F</td><td>Tar</td><td>25</td><td></td><td class="jep">470</td><td>Title</td></tr></table></body></html>
+            """;
+
+    private StubServer server;
+    private final AtomicReference<String> body = new AtomicReference<>(PAGE);
+    private final AtomicReference<String> etag = new AtomicReference<>();
+    private final AtomicReference<String> lastModified = new AtomicReference<>();
+    private final AtomicInteger notModifiedResponses = new AtomicInteger();
+    private final AtomicBoolean rateLimited = new AtomicBoolean();
+    private final AtomicReference<String> retryAfter = new AtomicReference<>();
+    private final JepPageArchive archive = new JepPageArchive();
+    private JepPageFetcher fetcher;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        this.server = new StubServer().handle("/jeps/0", exchange -> {
+            if (this.rateLimited.get()) {
+                if (this.retryAfter.get() != null) {
+                    exchange.getResponseHeaders().add("Retry-After", this.retryAfter.get());
+                }
+                respond(exchange, 429);
+                return;
+            }
+            String currentEtag = this.etag.get();
+            String currentLastModified = this.lastModified.get();
+            if ((currentEtag != null && currentEtag.equals(exchange.getRequestHeaders().getFirst("If-None-Match")))
+                    || (currentLastModified != null && currentLastModified.equals(exchange.getRequestHeaders().getFirst("If-Modified-Since")))) {
+                this.notModifiedResponses.incrementAndGet();
+                respond(exchange, 304);
+                return;
+            }
+            if (currentEtag != null) {
+                exchange.getResponseHeaders().add("ETag", currentEtag);
+            }
+            if (currentLastModified != null) {
+                exchange.getResponseHeaders().add("Last-Modified", currentLastModified);
+            }
+            respond(exchange, 200, "text/html", this.body.get());
+        }).start();
+        this.fetcher = new JepPageFetcher(this.server.httpClients(), this.archive);
+        this.fetcher.url = this.server.url() + "/jeps/0";
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.server.close();
+    }
+
+    @Test
+    void testSkipWithEtag() throws IOException {
+        this.etag.set("\"v1\"");
+        fetchAndAcknowledge();
+        assertTrue(this.fetcher.fetch().isEmpty(), "Unchanged page should be skipped");
+        assertEquals(1, this.notModifiedResponses.get(), "Server should answer not modified");
+        // Page changed
+        this.etag.set("\"v2\"");
+        this.body.set(PAGE.replace("Tar", "Int"));
+        fetchAndAcknowledge();
+        assertEquals(1, this.fetcher.skippedRuns());
+        assertEquals(2, this.fetcher.fullRuns());
+    }
+
+    @Test
+    void testSkipWithLastModified() throws IOException {
+        this.lastModified.set("Wed, 21 Oct 2025 07:28:00 GMT");
+        fetchAndAcknowledge();
+        assertTrue(this.fetcher.fetch().isEmpty(), "Unchanged page should be skipped");
+        assertEquals(1, this.notModifiedResponses.get(), "Server should answer not modified");
+        assertEquals(1, this.fetcher.skippedRuns());
+        assertEquals(1, this.fetcher.fullRuns());
+    }
+
+    @Test
+    void testSkipWithContentHash() throws IOException {
+        fetchAndAcknowledge();
+        assertTrue(this.fetcher.fetch().isEmpty(), "Unchanged page should be skipped");
+        assertEquals(0, this.notModifiedResponses.get(), "Server has no validators");
+        // Page changed
+        this.body.set(PAGE.replace("Tar", "Int"));
+        fetchAndAcknowledge();
+        assertEquals(1, this.fetcher.skippedRuns());
+        assertEquals(2, this.fetcher.fullRuns());
+    }
+
+    @Test
+    void testParsePageOnce() throws IOException {
+        JepPageFetcher.Page page = this.fetcher.fetch().orElseThrow();
+        assertSame(page.document(), page.document(), "Page should be parsed once");
+        assertEquals("470", page.document().selectFirst("td.jep").text());
+    }
+
+    @Test
+    void testRefetchUnacknowledgedPage() throws IOException {
+        this.etag.set("\"v1\"");
+        assertTrue(this.fetcher.fetch().isPresent(), "Failed to fetch page");
+        assertTrue(this.fetcher.fetch().isPresent(), "Page not acknowledged should be fetched again");
+        assertEquals(0, this.notModifiedResponses.get());
+    }
+
+    @Test
+    void testArchiveFetchedPages(@TempDir Path directory) throws IOException {
+        this.archive.enabled = true;
+        this.archive.directory = directory.toString();
+        fetchAndAcknowledge();
+        // Unchanged pages are not archived again
+        assertTrue(this.fetcher.fetch().isEmpty(), "Unchanged page should be skipped");
+        List<JepPageArchive.ArchivedPage> pages = JepPageArchive.list(directory);
+        assertEquals(1, pages.size());
+        assertEquals(1, JepService.parseJeps(pages.getFirst().document()).size(), "Failed to parse archived page");
+    }
+
+    @Test
+    void testRateLimited() {
+        this.rateLimited.set(true);
+        this.retryAfter.set("120");
+        JepPageFetcher.RateLimitedException exception = assertThrows(JepPageFetcher.RateLimitedException.class, this.fetcher::fetch);
+        assertEquals(Duration.ofMinutes(2), exception.retryAfter());
+        // No delay given
+        this.retryAfter.set(null);
+        exception = assertThrows(JepPageFetcher.RateLimitedException.class, this.fetcher::fetch);
+        assertNull(exception.retryAfter());
+    }
+
+    @Test
+    void testParseRetryAfter() {
+        Instant now = Instant.parse("2025-10-21T07:28:00Z");
+        assertEquals(Duration.ofSeconds(30), JepPageFetcher.retryAfter(" 30 ", now));
+        assertEquals(Duration.ofMinutes(5), JepPageFetcher.retryAfter("Tue, 21 Oct 2025 07:33:00 GMT", now));
+        assertEquals(Duration.ZERO, JepPageFetcher.retryAfter("Tue, 21 Oct 2025 07:00:00 GMT", now));
+        assertNull(JepPageFetcher.retryAfter("soon", now));
+    }
+
+    private void fetchAndAcknowledge() throws IOException {
+        Optional<JepPageFetcher.Page> page = this.fetcher.fetch();
+        assertTrue(page.isPresent(), "Failed to fetch page");
+        assertEquals(1, JepService.parseJeps(page.get().document()).size(), "Failed to parse page");
+        this.fetcher.acknowledge(page.get());
+    }
+}
@@ -0,0 +1,255 @@
+package fr.hardcoding.service;
+
+import fr.hardcoding.service.JepService.CheckResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+class JepPollSchedulerTest {
+    private static final Duration MIN_INTERVAL = Duration.ofMinutes(10);
+    private static final Duration MAX_INTERVAL = Duration.ofHours(2);
+
+    @Inject
+    JepMetrics metrics;
+    @Inject
+    MeterRegistry registry;
+    @Inject
+    DataSource dataSource;
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-12-04T08:00:00Z"));
+    private final Deque<CheckResult> results = new ArrayDeque<>();
+    private final AtomicInteger checks = new AtomicInteger();
+    private final List<Boolean> follows = new ArrayList<>();
+    private JepUpdates jepUpdates;
+    private JepPollScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        this.jepUpdates = new JepUpdates() {
+            @Override
+            public CheckResult checkJepUpdates() {
+                checks.incrementAndGet();
+                CheckResult result = results.poll();
+                return result == null ? CheckResult.UNCHANGED : result;
+            }
+
+            @Override
+            public int followUpdates(boolean refresh) {
+                follows.add(refresh);
+                return 0;
+            }
+        };
+        this.scheduler = createScheduler(this.jepUpdates, 0);
+    }
+
+    @Test
+    void testBackOffWithoutChanges() {
+        assertNextCheckIn(MIN_INTERVAL);
+        assertNextCheckIn(Duration.ofMinutes(20));
+        assertNextCheckIn(Duration.ofMinutes(40));
+        assertNextCheckIn(Duration.ofMinutes(80));
+        assertNextCheckIn(MAX_INTERVAL);
+        assertNextCheckIn(MAX_INTERVAL);
+        assertEquals(6, this.checks.get());
+    }
+
+    @Test
+    void testResetOnChanges() {
+        assertNextCheckIn(MIN_INTERVAL);
+        assertNextCheckIn(Duration.ofMinutes(20));
+        this.results.add(CheckResult.changed(3));
+        assertNextCheckIn(MIN_INTERVAL);
+        assertNextCheckIn(Duration.ofMinutes(20));
+    }
+
+    @Test
+    void testBackOffOnFailure() {
+        this.results.add(CheckResult.changed(1));
+        this.results.add(CheckResult.FAILED);
+        this.results.add(CheckResult.FAILED);
+        assertNextCheckIn(MIN_INTERVAL);
+        assertNextCheckIn(Duration.ofMinutes(20));
+        assertNextCheckIn(Duration.ofMinutes(40));
+    }
+
+    @Test
+    void testHonorRetryAfter() {
+        // Longer than the maximum interval
+        this.results.add(CheckResult.rateLimited(Duration.ofHours(3)));
+        assertNextCheckIn(Duration.ofHours(3));
+        // Shorter than the backoff
+        this.results.add(CheckResult.rateLimited(Duration.ofSeconds(30)));
+        assertNextCheckIn(MAX_INTERVAL);
+        // No delay given
+        this.results.add(CheckResult.rateLimited(null));
+        assertNextCheckIn(MAX_INTERVAL);
+    }
+
+    @Test
+    void testJitterWithinBounds() {
+        this.scheduler.jitter = 0.1;
+        for (int i = 0; i < 50; i++) {
+            this.results.add(CheckResult.changed(1));
+            Duration delay = checkAndGetDelay();
+            assertTrue(delay.compareTo(MIN_INTERVAL) >= 0, "Delay should not be shorter than the minimum interval");
+            assertTrue(delay.compareTo(Duration.ofMinutes(11)) <= 0, "Delay should be jittered by 10% at most");
+        }
+        for (int i = 0; i < 50; i++) {
+            this.results.add(CheckResult.rateLimited(Duration.ofMinutes(30)));
+            Duration delay = checkAndGetDelay();
+            assertTrue(delay.compareTo(Duration.ofMinutes(30)) >= 0, "Delay should not be shorter than the asked one");
+        }
+    }
+
+    @Test
+    void testCheckOnlyWhenDue() {
+        this.scheduler.checkIfDue();
+        assertEquals(1, this.checks.get(), "First check should run right away");
+        this.clock.advance(Duration.ofMinutes(9));
+        this.scheduler.checkIfDue();
+        assertEquals(1, this.checks.get(), "Check should not run before its interval");
+        this.clock.advance(Duration.ofMinutes(1));
+        this.scheduler.checkIfDue();
+        assertEquals(2, this.checks.get(), "Check should run after its interval");
+    }
+
+    @Test
+    void testNoOverlap() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        JepUpdates slowUpdates = new JepUpdates() {
+            @Override
+            public CheckResult checkJepUpdates() {
+                checks.incrementAndGet();
+                started.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return CheckResult.UNCHANGED;
+            }
+
+            @Override
+            public int followUpdates(boolean refresh) {
+                return 0;
+            }
+        };
+        JepPollScheduler slowScheduler = createScheduler(slowUpdates, 0);
+        CompletableFuture<Boolean> first = CompletableFuture.supplyAsync(slowScheduler::check);
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        assertFalse(slowScheduler.check(), "Check should not overlap the running one");
+        release.countDown();
+        assertTrue(first.get(10, TimeUnit.SECONDS));
+        assertEquals(1, this.checks.get());
+        assertTrue(slowScheduler.check(), "Check should run once the previous one completed");
+    }
+
+    @Test
+    void testCheckOnlyOnLeader() {
+        LeaderLease leader = new LeaderLease(this.dataSource, true, "leader", Duration.ofSeconds(15), this.clock);
+        LeaderLease standby = new LeaderLease(this.dataSource, true, "standby", Duration.ofSeconds(15), this.clock);
+        assertTrue(leader.renew());
+        assertFalse(standby.renew());
+        JepPollScheduler standbyScheduler = createScheduler(this.jepUpdates, 0, standby);
+        standbyScheduler.checkIfDue();
+        assertEquals(0, this.checks.get(), "Standby should not check");
+        this.clock.advance(Duration.ofSeconds(5));
+        standbyScheduler.checkIfDue();
+        assertEquals(List.of(true, false), this.follows, "Standby should follow the leader, refreshing the catalog periodically");
+
+        // The leader stopped renewing its lease
+        this.clock.advance(Duration.ofSeconds(15));
+        assertTrue(standby.renew());
+        standbyScheduler.checkIfDue();
+        assertEquals(1, this.checks.get(), "Standby should check once leader");
+        assertEquals(List.of(true, false, true), this.follows, "New leader should catch up before checking");
+        standbyScheduler.checkIfDue();
+        assertEquals(3, this.follows.size(), "Leader should not follow");
+        standby.release();
+    }
+
+    @Test
+    void testExposeIntervalAndReason() {
+        double rateLimited = this.registry.get("jep.checks.scheduled").tag("reason", "rate_limited").counter().count();
+        this.results.add(CheckResult.rateLimited(Duration.ofMinutes(45)));
+        this.scheduler.check();
+        assertEquals(45 * 60, this.registry.get("jep.checks.interval").timeGauge().value(TimeUnit.SECONDS));
+        assertEquals(rateLimited + 1, this.registry.get("jep.checks.scheduled").tag("reason", "rate_limited").counter().count());
+    }
+
+    private JepPollScheduler createScheduler(JepUpdates jepUpdates, double jitter) {
+        return createScheduler(jepUpdates, jitter, new LeaderLease(null, false, "test", Duration.ofSeconds(15), this.clock));
+    }
+
+    private JepPollScheduler createScheduler(JepUpdates jepUpdates, double jitter, LeaderLease leaderLease) {
+        JepPollScheduler scheduler = new JepPollScheduler(jepUpdates, this.metrics, leaderLease, this.clock, new Random(42));
+        scheduler.minInterval = MIN_INTERVAL;
+        scheduler.maxInterval = MAX_INTERVAL;
+        scheduler.backoffFactor = 2;
+        scheduler.jitter = jitter;
+        scheduler.standbyRefreshInterval = Duration.ofMinutes(10);
+        return scheduler;
+    }
+
+    private void assertNextCheckIn(Duration expected) {
+        assertEquals(expected, checkAndGetDelay());
+    }
+
+    private Duration checkAndGetDelay() {
+        assertTrue(this.scheduler.check(), "Failed to run check");
+        Duration delay = Duration.between(this.clock.instant(), this.scheduler.nextCheckAt());
+        this.clock.advance(delay);
+        return delay;
+    }
+
+    private static class MutableClock extends Clock {
+        private volatile Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            this.instant = this.instant.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return this.instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
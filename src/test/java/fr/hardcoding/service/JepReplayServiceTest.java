@@ -0,0 +1,102 @@
+package fr.hardcoding.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.hardcoding.model.Jep;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.jsoup.Jsoup;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import static fr.hardcoding.model.JepState.SUBMITTED;
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+class JepReplayServiceTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Inject
+    JepReplayService replayService;
+
+    @Test
+    void testReplayArchive(@TempDir Path directory) throws IOException {
+        byte[] sample;
+        try (InputStream input = Objects.requireNonNull(getClass().getResourceAsStream("/sample.html"), "Missing sample page")) {
+            sample = input.readAllBytes();
+        }
+        Path archive = directory.resolve("archive");
+        Files.createDirectories(archive);
+        Instant first = Instant.parse("2025-09-16T08:00:00Z");
+        Instant integrated = Instant.parse("2025-09-18T08:00:00Z");
+        // A raw capture, a corrupted archive, then the targeted JEPs integrated
+        Files.write(archive.resolve("jep-0-20250916T080000Z.html"), sample);
+        Files.write(archive.resolve(JepPageArchive.fileName(Instant.parse("2025-09-17T08:00:00Z"))), new byte[]{1, 2, 3});
+        String page = new String(sample, ISO_8859_1).replace(">Tar</span>", ">Int</span>");
+        JepPageArchive.write(archive.resolve(JepPageArchive.fileName(integrated)), page.getBytes(ISO_8859_1));
+
+        Path output = directory.resolve("replay.jsonl");
+        JepReplayService.Result result = this.replayService.replay(archive, output);
+        int newJeps = countNewJeps(sample);
+        assertEquals(new JepReplayService.Result(3, 1, newJeps + 4, result.posts()), result);
+
+        List<JsonNode> lines = readLines(output);
+        assertEquals(newJeps + 4 + result.posts(), lines.size());
+        assertEquals(first.toString(), lines.getFirst().get("at").asText());
+        List<JsonNode> integrations = lines.stream()
+                .filter(line -> "transition".equals(line.get("type").asText()) && integrated.toString().equals(line.get("at").asText()))
+                .toList();
+        assertEquals(4, integrations.size());
+        for (JsonNode transition : integrations) {
+            assertEquals("TARGETED", transition.get("from").asText());
+            assertEquals("INTEGRATED", transition.get("to").asText());
+        }
+        // The JEPs integrated together are posted as a thread
+        JsonNode thread = lines.getLast();
+        assertEquals("post", thread.get("type").asText());
+        assertEquals("INTEGRATED", thread.get("state").asText());
+        assertTrue(thread.get("jep").isNull(), "Thread should not be about a single JEP");
+        StringBuilder texts = new StringBuilder();
+        thread.get("texts").forEach(text -> texts.append(text.asText()).append('\n'));
+        for (JsonNode transition : integrations) {
+            assertTrue(texts.toString().contains(transition.get("jep").asText()), "Thread should list JEP " + transition.get("jep").asText());
+        }
+
+        // Replays are deterministic
+        Path again = directory.resolve("again.jsonl");
+        assertEquals(result, this.replayService.replay(archive, again));
+        assertEquals(Files.readString(output, UTF_8), Files.readString(again, UTF_8));
+    }
+
+    private static int countNewJeps(byte[] sample) {
+        Set<String> numbers = new HashSet<>();
+        for (Jep jep : JepService.parseJeps(Jsoup.parse(new String(sample, ISO_8859_1)))) {
+            if (jep.number != null && jep.state != SUBMITTED) {
+                numbers.add(jep.number);
+            }
+        }
+        return numbers.size();
+    }
+
+    private static List<JsonNode> readLines(Path output) throws IOException {
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : Files.readAllLines(output, UTF_8)) {
+            lines.add(MAPPER.readTree(line));
+        }
+        return lines;
+    }
+}
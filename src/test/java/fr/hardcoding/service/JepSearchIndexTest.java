@@ -0,0 +1,98 @@
+package fr.hardcoding.service;
+
+import fr.hardcoding.model.JepState;
+import fr.hardcoding.model.JepType;
+import fr.hardcoding.service.JepCatalog.JepView;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static fr.hardcoding.model.JepState.CANDIDATE;
+import static fr.hardcoding.model.JepState.TARGETED;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class JepSearchIndexTest {
+    private static final List<JepView> JEPS = List.of(
+            jep("508", TARGETED, "25", "core-libs", null, "Vector API (Tenth Incubator)"),
+            jep("529", TARGETED, "26", "core-libs", null, "Vector API (Eleventh Incubator)"),
+            jep("525", TARGETED, "26", "core-libs", null, "Structured Concurrency (Sixth Preview)"),
+            jep("522", TARGETED, "26", "hotspot", "gc", "G1 GC: Improve Throughput by Reducing Synchronization"),
+            jep("523", CANDIDATE, null, "hotspot", "gc", "Make G1 the Default Garbage Collector in All Environments"),
+            jep("530", TARGETED, "26", "specification", "language", "Primitive Types in Patterns, instanceof, and switch (Fourth Preview)"));
+
+    @Test
+    void testQueries() {
+        JepSearchIndex index = JepSearchIndex.build(JEPS);
+        assertEquals(List.of("508", "529"), search(index, query("vector AND api")));
+        assertEquals(List.of("525", "530"), search(index, query("preview")));
+        assertEquals(List.of(), search(index, query("vector AND preview")));
+        assertEquals(List.of("508", "525", "529", "530"), search(index, query("vector OR preview")));
+        assertEquals(List.of("529"), search(index, query("vector -tenth")));
+        assertEquals(List.of("529"), search(index, query("vector NOT Tenth")));
+        // Tokens are split on punctuation and matched case-insensitively
+        assertEquals(List.of("530"), search(index, query("INSTANCEOF")));
+        assertEquals(List.of("522", "523"), search(index, query("g1")));
+        assertEquals(List.of("522"), search(index, new JepSearchIndex.Query(null, null, TARGETED, "26", "hotspot", "gc")));
+        assertEquals(List.of("522", "523"), search(index, new JepSearchIndex.Query("", JepType.FEATURE, null, null, null, "gc")));
+        assertEquals(List.of(), search(index, query("unknown")));
+        assertEquals(JEPS.size(), search(index, query(null)).size());
+        assertEquals(List.of("508", "522"), index.search(query(null), 2).stream().map(JepView::number).toList());
+    }
+
+    @Test
+    void testIncrementalUpdates() {
+        JepSearchIndex index = JepSearchIndex.build(JEPS);
+        assertSame(index, index.update(JEPS), "Unchanged JEPs should keep the index");
+
+        List<JepView> jeps = new ArrayList<>(JEPS);
+        jeps.set(0, jep("508", TARGETED, "25", "core-libs", null, "Vector API (Tenth Incubator, Revised)"));
+        jeps.remove(4);
+        jeps.add(jep("531", CANDIDATE, null, "hotspot", "gc", "Lazy Constants for the GC"));
+        JepSearchIndex updated = index.update(jeps);
+        assertEquals(List.of("508"), search(updated, query("revised")));
+        assertEquals(List.of("522", "531"), search(updated, new JepSearchIndex.Query(null, null, null, null, "hotspot", "gc")));
+        assertEquals(jeps.size(), updated.size());
+        // The previous index is left untouched
+        assertEquals(List.of(), search(index, query("revised")));
+        assertEquals(List.of("522", "523"), search(index, new JepSearchIndex.Query(null, null, null, null, "hotspot", "gc")));
+    }
+
+    @Test
+    void testUpdatesMatchRebuild() {
+        Random random = new Random(42);
+        String[] words = {"vector", "preview", "gc", "api", "class", "file", "string", "templates"};
+        List<JepView> jeps = new ArrayList<>();
+        JepSearchIndex index = JepSearchIndex.build(jeps);
+        for (int round = 0; round < 50; round++) {
+            for (int i = 0; i < 20; i++) {
+                String number = String.valueOf(random.nextInt(200));
+                jeps.removeIf(jep -> jep.number().equals(number));
+                if (random.nextInt(4) > 0) {
+                    String title = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)];
+                    jeps.add(jep(number, random.nextBoolean() ? TARGETED : CANDIDATE, "26", "hotspot", null, title));
+                }
+            }
+            index = index.update(List.copyOf(jeps));
+            JepSearchIndex rebuilt = JepSearchIndex.build(List.copyOf(jeps));
+            for (String word : words) {
+                JepSearchIndex.Query query = new JepSearchIndex.Query(word, null, TARGETED, null, null, null);
+                assertEquals(search(rebuilt, query), search(index, query), "Round " + round + ", query " + word);
+            }
+        }
+    }
+
+    private static List<String> search(JepSearchIndex index, JepSearchIndex.Query query) {
+        return index.search(query, Integer.MAX_VALUE).stream().map(JepView::number).toList();
+    }
+
+    private static JepSearchIndex.Query query(String text) {
+        return new JepSearchIndex.Query(text, null, null, null, null, null);
+    }
+
+    private static JepView jep(String number, JepState state, String release, String component, String subComponent, String title) {
+        return new JepView(number, JepType.FEATURE.name(), state.name(), release, component, subComponent, title);
+    }
+}
@@ -0,0 +1,386 @@
+package fr.hardcoding.service;
+
+import fr.hardcoding.model.Jep;
+import fr.hardcoding.model.JepState;
+import fr.hardcoding.model.JepTransition;
+import fr.hardcoding.model.OutboxPost;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusMock;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.jsoup.Jsoup;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static fr.hardcoding.model.JepState.CANDIDATE;
+import static fr.hardcoding.model.JepState.CLOSED_DELIVERED;
+import static fr.hardcoding.model.JepState.DRAFTED;
+import static fr.hardcoding.model.JepState.TARGETED;
+import static fr.hardcoding.model.JepType.FEATURE;
+import static fr.hardcoding.service.JepService.parseJeps;
+import static fr.hardcoding.service.JepServiceTest.readTestResource;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+class JepServiceDatabaseTest {
+    @Inject
+    JepService jepService;
+    @Inject
+    EntityManagerFactory entityManagerFactory;
+    @Inject
+    JepCatalog catalog;
+    @Inject
+    JepChangeStream changeStream;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        QuarkusTransaction.requiringNew().run(() -> {
+            Jep.deleteAll();
+            JepTransition.deleteAll();
+            OutboxPost.deleteAll();
+        });
+        this.statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        this.statistics.clear();
+    }
+
+    @Test
+    void testStatementCountPerRun() throws IOException, URISyntaxException {
+        List<Jep> jeps = parseJeps(Jsoup.parse(readTestResource("/sample.html")));
+        long sequenceCalls = sequenceCalls();
+        this.statistics.clear();
+        runUpdate(jeps);
+        long queries = this.statistics.getQueryExecutionCount();
+        long statements = this.statistics.getPrepareStatementCount();
+        long inserted = this.statistics.getEntityInsertCount();
+        sequenceCalls = sequenceCalls() - sequenceCalls;
+        assertTrue(inserted > 100, "Failed to insert JEPs");
+        assertEquals(1, queries, "Known JEPs should be loaded with a single query");
+        // One select, one batched insert of the JEPs, the transitions and the outbox posts, and the id sequence calls
+        assertEquals(1 + 3 + sequenceCalls, statements, "Inserts should be batched");
+        // Ids are allocated by blocks of 50 per table, the previous tests may have left a block started
+        assertTrue(sequenceCalls <= (inserted + 3 * 49) / 50, "Ids should be allocated by blocks, got " + sequenceCalls + " sequence calls");
+
+        // Same page, nothing to write back
+        this.statistics.clear();
+        runUpdate(parseJeps(Jsoup.parse(readTestResource("/sample.html"))));
+        assertEquals(1, this.statistics.getQueryExecutionCount(), "Known JEPs should be loaded with a single query");
+        assertEquals(1, this.statistics.getPrepareStatementCount(), "No statement expected but the select");
+
+        // Change some states, updates are batched too
+        List<Jep> changedJeps = parseJeps(Jsoup.parse(readTestResource("/sample.html")));
+        int changed = 0;
+        for (Jep jep : changedJeps) {
+            if (jep.state == DRAFTED) {
+                jep.state = CANDIDATE;
+                changed++;
+            }
+        }
+        sequenceCalls = sequenceCalls();
+        this.statistics.clear();
+        runUpdate(changedJeps);
+        queries = this.statistics.getQueryExecutionCount();
+        statements = this.statistics.getPrepareStatementCount();
+        long updated = this.statistics.getEntityUpdateCount();
+        inserted = this.statistics.getEntityInsertCount();
+        sequenceCalls = sequenceCalls() - sequenceCalls;
+        assertTrue(changed > 1, "Sample should contain drafted JEPs");
+        assertEquals(changed, updated, "Failed to update JEPs");
+        assertEquals(1, queries, "Known JEPs should be loaded with a single query");
+        // One select, one batched update of the JEPs, one batched insert of the transitions and the outbox posts, and
+        // the id sequence calls
+        assertEquals(1 + 3 + sequenceCalls, statements, "Updates should be batched");
+        assertTrue(sequenceCalls <= (inserted + 2 * 49) / 50, "Ids should be allocated by blocks, got " + sequenceCalls + " sequence calls");
+    }
+
+    @Test
+    void testDetectDetailChanges() throws IOException, URISyntaxException {
+        List<Jep> jeps = parseJeps(Jsoup.parse(readTestResource("/sample.html")));
+        runUpdate(jeps);
+        long posts = countPosts();
+
+        List<Jep> changedJeps = new ArrayList<>(parseJeps(Jsoup.parse(readTestResource("/sample.html"))));
+        Jep retitled = findByState(changedJeps, DRAFTED, 0);
+        retitled.title = "New title";
+        Jep moved = findByState(changedJeps, DRAFTED, 1);
+        moved.component = "tools";
+        moved.subComponent = "jshell";
+        Jep retargeted = findByState(changedJeps, TARGETED, 0);
+        retargeted.release = "99";
+        Jep removed = findByState(changedJeps, DRAFTED, 2);
+        changedJeps.remove(removed);
+        runUpdate(changedJeps);
+
+        QuarkusTransaction.requiringNew().run(() -> {
+            assertEquals("New title", Jep.findByNumber(retitled.number).title);
+            assertEquals("tools", Jep.findByNumber(moved.number).component);
+            assertEquals("jshell", Jep.findByNumber(moved.number).subComponent);
+            assertEquals("99", Jep.findByNumber(retargeted.number).release);
+            assertNull(Jep.findByNumber(removed.number), "Removed JEP should be deleted");
+
+            List<JepTransition> retargetTransitions = JepTransition.findByJep(retargeted.number);
+            assertEquals(2, retargetTransitions.size(), "Retarget should be recorded");
+            assertEquals(TARGETED, retargetTransitions.getLast().fromState);
+            assertEquals(TARGETED, retargetTransitions.getLast().toState);
+            assertEquals("99", retargetTransitions.getLast().release);
+            assertNull(JepTransition.findByJep(removed.number).getLast().toState, "Removal should be recorded");
+            assertEquals(1, JepTransition.findByJep(retitled.number).size(), "Retitle should not be a transition");
+        });
+        assertEquals(posts + 1, countPosts(), "Only the retarget should be posted");
+    }
+
+    @Test
+    void testThreadReleaseDayChanges() {
+        List<Jep> jeps = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            jeps.add(jep(String.valueOf(500 + i), TARGETED, "Release day JEP " + i));
+        }
+        jeps.add(jep("600", CANDIDATE, "Single change"));
+        runUpdate(jeps);
+        QuarkusTransaction.requiringNew().run(() -> OutboxPost.deleteAll());
+
+        List<Jep> delivered = new ArrayList<>();
+        for (Jep jep : jeps.subList(0, 30)) {
+            delivered.add(jep(jep.number, CLOSED_DELIVERED, jep.title));
+        }
+        delivered.add(jep("600", TARGETED, "Single change"));
+        runUpdate(delivered);
+
+        List<OutboxPost> posts = QuarkusTransaction.requiringNew().call(() -> OutboxPost.<OutboxPost>list("order by id"));
+        assertTrue(posts.size() <= 8, "Release day changes should be threaded, got " + posts.size() + " posts");
+        OutboxPost root = posts.getFirst();
+        assertTrue(root.text.startsWith("📦 30 JEPs delivered to JDK 26"), "Unexpected thread root " + root.text);
+        assertNull(root.parentId);
+        String threadText = "";
+        for (OutboxPost post : posts.subList(1, posts.size() - 1)) {
+            assertEquals(root.id, post.rootId, "Replies should belong to the thread");
+            threadText += post.text + "\n";
+        }
+        for (int i = 0; i < 30; i++) {
+            assertTrue((root.text + "\n" + threadText).contains("• JEP " + (500 + i) + ": Release day JEP " + i + "\n"), "Thread should list JEP " + (500 + i));
+        }
+        OutboxPost single = posts.getLast();
+        assertEquals("600", single.jepNumber, "Small groups should be posted one by one");
+        assertNull(single.rootId);
+    }
+
+    @Test
+    void testEnrichSinglePostsOnly() {
+        List<Jep> jeps = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            jeps.add(jep(String.valueOf(500 + i), TARGETED, "Release day JEP " + i));
+        }
+        jeps.add(jep("600", CANDIDATE, "Single change"));
+        jeps.add(jep("601", CANDIDATE, "Retitled"));
+        assertEquals(List.of("600", "601"), this.jepService.numbersToEnrich(jeps), "Threaded JEPs should not be enriched");
+        runUpdate(jeps);
+
+        List<Jep> changed = new ArrayList<>();
+        for (Jep jep : jeps.subList(0, 30)) {
+            changed.add(jep(jep.number, CLOSED_DELIVERED, jep.title));
+        }
+        changed.add(jep("600", TARGETED, "Single change"));
+        changed.add(jep("601", CANDIDATE, "New title"));
+        assertEquals(List.of("600"), this.jepService.numbersToEnrich(changed), "Only the JEPs posted one by one should be enriched");
+    }
+
+    @Test
+    void testFilterPostsPerSink() {
+        JepFilter gcFilter = new JepFilter(Set.of(), Set.of(TARGETED), Set.of("hotspot/gc"), Set.of());
+        QuarkusMock.installMockForType(new OutboxPublisher(null, null, null, null) {
+            @Override
+            public Map<String, JepFilter> sinkFilters() {
+                Map<String, JepFilter> filters = new LinkedHashMap<>();
+                filters.put(BlueskySink.NAME, JepFilter.ANY);
+                filters.put("bluesky-gc", gcFilter);
+                filters.put("bluesky-security", new JepFilter(Set.of(), Set.of(), Set.of("security-libs"), Set.of()));
+                return filters;
+            }
+        }, OutboxPublisher.class);
+        List<Jep> jeps = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            jeps.add(jep(String.valueOf(500 + i), TARGETED, "Core JEP " + i));
+        }
+        Jep gc = jep("510", TARGETED, "GC JEP");
+        gc.component = "hotspot";
+        gc.subComponent = "gc";
+        jeps.add(gc);
+        runUpdate(jeps);
+
+        List<OutboxPost> posts = QuarkusTransaction.requiringNew().call(() -> OutboxPost.<OutboxPost>list("order by id"));
+        List<OutboxPost> gcPosts = posts.stream().filter(post -> post.sink.equals("bluesky-gc")).toList();
+        assertEquals(1, gcPosts.size(), "Only the matching JEP should be posted");
+        assertEquals("510", gcPosts.getFirst().jepNumber, "A single matching JEP should not be threaded");
+        assertTrue(posts.stream().filter(post -> post.sink.equals(BlueskySink.NAME)).allMatch(post -> post.jepNumber == null),
+                "All the JEPs should be threaded for an unfiltered sink");
+        assertTrue(posts.stream().noneMatch(post -> post.sink.equals("bluesky-security")), "Sinks with no matching JEP should get no post");
+    }
+
+    @Test
+    void testIgnoreMassRemoval() throws IOException, URISyntaxException {
+        List<Jep> jeps = parseJeps(Jsoup.parse(readTestResource("/sample.html")));
+        runUpdate(jeps);
+        long count = QuarkusTransaction.requiringNew().call(() -> Jep.count());
+        // Truncated page
+        runUpdate(jeps.subList(0, jeps.size() / 2));
+        assertEquals(count, QuarkusTransaction.requiringNew().call(() -> Jep.count()), "JEPs should not be removed");
+    }
+
+    @Test
+    void testParseChangedRowsOnly() throws IOException, URISyntaxException {
+        String sample = readTestResource("/sample.html");
+        AtomicReference<String> html = new AtomicReference<>(sample);
+        QuarkusMock.installMockForType(new JepPageFetcher(null, null) {
+            @Override
+            public Optional<Page> fetch() {
+                return Optional.of(new Page("https://openjdk.org/jeps/0", html.get().getBytes(UTF_8), UTF_8, null, null, new byte[0]));
+            }
+        }, JepPageFetcher.class);
+        this.jepService.checkJepUpdates();
+        long count = QuarkusTransaction.requiringNew().call(() -> Jep.count());
+
+        // Change a single row
+        Jep changed = findByState(parseJeps(Jsoup.parse(sample)), TARGETED, 0);
+        html.set(sample.replace(changed.title, "New title"));
+        this.statistics.clear();
+        this.jepService.checkJepUpdates();
+        assertEquals(1, this.statistics.getEntityUpdateCount(), "Only the changed row should be updated");
+        assertEquals(count, QuarkusTransaction.requiringNew().call(() -> Jep.count()), "Unchanged rows should not be removed");
+        assertEquals("New title", QuarkusTransaction.requiringNew().call(() -> Jep.findByNumber(changed.number).title));
+    }
+
+    @Test
+    void testKeepJepsFailingToParse() throws IOException, URISyntaxException {
+        String sample = readTestResource("/sample.html");
+        AtomicReference<String> html = new AtomicReference<>(sample);
+        QuarkusMock.installMockForType(new JepPageFetcher(null, null) {
+            @Override
+            public Optional<Page> fetch() {
+                return Optional.of(new Page("https://openjdk.org/jeps/0", html.get().getBytes(UTF_8), UTF_8, null, null, new byte[0]));
+            }
+        }, JepPageFetcher.class);
+        this.jepService.checkJepUpdates();
+        long count = QuarkusTransaction.requiringNew().call(() -> Jep.count());
+        long transitions = QuarkusTransaction.requiringNew().call(() -> JepTransition.count());
+
+        // The row of a known JEP changes to an unknown state
+        html.set(sample.replaceFirst(">Clo</span>(</td>(?:(?!</tr>).)*?<td class=\"jep\">482<)", ">Xyz</span>$1"));
+        assertNotEquals(sample, html.get(), "Sample should contain JEP 482");
+        this.jepService.checkJepUpdates();
+        assertEquals(count, QuarkusTransaction.requiringNew().call(() -> Jep.count()), "A JEP failing to parse should not be removed");
+        assertEquals(CLOSED_DELIVERED, QuarkusTransaction.requiringNew().call(() -> Jep.findByNumber("482").state));
+        assertEquals(transitions, QuarkusTransaction.requiringNew().call(() -> JepTransition.count()), "No transition expected");
+    }
+
+    @Test
+    void testLoadChangedJepsOnly(@TempDir Path directory) throws IOException, URISyntaxException {
+        runUpdate(parseJeps(Jsoup.parse(readTestResource("/sample.html"))));
+        Path file = directory.resolve("jeps.snapshot");
+        JepTableSnapshot.write(file, QuarkusTransaction.requiringNew().call(() -> Jep.<Jep>listAll()));
+        JepTableSnapshot table = JepTableSnapshot.open(file);
+        QuarkusMock.installMockForType(new JepTableStore() {
+            @Override
+            public JepTableSnapshot current() {
+                return table;
+            }
+        }, JepTableStore.class);
+
+        List<Jep> jeps = parseJeps(Jsoup.parse(readTestResource("/sample.html")));
+        Jep retargeted = findByState(jeps, TARGETED, 0);
+        retargeted.release = "99";
+        Jep removed = findByState(jeps, DRAFTED, 0);
+        Set<Long> unchangedRows = new HashSet<>();
+        for (Jep jep : jeps) {
+            if (jep != retargeted && jep != removed) {
+                unchangedRows.add(jep.fingerprint);
+            }
+        }
+        this.statistics.clear();
+        QuarkusTransaction.requiringNew().run(() -> this.jepService.updateJeps(List.of(retargeted), unchangedRows, Set.of()));
+        assertEquals(2, this.statistics.getEntityLoadCount(), "Only the changed and removed JEPs should be loaded");
+        QuarkusTransaction.requiringNew().run(() -> {
+            assertEquals("99", Jep.findByNumber(retargeted.number).release);
+            assertNull(Jep.findByNumber(removed.number), "Removed JEP should be deleted");
+        });
+    }
+
+    @Test
+    void testFollowUpdates() {
+        this.jepService.followUpdates(true);
+        long head = this.changeStream.head();
+        // Committed by the leader
+        QuarkusTransaction.requiringNew().run(() -> {
+            Jep jep = jep("470", TARGETED, "PEM Encodings of Cryptographic Objects");
+            jep.persist();
+            JepTransition.create(jep, CANDIDATE, Instant.now()).persist();
+        });
+        assertEquals(0, this.catalog.snapshot().size());
+
+        assertEquals(1, this.jepService.followUpdates(false));
+        assertEquals(1, this.catalog.snapshot().size(), "The catalog should be refreshed with the followed updates");
+        assertEquals(head + 1, this.changeStream.head(), "The followed transitions should be streamed");
+        assertEquals(0, this.jepService.followUpdates(false), "Transitions should be followed once");
+
+        // Own updates are not followed
+        runUpdate(List.of(jep("470", TARGETED, "PEM Encodings of Cryptographic Objects"), jep("471", CANDIDATE, "JEP 471")));
+        assertEquals(0, this.jepService.followUpdates(false));
+    }
+
+    private static Jep findByState(List<Jep> jeps, JepState state, int index) {
+        return jeps.stream()
+                .filter(jep -> jep.state == state && jep.number != null)
+                .skip(index)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static Jep jep(String number, JepState state, String title) {
+        Jep jep = new Jep();
+        jep.type = FEATURE;
+        jep.state = state;
+        jep.release = state == CANDIDATE ? null : "26";
+        jep.component = "core";
+        jep.number = number;
+        jep.title = title;
+        return jep;
+    }
+
+    /**
+     * Counts the calls to the id sequences so far, each one allocating a block of ids.
+     */
+    private static long sequenceCalls() {
+        return QuarkusTransaction.requiringNew().call(() -> ((Number) Jep.getEntityManager()
+                .createNativeQuery("select coalesce(sum((base_value - start_value) / increment), 0) from information_schema.sequences")
+                .getSingleResult()).longValue());
+    }
+
+    private static long countPosts() {
+        return QuarkusTransaction.requiringNew().call(() -> OutboxPost.count());
+    }
+
+    private void runUpdate(List<Jep> jeps) {
+        QuarkusTransaction.requiringNew().run(() -> this.jepService.updateJeps(jeps));
+    }
+}
@@ -17,8 +17,10 @@ import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Stream;
 
 import static fr.hardcoding.model.JepState.TARGETED;
@@ -187,6 +189,52 @@ class JepServiceTest {
         assertEquals(489, jeps.size(), "Failed to parse all JEPs");
     }
 
+    @Test
+    void testFormatWithDetails() {
+        Jep jep = new Jep();
+        jep.type = FEATURE;
+        jep.state = TARGETED;
+        jep.release = "25";
+        jep.component = "security";
+        jep.number = "470";
+        jep.title = "PEM Encodings of Cryptographic Objects (Preview)";
+        String summary = "Introduce an API for encoding objects that represent cryptographic keys, certificates, and " +
+                "certificate revocation lists into the widely-used Privacy-Enhanced Mail (PEM) transport format, and for " +
+                "decoding from that format back into objects.";
+        String text = JepService.formatJepUpdate(jep, new JepDetails("470", "Anthony Scarpino", summary, null, null));
+
+        assertTrue(text.contains("\nOwner: Anthony Scarpino\n"), "Post should contain the owner");
+        assertTrue(text.contains("\nIntroduce an API for encoding objects"), "Post should contain the summary");
+        assertTrue(text.contains("…\nSee openjdk.org/jeps/470"), "Summary should be truncated");
+        assertTrue(text.codePointCount(0, text.length()) <= 300, "Post should fit in the length limit");
+        assertEquals(JepService.formatJepUpdate(jep), JepService.formatJepUpdate(jep, null));
+    }
+
+    @Test
+    void testRowFingerprint() {
+        long fingerprint = JepService.fingerprint("F", "Tar", "25", "security", "crypto", "470", "PEM Encodings");
+        assertEquals(fingerprint, JepService.fingerprint("F", "Tar", "25", "security", "crypto", "470", "PEM Encodings"));
+        assertTrue(fingerprint != JepService.fingerprint("F", "Int", "25", "security", "crypto", "470", "PEM Encodings"), "State change should change the fingerprint");
+        assertTrue(fingerprint != JepService.fingerprint("F", "Tar", "25", "security", "crypto", "470", "PEM encodings"), "Title change should change the fingerprint");
+        assertTrue(fingerprint != JepService.fingerprint("F", "Tar", "25", "securit", "ycrypto", "470", "PEM Encodings"), "Text moved to another cell should change the fingerprint");
+    }
+
+    @Test
+    void testParseChangedRowsOnly() throws IOException, URISyntaxException {
+        Document document = Jsoup.parse(readTestResource("/sample.html"));
+        List<Jep> jeps = parseJeps(document);
+        Set<Long> known = new HashSet<>();
+        for (Jep jep : jeps) {
+            known.add(jep.fingerprint);
+        }
+        known.remove(jeps.get(10).fingerprint);
+
+        List<Jep> changed = JepService.parseJeps(document, fingerprint -> !known.contains(fingerprint), number -> {
+        });
+        assertEquals(1, changed.size(), "Only the unknown row should be parsed");
+        assertEquals(jeps.get(10).toString(), changed.getFirst().toString());
+    }
+
     private static String createHtmlTable(String rows) {
         return """
                 <html>
@@ -199,7 +247,7 @@ class JepServiceTest {
                 """.formatted(rows);
     }
 
-    private static String readTestResource(String resource) throws IOException, URISyntaxException {
+    static String readTestResource(String resource) throws IOException, URISyntaxException {
         URI uri = Objects.requireNonNull(JepServiceTest.class.getResource(resource), "Invalid resource").toURI();
         return Files.readString(Path.of(uri), StandardCharsets.ISO_8859_1);
     }
@@ -0,0 +1,112 @@
+package fr.hardcoding.service;
+
+import fr.hardcoding.model.JepState;
+import fr.hardcoding.model.JepTransition;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static fr.hardcoding.model.JepState.CANDIDATE;
+import static fr.hardcoding.model.JepState.DRAFTED;
+import static fr.hardcoding.model.JepState.TARGETED;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JepStateTableTest {
+    @Test
+    void testApply() {
+        JepStateTable table = JepStateTable.empty();
+        table.apply(transition("470", DRAFTED, null));
+        table.apply(transition("471", CANDIDATE, null));
+        table.apply(transition("470", TARGETED, "25"));
+
+        assertEquals(2, table.size());
+        assertEquals(TARGETED, table.stateOf("470"));
+        assertEquals("25", table.releaseOf("470"));
+        assertEquals(CANDIDATE, table.stateOf("471"));
+        assertNull(table.releaseOf("471"));
+        assertNull(table.stateOf("472"), "Unknown JEP should have no state");
+        assertEquals(List.of("470", "471"), List.copyOf(table.states().keySet()));
+    }
+
+    @Test
+    void testEncodeDecode() {
+        Random random = new Random(42);
+        JepState[] states = JepState.values();
+        JepStateTable table = JepStateTable.empty();
+        Map<String, JepState> expectedStates = new HashMap<>();
+        Map<String, String> expectedReleases = new HashMap<>();
+        for (int i = 0; i < 5000; i++) {
+            String number = String.valueOf(random.nextInt(3000));
+            JepState state = states[random.nextInt(states.length)];
+            String release = random.nextBoolean() ? null : String.valueOf(8 + random.nextInt(20));
+            table.apply(transition(number, state, release));
+            expectedStates.put(number, state);
+            expectedReleases.put(number, release);
+        }
+
+        byte[] data = table.encode();
+        JepStateTable decoded = JepStateTable.decode(data);
+        assertEquals(expectedStates, decoded.states());
+        for (String number : expectedStates.keySet()) {
+            assertEquals(expectedReleases.get(number), decoded.releaseOf(number), "Wrong release for JEP " + number);
+        }
+        assertTrue(data.length < table.size() * 6, "Snapshot should be compact, got " + data.length + " bytes");
+        // Decoded table can still be updated
+        decoded.apply(transition("5000", DRAFTED, null));
+        assertEquals(table.size() + 1, decoded.size());
+    }
+
+    @Test
+    void testRemove() {
+        JepStateTable table = JepStateTable.empty();
+        table.apply(transition("470", DRAFTED, null));
+        table.apply(transition("471", CANDIDATE, null));
+        table.apply(transition("470", null, null));
+        assertEquals(1, table.size());
+        assertNull(table.stateOf("470"), "Removed JEP should have no state");
+        assertEquals(Map.of("471", CANDIDATE), table.states());
+
+        JepStateTable decoded = JepStateTable.decode(table.encode());
+        assertEquals(1, decoded.size());
+        // Removed JEP added back
+        decoded.apply(transition("470", CANDIDATE, null));
+        assertEquals(2, decoded.size());
+        assertEquals(CANDIDATE, decoded.stateOf("470"));
+    }
+
+    @Test
+    void testEncodeEmpty() {
+        assertEquals(0, JepStateTable.decode(JepStateTable.empty().encode()).size());
+    }
+
+    static List<JepTransition> generateTransitions(int count, int jeps, Random random) {
+        JepState[] states = JepState.values();
+        List<JepTransition> transitions = new ArrayList<>(count);
+        Instant time = Instant.parse("2014-01-01T00:00:00Z");
+        for (int i = 0; i < count; i++) {
+            JepTransition transition = transition(
+                    String.valueOf(random.nextInt(jeps)),
+                    states[random.nextInt(states.length)],
+                    String.valueOf(8 + random.nextInt(20)));
+            time = time.plusSeconds(random.nextInt(600));
+            transition.occurredAt = time;
+            transitions.add(transition);
+        }
+        return transitions;
+    }
+
+    private static JepTransition transition(String number, JepState state, String release) {
+        JepTransition transition = new JepTransition();
+        transition.jepNumber = number;
+        transition.toState = state;
+        transition.release = release;
+        return transition;
+    }
+}
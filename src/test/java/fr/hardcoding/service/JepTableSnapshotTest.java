@@ -0,0 +1,103 @@
+package fr.hardcoding.service;
+
+import fr.hardcoding.model.Jep;
+import org.jsoup.Jsoup;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static fr.hardcoding.service.JepServiceTest.readTestResource;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JepTableSnapshotTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void testWriteAndMap() throws IOException, URISyntaxException {
+        List<Jep> jeps = sampleJeps();
+        Path file = this.directory.resolve("db/jeps.snapshot");
+        JepTableSnapshot.write(file, jeps);
+        JepTableSnapshot snapshot = JepTableSnapshot.open(file);
+
+        assertEquals(jeps.size(), snapshot.size());
+        Map<String, Jep> byNumber = new HashMap<>();
+        for (Jep jep : jeps) {
+            byNumber.put(jep.number, jep);
+        }
+        for (int i = 0; i < snapshot.size(); i++) {
+            Jep expected = byNumber.get(snapshot.number(i));
+            Jep actual = snapshot.jep(i);
+            assertEquals(expected.toString(), actual.toString());
+            assertEquals(expected.fingerprint, actual.fingerprint);
+            assertTrue(snapshot.containsFingerprint(expected.fingerprint), "Row of JEP " + expected.number + " should be known");
+        }
+        assertFalse(snapshot.containsFingerprint(42), "Unknown row");
+        // Compact, about the size of the titles
+        assertTrue(Files.size(file) < jeps.size() * 80L, "Snapshot too large: " + Files.size(file));
+    }
+
+    @Test
+    void testContainsOnly() throws IOException, URISyntaxException {
+        List<Jep> jeps = sampleJeps();
+        JepTableSnapshot snapshot = JepTableSnapshot.of(ByteBuffer.wrap(JepTableSnapshot.encode(jeps)));
+        Set<Long> fingerprints = new HashSet<>();
+        for (Jep jep : jeps) {
+            fingerprints.add(jep.fingerprint);
+        }
+        assertTrue(snapshot.containsOnly(fingerprints));
+        fingerprints.remove(jeps.get(10).fingerprint);
+        assertFalse(snapshot.containsOnly(fingerprints), "A removed row should be detected");
+    }
+
+    @Test
+    void testEmptyAndNullFields() throws IOException {
+        JepTableSnapshot empty = JepTableSnapshot.of(ByteBuffer.wrap(JepTableSnapshot.encode(List.of())));
+        assertEquals(0, empty.size());
+        assertFalse(empty.containsFingerprint(0));
+
+        Jep jep = JepService.createJep("F", "Dra", "", "", "", "8", "");
+        JepTableSnapshot snapshot = JepTableSnapshot.of(ByteBuffer.wrap(JepTableSnapshot.encode(List.of(jep))));
+        assertEquals("8", snapshot.number(0));
+        assertNull(snapshot.release(0));
+        assertNull(snapshot.component(0));
+        assertNull(snapshot.title(0));
+        assertFalse(snapshot.containsFingerprint(1), "JEPs without fingerprint never match a row");
+    }
+
+    @Test
+    void testInvalidSnapshot() throws IOException, URISyntaxException {
+        byte[] encoded = JepTableSnapshot.encode(sampleJeps());
+        assertThrows(IOException.class, () -> JepTableSnapshot.of(ByteBuffer.wrap(new byte[8])));
+        assertThrows(IOException.class, () -> JepTableSnapshot.of(ByteBuffer.wrap(Arrays.copyOf(encoded, encoded.length / 2))));
+        byte[] otherVersion = encoded.clone();
+        otherVersion[7] = 2;
+        assertThrows(IOException.class, () -> JepTableSnapshot.of(ByteBuffer.wrap(otherVersion)));
+    }
+
+    private static List<Jep> sampleJeps() throws IOException, URISyntaxException {
+        // Keep a single JEP per number, as in the database
+        Map<String, Jep> jeps = new HashMap<>();
+        for (Jep jep : JepService.parseJeps(Jsoup.parse(readTestResource("/sample.html")))) {
+            if (jep.number != null) {
+                jeps.put(jep.number, jep);
+            }
+        }
+        return List.copyOf(jeps.values());
+    }
+}
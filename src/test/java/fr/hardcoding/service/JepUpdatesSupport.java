@@ -0,0 +1,25 @@
+package fr.hardcoding.service;
+
+import fr.hardcoding.model.Jep;
+
+import java.util.List;
+
+/**
+ * Applies parsed JEPs for the tests of the other packages, as {@link JepService#updateJeps(List)} is internal to the
+ * update checks.
+ */
+public final class JepUpdatesSupport {
+    private JepUpdatesSupport() {
+    }
+
+    /**
+     * Applies the JEPs of a whole page to the known ones.
+     *
+     * @param service     The JEP service
+     * @param currentJeps The JEPs of all the page rows
+     * @return The number of new, changed and removed JEPs
+     */
+    public static int updateJeps(JepService service, List<Jep> currentJeps) {
+        return service.updateJeps(currentJeps);
+    }
+}
@@ -0,0 +1,301 @@
+package fr.hardcoding.service;
+
+import com.sun.net.httpserver.HttpServer;
+import org.h2.jdbcx.JdbcDataSource;
+import org.h2.tools.Server;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LeaderLeaseTest {
+    private static final Duration LEASE_DURATION = Duration.ofSeconds(3);
+    private static final Duration RENEW_INTERVAL = Duration.ofMillis(500);
+
+    private static final int QUEUED_POSTS = 1000;
+
+    private Server database;
+    private String url;
+    private HttpServer server;
+    // Posts received by the stub sink, in order
+    private final List<Post> posts = new CopyOnWriteArrayList<>();
+    private final List<Process> instances = new ArrayList<>();
+    // The instance whose next post is held by the stub sink, until released
+    private volatile String held;
+    private final CountDownLatch holding = new CountDownLatch(1);
+    private final CountDownLatch released = new CountDownLatch(1);
+
+    private record Post(String instance, int number, long receivedAt) {
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        this.database = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+        this.url = "jdbc:h2:tcp://localhost:" + this.database.getPort() + "/mem:leases-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1";
+        try (Connection connection = dataSource(this.url).getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE outbox (number INT PRIMARY KEY, posted BOOLEAN NOT NULL)");
+            statement.execute("INSERT INTO outbox SELECT x, FALSE FROM SYSTEM_RANGE(1, " + QUEUED_POSTS + ")");
+        }
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        this.server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        this.server.createContext("/posts", exchange -> {
+            String[] post = new String(exchange.getRequestBody().readAllBytes(), UTF_8).split(" ");
+            this.posts.add(new Post(post[0], Integer.parseInt(post[1]), System.nanoTime()));
+            // Held at the start of a batch, so the leader has more posts to send when it resumes
+            if (post[0].equals(this.held) && post[2].equals("0") && this.holding.getCount() > 0) {
+                this.holding.countDown();
+                try {
+                    this.released.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        this.server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.released.countDown();
+        for (Process instance : this.instances) {
+            instance.destroyForcibly();
+        }
+        this.server.stop(0);
+        this.database.stop();
+    }
+
+    @Test
+    void testRenewAndTakeOver() {
+        MutableClock clock = new MutableClock(Instant.parse("2025-12-04T08:00:00Z"));
+        JdbcDataSource dataSource = dataSource("jdbc:h2:mem:leases-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        LeaderLease leader = new LeaderLease(dataSource, true, "leader", LEASE_DURATION, clock);
+        LeaderLease standby = new LeaderLease(dataSource, true, "standby", LEASE_DURATION, clock);
+        assertFalse(leader.isLeader());
+        assertTrue(leader.renew());
+        assertFalse(standby.renew());
+        assertTrue(leader.isLeader());
+        assertFalse(standby.isLeader());
+
+        // Renewed before expiring
+        clock.advance(Duration.ofSeconds(2));
+        assertTrue(leader.renew());
+        clock.advance(Duration.ofSeconds(2));
+        assertFalse(standby.renew(), "A renewed lease should not be taken over");
+        assertTrue(leader.isLeader());
+
+        // The leader stalls, its lease expires
+        clock.advance(LEASE_DURATION);
+        assertFalse(leader.isLeader(), "A leader should step down once its lease expires");
+        assertTrue(standby.renew(), "A standby should take an expired lease over");
+        assertFalse(leader.renew(), "A former leader should not get its lease back");
+        assertThrows(IllegalStateException.class, leader::fence, "Updates of a former leader should be fenced");
+        standby.fence();
+
+        // Released on shutdown, taken over right away
+        standby.release();
+        assertFalse(standby.isLeader());
+        assertTrue(leader.renew());
+    }
+
+    @Test
+    @Timeout(60)
+    void testFailover() throws Exception {
+        String postsUrl = "http://localhost:" + this.server.getAddress().getPort() + "/posts";
+        Process first = start(postsUrl, "first");
+        Process second = start(postsUrl, "second");
+
+        awaitPosts(5);
+        String leader = this.posts.getFirst().instance();
+        Process stalled = leader.equals("first") ? first : second;
+        // The leader stalls while sending a post, like in a long GC pause, and its lease expires
+        this.held = leader;
+        assertTrue(this.holding.await(10, TimeUnit.SECONDS), "The leader should keep posting");
+        signal(stalled, "STOP");
+        long stalledAt = System.nanoTime();
+        int heldNumber = this.posts.getLast().number();
+        this.released.countDown();
+        int postsBeforeStall = this.posts.size();
+
+        awaitPosts(postsBeforeStall + 5);
+        // The former leader resumes, with the rest of its batch to post
+        signal(stalled, "CONT");
+        Thread.sleep(RENEW_INTERVAL.multipliedBy(4).toMillis());
+        awaitPosts(this.posts.size() + 5);
+        List<Post> received = List.copyOf(this.posts);
+        Post firstOfStandby = received.stream().filter(post -> !post.instance().equals(leader)).findFirst().orElseThrow();
+        Duration failover = Duration.ofNanos(firstOfStandby.receivedAt() - stalledAt);
+        System.out.printf("Failover in %d ms, lease %s renewed every %s%n", failover.toMillis(), LEASE_DURATION, RENEW_INTERVAL);
+        assertTrue(failover.compareTo(LEASE_DURATION.plus(RENEW_INTERVAL).plusSeconds(2)) < 0,
+                "The standby should take over within the lease duration, took " + failover);
+
+        // Only one instance posted at a time, the standby only after the leader stalled, and never the leader again
+        String previous = null;
+        int switches = 0;
+        for (Post post : received) {
+            if (previous != null && !previous.equals(post.instance())) {
+                switches++;
+                assertTrue(post.receivedAt() > stalledAt, "The standby should not post while the leader is alive");
+            }
+            previous = post.instance();
+        }
+        assertEquals(1, switches, "The leadership should move once");
+        assertNotEquals(leader, received.getLast().instance());
+
+        // Each post is sent once, but the one in flight when the leader stalled, sent again by the new leader
+        assertEquals(heldNumber, firstOfStandby.number(), "The post in flight should be retried");
+        Set<Integer> numbers = new HashSet<>();
+        for (Post post : received) {
+            assertTrue(numbers.add(post.number()) || post == firstOfStandby, "Post " + post.number() + " posted twice");
+        }
+        assertEquals(received.size() - 1, numbers.size());
+        assertEquals(numbers.size(), received.stream().mapToInt(Post::number).max().orElseThrow(), "No post should be skipped");
+    }
+
+    private Process start(String postsUrl, String instance) throws IOException {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                Instance.class.getName(), this.url, postsUrl, instance)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        this.instances.add(process);
+        return process;
+    }
+
+    private static void signal(Process process, String signal) throws Exception {
+        assertEquals(0, new ProcessBuilder("kill", "-" + signal, Long.toString(process.pid())).start().waitFor());
+    }
+
+    private void awaitPosts(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (this.posts.size() < count) {
+            assertTrue(System.nanoTime() < deadline, "Expected " + count + " posts, got " + this.posts.size());
+            Thread.sleep(50);
+        }
+    }
+
+    private static JdbcDataSource dataSource(String url) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL(url);
+        dataSource.setUser("sa");
+        dataSource.setPassword("password");
+        return dataSource;
+    }
+
+    /**
+     * An instance renewing the lease, and publishing the posts of a shared outbox table while the leader.
+     */
+    static class Instance {
+        private static final int BATCH_SIZE = 3;
+
+        public static void main(String[] args) throws Exception {
+            JdbcDataSource dataSource = dataSource(args[0]);
+            String instance = args[2];
+            LeaderLease lease = new LeaderLease(dataSource, true, instance, LEASE_DURATION, Clock.systemUTC());
+            try (HttpClient client = HttpClient.newHttpClient()) {
+                while (true) {
+                    lease.renew();
+                    if (lease.isLeader()) {
+                        publish(dataSource, client, URI.create(args[1]), instance, lease);
+                    }
+                    Thread.sleep(RENEW_INTERVAL.toMillis());
+                }
+            }
+        }
+
+        /**
+         * Publishes a batch of posts like the {@link OutboxPublisher}: the leadership is checked once for the batch,
+         * then each post is claimed and marked as posted in transactions fenced by the lease.
+         */
+        private static void publish(JdbcDataSource dataSource, HttpClient client, URI postsUri, String instance,
+                                    LeaderLease lease) throws Exception {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(false);
+                for (int i = 0; i < BATCH_SIZE; i++) {
+                    int number;
+                    try (Statement statement = connection.createStatement()) {
+                        lease.fence(connection);
+                        try (ResultSet result = statement.executeQuery("SELECT MIN(number) FROM outbox WHERE NOT posted")) {
+                            result.next();
+                            number = result.getInt(1);
+                        }
+                        connection.commit();
+                    } catch (IllegalStateException e) {
+                        connection.rollback();
+                        return;
+                    }
+                    client.send(HttpRequest.newBuilder(postsUri).POST(HttpRequest.BodyPublishers.ofString(instance + " " + number + " " + i)).build(),
+                            HttpResponse.BodyHandlers.discarding());
+                    try (Statement statement = connection.createStatement()) {
+                        lease.fence(connection);
+                        statement.execute("UPDATE outbox SET posted = TRUE WHERE number = " + number);
+                        connection.commit();
+                    } catch (IllegalStateException e) {
+                        connection.rollback();
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            this.instant = this.instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return this.instant;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package fr.hardcoding.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.hardcoding.model.OutboxPost;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static fr.hardcoding.model.JepState.TARGETED;
+import static fr.hardcoding.service.StubServer.respond;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class MastodonSinkTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private StubServer server;
+    private final List<JsonNode> statuses = new CopyOnWriteArrayList<>();
+    private final List<String> idempotencyKeys = new CopyOnWriteArrayList<>();
+    private final AtomicInteger status = new AtomicInteger(200);
+    private MastodonSink sink;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        this.server = new StubServer().handle("/api/v1/statuses", exchange -> {
+            if (!"Bearer token".equals(exchange.getRequestHeaders().getFirst("Authorization"))) {
+                respond(exchange, 401);
+                return;
+            }
+            this.statuses.add(MAPPER.readTree(exchange.getRequestBody()));
+            this.idempotencyKeys.add(exchange.getRequestHeaders().getFirst("Idempotency-Key"));
+            respond(exchange, this.status.get(), "{\"id\":\"1\"}");
+        }).start();
+        this.sink = new MastodonSink(this.server.httpClients());
+        this.sink.url = this.server.url();
+        this.sink.accessToken = "token";
+        this.sink.visibility = "unlisted";
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.server.close();
+    }
+
+    @Test
+    void testPublish() {
+        assertEquals("1", this.sink.publish(post(42), null), "Failed to publish status");
+        assertEquals(1, this.statuses.size());
+        JsonNode status = this.statuses.getFirst();
+        assertEquals("🎯 JEP 470 proposed to target JDK 25", status.get("status").asText());
+        assertEquals("unlisted", status.get("visibility").asText());
+        assertEquals("jep-outbox-42", this.idempotencyKeys.getFirst(), "Status should be sent with an idempotency key");
+    }
+
+    @Test
+    void testFailure() {
+        this.status.set(500);
+        assertNull(this.sink.publish(post(42), null), "Server error should fail the post");
+        this.sink.accessToken = "invalid";
+        this.status.set(200);
+        assertNull(this.sink.publish(post(42), null), "Unauthorized post should fail");
+    }
+
+    static OutboxPost post(long id) {
+        OutboxPost post = new OutboxPost();
+        post.id = id;
+        post.jepNumber = "470";
+        post.state = TARGETED;
+        post.text = "🎯 JEP 470 proposed to target JDK 25";
+        post.createdAt = Instant.parse("2025-06-05T10:15:30Z");
+        return post;
+    }
+}
@@ -0,0 +1,299 @@
+package fr.hardcoding.service;
+
+import fr.hardcoding.model.Jep;
+import fr.hardcoding.model.OutboxPost;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusMock;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import static fr.hardcoding.model.JepState.CLOSED_DELIVERED;
+import static fr.hardcoding.model.JepType.FEATURE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+class OutboxPublisherTest {
+    @Inject
+    OutboxPublisher publisher;
+
+    private final Set<String> posted = ConcurrentHashMap.newKeySet();
+    private final Map<String, BlueskyJson.Reply> replies = new ConcurrentHashMap<>();
+    private final AtomicInteger failures = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        QuarkusTransaction.requiringNew().run(() -> OutboxPost.deleteAll());
+        QuarkusMock.installMockForType(new BlueskyService(null) {
+            @Override
+            public BlueskyJson.StrongRef postUpdate(Account account, String text, BlueskyJson.Reply reply, String rkey) {
+                if (failures.getAndDecrement() > 0 || !posted.add(text)) {
+                    return null;
+                }
+                if (reply != null) {
+                    replies.put(text, reply);
+                }
+                return new BlueskyJson.StrongRef("at://did:plc:test/app.bsky.feed.post/" + text.hashCode(), "cid-" + text.hashCode());
+            }
+        }, BlueskyService.class);
+    }
+
+    @Test
+    void testPublishBurst() {
+        List<Long> ids = enqueue(40);
+        this.publisher.publishPending();
+
+        assertEquals(40, this.posted.size(), "Failed to publish all posts");
+        for (long id : ids) {
+            assertNotNull(findPost(id).postedAt, "Post should be marked as posted");
+        }
+        // Nothing left to publish
+        this.publisher.publishPending();
+        assertEquals(40, this.posted.size(), "Posts should be published only once");
+    }
+
+    @Test
+    void testRetryFailedPost() {
+        long id = enqueue(1).getFirst();
+        this.failures.set(1);
+        this.publisher.publishPending();
+
+        OutboxPost post = findPost(id);
+        assertNull(post.postedAt, "Failed post should not be marked as posted");
+        assertEquals(1, post.attempts);
+        assertTrue(post.nextAttemptAt.isAfter(Instant.now()), "Failed post should be retried later");
+        // Not retried before its backoff
+        this.publisher.publishPending();
+        assertTrue(this.posted.isEmpty());
+        // Retried after its backoff
+        QuarkusTransaction.requiringNew().run(() -> OutboxPost.update("nextAttemptAt = ?1 where id = ?2", Instant.now(), id));
+        this.publisher.publishPending();
+        assertEquals(1, this.posted.size(), "Failed to retry post");
+        assertEquals(2, findPost(id).attempts);
+    }
+
+    @Test
+    void testPublishThread() {
+        List<Long> ids = QuarkusTransaction.requiringNew().call(() -> {
+            List<Long> thread = new ArrayList<>();
+            OutboxPost parent = OutboxPost.createThread(CLOSED_DELIVERED, "24", "Root", BlueskySink.NAME, Instant.now());
+            parent.persist();
+            thread.add(parent.id);
+            for (int i = 1; i <= 3; i++) {
+                OutboxPost reply = OutboxPost.reply(parent, "Reply " + i);
+                reply.persist();
+                thread.add(reply.id);
+                parent = reply;
+            }
+            return thread;
+        });
+        this.publisher.publishPending();
+
+        assertEquals(4, this.posted.size(), "Whole thread should be published");
+        String root = findPost(ids.getFirst()).ref;
+        assertEquals(BlueskySink.fromRef(root), this.replies.get("Reply 1").root());
+        assertEquals(BlueskySink.fromRef(root), this.replies.get("Reply 1").parent());
+        assertEquals(BlueskySink.fromRef(root), this.replies.get("Reply 3").root(), "Replies should reference the thread root");
+        assertEquals(BlueskySink.fromRef(findPost(ids.get(2)).ref), this.replies.get("Reply 3").parent(), "Replies should reference their parent");
+    }
+
+    @Test
+    void testWaitForParent() {
+        long rootId = QuarkusTransaction.requiringNew().call(() -> {
+            OutboxPost root = OutboxPost.createThread(CLOSED_DELIVERED, "25", "Root", BlueskySink.NAME, Instant.now());
+            root.persist();
+            OutboxPost.reply(root, "Reply").persist();
+            return root.id;
+        });
+        this.failures.set(1);
+        this.publisher.publishPending();
+        assertTrue(this.posted.isEmpty(), "Reply should not be published before its parent");
+        // Retried after its backoff
+        QuarkusTransaction.requiringNew().run(() -> OutboxPost.update("nextAttemptAt = ?1 where id = ?2", Instant.now(), rootId));
+        this.publisher.publishPending();
+        assertEquals(Set.of("Root", "Reply"), this.posted);
+    }
+
+    @Test
+    void testGiveUpThread() {
+        List<Long> ids = QuarkusTransaction.requiringNew().call(() -> {
+            OutboxPost root = OutboxPost.createThread(CLOSED_DELIVERED, "26", "Root", BlueskySink.NAME, Instant.now());
+            root.attempts = 7;
+            root.persist();
+            OutboxPost first = OutboxPost.reply(root, "Reply 1");
+            first.persist();
+            OutboxPost second = OutboxPost.reply(first, "Reply 2");
+            second.persist();
+            return List.of(root.id, first.id, second.id);
+        });
+        this.failures.set(1);
+        this.publisher.publishPending();
+
+        assertEquals(8, findPost(ids.getFirst()).attempts);
+        assertEquals(8, findPost(ids.get(1)).attempts, "Replies should be given up with their parent");
+        assertEquals(8, findPost(ids.get(2)).attempts, "Later replies should be given up with their parent");
+        QuarkusTransaction.requiringNew().run(() -> OutboxPost.update("nextAttemptAt = ?1", Instant.now()));
+        this.publisher.publishPending();
+        assertTrue(this.posted.isEmpty());
+    }
+
+    @Test
+    void testRecordFailure() {
+        AtomicInteger published = new AtomicInteger();
+        // Too long to be recorded
+        installWebhook(post -> published.incrementAndGet() > 0, "ref".repeat(1000));
+        long id = enqueue(1, WebhookSink.NAME).getFirst();
+        this.publisher.publishPending();
+        assertEquals(1, published.get());
+        OutboxPost post = findPost(id);
+        assertNull(post.postedAt);
+        // The attempt is recorded on the post, it outlives a restart
+        assertEquals(1, post.attempts);
+        assertTrue(post.nextAttemptAt.isAfter(Instant.now()), "Post should be retried later");
+
+        // Not retried in a loop
+        this.publisher.publishPending();
+        assertEquals(1, published.get(), "A post should not be retried before its backoff");
+    }
+
+    @Test
+    void testIsolateSlowSink() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Set<Long> hooked = ConcurrentHashMap.newKeySet();
+        installWebhook(post -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return hooked.add(post.id);
+        });
+        List<Long> webhookIds = enqueue(3, WebhookSink.NAME);
+        List<Long> blueskyIds = enqueue(3);
+
+        CompletableFuture<Void> publishing = this.publisher.publishPendingAsync();
+        for (long id : blueskyIds) {
+            awaitPosted(id);
+        }
+        assertEquals(3, this.posted.size(), "Bluesky posts should not wait for the slow webhook");
+        assertFalse(publishing.isDone(), "Webhook should still be publishing");
+        // Sink still publishing is skipped
+        this.publisher.publishPendingAsync().get(10, TimeUnit.SECONDS);
+        release.countDown();
+        publishing.get(10, TimeUnit.SECONDS);
+        assertEquals(Set.copyOf(webhookIds), hooked, "Webhook should get each post once");
+        for (long id : webhookIds) {
+            assertNotNull(findPost(id).postedAt, "Webhook post should be marked as posted");
+        }
+    }
+
+    @Test
+    void testIsolateFailingSink() {
+        installWebhook(post -> {
+            throw new IllegalStateException("Webhook down");
+        });
+        long webhookId = enqueue(1, WebhookSink.NAME).getFirst();
+        long blueskyId = enqueue(1).getFirst();
+        this.publisher.publishPending();
+
+        assertNotNull(findPost(blueskyId).postedAt, "Bluesky post should not be affected by the failing webhook");
+        OutboxPost webhookPost = findPost(webhookId);
+        assertNull(webhookPost.postedAt, "Failed webhook post should not be marked as posted");
+        assertEquals(1, webhookPost.attempts);
+    }
+
+    @Test
+    void testQueueForEnabledSinks() {
+        assertEquals(List.of(BlueskySink.NAME), this.publisher.sinkNames());
+        installWebhook(post -> true);
+        assertTrue(this.publisher.sinkNames().containsAll(List.of(BlueskySink.NAME, WebhookSink.NAME)));
+    }
+
+    @Test
+    void testBackoff() {
+        Duration initial = Duration.ofSeconds(30);
+        Duration max = Duration.ofHours(1);
+        assertBetween(initial, OutboxPublisher.backoff(1, initial, max));
+        assertBetween(initial.multipliedBy(8), OutboxPublisher.backoff(4, initial, max));
+        assertBetween(max, OutboxPublisher.backoff(20, initial, max));
+        assertBetween(max, OutboxPublisher.backoff(100, initial, max));
+    }
+
+    private static void assertBetween(Duration expected, Duration actual) {
+        assertTrue(actual.compareTo(expected) >= 0 && actual.compareTo(expected.plus(expected.dividedBy(10))) <= 0,
+                "Unexpected backoff " + actual + " instead of " + expected);
+    }
+
+    private static List<Long> enqueue(int count) {
+        return enqueue(count, BlueskySink.NAME);
+    }
+
+    private static List<Long> enqueue(int count, String sink) {
+        return QuarkusTransaction.requiringNew().call(() -> {
+            List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                Jep jep = new Jep();
+                jep.type = FEATURE;
+                jep.state = CLOSED_DELIVERED;
+                jep.release = "26";
+                jep.number = String.valueOf(500 + i);
+                jep.title = "JEP " + jep.number;
+                OutboxPost post = OutboxPost.create(jep, JepService.formatJepUpdate(jep), sink, Instant.now());
+                post.persist();
+                ids.add(post.id);
+            }
+            return ids;
+        });
+    }
+
+    private static void installWebhook(Predicate<OutboxPost> publisher) {
+        installWebhook(publisher, null);
+    }
+
+    private static void installWebhook(Predicate<OutboxPost> publisher, String ref) {
+        QuarkusMock.installMockForType(new WebhookSink(null) {
+            @Override
+            public boolean enabled() {
+                return true;
+            }
+
+            @Override
+            public String publish(OutboxPost post, ReplyTo replyTo) {
+                if (!publisher.test(post)) {
+                    return null;
+                }
+                return ref == null ? String.valueOf(post.id) : ref;
+            }
+        }, WebhookSink.class);
+    }
+
+    private static void awaitPosted(long id) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (findPost(id).postedAt == null) {
+            assertTrue(System.nanoTime() < deadline, "Post " + id + " not published in time");
+            Thread.sleep(20);
+        }
+    }
+
+    private static OutboxPost findPost(long id) {
+        return QuarkusTransaction.requiringNew().call(() -> OutboxPost.findById(id));
+    }
+}
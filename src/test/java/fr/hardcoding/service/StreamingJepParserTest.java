@@ -0,0 +1,91 @@
+package fr.hardcoding.service;
+
+import fr.hardcoding.model.Jep;
+import fr.hardcoding.model.JepState;
+import fr.hardcoding.model.JepType;
+import org.jsoup.Jsoup;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.URISyntaxException;
+import java.util.List;
+import java.util.Random;
+
+import static fr.hardcoding.service.JepServiceTest.readTestResource;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StreamingJepParserTest {
+    private static final String[] COMPONENTS = {"core", "hotspot", "security", "spec", "tools", "—"};
+    private static final String[] SUB_COMPONENTS = {"lang", "gc", "javax.net.ssl", "util.regex", "—"};
+    private static final String[] TITLES = {
+            "Vector API (Eleventh Incubator)",
+            "JDK Enhancement-Proposal &amp; Roadmap Process",
+            "Use &lt;code&gt; &quot;quotes&quot; &#39;and&#x27; entities",
+            "  Multiple\n   whitespaces\tand non-breaking&nbsp;space  ",
+            "Unicode émoji 🚀 and ‘smart quotes’",
+            "<em>Emphasized</em> and <code>code</code> title"
+    };
+
+    @Test
+    void testSampleMatchesDomParser() throws IOException, URISyntaxException {
+        assertSameJeps(readTestResource("/sample.html"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 500, 50_000})
+    void testGeneratedPageMatchesDomParser(int rows) throws IOException {
+        assertSameJeps(generatePage(rows, new Random(rows)));
+    }
+
+    @Test
+    void testMalformedRows() throws IOException {
+        assertSameJeps("""
+                <html><head><script>if (a < b && "<table class='jeps'>") {}</script></head><body>
+                <!-- <table class="jeps"><tr><td>F</td></tr></table> -->
+                <table class="other"><tr><td>F</td><td>Dra</td><td></td><td></td><td class="jep">1</td><td>Not a JEP table</td></tr></table>
+                <table class="jeps">
+                <tr><th>Type</th><th>Status</th><th>Release</th><th>Component</th><th>JEP</th><th>Title</th></tr>
+                <tr><td>F<td>Dra<td><td><span class="cl">core</span><span class="cr">lang</span><td class=jep>2<td>Unclosed cells
+                <tr><td>X</td><td>Dra</td><td></td><td></td><td class="jep">3</td><td>Invalid type</td></tr>
+                <tr><td>F</td><td>Dra</td><td></td></tr>
+                <tr><td>F</td><td>Dra</td><td>25</td><td class="cl other">core<br>svc</td><td class="jep">4</td><td>Title with a < sign</td></tr>
+                </table>
+                </body></html>
+                """);
+    }
+
+    private static void assertSameJeps(String html) throws IOException {
+        List<Jep> expected = JepService.parseJeps(Jsoup.parse(html));
+        List<Jep> actual = StreamingJepParser.parseJeps(new StringReader(html));
+        assertEquals(expected.size(), actual.size(), "Failed to parse the same number of JEPs");
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).toString(), actual.get(i).toString(), "Failed to parse the same JEP");
+        }
+    }
+
+    static String generatePage(int rows, Random random) {
+        StringBuilder html = new StringBuilder("<html><head><title>JEP 0</title></head><body><table class=\"jeps\"><tbody>");
+        JepType[] types = JepType.values();
+        JepState[] states = JepState.values();
+        for (int i = 0; i < rows; i++) {
+            JepType type = types[random.nextInt(types.length)];
+            JepState state = states[random.nextInt(states.length)];
+            String release = random.nextBoolean() ? "<span title=\"Release: " + (8 + random.nextInt(20)) + "\">" + (8 + random.nextInt(20)) + "</span>" : "";
+            String component = random.nextInt(4) == 0
+                    ? "<td class=\"cm\"></td><td class=\"cm\"></td><td class=\"cm\"></td>"
+                    : "<td xmlns=\"\" class=\"cl\">" + COMPONENTS[random.nextInt(COMPONENTS.length)] + "</td><td xmlns=\"\" class=\"cm\">/</td>" +
+                            "<td xmlns=\"\" class=\"cr\">" + SUB_COMPONENTS[random.nextInt(SUB_COMPONENTS.length)] + "</td>";
+            html.append("<tr><td><span xmlns=\"\" title=\"Type: ").append(type).append("\">").append(type.shortName()).append("</span></td>")
+                    .append("<td><span xmlns=\"\" title=\"Status\">").append(state.shortName()).append("</span></td>")
+                    .append("<td>").append(release).append("</td>")
+                    .append(component)
+                    .append("<td class=\"jep\">").append(100 + i).append("</td>")
+                    .append("<td><a href=\"https://openjdk.org/jeps/").append(100 + i).append("\">")
+                    .append(TITLES[random.nextInt(TITLES.length)]).append("</a></td></tr>\n");
+        }
+        return html.append("</tbody></table></body></html>").toString();
+    }
+}
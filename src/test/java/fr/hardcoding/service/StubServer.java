@@ -0,0 +1,79 @@
+package fr.hardcoding.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.eclipse.microprofile.config.ConfigProvider;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.Executors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A local HTTP server standing in for a remote service, with the HTTP clients of the services calling it.
+ */
+final class StubServer implements AutoCloseable {
+    private final HttpServer server;
+    private final HttpClients httpClients;
+
+    StubServer() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        this.server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        this.httpClients = new HttpClients(ConfigProvider.getConfig());
+    }
+
+    /**
+     * Handles the requests to a path, before the server is started.
+     */
+    StubServer handle(String path, HttpHandler handler) {
+        this.server.createContext(path, handler);
+        return this;
+    }
+
+    StubServer start() {
+        this.server.start();
+        return this;
+    }
+
+    /**
+     * Stops the server, so it becomes unreachable.
+     */
+    void stop() {
+        this.server.stop(0);
+    }
+
+    String url() {
+        return "http://localhost:" + this.server.getAddress().getPort();
+    }
+
+    HttpClients httpClients() {
+        return this.httpClients;
+    }
+
+    @Override
+    public void close() {
+        this.server.stop(0);
+        this.httpClients.close();
+    }
+
+    static void respond(HttpExchange exchange, int status) throws IOException {
+        exchange.sendResponseHeaders(status, -1);
+        exchange.close();
+    }
+
+    static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        respond(exchange, status, "application/json", body);
+    }
+
+    static void respond(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+}
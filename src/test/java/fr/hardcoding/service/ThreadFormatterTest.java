@@ -0,0 +1,69 @@
+package fr.hardcoding.service;
+
+import fr.hardcoding.model.Jep;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static fr.hardcoding.model.JepState.CLOSED_DELIVERED;
+import static fr.hardcoding.model.JepState.TARGETED;
+import static fr.hardcoding.model.JepType.FEATURE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ThreadFormatterTest {
+    private static final int MAX_LENGTH = 300;
+
+    @Test
+    void testPackThread() {
+        List<Jep> jeps = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            jeps.add(jep(String.valueOf(480 + i), "Scoped Values and Structured Concurrency, round " + i));
+        }
+        List<String> texts = ThreadFormatter.formatThread(CLOSED_DELIVERED, "25", jeps, MAX_LENGTH);
+
+        assertTrue(texts.getFirst().startsWith("📦 40 JEPs delivered to JDK 25\n• JEP 480: "), "Unexpected root " + texts.getFirst());
+        int lines = 0;
+        for (String text : texts) {
+            int length = text.codePointCount(0, text.length());
+            assertTrue(length <= MAX_LENGTH, "Post too long: " + length);
+            lines += (int) text.lines().count();
+        }
+        assertEquals(41, lines, "Each JEP should be listed once, after the headline");
+        // Each post but the last is filled as much as possible
+        for (int i = 0; i < texts.size() - 1; i++) {
+            String next = texts.get(i + 1).lines().findFirst().orElseThrow();
+            String text = texts.get(i);
+            assertTrue(text.codePointCount(0, text.length()) + 1 + next.codePointCount(0, next.length()) > MAX_LENGTH,
+                    "Post " + i + " could fit the next line");
+        }
+        assertTrue(texts.size() <= 40 / 4, "JEPs should be packed, got " + texts.size() + " posts");
+    }
+
+    @Test
+    void testTruncateLongTitle() {
+        List<String> texts = ThreadFormatter.formatThread(TARGETED, "26", List.of(jep("500", "Long ".repeat(100)), jep("501", "Short")), MAX_LENGTH);
+        assertEquals(3, texts.size());
+        assertEquals("🎯 2 JEPs updated to target JDK 26", texts.get(0));
+        assertEquals(MAX_LENGTH, texts.get(1).codePointCount(0, texts.get(1).length()));
+        assertTrue(texts.get(1).endsWith("…"));
+        assertEquals("• JEP 501: Short", texts.get(2));
+    }
+
+    @Test
+    void testFormatHeadline() {
+        assertEquals("🪦 3 JEPs were withdrawn", ThreadFormatter.formatHeadline(CLOSED_DELIVERED, null, 3));
+        assertEquals("🎯 4 JEPs updated to target next JDK", ThreadFormatter.formatHeadline(TARGETED, null, 4));
+    }
+
+    private static Jep jep(String number, String title) {
+        Jep jep = new Jep();
+        jep.type = FEATURE;
+        jep.state = CLOSED_DELIVERED;
+        jep.release = "25";
+        jep.number = number;
+        jep.title = title;
+        return jep;
+    }
+}
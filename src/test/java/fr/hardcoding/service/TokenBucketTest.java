@@ -0,0 +1,38 @@
+package fr.hardcoding.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TokenBucketTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void testBurstThenRate() {
+        AtomicLong clock = new AtomicLong();
+        TokenBucket bucket = new TokenBucket(2, 3, clock::get);
+        // Burst up to the capacity
+        assertEquals(0, bucket.reserve());
+        assertEquals(0, bucket.reserve());
+        assertEquals(0, bucket.reserve());
+        // Then permits are spaced by the rate
+        assertEquals(SECOND / 2, bucket.reserve());
+        assertEquals(SECOND, bucket.reserve());
+        // Tokens are refilled over time, up to the capacity
+        clock.addAndGet(10 * SECOND);
+        assertEquals(0, bucket.reserve());
+        assertEquals(0, bucket.reserve());
+        assertEquals(0, bucket.reserve());
+        assertEquals(SECOND / 2, bucket.reserve());
+    }
+
+    @Test
+    void testInvalidRate() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(1, 0));
+    }
+}
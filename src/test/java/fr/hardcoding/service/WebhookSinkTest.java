@@ -0,0 +1,62 @@
+package fr.hardcoding.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static fr.hardcoding.service.MastodonSinkTest.post;
+import static fr.hardcoding.service.StubServer.respond;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class WebhookSinkTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private StubServer server;
+    private final List<JsonNode> events = new CopyOnWriteArrayList<>();
+    private final AtomicInteger status = new AtomicInteger(204);
+    private WebhookSink sink;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        this.server = new StubServer().handle("/hook", exchange -> {
+            this.events.add(MAPPER.readTree(exchange.getRequestBody()));
+            respond(exchange, this.status.get());
+        }).start();
+        this.sink = new WebhookSink(this.server.httpClients());
+        this.sink.url = this.server.url() + "/hook";
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.server.close();
+    }
+
+    @Test
+    void testPublish() {
+        assertEquals("42", this.sink.publish(post(42), null), "Failed to call webhook");
+        assertEquals(1, this.events.size());
+        JsonNode event = this.events.getFirst();
+        assertEquals(42, event.get("id").asLong());
+        assertEquals("470", event.get("number").asText());
+        assertEquals("TARGETED", event.get("state").asText());
+        assertEquals("https://openjdk.org/jeps/470", event.get("url").asText());
+        assertEquals("🎯 JEP 470 proposed to target JDK 25", event.get("text").asText());
+        assertEquals("2025-06-05T10:15:30Z", event.get("createdAt").asText());
+    }
+
+    @Test
+    void testFailure() {
+        this.status.set(503);
+        assertNull(this.sink.publish(post(42), null), "Server error should fail the call");
+        this.server.stop();
+        assertNull(this.sink.publish(post(42), null), "Unreachable webhook should fail the call");
+    }
+}